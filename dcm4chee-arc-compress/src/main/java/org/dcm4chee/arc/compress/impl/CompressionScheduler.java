@@ -41,6 +41,7 @@
 
 package org.dcm4chee.arc.compress.impl;
 
+import org.dcm4che3.data.Tag;
 import org.dcm4che3.data.UID;
 import org.dcm4che3.net.ApplicationEntity;
 import org.dcm4che3.net.Device;
@@ -51,6 +52,7 @@ import org.dcm4chee.arc.entity.Series;
 import org.dcm4chee.arc.retrieve.LocationInputStream;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
 import org.dcm4chee.arc.retrieve.RetrieveService;
+import org.dcm4chee.arc.store.BoundedExecutor;
 import org.dcm4chee.arc.store.InstanceLocations;
 import org.dcm4chee.arc.store.StoreContext;
 import org.dcm4chee.arc.store.StoreService;
@@ -62,8 +64,13 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import java.io.IOException;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -124,7 +131,7 @@ public class CompressionScheduler extends Scheduler {
                 if (ejb.claimForCompression(compression)) {
                     acquire(semaphore, 1);
                     device.execute(() -> {
-                        process(ae, compression);
+                        process(ae, compression, semaphore);
                         semaphore.release();
                     });
                 }
@@ -152,7 +159,7 @@ public class CompressionScheduler extends Scheduler {
         }
     }
 
-    private void process(ApplicationEntity ae, Series.Compression compr) {
+    private void process(ApplicationEntity ae, Series.Compression compr, Semaphore semaphore) {
         ArchiveAEExtension arcAE = ae.getAEExtensionNotNull(ArchiveAEExtension.class);
         if (compr.instancePurgeState == Series.InstancePurgeState.PURGED) {
             try (StoreSession session = storeService.newStoreSession(ae)) {
@@ -173,30 +180,14 @@ public class CompressionScheduler extends Scheduler {
             retrieveService.calculateMatches(retrCtx);
             LOG.info("Start compression of {} Instances of Series[iuid={}] of Study[iuid={}]",
                     retrCtx.getNumberOfMatches(), compr.seriesInstanceUID, compr.studyInstanceUID);
-            int failures = 0;
-            int completed = 0;
-            int skipped = 0;
             ArchiveCompressionRule compressionRule = new ArchiveCompressionRule();
             compressionRule.setTransferSyntax(compr.transferSyntaxUID);
             compressionRule.setImageWriteParams(compr.imageWriteParams());
-            for (InstanceLocations inst : retrCtx.getMatches()) {
-                if (alreadyCompressed(inst.getLocations(), compr.transferSyntaxUID)) {
-                    LOG.info("{} of Series[iuid={}] of Study[iuid={}] already compressed with {} - skipped",
-                            inst, compr.seriesInstanceUID, compr.studyInstanceUID, UID.nameOf(compr.transferSyntaxUID));
-                    skipped++;
-                    continue;
-                }
-                try (LocationInputStream lis = retrieveService.openLocationInputStream(retrCtx, inst)) {
-                    StoreContext ctx = storeService.newStoreContext(session);
-                    ctx.setCompressionRule(compressionRule);
-                    storeService.compress(ctx, inst, lis.stream);
-                    completed++;
-                } catch (Exception e) {
-                    LOG.info("Failed to compress {} of Series[iuid={}] of Study[iuid={}]:\n",
-                            inst, compr.seriesInstanceUID, compr.studyInstanceUID, e);
-                    failures++;
-                }
-            }
+            SeriesCompression seriesCompression = new SeriesCompression(ae, compr, compressionRule, retrCtx.getMatches());
+            seriesCompression.compress(retrCtx, session, semaphore);
+            int completed = seriesCompression.completed.get();
+            int failures = seriesCompression.failures.get();
+            int skipped = seriesCompression.skipped.get();
             ejb.updateDB(compr, completed, failures);
             LOG.info("Finished compression of {} Instances of Series[iuid={}] of Study[iuid={}] - {} failures, {} skipped",
                     completed, compr.seriesInstanceUID, compr.studyInstanceUID, failures, skipped);
@@ -207,7 +198,110 @@ public class CompressionScheduler extends Scheduler {
         }
     }
 
-    private boolean alreadyCompressed(List<Location> locations, String tsuid) {
+    private static boolean alreadyCompressed(List<Location> locations, String tsuid) {
         return locations.stream().anyMatch(l -> Location.isDicomFile(l) && l.getTransferSyntaxUID().equals(tsuid));
     }
+
+    class SeriesCompression {
+        final ApplicationEntity ae;
+        final Series.Compression compr;
+        final ArchiveCompressionRule compressionRule;
+        final Queue<InstanceLocations> queue;
+        final int frameParallelism;
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final Semaphore helpersDone = new Semaphore(0);
+        volatile Executor frameWorkers;
+
+        SeriesCompression(ApplicationEntity ae, Series.Compression compr, ArchiveCompressionRule compressionRule,
+                Collection<InstanceLocations> matches) {
+            this.ae = ae;
+            this.compr = compr;
+            this.compressionRule = compressionRule;
+            this.queue = new ConcurrentLinkedQueue<>(matches);
+            this.frameParallelism = device.getDeviceExtension(ArchiveDeviceExtension.class)
+                    .getCompressionFrameParallelism();
+        }
+
+        void compress(RetrieveContext retrCtx, StoreSession session, Semaphore semaphore) {
+            frameWorkers = new BoundedExecutor(device::execute, semaphore);
+            int helpers = 0;
+            InstanceLocations inst;
+            while ((inst = queue.poll()) != null) {
+                if (!queue.isEmpty() && semaphore.tryAcquire()) {
+                    try {
+                        device.execute(() -> {
+                            try {
+                                help();
+                            } finally {
+                                semaphore.release();
+                                helpersDone.release();
+                            }
+                        });
+                        helpers++;
+                    } catch (RuntimeException e) {
+                        semaphore.release();
+                        LOG.info("Failed to start thread for compression of Series[iuid={}] of Study[iuid={}]:\n",
+                                compr.seriesInstanceUID, compr.studyInstanceUID, e);
+                    }
+                }
+                compress(retrCtx, session, inst);
+            }
+            if (helpers > 0) {
+                LOG.debug("Wait for {} threads finishing compression of Series[iuid={}] of Study[iuid={}]",
+                        helpers, compr.seriesInstanceUID, compr.studyInstanceUID);
+                helpersDone.acquireUninterruptibly(helpers);
+            }
+        }
+
+        private void help() {
+            try (
+                RetrieveContext retrCtx = retrieveService.newRetrieveContext(
+                    ae.getAETitle(), compr.studyInstanceUID, compr.seriesInstanceUID, null);
+                StoreSession session = storeService.newStoreSession(ae)) {
+                InstanceLocations inst;
+                while ((inst = queue.poll()) != null)
+                    compress(retrCtx, session, inst);
+                retrieveService.updateLocations(retrCtx);
+            } catch (Exception e) {
+                LOG.warn("Unexpected exception on compression of Series[iuid={}] of Study[iuid={}]:\n",
+                        compr.seriesInstanceUID, compr.studyInstanceUID, e);
+            }
+        }
+
+        private void compress(RetrieveContext retrCtx, StoreSession session, InstanceLocations inst) {
+            if (alreadyCompressed(inst.getLocations(), compr.transferSyntaxUID)) {
+                LOG.info("{} of Series[iuid={}] of Study[iuid={}] already compressed with {} - skipped",
+                        inst, compr.seriesInstanceUID, compr.studyInstanceUID, UID.nameOf(compr.transferSyntaxUID));
+                skipped.getAndIncrement();
+                return;
+            }
+            try {
+                if (!compressFramesInParallel(retrCtx, session, inst))
+                    try (LocationInputStream lis = retrieveService.openLocationInputStream(retrCtx, inst)) {
+                        StoreContext ctx = storeService.newStoreContext(session);
+                        ctx.setCompressionRule(compressionRule);
+                        storeService.compress(ctx, inst, lis.stream);
+                    }
+                completed.getAndIncrement();
+            } catch (Exception e) {
+                LOG.info("Failed to compress {} of Series[iuid={}] of Study[iuid={}]:\n",
+                        inst, compr.seriesInstanceUID, compr.studyInstanceUID, e);
+                failures.getAndIncrement();
+            }
+        }
+
+        private boolean compressFramesInParallel(RetrieveContext retrCtx, StoreSession session,
+                InstanceLocations inst) throws IOException {
+            if (frameParallelism <= 1 || inst.getAttributes().getInt(Tag.NumberOfFrames, 1) <= 1)
+                return false;
+
+            try (LocationInputStream lis = retrieveService.openLocationInputStream(retrCtx, inst)) {
+                StoreContext ctx = storeService.newStoreContext(session);
+                ctx.setCompressionRule(compressionRule);
+                return storeService.compressFramesInParallel(ctx, inst, lis.stream, frameWorkers, frameParallelism);
+            }
+        }
+    }
 }
@@ -0,0 +1,248 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.compress.impl;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.net.ApplicationEntity;
+import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.conf.ArchiveCompressionRule;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.entity.Location;
+import org.dcm4chee.arc.entity.Series;
+import org.dcm4chee.arc.retrieve.LocationInputStream;
+import org.dcm4chee.arc.retrieve.RetrieveContext;
+import org.dcm4chee.arc.retrieve.RetrieveService;
+import org.dcm4chee.arc.store.InstanceLocations;
+import org.dcm4chee.arc.store.StoreContext;
+import org.dcm4chee.arc.store.StoreService;
+import org.dcm4chee.arc.store.StoreSession;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.dcm4chee.arc.test.Stubs.inject;
+import static org.dcm4chee.arc.test.Stubs.proxy;
+import static org.junit.Assert.*;
+
+/**
+ * Compresses the Instances of one Series with stubbed Retrieve and Store Services and checks that failures of
+ * single Instances do not affect the other Instances, and that the number of threads compressing Instances is
+ * limited by the permits of the semaphore shared with the compression of other Series.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class CompressionSchedulerTest {
+
+    private static final int INSTANCES = 30;
+    private static final String SUID = "1.2.3.1";
+    private static final String STUID = "1.2.3";
+
+    private ExecutorService executor;
+    private ApplicationEntity ae;
+    private CompressionScheduler scheduler;
+    private final Set<String> failing = new HashSet<>();
+    private final Set<String> compressed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile long compressMillis;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        Device device = new Device("dcm4chee-arc");
+        device.addDeviceExtension(new ArchiveDeviceExtension());
+        device.setExecutor(executor);
+        ae = new ApplicationEntity("DCM4CHEE");
+        device.addApplicationEntity(ae);
+        scheduler = new CompressionScheduler();
+        inject(scheduler, "device", device);
+        inject(scheduler, "retrieveService", proxy(RetrieveService.class, (method, args) -> {
+            switch (method.getName()) {
+                case "newRetrieveContext":
+                    return proxy(RetrieveContext.class, (method1, args1) -> null);
+                case "openLocationInputStream":
+                    return new LocationInputStream(new ByteArrayInputStream(new byte[0]), null, null);
+                case "updateLocations":
+                    return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }));
+        inject(scheduler, "storeService", proxy(StoreService.class, (method, args) -> {
+            switch (method.getName()) {
+                case "newStoreSession":
+                    return proxy(StoreSession.class, (method1, args1) -> null);
+                case "newStoreContext":
+                    return proxy(StoreContext.class, (method1, args1) -> null);
+                case "compress":
+                    compress((InstanceLocations) args[1]);
+                    return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testFailureOfInstanceDoesNotAffectOtherInstances() {
+        failing.add(iuid(3));
+        failing.add(iuid(17));
+        CompressionScheduler.SeriesCompression seriesCompression = seriesCompression(instances());
+        Semaphore semaphore = new Semaphore(4);
+        semaphore.acquireUninterruptibly();
+        seriesCompression.compress(null, null, semaphore);
+        assertEquals(INSTANCES - 2, seriesCompression.completed.get());
+        assertEquals(2, seriesCompression.failures.get());
+        assertEquals(0, seriesCompression.skipped.get());
+        assertEquals(INSTANCES, compressed.size());
+        assertEquals(3, semaphore.availablePermits());
+    }
+
+    @Test
+    public void testSkipAlreadyCompressed() {
+        List<InstanceLocations> instances = instances();
+        instances.set(0, instance(0, UID.JPEGLossless));
+        CompressionScheduler.SeriesCompression seriesCompression = seriesCompression(instances);
+        seriesCompression.compress(null, null, new Semaphore(0));
+        assertEquals(INSTANCES - 1, seriesCompression.completed.get());
+        assertEquals(1, seriesCompression.skipped.get());
+        assertFalse(compressed.contains(iuid(0)));
+    }
+
+    @Test
+    public void testThreadsLimitedByPermits() {
+        compressMillis = 20L;
+        CompressionScheduler.SeriesCompression seriesCompression = seriesCompression(instances());
+        Semaphore semaphore = new Semaphore(3);
+        semaphore.acquireUninterruptibly();
+        seriesCompression.compress(null, null, semaphore);
+        assertEquals(INSTANCES, seriesCompression.completed.get());
+        assertTrue("max concurrent: " + maxConcurrent, maxConcurrent.get() > 1);
+        assertTrue("max concurrent: " + maxConcurrent, maxConcurrent.get() <= 3);
+        assertEquals(2, semaphore.availablePermits());
+    }
+
+    @Test
+    public void testNoHelpersWithoutFreePermits() {
+        compressMillis = 5L;
+        CompressionScheduler.SeriesCompression seriesCompression = seriesCompression(instances());
+        Semaphore semaphore = new Semaphore(2);
+        semaphore.acquireUninterruptibly(2);
+        seriesCompression.compress(null, null, semaphore);
+        assertEquals(INSTANCES, seriesCompression.completed.get());
+        assertEquals(1, maxConcurrent.get());
+        assertEquals(0, semaphore.availablePermits());
+    }
+
+    private CompressionScheduler.SeriesCompression seriesCompression(List<InstanceLocations> instances) {
+        Series.Compression compr = new Series.Compression(1L, 1L, new Date(), Series.InstancePurgeState.NO,
+                UID.JPEGLossless, null, SUID, STUID);
+        ArchiveCompressionRule compressionRule = new ArchiveCompressionRule();
+        compressionRule.setTransferSyntax(UID.JPEGLossless);
+        return scheduler.new SeriesCompression(ae, compr, compressionRule, instances);
+    }
+
+    private void compress(InstanceLocations inst) throws Exception {
+        int n = concurrent.incrementAndGet();
+        maxConcurrent.accumulateAndGet(n, Math::max);
+        try {
+            compressed.add(inst.getSopInstanceUID());
+            if (compressMillis > 0)
+                Thread.sleep(compressMillis);
+            if (failing.contains(inst.getSopInstanceUID()))
+                throw new IOException("Failed to compress " + inst);
+        } finally {
+            concurrent.decrementAndGet();
+        }
+    }
+
+    private static List<InstanceLocations> instances() {
+        List<InstanceLocations> instances = new ArrayList<>(INSTANCES);
+        for (int i = 0; i < INSTANCES; i++)
+            instances.add(instance(i, UID.ExplicitVRLittleEndian));
+        return instances;
+    }
+
+    private static String iuid(int i) {
+        return SUID + "." + i;
+    }
+
+    private static InstanceLocations instance(int i, String tsuid) {
+        String iuid = iuid(i);
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, iuid);
+        List<Location> locations = Collections.singletonList(new Location.Builder()
+                .storageID("fs1")
+                .storagePath(iuid)
+                .transferSyntaxUID(tsuid)
+                .objectType(Location.ObjectType.DICOM_FILE)
+                .build());
+        return proxy(InstanceLocations.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getSopInstanceUID":
+                    return iuid;
+                case "getAttributes":
+                    return attrs;
+                case "getLocations":
+                    return locations;
+                case "toString":
+                    return "Instance[iuid=" + iuid + "]";
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
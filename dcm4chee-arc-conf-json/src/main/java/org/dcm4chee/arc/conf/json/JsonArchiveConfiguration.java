@@ -284,6 +284,23 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
         writer.writeNotNullOrDef("hl7OrderMissingStudyIUIDPolicy", arcDev.getHl7OrderMissingStudyIUIDPolicy(),
                 HL7OrderMissingStudyIUIDPolicy.GENERATE);
         writer.writeNotNullOrDef("hl7DicomCharacterSet", arcDev.getHl7DicomCharacterSet(), null);
+        writer.writeNotNullOrDef("dcmWadoMetadataCacheDirectory", arcDev.getWadoMetadataCacheDirectory(), null);
+        writer.writeNotNullOrDef("dcmWadoRenderCacheDirectory", arcDev.getWadoRenderCacheDirectory(), null);
+        writer.writeNotNullOrDef("dcmWadoRenderCacheMaxSize", arcDev.getWadoRenderCacheMaxSize(), "1GB");
+        writer.writeNotDef("dcmWadoDecompressParallelism", arcDev.getWadoDecompressParallelism(), 1);
+        writer.writeNotNullOrDef("dcmTranscodeCacheDirectory", arcDev.getTranscodeCacheDirectory(), null);
+        writer.writeNotNullOrDef("dcmTranscodeCacheMaxSize", arcDev.getTranscodeCacheMaxSize(), "10GB");
+        writer.writeNotEmpty("dcmRateLimit", arcDev.getRateLimits());
+        writer.writeNotNullOrDef("dcmExportTaskFlushInterval", arcDev.getExportTaskFlushInterval(), null);
+        writer.writeNotNullOrDef("dcmAssociationPoolIdleTimeout", arcDev.getAssociationPoolIdleTimeout(), null);
+        writer.writeNotDef("dcmAssociationPoolSize", arcDev.getAssociationPoolSize(), 1);
+        writer.writeNotNullOrDef("dcmSeriesMetadataFormat", arcDev.getSeriesMetadataFormat(), SeriesMetadataFormat.JSON);
+        writer.writeNotDef("dcmStorageVerificationThreads", arcDev.getStorageVerificationThreads(), 1);
+        writer.writeNotDef("dcmCompressionFrameParallelism", arcDev.getCompressionFrameParallelism(), 1);
+        writer.writeNotNullOrDef("dcmWadoMetadataCacheMaxSize", arcDev.getWadoMetadataCacheMaxSize(), "1GB");
+        writer.writeNotNullOrDef("dcmQueueSizeReconcilePollingInterval",
+                arcDev.getQueueSizeReconcilePollingInterval(),
+                ArchiveDeviceExtension.DEFAULT_QUEUE_SIZE_RECONCILE_POLLING_INTERVAL);
         writeAttributeFilters(writer, arcDev);
         writeStorageDescriptor(writer, arcDev.getStorageDescriptors());
         writeQueryRetrieveView(writer, arcDev.getQueryRetrieveViews());
@@ -373,6 +390,7 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
             writer.writeNotNullOrDef("dcmExportStorageID", st.getExportStorageID(), null);
             writer.writeNotNullOrDef("dcmRetrieveCacheStorageID", st.getRetrieveCacheStorageID(), null);
             writer.writeNotDef("dcmRetrieveCacheMaxParallel", st.getRetrieveCacheMaxParallel(), 10);
+            writer.writeNotNullOrDef("dcmStorageVerificationRateLimit", st.getStorageVerificationRateLimit(), null);
             writer.writeEnd();
         }
         writer.writeEnd();
@@ -420,6 +438,12 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
             writer.writeNotNullOrDef(
                     "dcmPurgeQueueMessageCanceledDelay", qd.getPurgeQueueMessageCanceledDelay(), null);
             writer.writeNotDef("dcmMaxQueueSize", qd.getMaxQueueSize(), 0);
+            writer.writeNotDef("dcmFairScheduling", qd.isFairScheduling(), false);
+            writer.writeNotEmpty("dcmTaskWeight", descriptorProperties(qd.getTaskWeights()));
+            writer.writeNotDef("dcmMaxTasksPerDestination", qd.getMaxTasksPerDestination(), 0);
+            writer.writeNotNullOrDef("dcmTaskPollingInterval", qd.getTaskPollingInterval(), null);
+            writer.writeNotDef("dcmMaxTasksParallel", qd.getMaxTasksParallel(), 1);
+            writer.writeNotNullOrDef("dcmTaskStatusFlushInterval", qd.getTaskStatusFlushInterval(), null);
             writer.writeEnd();
         }
         writer.writeEnd();
@@ -1344,6 +1368,51 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 case "hl7DicomCharacterSet":
                     arcDev.setHl7DicomCharacterSet(reader.stringValue());
                     break;
+                case "dcmWadoMetadataCacheDirectory":
+                    arcDev.setWadoMetadataCacheDirectory(reader.stringValue());
+                    break;
+                case "dcmWadoRenderCacheDirectory":
+                    arcDev.setWadoRenderCacheDirectory(reader.stringValue());
+                    break;
+                case "dcmWadoRenderCacheMaxSize":
+                    arcDev.setWadoRenderCacheMaxSize(reader.stringValue());
+                    break;
+                case "dcmWadoDecompressParallelism":
+                    arcDev.setWadoDecompressParallelism(reader.intValue());
+                    break;
+                case "dcmTranscodeCacheDirectory":
+                    arcDev.setTranscodeCacheDirectory(reader.stringValue());
+                    break;
+                case "dcmTranscodeCacheMaxSize":
+                    arcDev.setTranscodeCacheMaxSize(reader.stringValue());
+                    break;
+                case "dcmRateLimit":
+                    arcDev.setRateLimits(RateLimit.valuesOf(reader.stringArray()));
+                    break;
+                case "dcmExportTaskFlushInterval":
+                    arcDev.setExportTaskFlushInterval(Duration.valueOf(reader.stringValue()));
+                    break;
+                case "dcmAssociationPoolIdleTimeout":
+                    arcDev.setAssociationPoolIdleTimeout(Duration.valueOf(reader.stringValue()));
+                    break;
+                case "dcmAssociationPoolSize":
+                    arcDev.setAssociationPoolSize(reader.intValue());
+                    break;
+                case "dcmSeriesMetadataFormat":
+                    arcDev.setSeriesMetadataFormat(SeriesMetadataFormat.valueOf(reader.stringValue()));
+                    break;
+                case "dcmStorageVerificationThreads":
+                    arcDev.setStorageVerificationThreads(reader.intValue());
+                    break;
+                case "dcmCompressionFrameParallelism":
+                    arcDev.setCompressionFrameParallelism(reader.intValue());
+                    break;
+                case "dcmWadoMetadataCacheMaxSize":
+                    arcDev.setWadoMetadataCacheMaxSize(reader.stringValue());
+                    break;
+                case "dcmQueueSizeReconcilePollingInterval":
+                    arcDev.setQueueSizeReconcilePollingInterval(Duration.valueOf(reader.stringValue()));
+                    break;
                 case "dcmAttributeFilter":
                     loadAttributeFilterListFrom(arcDev, reader);
                     break;
@@ -1554,6 +1623,9 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                     case "dcmRetrieveCacheMaxParallel":
                         st.setRetrieveCacheMaxParallel(reader.intValue());
                         break;
+                    case "dcmStorageVerificationRateLimit":
+                        st.setStorageVerificationRateLimit(reader.stringValue());
+                        break;
                     default:
                         reader.skipUnknownProperty();
                 }
@@ -1641,6 +1713,24 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                     case "dcmMaxQueueSize":
                         qd.setMaxQueueSize(reader.intValue());
                         break;
+                    case "dcmFairScheduling":
+                        qd.setFairScheduling(reader.booleanValue());
+                        break;
+                    case "dcmTaskWeight":
+                        qd.setTaskWeights(reader.stringArray());
+                        break;
+                    case "dcmMaxTasksPerDestination":
+                        qd.setMaxTasksPerDestination(reader.intValue());
+                        break;
+                    case "dcmTaskPollingInterval":
+                        qd.setTaskPollingInterval(Duration.valueOf(reader.stringValue()));
+                        break;
+                    case "dcmMaxTasksParallel":
+                        qd.setMaxTasksParallel(reader.intValue());
+                        break;
+                    case "dcmTaskStatusFlushInterval":
+                        qd.setTaskStatusFlushInterval(Duration.valueOf(reader.stringValue()));
+                        break;
                     default:
                         reader.skipUnknownProperty();
                 }
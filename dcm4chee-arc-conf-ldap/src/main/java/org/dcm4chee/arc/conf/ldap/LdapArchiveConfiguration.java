@@ -288,6 +288,23 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "hl7OrderMissingStudyIUIDPolicy",
                 ext.getHl7OrderMissingStudyIUIDPolicy(), HL7OrderMissingStudyIUIDPolicy.GENERATE);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "hl7DicomCharacterSet", ext.getHl7DicomCharacterSet(), null);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmWadoMetadataCacheDirectory", ext.getWadoMetadataCacheDirectory(), null);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmWadoRenderCacheDirectory", ext.getWadoRenderCacheDirectory(), null);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmWadoRenderCacheMaxSize", ext.getWadoRenderCacheMaxSize(), "1GB");
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmWadoDecompressParallelism", ext.getWadoDecompressParallelism(), 1);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmTranscodeCacheDirectory", ext.getTranscodeCacheDirectory(), null);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmTranscodeCacheMaxSize", ext.getTranscodeCacheMaxSize(), "10GB");
+        LdapUtils.storeNotEmpty(ldapObj, attrs, "dcmRateLimit", ext.getRateLimits());
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmExportTaskFlushInterval", ext.getExportTaskFlushInterval(), null);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmAssociationPoolIdleTimeout", ext.getAssociationPoolIdleTimeout(), null);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmAssociationPoolSize", ext.getAssociationPoolSize(), 1);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmSeriesMetadataFormat", ext.getSeriesMetadataFormat(), SeriesMetadataFormat.JSON);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmStorageVerificationThreads", ext.getStorageVerificationThreads(), 1);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmCompressionFrameParallelism", ext.getCompressionFrameParallelism(), 1);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmWadoMetadataCacheMaxSize", ext.getWadoMetadataCacheMaxSize(), "1GB");
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmQueueSizeReconcilePollingInterval",
+                ext.getQueueSizeReconcilePollingInterval(),
+                ArchiveDeviceExtension.DEFAULT_QUEUE_SIZE_RECONCILE_POLLING_INTERVAL);
     }
 
     @Override
@@ -509,6 +526,22 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 LdapUtils.enumValue(HL7OrderMissingStudyIUIDPolicy.class,
                         attrs.get("hl7OrderMissingStudyIUIDPolicy"), HL7OrderMissingStudyIUIDPolicy.GENERATE));
         ext.setHl7DicomCharacterSet(LdapUtils.stringValue(attrs.get("hl7DicomCharacterSet"), null));
+        ext.setWadoMetadataCacheDirectory(LdapUtils.stringValue(attrs.get("dcmWadoMetadataCacheDirectory"), null));
+        ext.setWadoRenderCacheDirectory(LdapUtils.stringValue(attrs.get("dcmWadoRenderCacheDirectory"), null));
+        ext.setWadoRenderCacheMaxSize(LdapUtils.stringValue(attrs.get("dcmWadoRenderCacheMaxSize"), "1GB"));
+        ext.setWadoDecompressParallelism(LdapUtils.intValue(attrs.get("dcmWadoDecompressParallelism"), 1));
+        ext.setTranscodeCacheDirectory(LdapUtils.stringValue(attrs.get("dcmTranscodeCacheDirectory"), null));
+        ext.setTranscodeCacheMaxSize(LdapUtils.stringValue(attrs.get("dcmTranscodeCacheMaxSize"), "10GB"));
+        ext.setRateLimits(RateLimit.valuesOf(LdapUtils.stringArray(attrs.get("dcmRateLimit"))));
+        ext.setExportTaskFlushInterval(toDuration(attrs.get("dcmExportTaskFlushInterval"), null));
+        ext.setAssociationPoolIdleTimeout(toDuration(attrs.get("dcmAssociationPoolIdleTimeout"), null));
+        ext.setAssociationPoolSize(LdapUtils.intValue(attrs.get("dcmAssociationPoolSize"), 1));
+        ext.setSeriesMetadataFormat(LdapUtils.enumValue(SeriesMetadataFormat.class, attrs.get("dcmSeriesMetadataFormat"), SeriesMetadataFormat.JSON));
+        ext.setStorageVerificationThreads(LdapUtils.intValue(attrs.get("dcmStorageVerificationThreads"), 1));
+        ext.setCompressionFrameParallelism(LdapUtils.intValue(attrs.get("dcmCompressionFrameParallelism"), 1));
+        ext.setWadoMetadataCacheMaxSize(LdapUtils.stringValue(attrs.get("dcmWadoMetadataCacheMaxSize"), "1GB"));
+        ext.setQueueSizeReconcilePollingInterval(toDuration(attrs.get("dcmQueueSizeReconcilePollingInterval"),
+                ArchiveDeviceExtension.DEFAULT_QUEUE_SIZE_RECONCILE_POLLING_INTERVAL));
     }
 
     @Override
@@ -895,6 +928,54 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 HL7OrderMissingStudyIUIDPolicy.GENERATE);
         LdapUtils.storeDiffObject(ldapObj, mods, "hl7DicomCharacterSet",
                 aa.getHl7DicomCharacterSet(), bb.getHl7DicomCharacterSet(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmWadoMetadataCacheDirectory",
+                aa.getWadoMetadataCacheDirectory(),
+                bb.getWadoMetadataCacheDirectory(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmWadoRenderCacheDirectory",
+                aa.getWadoRenderCacheDirectory(),
+                bb.getWadoRenderCacheDirectory(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmWadoRenderCacheMaxSize",
+                aa.getWadoRenderCacheMaxSize(),
+                bb.getWadoRenderCacheMaxSize(), "1GB");
+        LdapUtils.storeDiff(ldapObj, mods, "dcmWadoDecompressParallelism",
+                aa.getWadoDecompressParallelism(),
+                bb.getWadoDecompressParallelism(),
+                1);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmTranscodeCacheDirectory",
+                aa.getTranscodeCacheDirectory(),
+                bb.getTranscodeCacheDirectory(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmTranscodeCacheMaxSize",
+                aa.getTranscodeCacheMaxSize(),
+                bb.getTranscodeCacheMaxSize(), "10GB");
+        LdapUtils.storeDiff(ldapObj, mods, "dcmRateLimit", aa.getRateLimits(), bb.getRateLimits());
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmExportTaskFlushInterval",
+                aa.getExportTaskFlushInterval(),
+                bb.getExportTaskFlushInterval(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmAssociationPoolIdleTimeout",
+                aa.getAssociationPoolIdleTimeout(),
+                bb.getAssociationPoolIdleTimeout(), null);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmAssociationPoolSize",
+                aa.getAssociationPoolSize(),
+                bb.getAssociationPoolSize(),
+                1);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmSeriesMetadataFormat",
+                aa.getSeriesMetadataFormat(),
+                bb.getSeriesMetadataFormat(), SeriesMetadataFormat.JSON);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmStorageVerificationThreads",
+                aa.getStorageVerificationThreads(),
+                bb.getStorageVerificationThreads(),
+                1);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmCompressionFrameParallelism",
+                aa.getCompressionFrameParallelism(),
+                bb.getCompressionFrameParallelism(),
+                1);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmWadoMetadataCacheMaxSize",
+                aa.getWadoMetadataCacheMaxSize(),
+                bb.getWadoMetadataCacheMaxSize(), "1GB");
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmQueueSizeReconcilePollingInterval",
+                aa.getQueueSizeReconcilePollingInterval(),
+                bb.getQueueSizeReconcilePollingInterval(),
+                ArchiveDeviceExtension.DEFAULT_QUEUE_SIZE_RECONCILE_POLLING_INTERVAL);
         if (remove)
             mods.add(new ModificationItem(DirContext.REMOVE_ATTRIBUTE,
                     LdapUtils.attr("objectClass", "dcmArchiveDevice")));
@@ -1725,6 +1806,8 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 descriptor.getRetrieveCacheStorageID(), null);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmRetrieveCacheMaxParallel",
                 descriptor.getRetrieveCacheMaxParallel(), 10);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmStorageVerificationRateLimit",
+                descriptor.getStorageVerificationRateLimit(), null);
         return attrs;
     }
 
@@ -1761,6 +1844,8 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                         LdapUtils.stringValue(attrs.get("dcmRetrieveCacheStorageID"), null));
                 desc.setRetrieveCacheMaxParallel(
                         LdapUtils.intValue(attrs.get("dcmRetrieveCacheMaxParallel"), 10));
+                desc.setStorageVerificationRateLimit(
+                        LdapUtils.stringValue(attrs.get("dcmStorageVerificationRateLimit"), null));
                 arcdev.addStorageDescriptor(desc);
             }
         } finally {
@@ -1830,6 +1915,8 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 prev.getRetrieveCacheStorageID(), desc.getRetrieveCacheStorageID(), null);
         LdapUtils.storeDiff(ldapObj, mods, "dcmRetrieveCacheMaxParallel",
                 prev.getRetrieveCacheMaxParallel(), desc.getRetrieveCacheMaxParallel(), 10);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmStorageVerificationRateLimit",
+                prev.getStorageVerificationRateLimit(), desc.getStorageVerificationRateLimit(), null);
         return mods;
     }
 
@@ -1897,6 +1984,15 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmPurgeQueueMessageCanceledDelay",
                 descriptor.getPurgeQueueMessageCanceledDelay(), null);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmMaxQueueSize", descriptor.getMaxQueueSize(), 0);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmFairScheduling", descriptor.isFairScheduling(), false);
+        LdapUtils.storeNotEmpty(ldapObj, attrs, "dcmTaskWeight", toStrings(descriptor.getTaskWeights()));
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmMaxTasksPerDestination",
+                descriptor.getMaxTasksPerDestination(), 0);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmTaskPollingInterval",
+                descriptor.getTaskPollingInterval(), null);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmMaxTasksParallel", descriptor.getMaxTasksParallel(), 1);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmTaskStatusFlushInterval",
+                descriptor.getTaskStatusFlushInterval(), null);
         return attrs;
     }
 
@@ -1923,6 +2019,12 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 desc.setPurgeQueueMessageCanceledDelay(
                         toDuration(attrs.get("dcmPurgeQueueMessageCanceledDelay"), null));
                 desc.setMaxQueueSize(LdapUtils.intValue(attrs.get("dcmMaxQueueSize"), 0));
+                desc.setFairScheduling(LdapUtils.booleanValue(attrs.get("dcmFairScheduling"), false));
+                desc.setTaskWeights(LdapUtils.stringArray(attrs.get("dcmTaskWeight")));
+                desc.setMaxTasksPerDestination(LdapUtils.intValue(attrs.get("dcmMaxTasksPerDestination"), 0));
+                desc.setTaskPollingInterval(toDuration(attrs.get("dcmTaskPollingInterval"), null));
+                desc.setMaxTasksParallel(LdapUtils.intValue(attrs.get("dcmMaxTasksParallel"), 1));
+                desc.setTaskStatusFlushInterval(toDuration(attrs.get("dcmTaskStatusFlushInterval"), null));
                 arcdev.addQueueDescriptor(desc);
             }
         } finally {
@@ -1982,6 +2084,17 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmPurgeQueueMessageCanceledDelay",
                 prev.getPurgeQueueMessageCanceledDelay(), desc.getPurgeQueueMessageCanceledDelay(), null);
         LdapUtils.storeDiff(ldapObj, mods, "dcmMaxQueueSize", prev.getMaxQueueSize(), desc.getMaxQueueSize(), 0);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmFairScheduling",
+                prev.isFairScheduling(), desc.isFairScheduling(), false);
+        storeDiffProperties(ldapObj, mods, "dcmTaskWeight", prev.getTaskWeights(), desc.getTaskWeights());
+        LdapUtils.storeDiff(ldapObj, mods, "dcmMaxTasksPerDestination",
+                prev.getMaxTasksPerDestination(), desc.getMaxTasksPerDestination(), 0);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmTaskPollingInterval",
+                prev.getTaskPollingInterval(), desc.getTaskPollingInterval(), null);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmMaxTasksParallel",
+                prev.getMaxTasksParallel(), desc.getMaxTasksParallel(), 1);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmTaskStatusFlushInterval",
+                prev.getTaskStatusFlushInterval(), desc.getTaskStatusFlushInterval(), null);
         return mods;
     }
 
@@ -68,6 +68,7 @@ public class ArchiveDeviceExtension extends DeviceExtension {
     public static final String JBOSS_SERVER_TEMP_DIR = "${jboss.server.temp.dir}";
     public static final String DEFAULT_WADO_ZIP_ENTRY_NAME_FORMAT =
             "DICOM/{0020000D,hash}/{0020000E,hash}/{00080018,hash}";
+    public static final Duration DEFAULT_QUEUE_SIZE_RECONCILE_POLLING_INTERVAL = Duration.valueOf("PT5M");
 
     private volatile String defaultCharacterSet;
     private volatile String fuzzyAlgorithmClass;
@@ -229,6 +230,21 @@ public class ArchiveDeviceExtension extends DeviceExtension {
     private volatile boolean patientVerificationAdjustIssuerOfPatientID;
     private volatile HL7OrderMissingStudyIUIDPolicy hl7OrderMissingStudyIUIDPolicy = HL7OrderMissingStudyIUIDPolicy.GENERATE;
     private volatile String hl7DicomCharacterSet;
+    private volatile String wadoMetadataCacheDirectory;
+    private volatile String wadoRenderCacheDirectory;
+    private volatile String wadoRenderCacheMaxSize = "1GB";
+    private volatile int wadoDecompressParallelism = 1;
+    private volatile String transcodeCacheDirectory;
+    private volatile String transcodeCacheMaxSize = "10GB";
+    private volatile RateLimit[] rateLimits = {};
+    private volatile Duration exportTaskFlushInterval;
+    private volatile Duration associationPoolIdleTimeout;
+    private volatile int associationPoolSize = 1;
+    private volatile SeriesMetadataFormat seriesMetadataFormat = SeriesMetadataFormat.JSON;
+    private volatile int storageVerificationThreads = 1;
+    private volatile int compressionFrameParallelism = 1;
+    private volatile String wadoMetadataCacheMaxSize = "1GB";
+    private volatile Duration queueSizeReconcilePollingInterval = DEFAULT_QUEUE_SIZE_RECONCILE_POLLING_INTERVAL;
 
     private final HashSet<String> wadoSupportedSRClasses = new HashSet<>();
     private final EnumMap<Entity,AttributeFilter> attributeFilters = new EnumMap<>(Entity.class);
@@ -2238,6 +2254,133 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         this.hl7DicomCharacterSet = hl7DicomCharacterSet;
     }
 
+    public String getWadoMetadataCacheDirectory() {
+        return wadoMetadataCacheDirectory;
+    }
+
+    public void setWadoMetadataCacheDirectory(String wadoMetadataCacheDirectory) {
+        this.wadoMetadataCacheDirectory = wadoMetadataCacheDirectory;
+    }
+
+    public String getWadoRenderCacheDirectory() {
+        return wadoRenderCacheDirectory;
+    }
+
+    public void setWadoRenderCacheDirectory(String wadoRenderCacheDirectory) {
+        this.wadoRenderCacheDirectory = wadoRenderCacheDirectory;
+    }
+
+    public String getWadoRenderCacheMaxSize() {
+        return wadoRenderCacheMaxSize;
+    }
+
+    public void setWadoRenderCacheMaxSize(String wadoRenderCacheMaxSize) {
+        this.wadoRenderCacheMaxSize = wadoRenderCacheMaxSize;
+    }
+
+    public int getWadoDecompressParallelism() {
+        return wadoDecompressParallelism;
+    }
+
+    public void setWadoDecompressParallelism(int wadoDecompressParallelism) {
+        this.wadoDecompressParallelism = wadoDecompressParallelism;
+    }
+
+    public String getTranscodeCacheDirectory() {
+        return transcodeCacheDirectory;
+    }
+
+    public void setTranscodeCacheDirectory(String transcodeCacheDirectory) {
+        this.transcodeCacheDirectory = transcodeCacheDirectory;
+    }
+
+    public String getTranscodeCacheMaxSize() {
+        return transcodeCacheMaxSize;
+    }
+
+    public void setTranscodeCacheMaxSize(String transcodeCacheMaxSize) {
+        this.transcodeCacheMaxSize = transcodeCacheMaxSize;
+    }
+
+    public RateLimit[] getRateLimits() {
+        return rateLimits;
+    }
+
+    public void setRateLimits(RateLimit[] rateLimits) {
+        this.rateLimits = rateLimits;
+    }
+
+    public RateLimit getRateLimit(String name) {
+        for (RateLimit rateLimit : rateLimits)
+            if (rateLimit.getName().equals(name))
+                return rateLimit;
+        return null;
+    }
+
+    public Duration getExportTaskFlushInterval() {
+        return exportTaskFlushInterval;
+    }
+
+    public void setExportTaskFlushInterval(Duration exportTaskFlushInterval) {
+        this.exportTaskFlushInterval = exportTaskFlushInterval;
+    }
+
+    public Duration getAssociationPoolIdleTimeout() {
+        return associationPoolIdleTimeout;
+    }
+
+    public void setAssociationPoolIdleTimeout(Duration associationPoolIdleTimeout) {
+        this.associationPoolIdleTimeout = associationPoolIdleTimeout;
+    }
+
+    public int getAssociationPoolSize() {
+        return associationPoolSize;
+    }
+
+    public void setAssociationPoolSize(int associationPoolSize) {
+        this.associationPoolSize = associationPoolSize;
+    }
+
+    public SeriesMetadataFormat getSeriesMetadataFormat() {
+        return seriesMetadataFormat;
+    }
+
+    public void setSeriesMetadataFormat(SeriesMetadataFormat seriesMetadataFormat) {
+        this.seriesMetadataFormat = seriesMetadataFormat;
+    }
+
+    public int getStorageVerificationThreads() {
+        return storageVerificationThreads;
+    }
+
+    public void setStorageVerificationThreads(int storageVerificationThreads) {
+        this.storageVerificationThreads = storageVerificationThreads;
+    }
+
+    public int getCompressionFrameParallelism() {
+        return compressionFrameParallelism;
+    }
+
+    public void setCompressionFrameParallelism(int compressionFrameParallelism) {
+        this.compressionFrameParallelism = compressionFrameParallelism;
+    }
+
+    public String getWadoMetadataCacheMaxSize() {
+        return wadoMetadataCacheMaxSize;
+    }
+
+    public void setWadoMetadataCacheMaxSize(String wadoMetadataCacheMaxSize) {
+        this.wadoMetadataCacheMaxSize = wadoMetadataCacheMaxSize;
+    }
+
+    public Duration getQueueSizeReconcilePollingInterval() {
+        return queueSizeReconcilePollingInterval;
+    }
+
+    public void setQueueSizeReconcilePollingInterval(Duration queueSizeReconcilePollingInterval) {
+        this.queueSizeReconcilePollingInterval = queueSizeReconcilePollingInterval;
+    }
+
     @Override
     public void reconfigure(DeviceExtension from) {
         ArchiveDeviceExtension arcdev = (ArchiveDeviceExtension) from;
@@ -2403,6 +2546,21 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         patientVerificationAdjustIssuerOfPatientID = arcdev.patientVerificationAdjustIssuerOfPatientID;
         hl7OrderMissingStudyIUIDPolicy = arcdev.hl7OrderMissingStudyIUIDPolicy;
         hl7DicomCharacterSet = arcdev.hl7DicomCharacterSet;
+        wadoMetadataCacheDirectory = arcdev.wadoMetadataCacheDirectory;
+        wadoRenderCacheDirectory = arcdev.wadoRenderCacheDirectory;
+        wadoRenderCacheMaxSize = arcdev.wadoRenderCacheMaxSize;
+        wadoDecompressParallelism = arcdev.wadoDecompressParallelism;
+        transcodeCacheDirectory = arcdev.transcodeCacheDirectory;
+        transcodeCacheMaxSize = arcdev.transcodeCacheMaxSize;
+        rateLimits = arcdev.rateLimits;
+        exportTaskFlushInterval = arcdev.exportTaskFlushInterval;
+        associationPoolIdleTimeout = arcdev.associationPoolIdleTimeout;
+        associationPoolSize = arcdev.associationPoolSize;
+        seriesMetadataFormat = arcdev.seriesMetadataFormat;
+        storageVerificationThreads = arcdev.storageVerificationThreads;
+        compressionFrameParallelism = arcdev.compressionFrameParallelism;
+        wadoMetadataCacheMaxSize = arcdev.wadoMetadataCacheMaxSize;
+        queueSizeReconcilePollingInterval = arcdev.queueSizeReconcilePollingInterval;
         attributeFilters.clear();
         attributeFilters.putAll(arcdev.attributeFilters);
         attributeSet.clear();
@@ -1,5 +1,7 @@
 package org.dcm4chee.arc.conf;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -23,6 +25,12 @@ public class QueueDescriptor {
     private Duration purgeQueueMessageWarningDelay;
     private Duration purgeQueueMessageCanceledDelay;
     private int maxQueueSize = 0;
+    private boolean fairScheduling;
+    private final Map<String, Integer> taskWeights = new HashMap<>();
+    private int maxTasksPerDestination = 0;
+    private Duration taskPollingInterval;
+    private int maxTasksParallel = 1;
+    private Duration taskStatusFlushInterval;
 
     public QueueDescriptor(String queueName) {
         setQueueName(queueName);
@@ -145,4 +153,79 @@ public class QueueDescriptor {
     public void setMaxQueueSize(int maxQueueSize) {
         this.maxQueueSize = maxQueueSize;
     }
+
+    public boolean isFairScheduling() {
+        return fairScheduling;
+    }
+
+    public void setFairScheduling(boolean fairScheduling) {
+        this.fairScheduling = fairScheduling;
+    }
+
+    public Map<String, Integer> getTaskWeights() {
+        return taskWeights;
+    }
+
+    public int getTaskWeight(String key) {
+        Integer weight = key != null ? taskWeights.get(key) : null;
+        return weight != null ? weight : 1;
+    }
+
+    public void setTaskWeight(String key, int weight) {
+        if (weight <= 0)
+            throw new IllegalArgumentException("Task weight must be > 0 : " + weight);
+        taskWeights.put(key, weight);
+    }
+
+    public void setTaskWeights(String... ss) {
+        taskWeights.clear();
+        for (String s : ss) {
+            int index = s.lastIndexOf('=');
+            if (index < 0)
+                throw new IllegalArgumentException("Task weight in incorrect format : " + s);
+            setTaskWeight(s.substring(0, index), Integer.parseInt(s.substring(index + 1)));
+        }
+    }
+
+    public int getMaxTasksPerDestination() {
+        return maxTasksPerDestination;
+    }
+
+    public void setMaxTasksPerDestination(int maxTasksPerDestination) {
+        this.maxTasksPerDestination = maxTasksPerDestination;
+    }
+
+    public Duration getTaskPollingInterval() {
+        return taskPollingInterval;
+    }
+
+    public void setTaskPollingInterval(Duration taskPollingInterval) {
+        this.taskPollingInterval = taskPollingInterval;
+    }
+
+    public boolean isPolling() {
+        return taskPollingInterval != null;
+    }
+
+    public int getMaxTasksParallel() {
+        return maxTasksParallel;
+    }
+
+    public void setMaxTasksParallel(int maxTasksParallel) {
+        if (maxTasksParallel <= 0)
+            throw new IllegalArgumentException("maxTasksParallel: " + maxTasksParallel);
+        this.maxTasksParallel = maxTasksParallel;
+    }
+
+    public Duration getTaskStatusFlushInterval() {
+        return taskStatusFlushInterval;
+    }
+
+    public void setTaskStatusFlushInterval(Duration taskStatusFlushInterval) {
+        this.taskStatusFlushInterval = taskStatusFlushInterval;
+    }
+
+    public boolean isStatusWriteBehind() {
+        return taskStatusFlushInterval != null;
+    }
 }
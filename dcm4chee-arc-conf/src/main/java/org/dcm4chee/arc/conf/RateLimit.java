@@ -0,0 +1,124 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.conf;
+
+import org.dcm4che3.util.StringUtils;
+
+import java.util.Objects;
+
+/**
+ * Maximal number of objects and bytes per second sent to a remote AE or by an exporter, specified by
+ * {@code <name>:<objects>[:<bytes>]}, e.g. {@code STORESCP:20:10MB}. {@code 0} indicates no limit.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class RateLimit {
+
+    private final String name;
+    private final int objectsPerSecond;
+    private final long bytesPerSecond;
+
+    public RateLimit(String name, int objectsPerSecond, long bytesPerSecond) {
+        if (objectsPerSecond < 0 || bytesPerSecond < 0)
+            throw new IllegalArgumentException("negative rate limit");
+        this.name = Objects.requireNonNull(name);
+        this.objectsPerSecond = objectsPerSecond;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public static RateLimit valueOf(String s) {
+        String[] ss = StringUtils.split(s, ':');
+        if (ss.length < 2 || ss.length > 3)
+            throw new IllegalArgumentException(s);
+        try {
+            return new RateLimit(ss[0], Integer.parseInt(ss[1]), ss.length > 2 ? BinaryPrefix.parse(ss[2]) : 0L);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(s);
+        }
+    }
+
+    public static RateLimit[] valuesOf(String... ss) {
+        RateLimit[] rateLimits = new RateLimit[ss.length];
+        for (int i = 0; i < ss.length; i++)
+            rateLimits[i] = RateLimit.valueOf(ss[i]);
+        return rateLimits;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getObjectsPerSecond() {
+        return objectsPerSecond;
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public boolean isUnlimited() {
+        return objectsPerSecond == 0 && bytesPerSecond == 0;
+    }
+
+    @Override
+    public String toString() {
+        return bytesPerSecond == 0
+                ? name + ':' + objectsPerSecond
+                : name + ':' + objectsPerSecond + ':' + BinaryPrefix.formatDecimal(bytesPerSecond);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        RateLimit that = (RateLimit) o;
+        return objectsPerSecond == that.objectsPerSecond
+                && bytesPerSecond == that.bytesPerSecond
+                && name.equals(that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, objectsPerSecond, bytesPerSecond);
+    }
+}
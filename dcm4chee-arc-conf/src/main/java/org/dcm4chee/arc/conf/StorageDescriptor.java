@@ -64,6 +64,7 @@ public final class StorageDescriptor {
     private String retrieveCacheStorageID;
     private int retrieveCacheStorageMaxParallel = 10;
     private int deleterThreads = 1;
+    private String storageVerificationRateLimit;
     private String externalRetrieveAETitle;
     private boolean readOnly;
     private StorageDuration storageDuration = StorageDuration.PERMANENT;
@@ -152,6 +153,14 @@ public final class StorageDescriptor {
         this.retrieveCacheStorageID = retrieveCacheStorageID;
     }
 
+    public String getStorageVerificationRateLimit() {
+        return storageVerificationRateLimit;
+    }
+
+    public void setStorageVerificationRateLimit(String storageVerificationRateLimit) {
+        this.storageVerificationRateLimit = storageVerificationRateLimit;
+    }
+
     public int getRetrieveCacheMaxParallel() {
         return retrieveCacheStorageMaxParallel;
     }
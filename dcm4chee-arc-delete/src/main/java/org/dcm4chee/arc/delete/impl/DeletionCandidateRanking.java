@@ -0,0 +1,120 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.delete.impl;
+
+import org.dcm4chee.arc.conf.StorageDescriptor;
+import org.dcm4chee.arc.entity.Study;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains per Storage a ranking of Studies eligible for deletion, ordered by their last access time, with
+ * precalculated Study sizes. The ranking is refilled incrementally by fetching the next page of candidates after
+ * the last loaded one, so selecting Studies to free a requested number of bytes does not require to sort all
+ * Studies on the Storage again.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class DeletionCandidateRanking {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeletionCandidateRanking.class);
+
+    @Inject
+    private DeletionServiceEJB ejb;
+
+    private final Map<String, Ranking> rankings = new ConcurrentHashMap<>();
+
+    public List<Study.PKUID> select(StorageDescriptor desc, long deleteSize, int fetchSize) {
+        Ranking ranking = rankings.computeIfAbsent(desc.getStorageID(), storageID -> new Ranking());
+        synchronized (ranking) {
+            List<Study.DeletionCandidate> selected = new ArrayList<>();
+            long size = 0L;
+            while (size < deleteSize && (!ranking.candidates.isEmpty() || ranking.refill(desc, fetchSize))) {
+                Study.DeletionCandidate candidate = ranking.candidates.poll();
+                selected.add(candidate);
+                size += candidate.size;
+            }
+            return unchanged(selected);
+        }
+    }
+
+    private List<Study.PKUID> unchanged(List<Study.DeletionCandidate> selected) {
+        List<Study.PKUID> result = new ArrayList<>(selected.size());
+        for (int i = 0; i < selected.size(); i += DeletionServiceEJB.MAX_PKS_PER_STATEMENT) {
+            List<Study.DeletionCandidate> chunk = selected.subList(i,
+                    Math.min(i + DeletionServiceEJB.MAX_PKS_PER_STATEMENT, selected.size()));
+            Map<Long, Date> accessTimes = ejb.getStudyAccessTimes(
+                    chunk.stream().map(candidate -> candidate.pk).collect(Collectors.toList()));
+            for (Study.DeletionCandidate candidate : chunk) {
+                Date accessTime = accessTimes.get(candidate.pk);
+                if (accessTime != null && accessTime.getTime() == candidate.accessTime.getTime())
+                    result.add(candidate);
+                else
+                    LOG.debug("{} was accessed or deleted since ranked for deletion", candidate);
+            }
+        }
+        return result;
+    }
+
+    private class Ranking {
+        final Deque<Study.DeletionCandidate> candidates = new ArrayDeque<>();
+        Study.DeletionCandidate last;
+
+        boolean refill(StorageDescriptor desc, int fetchSize) {
+            List<Study.DeletionCandidate> next = ejb.findDeletionCandidatesOnStorage(desc, last, fetchSize);
+            if (next.isEmpty()) {
+                last = null;
+                return false;
+            }
+            candidates.addAll(next);
+            last = next.get(next.size() - 1);
+            return true;
+        }
+    }
+}
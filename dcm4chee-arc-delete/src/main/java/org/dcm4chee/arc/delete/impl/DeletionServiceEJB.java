@@ -57,6 +57,7 @@ import org.dcm4chee.arc.qmgt.QueueManager;
 import org.dcm4chee.arc.qmgt.QueueSizeLimitExceededException;
 import org.dcm4chee.arc.query.QueryService;
 import org.dcm4chee.arc.store.impl.StoreServiceEJB;
+import org.hibernate.LockOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,7 +68,9 @@ import javax.jms.JMSRuntimeException;
 import javax.jms.Message;
 import javax.jms.ObjectMessage;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -86,6 +89,7 @@ public class DeletionServiceEJB {
     private static final Logger LOG = LoggerFactory.getLogger(DeletionServiceEJB.class);
 
     public static final int MAX_LOCATIONS_PER_INSTANCE = 3;
+    static final int MAX_PKS_PER_STATEMENT = 1000;
 
     @PersistenceContext(unitName = "dcm4chee-arc")
     private EntityManager em;
@@ -116,6 +120,16 @@ public class DeletionServiceEJB {
                 .getResultList();
     }
 
+    public List<Location> findLocationsWithStatus(String storageID, Location.Status status, long afterPk,
+                                                  int limit) {
+        return em.createNamedQuery(Location.FIND_BY_STORAGE_ID_AND_STATUS_AFTER_PK, Location.class)
+                .setParameter(1, storageID)
+                .setParameter(2, status)
+                .setParameter(3, afterPk)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
     public List<Metadata> findMetadataWithStatus(String storageID, Metadata.Status status, int limit) {
         return em.createNamedQuery(Metadata.FIND_BY_STORAGE_ID_AND_STATUS, Metadata.class)
                 .setParameter(1, storageID)
@@ -160,6 +174,40 @@ public class DeletionServiceEJB {
                 .getResultList();
     }
 
+    public List<Study.DeletionCandidate> findDeletionCandidatesOnStorage(
+            StorageDescriptor desc, Study.DeletionCandidate after, int limit) {
+        List<String> studyStorageIDs = getStudyStorageIDs(desc);
+        String externalRetrieveAETitle = desc.getExternalRetrieveAETitle();
+        LOG.debug("Query for Studies for deletion on {} with StorageIDs={} after {}",
+                desc, studyStorageIDs, after);
+        TypedQuery<Study.DeletionCandidate> query = em.createNamedQuery(externalRetrieveAETitle != null
+                        ? Study.FIND_DELETION_CANDIDATES_BY_STORAGE_IDS_AND_EXT_RETR_AET
+                        : Study.FIND_DELETION_CANDIDATES_BY_STORAGE_IDS,
+                Study.DeletionCandidate.class)
+                .setParameter(1, studyStorageIDs)
+                .setParameter(2, after != null ? after.accessTime : new Date(0L))
+                .setParameter(3, after != null ? after.pk : 0L);
+        if (externalRetrieveAETitle != null)
+            query.setParameter(4, externalRetrieveAETitle);
+        List<Study.DeletionCandidate> candidates = query.setMaxResults(limit).getResultList();
+        for (ListIterator<Study.DeletionCandidate> iter = candidates.listIterator(); iter.hasNext();) {
+            Study.DeletionCandidate candidate = iter.next();
+            if (candidate.size < 0L)
+                iter.set(new Study.DeletionCandidate(candidate.pk, candidate.uid, candidate.accessTime,
+                        queryService.calculateStudySize(candidate.pk)));
+        }
+        return candidates;
+    }
+
+    public Map<Long, Date> getStudyAccessTimes(Collection<Long> studyPks) {
+        Map<Long, Date> accessTimes = new HashMap<>();
+        for (Object[] row : em.createNamedQuery(Study.ACCESS_TIME_BY_PKS, Object[].class)
+                .setParameter(1, studyPks)
+                .getResultList())
+            accessTimes.put((Long) row[0], (Date) row[1]);
+        return accessTimes;
+    }
+
     public List<Series> findSeriesWithPurgedInstances(Long studyPk) {
         LOG.debug("Query for Series with purged Instance records of Study[pk={}]", studyPk);
         return em.createNamedQuery(Series.FIND_BY_STUDY_PK_AND_INSTANCE_PURGE_STATE, Series.class)
@@ -168,12 +216,19 @@ public class DeletionServiceEJB {
                 .getResultList();
     }
 
-    public boolean claimDeleteObject(Location location) {
-        return em.createNamedQuery(Location.UPDATE_STATUS_FROM)
-                .setParameter(1, location.getPk())
+    public List<Location> claimDeleteObjects(List<Location> locations) {
+        List<Location> claimed = em.createNamedQuery(Location.FIND_BY_PKS_AND_STATUS, Location.class)
+                .setParameter(1, locations.stream().map(Location::getPk).collect(Collectors.toList()))
                 .setParameter(2, Location.Status.TO_DELETE)
-                .setParameter(3, Location.Status.FAILED_TO_DELETE)
-                .executeUpdate() > 0;
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("javax.persistence.lock.timeout", LockOptions.SKIP_LOCKED)
+                .getResultList();
+        if (!claimed.isEmpty())
+            em.createNamedQuery(Location.UPDATE_STATUS_BY_PKS)
+                    .setParameter(1, claimed.stream().map(Location::getPk).collect(Collectors.toList()))
+                    .setParameter(2, Location.Status.FAILED_TO_DELETE)
+                    .executeUpdate();
+        return claimed;
     }
 
     public boolean claimResolveFailedToDelete(Location location) {
@@ -236,6 +291,12 @@ public class DeletionServiceEJB {
                 .executeUpdate();
     }
 
+    public void removeLocations(Collection<Long> locationPks) {
+        em.createNamedQuery(Location.DELETE_BY_PKS)
+                .setParameter(1, locationPks)
+                .executeUpdate();
+    }
+
     public void removeMetadata(Metadata metadata) {
         em.createNamedQuery(Metadata.DELETE_BY_PK)
                 .setParameter(1, metadata.getPk())
@@ -243,11 +304,106 @@ public class DeletionServiceEJB {
     }
 
     public Study deleteStudy(StudyDeleteContext ctx) {
-        Long studyPk = ctx.getStudyPk();
-        List<Location> locations = em.createNamedQuery(Location.FIND_BY_STUDY_PK, Location.class)
-                .setParameter(1, studyPk)
+        Study study = em.find(Study.class, ctx.getStudyPk());
+        Patient patient = study.getPatient();
+        ctx.setStudy(study);
+        ctx.setPatient(patient);
+        for (Series series : findSeriesOfStudy(study)) {
+            for (Instance inst : deleteInstancesOfSeries(em, series))
+                ctx.addInstance(inst);
+            if (series.getMetadata() != null)
+                series.getMetadata().setStatus(Metadata.Status.TO_DELETE);
+            em.remove(series);
+        }
+        patient.decrementNumberOfStudies();
+        em.remove(study);
+        if (ctx.isDeletePatientOnDeleteLastStudy() && countStudiesOfPatient(patient) == 0) {
+            PatientMgtContext patMgtCtx = patientService.createPatientMgtContextScheduler();
+            patMgtCtx.setPatient(patient);
+            patMgtCtx.setEventActionCode(AuditMessages.EventActionCode.Delete);
+            patMgtCtx.setAttributes(patient.getAttributes());
+            patMgtCtx.setPatientID(IDWithIssuer.pidOf(patient.getAttributes()));
+            patientService.deletePatient(patMgtCtx);
+        }
+        return study;
+    }
+
+    private List<Series> findSeriesOfStudy(Study study) {
+        return em.createNamedQuery(Series.FIND_SERIES_OF_STUDY, Series.class)
+                .setParameter(1, study.getStudyInstanceUID())
+                .getResultList();
+    }
+
+    static List<Instance> deleteInstancesOfSeries(EntityManager em, Series series) {
+        List<Instance> insts = em.createNamedQuery(Instance.SOP_UIDS_OF_SERIES, Instance.class)
+                .setParameter(1, series)
+                .getResultList();
+        markLocationsToDelete(em, series, null);
+        List<Long> attributesBlobPks = em.createNamedQuery(Instance.ATTRIBUTES_BLOB_PKS_OF_SERIES, Long.class)
+                .setParameter(1, series)
+                .getResultList();
+        List<Long> observerNamePks = em.createNamedQuery(Instance.VERIFYING_OBSERVER_NAME_PKS_OF_SERIES, Long.class)
+                .setParameter(1, series)
                 .getResultList();
-        return deleteStudy(removeOrMarkToDelete(locations, Integer.MAX_VALUE, false), ctx);
+        em.createNamedQuery(ContentItem.DELETE_BY_SERIES_PK)
+                .setParameter(1, series.getPk())
+                .executeUpdate();
+        em.createNamedQuery(VerifyingObserver.DELETE_BY_SERIES_PK)
+                .setParameter(1, series.getPk())
+                .executeUpdate();
+        executeUpdateByPks(em, em.createNamedQuery(SoundexCode.DELETE_BY_PERSON_NAME_PKS), observerNamePks);
+        executeUpdateByPks(em, em.createNamedQuery(PersonName.DELETE_BY_PKS), observerNamePks);
+        em.createNamedQuery(Instance.DELETE_BY_SERIES)
+                .setParameter(1, series)
+                .executeUpdate();
+        executeUpdateByPks(em, em.createNamedQuery(AttributesBlob.DELETE_BY_PKS), attributesBlobPks);
+        return insts;
+    }
+
+    static int markLocationsToDelete(EntityManager em, Series series, List<String> storageIDs) {
+        Query multiRefsQuery = storageIDs == null
+                ? em.createNamedQuery(Location.MULTI_REFS_BY_SERIES)
+                : em.createNamedQuery(Location.MULTI_REFS_BY_SERIES_AND_STORAGE_IDS).setParameter(2, storageIDs);
+        Query uidMapPksQuery = storageIDs == null
+                ? em.createNamedQuery(Location.UIDMAP_PKS_BY_SERIES)
+                : em.createNamedQuery(Location.UIDMAP_PKS_BY_SERIES_AND_STORAGE_IDS).setParameter(2, storageIDs);
+        List<Object[]> multiRefs = multiRefsQuery.setParameter(1, series).getResultList();
+        List<Long> uidMapPks = uidMapPksQuery.setParameter(1, series).getResultList();
+        int marked = 0;
+        if (!multiRefs.isEmpty()) {
+            Map<Integer, Long> refCounts = new HashMap<>();
+            for (Object[] row : em.createNamedQuery(Location.COUNT_BY_MULTI_REFS, Object[].class)
+                    .setParameter(1, multiRefs.stream().map(row -> row[1]).distinct().collect(Collectors.toList()))
+                    .getResultList())
+                refCounts.put((Integer) row[0], (Long) row[1]);
+            List<Long> remove = new ArrayList<>();
+            List<Long> markToDelete = new ArrayList<>();
+            for (Object[] row : multiRefs) {
+                if (refCounts.merge((Integer) row[1], -1L, Long::sum) > 0)
+                    remove.add((Long) row[0]);
+                else
+                    markToDelete.add((Long) row[0]);
+            }
+            executeUpdateByPks(em, em.createNamedQuery(Location.DELETE_BY_PKS), remove);
+            executeUpdateByPks(em, em.createNamedQuery(Location.MARK_TO_DELETE_BY_PKS)
+                    .setParameter(2, Location.Status.TO_DELETE), markToDelete);
+            marked += multiRefs.size();
+        }
+        Query markToDelete = storageIDs == null
+                ? em.createNamedQuery(Location.MARK_TO_DELETE_BY_SERIES)
+                : em.createNamedQuery(Location.MARK_TO_DELETE_BY_SERIES_AND_STORAGE_IDS).setParameter(3, storageIDs);
+        marked += markToDelete
+                .setParameter(1, series)
+                .setParameter(2, Location.Status.TO_DELETE)
+                .executeUpdate();
+        executeUpdateByPks(em, em.createNamedQuery(UIDMap.DELETE_ORPHANED_BY_PKS), uidMapPks);
+        return marked;
+    }
+
+    private static void executeUpdateByPks(EntityManager em, Query query, List<Long> pks) {
+        for (int from = 0; from < pks.size(); from += MAX_PKS_PER_STATEMENT)
+            query.setParameter(1, pks.subList(from, Math.min(from + MAX_PKS_PER_STATEMENT, pks.size())))
+                    .executeUpdate();
     }
 
     public boolean hasObjectsOnStorage(Long studyPk, StorageDescriptor desc) {
@@ -283,28 +439,22 @@ public class DeletionServiceEJB {
             LOG.info("{} does not contain objects at Storage{}", study, storageIDs);
             return false;
         }
-        LOG.debug("Query for objects of {} at Storage{}", study, storageIDs);
-        List<Location> locations = em.createNamedQuery(Location.FIND_BY_STUDY_PK_AND_STORAGE_IDS, Location.class)
-                .setParameter(1, study.getPk())
-                .setParameter(2, storageIDs)
-                .getResultList();
-        if (locations.isEmpty()) {
+        LOG.debug("Start marking objects of {} for deletion at Storage{}", study, storageIDs);
+        int marked = 0;
+        for (Series series : findSeriesOfStudy(study)) {
+            int n = markLocationsToDelete(em, series, storageIDs);
+            if (n > 0) {
+                marked += n;
+                if (series.getMetadataScheduledUpdateTime() == null && series.getMetadata() != null)
+                    scheduleMetadataUpdate(series.getPk());
+            }
+        }
+        if (marked == 0) {
             LOG.warn("{} does not contain objects at Storage{}", study, storageIDs);
             updateStorageIDs(study, storageIDs);
             return false;
         }
-        LOG.debug("Start marking {} objects of {} for deletion at Storage{}", locations.size(), study, storageIDs);
-        Collection<Instance> insts = removeOrMarkToDelete(locations, Integer.MAX_VALUE, false);
-        LOG.debug("Finish marking {}/{} objects/instances of {} for deletion at Storage{}",
-                locations.size(), insts.size(), study, storageIDs);
-        Set<Long> seriesPks = new HashSet<>();
-        for (Instance inst : insts) {
-            Series series = inst.getSeries();
-            if (seriesPks.add(series.getPk())
-                    && series.getMetadataScheduledUpdateTime() == null
-                    && series.getMetadata() != null)
-                scheduleMetadataUpdate(series.getPk());
-        }
+        LOG.debug("Finish marking {} objects of {} for deletion at Storage{}", marked, study, storageIDs);
         updateStorageIDs(study, storageIDs);
         return true;
     }
@@ -405,40 +555,6 @@ public class DeletionServiceEJB {
         }
     }
 
-    private Study deleteStudy(Collection<Instance> insts, StudyDeleteContext ctx) {
-        Patient patient = null;
-        Study study = null;
-        HashMap<Long, Series> series = new HashMap<>();
-        for (Instance inst : insts) {
-            Series ser = inst.getSeries();
-            if (!series.containsKey(ser.getPk())) {
-                series.put(ser.getPk(), ser);
-            }
-            ctx.addInstance(inst);
-            em.remove(inst);
-        }
-        for (Series ser : series.values()) {
-            if (study == null) {
-                ctx.setStudy(study = ser.getStudy());
-                ctx.setPatient(patient = study.getPatient());
-            }
-            if (ser.getMetadata() != null)
-                ser.getMetadata().setStatus(Metadata.Status.TO_DELETE);
-            em.remove(ser);
-        }
-        study.getPatient().decrementNumberOfStudies();
-        em.remove(study);
-        if (ctx.isDeletePatientOnDeleteLastStudy() && countStudiesOfPatient(patient) == 0) {
-            PatientMgtContext patMgtCtx = patientService.createPatientMgtContextScheduler();
-            patMgtCtx.setPatient(patient);
-            patMgtCtx.setEventActionCode(AuditMessages.EventActionCode.Delete);
-            patMgtCtx.setAttributes(patient.getAttributes());
-            patMgtCtx.setPatientID(IDWithIssuer.pidOf(patient.getAttributes()));
-            patientService.deletePatient(patMgtCtx);
-        }
-        return study;
-    }
-
     private boolean hasRejectedInstances(Series series) {
         return em.createNamedQuery(Instance.COUNT_REJECTED_INSTANCES_OF_SERIES, Long.class)
                 .setParameter(1, series)
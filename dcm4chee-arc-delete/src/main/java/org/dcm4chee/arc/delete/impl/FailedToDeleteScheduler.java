@@ -44,7 +44,6 @@ package org.dcm4chee.arc.delete.impl;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.io.DicomInputStream;
-import org.dcm4che3.json.JSONReader;
 import org.dcm4che3.net.Device;
 import org.dcm4chee.arc.Scheduler;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
@@ -53,6 +52,7 @@ import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.entity.Location;
 import org.dcm4chee.arc.entity.Metadata;
 import org.dcm4chee.arc.storage.ReadContext;
+import org.dcm4chee.arc.storage.SeriesMetadataCodec;
 import org.dcm4chee.arc.storage.Storage;
 import org.dcm4chee.arc.storage.StorageFactory;
 import org.slf4j.Logger;
@@ -60,10 +60,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
-import javax.json.Json;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -185,7 +183,7 @@ public class FailedToDeleteScheduler extends Scheduler {
             try (InputStream in = storage.openInputStream(ctx)) {
                 ZipInputStream zip = new ZipInputStream(in);
                 zip.getNextEntry();
-                attrs = parseJSON(zip);
+                attrs = SeriesMetadataCodec.readEntry(zip, true);
             }
             for (Metadata other : ejb.findMetadataForSeriesOnStorage(attrs.getString(Tag.SeriesInstanceUID),
                     location.getStorageID())) {
@@ -205,12 +203,6 @@ public class FailedToDeleteScheduler extends Scheduler {
         }
     }
 
-    private static Attributes parseJSON(InputStream in) throws IOException {
-        JSONReader jsonReader = new JSONReader(Json.createParser(new InputStreamReader(in, "UTF-8")));
-        jsonReader.setSkipBulkDataURI(true);
-        return jsonReader.readDataset(null);
-    }
-
     private void resolveObjectDeletionFailures(ArchiveDeviceExtension arcDev, StorageDescriptor desc) {
         List<Location> locations;
         int fetchSize = arcDev.getFailedToDeleteFetchSize();
@@ -44,7 +44,6 @@ import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Sequence;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.dict.archive.ArchiveTag;
-import org.dcm4che3.json.JSONReader;
 import org.dcm4che3.net.Device;
 import org.dcm4che3.util.SafeClose;
 import org.dcm4che3.util.StringUtils;
@@ -54,6 +53,7 @@ import org.dcm4chee.arc.conf.Duration;
 import org.dcm4chee.arc.entity.Location;
 import org.dcm4chee.arc.entity.Series;
 import org.dcm4chee.arc.storage.ReadContext;
+import org.dcm4chee.arc.storage.SeriesMetadataCodec;
 import org.dcm4chee.arc.storage.Storage;
 import org.dcm4chee.arc.storage.StorageFactory;
 import org.slf4j.Logger;
@@ -61,10 +61,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
-import javax.json.Json;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -180,7 +178,7 @@ public class PurgeInstanceRecordsScheduler extends Scheduler {
             ZipInputStream zip = new ZipInputStream(in);
             ZipEntry entry;
             while ((entry = zip.getNextEntry()) != null) {
-                Attributes attrs = parseJSON(zip);
+                Attributes attrs = SeriesMetadataCodec.readEntry(zip, true);
                 List<Location> list = new ArrayList<>(2);
                 list.add(createLocation(attrs));
                 Sequence seq = attrs.getSequence(ArchiveTag.PrivateCreator, ArchiveTag.OtherStorageSequence);
@@ -204,12 +202,6 @@ public class PurgeInstanceRecordsScheduler extends Scheduler {
 
     }
 
-    private static Attributes parseJSON(InputStream in) throws IOException {
-        JSONReader jsonReader = new JSONReader(Json.createParser(new InputStreamReader(in, "UTF-8")));
-        jsonReader.setSkipBulkDataURI(true);
-        return jsonReader.readDataset(null);
-    }
-
     private static ReadContext createReadContext(Storage storage, String storagePath) {
         ReadContext readContext = storage.createReadContext();
         readContext.setStoragePath(storagePath);
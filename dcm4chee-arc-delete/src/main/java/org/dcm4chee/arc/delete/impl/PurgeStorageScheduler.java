@@ -43,7 +43,6 @@ package org.dcm4chee.arc.delete.impl;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Sequence;
 import org.dcm4che3.dict.archive.ArchiveTag;
-import org.dcm4che3.json.JSONReader;
 import org.dcm4che3.net.Device;
 import org.dcm4che3.util.SafeClose;
 import org.dcm4chee.arc.Scheduler;
@@ -52,6 +51,7 @@ import org.dcm4chee.arc.delete.StudyDeleteContext;
 import org.dcm4chee.arc.entity.*;
 import org.dcm4chee.arc.exporter.ExportContext;
 import org.dcm4chee.arc.storage.ReadContext;
+import org.dcm4chee.arc.storage.SeriesMetadataCodec;
 import org.dcm4chee.arc.storage.Storage;
 import org.dcm4chee.arc.storage.StorageFactory;
 import org.dcm4chee.arc.store.StoreService;
@@ -63,13 +63,17 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Event;
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
-import javax.json.Json;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.zip.ZipInputStream;
 
 /**
@@ -88,6 +92,9 @@ public class PurgeStorageScheduler extends Scheduler {
     @Inject
     private DeletionServiceEJB ejb;
 
+    @Inject
+    private DeletionCandidateRanking deletionCandidateRanking;
+
     @Inject
     private StoreService storeService;
 
@@ -179,14 +186,14 @@ public class PurgeStorageScheduler extends Scheduler {
                     BinaryPrefix.formatDecimal(minUsableSpace), BinaryPrefix.formatDecimal(deleteSize));
             while (arcDev.getPurgeStoragePollingInterval() != null
                     && deleteSize > 0L
-                    && deleteStudies(arcDev, desc) > 0) {
+                    && deleteStudies(arcDev, desc, deleteSize) > 0) {
                 deleteObjectsFromStorage(arcDev, desc);
                 deleteSize = sizeToDelete(desc, minUsableSpace);
             }
         } else {
             LOG.info("Start deleting all objects from {} {}", desc.getStorageDuration(), desc);
             while (arcDev.getPurgeStoragePollingInterval() != null
-                    && deleteStudies(arcDev, desc) > 0) {
+                    && deleteStudies(arcDev, desc, -1L) > 0) {
                 deleteObjectsFromStorage(arcDev, desc);
             }
         }
@@ -204,10 +211,10 @@ public class PurgeStorageScheduler extends Scheduler {
         }
     }
 
-    private int deleteStudies(ArchiveDeviceExtension arcDev, StorageDescriptor desc) {
+    private int deleteStudies(ArchiveDeviceExtension arcDev, StorageDescriptor desc, long deleteSize) {
         List<Study.PKUID> studyPks;
         try {
-           studyPks = findStudiesForDeletion(arcDev, desc);
+           studyPks = findStudiesForDeletion(arcDev, desc, deleteSize);
         } catch (Exception e) {
             LOG.warn("Query for studies for deletion on {} failed", desc, e);
             return 0;
@@ -221,9 +228,12 @@ public class PurgeStorageScheduler extends Scheduler {
                 : deleteStudiesFromDB(arcDev, desc, studyPks);
     }
 
-    private List<Study.PKUID> findStudiesForDeletion(ArchiveDeviceExtension arcDev, StorageDescriptor desc) {
+    private List<Study.PKUID> findStudiesForDeletion(ArchiveDeviceExtension arcDev, StorageDescriptor desc,
+            long deleteSize) {
         int deleteStudyBatchSize = arcDev.getDeleteStudyBatchSize();
-        List<Study.PKUID> studyPks = desc.getExternalRetrieveAETitle() != null
+        List<Study.PKUID> studyPks = deleteSize > 0L
+                ? deletionCandidateRanking.select(desc, deleteSize, deleteStudyBatchSize)
+                : desc.getExternalRetrieveAETitle() != null
                 ? ejb.findStudiesForDeletionOnStorageWithExternalRetrieveAET(desc, deleteStudyBatchSize)
                 : ejb.findStudiesForDeletionOnStorage(desc, deleteStudyBatchSize);
 
@@ -302,9 +312,7 @@ public class PurgeStorageScheduler extends Scheduler {
         try (InputStream in = ctx.getStorage().openInputStream(ctx)) {
             ZipInputStream zip = new ZipInputStream(in);
             while (zip.getNextEntry() != null) {
-                JSONReader jsonReader = new JSONReader(Json.createParser(
-                        new InputStreamReader(zip, "UTF-8")));
-                Attributes metadata = jsonReader.readDataset(null);
+                Attributes metadata = SeriesMetadataCodec.readEntry(zip, false);
                 if (containsStorageID(metadata, storageID) && !containsStorageID(metadata, exportStorageID))
                     count++;
                 zip.closeEntry();
@@ -442,65 +450,131 @@ public class PurgeStorageScheduler extends Scheduler {
         }
     }
 
-    private void deleteObjectsFromStorage(ArchiveDeviceExtension arcDev, StorageDescriptor desc) {
-        List<Location> locations;
+    void deleteObjectsFromStorage(ArchiveDeviceExtension arcDev, StorageDescriptor desc) {
         int fetchSize = arcDev.getPurgeStorageFetchSize();
-        do {
-            if (arcDev.getPurgeStoragePollingInterval() == null) return;
-            LOG.debug("Query for objects marked for deletion at {}", desc);
-            locations = ejb.findLocationsWithStatus(desc.getStorageID(), Location.Status.TO_DELETE, fetchSize);
-            if (locations.isEmpty()) {
-                LOG.debug("No objects marked for deletion found at {}", desc);
-                break;
-            }
-
-            LOG.info("Start deleting {} objects from {}", locations.size(), desc);
-            int deleteThreads = desc.getDeleterThreads();
-            Semaphore semaphore = deleteThreads > 1 ? new Semaphore(deleteThreads) : null;
-            AtomicInteger success = new AtomicInteger();
-            AtomicInteger skipped = new AtomicInteger();
-            try (Storage storage = storageFactory.getStorage(desc)) {
-                for (Location location : locations) {
-                    if (semaphore == null) {
-                        deleteLocation(storage, location, success, skipped);
-                    } else {
-                        semaphore.acquire();
-                        device.execute(() -> {
-                            try {
-                                deleteLocation(storage, location, success, skipped);
-                            } finally {
-                                semaphore.release();
-                            }
-                        });
+        int deleteThreads = Math.max(1, desc.getDeleterThreads());
+        int deleteBatchSize = Math.max(1, fetchSize / deleteThreads);
+        LocationRemover remover = new LocationRemover(desc);
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.currentTimeMillis();
+        try (Storage storage = storageFactory.getStorage(desc)) {
+            CompletionService<Void> deleters = new ExecutorCompletionService<>(device::execute);
+            int running = 0;
+            try {
+                List<Location> locations;
+                long lastPk = 0L;
+                do {
+                    if (arcDev.getPurgeStoragePollingInterval() == null) break;
+                    LOG.debug("Query for objects marked for deletion at {}", desc);
+                    locations = ejb.findLocationsWithStatus(
+                            desc.getStorageID(), Location.Status.TO_DELETE, lastPk, fetchSize);
+                    if (locations.isEmpty()) {
+                        LOG.debug("No objects marked for deletion found at {}", desc);
+                        break;
                     }
-                }
-                if (semaphore != null) {
-                    LOG.debug("Waiting for finishing deleting {} objects from {}", locations.size(), desc);
-                    semaphore.acquire(deleteThreads);
-                    semaphore.release(deleteThreads);
-                }
-            } catch (Exception e) {
-                LOG.warn("Failed to access {}", desc, e);
+                    lastPk = locations.get(locations.size() - 1).getPk();
+                    LOG.info("Start deleting {} objects from {}", locations.size(), desc);
+                    for (int from = 0; from < locations.size(); from += deleteBatchSize) {
+                        List<Location> batch = locations.subList(from,
+                                Math.min(from + deleteBatchSize, locations.size()));
+                        if (running == deleteThreads) {
+                            awaitDeleter(deleters, desc);
+                            running--;
+                        }
+                        try {
+                            deleters.submit(() -> claimAndDeleteLocations(storage, batch, remover, skipped, failed),
+                                    null);
+                            running++;
+                        } catch (RejectedExecutionException e) {
+                            LOG.info("Failed to start thread for deleting objects from {} - continue in this thread",
+                                    desc, e);
+                            claimAndDeleteLocations(storage, batch, remover, skipped, failed);
+                        }
+                    }
+                } while (locations.size() == fetchSize);
             } finally {
-                LOG.info("Finished deleting {} (skipped={}, failed={}) objects from {}",
-                        success, skipped, locations.size() - success.get() - skipped.get(), desc);
+                LOG.debug("Waiting for finishing deleting objects from {}", desc);
+                for (; running > 0; running--)
+                    awaitDeleter(deleters, desc);
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to access {}", desc, e);
+        } finally {
+            int removed = remover.removed.get();
+            if (removed > 0 || skipped.get() > 0 || failed.get() > 0) {
+                long time = Math.max(1L, System.currentTimeMillis() - start);
+                LOG.info("Finished deleting {} (skipped={}, failed={}) objects from {} in {} ms ({} objects/s)",
+                        removed, skipped, failed, desc, time, removed * 1000L / time);
             }
-        } while (locations.size() == fetchSize);
+        }
+    }
+
+    private static void awaitDeleter(CompletionService<Void> deleters, StorageDescriptor desc)
+            throws InterruptedException {
+        try {
+            deleters.take().get();
+        } catch (ExecutionException e) {
+            LOG.warn("Unexpected exception on deleting objects from {}:\n", desc, e.getCause());
+        }
+    }
+
+    private void claimAndDeleteLocations(Storage storage, List<Location> locations, LocationRemover remover,
+                                         AtomicInteger skipped, AtomicInteger failed) {
+        List<Location> claimed = ejb.claimDeleteObjects(locations);
+        skipped.addAndGet(locations.size() - claimed.size());
+        if (!claimed.isEmpty())
+            deleteLocations(storage, claimed, remover, failed);
     }
 
-    private void deleteLocation(Storage storage, Location location, AtomicInteger success, AtomicInteger skipped) {
+    private void deleteLocations(Storage storage, List<Location> locations, LocationRemover remover,
+                                 AtomicInteger failed) {
+        Map<String, IOException> failures;
         try {
-            if (ejb.claimDeleteObject(location)) {
-                storage.deleteObject(location.getStoragePath());
-                ejb.removeLocation(location);
+            failures = storage.deleteObjects(
+                    locations.stream().map(Location::getStoragePath).collect(Collectors.toSet()));
+        } catch (Exception e) {
+            LOG.warn("Failed to delete {} objects from {}", locations.size(), storage, e);
+            failed.addAndGet(locations.size());
+            return;
+        }
+        List<Long> deleted = new ArrayList<>(locations.size());
+        for (Location location : locations) {
+            IOException failure = failures.get(location.getStoragePath());
+            if (failure == null) {
                 LOG.debug("Successfully delete {} from {}", location, storage);
-                success.getAndIncrement();
+                deleted.add(location.getPk());
+            } else if (failure instanceof NoSuchFileException) {
+                LOG.info("{} already deleted from {}", location, storage);
+                deleted.add(location.getPk());
             } else {
-                skipped.getAndIncrement();
+                LOG.warn("Failed to delete {} from {}", location, storage, failure);
+                failed.getAndIncrement();
             }
-        } catch (Exception e) {
-            LOG.warn("Failed to delete {} from {}", location, storage, e);
         }
+        if (!deleted.isEmpty())
+            remover.remove(deleted);
     }
 
+    /**
+     * Removes the records of the objects deleted from the storage by each deleter thread right after the deletion
+     * of its chunk, so records of deleted objects are not left with status {@code FAILED_TO_DELETE} of their claim.
+     */
+    private final class LocationRemover {
+        private final StorageDescriptor desc;
+        private final AtomicInteger removed = new AtomicInteger();
+
+        LocationRemover(StorageDescriptor desc) {
+            this.desc = desc;
+        }
+
+        void remove(List<Long> locationPks) {
+            try {
+                ejb.removeLocations(locationPks);
+                removed.addAndGet(locationPks.size());
+            } catch (Exception e) {
+                LOG.warn("Failed to remove records of {} objects deleted from {}", locationPks.size(), desc, e);
+            }
+        }
+    }
 }
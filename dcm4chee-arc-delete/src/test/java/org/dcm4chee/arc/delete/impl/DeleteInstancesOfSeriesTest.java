@@ -0,0 +1,275 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.delete.impl;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Code;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.soundex.ESoundex;
+import org.dcm4che3.soundex.FuzzyStr;
+import org.dcm4chee.arc.conf.AttributeFilter;
+import org.dcm4chee.arc.entity.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Deletes the Instances of one Series by bulk statements from an in-memory H2 database and checks which Locations
+ * and UID Maps are removed, marked for deletion or kept.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class DeleteInstancesOfSeriesTest {
+
+    private static final int INSTANCES = 10;
+    private static final int NOT_SHARED = 3;        // i % 3 == 0
+    private static final int SHARED_IN_SERIES = 4;  // i % 3 == 1
+    private static final int SHARED_WITH_KEPT = 3;  // i % 3 == 2
+    private static final AttributeFilter FILTER = new AttributeFilter(
+            Tag.PatientID, Tag.PatientName, Tag.StudyInstanceUID, Tag.SeriesInstanceUID, Tag.Modality,
+            Tag.SOPClassUID, Tag.SOPInstanceUID);
+    private static final FuzzyStr FUZZY_STR = new ESoundex();
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private int multiRef;
+
+    @Before
+    public void setUp() {
+        emf = Persistence.createEntityManagerFactory("dcm4chee-arc-test");
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+    }
+
+    @After
+    public void tearDown() {
+        em.getTransaction().rollback();
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testDeleteInstancesOfSeries() {
+        Study study = createStudy();
+        Series keep = createSeries(study, "1.2.3.0");
+        long seriesPk = createSeries(study, "1.2.3.1", keep).getPk();
+        em.flush();
+        em.clear();
+
+        long instances = count("Instance");
+        long attributesBlobs = count("AttributesBlob");
+        List<Instance> deleted = DeletionServiceEJB.deleteInstancesOfSeries(em, em.find(Series.class, seriesPk));
+        em.flush();
+        em.clear();
+
+        assertEquals(INSTANCES, deleted.size());
+        assertEquals(instances - INSTANCES, count("Instance"));
+        assertEquals(attributesBlobs - INSTANCES, count("AttributesBlob"));
+        assertEquals(0, count("ContentItem"));
+        assertEquals(0, count("VerifyingObserver"));
+        assertEquals(NOT_SHARED + SHARED_IN_SERIES, countMarkedToDelete());
+        assertEquals(SHARED_WITH_KEPT, count("Location") - countMarkedToDelete());
+        assertEquals(0, countLocationsOfSeries(seriesPk));
+        assertEquals(SHARED_WITH_KEPT, count("UIDMap"));
+        assertEquals(SHARED_WITH_KEPT, countLocationsWithUIDMap());
+    }
+
+    @Test
+    public void testMarkLocationsToDeleteByStorageIDs() {
+        Study study = createStudy();
+        Series keep = createSeries(study, "1.2.3.0");
+        long seriesPk = createSeries(study, "1.2.3.1", keep).getPk();
+        em.flush();
+        em.clear();
+
+        long locations = count("Location");
+        long uidMaps = count("UIDMap");
+        assertEquals(0, DeletionServiceEJB.markLocationsToDelete(
+                em, em.find(Series.class, seriesPk), Collections.singletonList("fs2")));
+        em.flush();
+        em.clear();
+        assertEquals(locations, count("Location"));
+        assertEquals(uidMaps, count("UIDMap"));
+        assertEquals(0, countMarkedToDelete());
+
+        assertEquals(NOT_SHARED + 2 * SHARED_IN_SERIES + SHARED_WITH_KEPT,
+                DeletionServiceEJB.markLocationsToDelete(
+                        em, em.find(Series.class, seriesPk), Collections.singletonList("fs1")));
+        em.flush();
+        em.clear();
+        assertEquals(locations - SHARED_IN_SERIES - SHARED_WITH_KEPT, count("Location"));
+        assertEquals(NOT_SHARED + SHARED_IN_SERIES, countMarkedToDelete());
+        assertEquals(0, countLocationsOfSeries(seriesPk));
+        assertEquals(SHARED_WITH_KEPT, count("UIDMap"));
+        assertEquals(SHARED_WITH_KEPT, countLocationsWithUIDMap());
+    }
+
+    private long count(String entity) {
+        return em.createQuery("select count(e) from " + entity + " e", Long.class).getSingleResult();
+    }
+
+    private long countMarkedToDelete() {
+        return em.createQuery(
+                "select count(l) from Location l where l.status = ?1 and l.instance is null " +
+                        "and l.multiReference is null and l.uidMap is null", Long.class)
+                .setParameter(1, Location.Status.TO_DELETE)
+                .getSingleResult();
+    }
+
+    private long countLocationsOfSeries(long seriesPk) {
+        return em.createQuery("select count(l) from Location l where l.instance.series.pk = ?1", Long.class)
+                .setParameter(1, seriesPk)
+                .getSingleResult();
+    }
+
+    private long countLocationsWithUIDMap() {
+        return em.createQuery("select count(l) from Location l where l.uidMap is not null", Long.class)
+                .getSingleResult();
+    }
+
+    private Study createStudy() {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.PatientID, VR.LO, "PID");
+        attrs.setString(Tag.PatientName, VR.PN, "Test^Patient");
+        attrs.setString(Tag.StudyInstanceUID, VR.UI, "1.2.3");
+        Patient patient = new Patient();
+        patient.setAttributes(attrs, FILTER, FUZZY_STR);
+        em.persist(patient);
+        Study study = new Study();
+        study.setPatient(patient);
+        study.setAttributes(attrs, FILTER, FUZZY_STR);
+        em.persist(study);
+        return study;
+    }
+
+    private Series createSeries(Study study, String suid) {
+        Series series = new Series();
+        series.setStudy(study);
+        series.setAttributes(seriesAttrs(suid), FILTER, FUZZY_STR);
+        em.persist(series);
+        return series;
+    }
+
+    private Series createSeries(Study study, String suid, Series keep) {
+        Series series = createSeries(study, suid);
+        CodeEntity conceptName = new CodeEntity(new Code("121071", "DCM", null, "Finding"));
+        em.persist(conceptName);
+        Instance keeper = createInstance(keep, suid + ".0");
+        for (int i = 1; i <= INSTANCES; i++) {
+            Instance inst = createInstance(series, suid + "." + i);
+            inst.getContentItems().add(new ContentItem("CONTAINS", conceptName, "Text"));
+            inst.getVerifyingObservers().add(new VerifyingObserver(observerAttrs(), FUZZY_STR));
+            switch (i % 3) {
+                case 0:
+                    createLocation(inst, null, createUIDMap());
+                    break;
+                case 1:
+                    Integer sharedInSeries = ++multiRef;
+                    UIDMap sharedInSeriesUIDMap = createUIDMap();
+                    createLocation(inst, sharedInSeries, sharedInSeriesUIDMap);
+                    createLocation(inst, sharedInSeries, sharedInSeriesUIDMap);
+                    break;
+                case 2:
+                    Integer sharedWithOtherSeries = ++multiRef;
+                    UIDMap sharedWithOtherSeriesUIDMap = createUIDMap();
+                    createLocation(inst, sharedWithOtherSeries, sharedWithOtherSeriesUIDMap);
+                    createLocation(keeper, sharedWithOtherSeries, sharedWithOtherSeriesUIDMap);
+                    break;
+            }
+        }
+        return series;
+    }
+
+    private UIDMap createUIDMap() {
+        UIDMap uidMap = new UIDMap();
+        uidMap.setUIDMap(Collections.singletonMap("1.2.3.4", "1.2.3.5"));
+        em.persist(uidMap);
+        return uidMap;
+    }
+
+    private Instance createInstance(Series series, String iuid) {
+        Attributes attrs = seriesAttrs(series.getSeriesInstanceUID());
+        attrs.setString(Tag.SOPClassUID, VR.UI, UID.ComprehensiveSRStorage);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, iuid);
+        Instance inst = new Instance();
+        inst.setSeries(series);
+        inst.setAttributes(attrs, FILTER, FUZZY_STR);
+        em.persist(inst);
+        return inst;
+    }
+
+    private void createLocation(Instance inst, Integer multiRef, UIDMap uidMap) {
+        Location location = new Location.Builder()
+                .storageID("fs1")
+                .storagePath(inst.getSopInstanceUID() + '/' + this.multiRef)
+                .transferSyntaxUID(UID.ExplicitVRLittleEndian)
+                .objectType(Location.ObjectType.DICOM_FILE)
+                .build();
+        location.setInstance(inst);
+        location.setMultiReference(multiRef);
+        location.setUidMap(uidMap);
+        em.persist(location);
+    }
+
+    private static Attributes seriesAttrs(String suid) {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.SeriesInstanceUID, VR.UI, suid);
+        attrs.setString(Tag.Modality, VR.CS, "SR");
+        return attrs;
+    }
+
+    private static Attributes observerAttrs() {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.VerifyingObserverName, VR.PN, "Verifying^Observer");
+        return attrs;
+    }
+}
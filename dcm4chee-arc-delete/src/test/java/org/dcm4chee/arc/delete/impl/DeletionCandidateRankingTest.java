@@ -0,0 +1,215 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.delete.impl;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.net.Device;
+import org.dcm4che3.soundex.ESoundex;
+import org.dcm4che3.soundex.FuzzyStr;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.AttributeFilter;
+import org.dcm4chee.arc.conf.StorageDescriptor;
+import org.dcm4chee.arc.entity.Patient;
+import org.dcm4chee.arc.entity.Study;
+import org.dcm4chee.arc.query.QueryService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.dcm4chee.arc.test.Stubs.inject;
+import static org.dcm4chee.arc.test.Stubs.proxy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Selects Studies for deletion from an in-memory H2 database and checks the order of the selected Studies,
+ * Studies with equal access time spanning several pages, and the handling of an empty or drained ranking.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class DeletionCandidateRankingTest {
+
+    private static final String STORAGE_ID = "fs1";
+    private static final long STUDY_SIZE = 1000L;
+    private static final AttributeFilter FILTER = new AttributeFilter(
+            Tag.PatientID, Tag.PatientName, Tag.StudyInstanceUID);
+    private static final FuzzyStr FUZZY_STR = new ESoundex();
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private StorageDescriptor desc;
+    private DeletionCandidateRanking ranking;
+    private Patient patient;
+
+    @Before
+    public void setUp() throws Exception {
+        emf = Persistence.createEntityManagerFactory("dcm4chee-arc-test");
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        desc = new StorageDescriptor(STORAGE_ID);
+        ArchiveDeviceExtension arcDev = new ArchiveDeviceExtension();
+        arcDev.addStorageDescriptor(desc);
+        Device device = new Device("dcm4chee-arc");
+        device.addDeviceExtension(arcDev);
+        DeletionServiceEJB ejb = new DeletionServiceEJB();
+        inject(ejb, "em", em);
+        inject(ejb, "device", device);
+        inject(ejb, "queryService", proxy(QueryService.class, (method, args) -> {
+            if (method.getName().equals("calculateStudySize"))
+                return STUDY_SIZE;
+            throw new UnsupportedOperationException(method.getName());
+        }));
+        ranking = new DeletionCandidateRanking();
+        inject(ranking, "ejb", ejb);
+        patient = createPatient();
+    }
+
+    @After
+    public void tearDown() {
+        em.getTransaction().rollback();
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testOrderByAccessTime() {
+        long study3 = createStudy("1.2.3", 3000L);
+        long study1 = createStudy("1.2.1", 1000L);
+        long study2 = createStudy("1.2.2", 2000L);
+        assertEquals(Arrays.asList(study1, study2), select(2 * STUDY_SIZE, 10));
+        assertEquals(Collections.singletonList(study3), select(STUDY_SIZE, 10));
+    }
+
+    @Test
+    public void testSelectUntilDeleteSizeIsReached() {
+        long study1 = createStudy("1.2.1", 1000L);
+        long study2 = createStudy("1.2.2", 2000L);
+        createStudy("1.2.3", 3000L);
+        assertEquals(Arrays.asList(study1, study2), select(STUDY_SIZE + 1, 10));
+    }
+
+    @Test
+    public void testEqualAccessTimeAcrossPages() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 1; i <= 5; i++)
+            expected.add(createStudy("1.2." + i, 1000L));
+        long later = createStudy("1.2.6", 2000L);
+        Collections.sort(expected);
+        expected.add(later);
+        assertEquals(expected, select(6 * STUDY_SIZE, 2));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(select(STUDY_SIZE, 10).isEmpty());
+        long study1 = createStudy("1.2.1", 1000L);
+        assertEquals(Collections.singletonList(study1), select(STUDY_SIZE, 10));
+    }
+
+    @Test
+    public void testStartOverWhenDrained() {
+        long study1 = createStudy("1.2.1", 1000L);
+        long study2 = createStudy("1.2.2", 2000L);
+        assertEquals(Arrays.asList(study1, study2), select(3 * STUDY_SIZE, 10));
+        assertEquals(Collections.singletonList(study1), select(STUDY_SIZE, 10));
+    }
+
+    @Test
+    public void testSkipStudiesAccessedSinceRanked() {
+        long study1 = createStudy("1.2.1", 1000L);
+        long study2 = createStudy("1.2.2", 2000L);
+        long study3 = createStudy("1.2.3", 3000L);
+        assertEquals(Collections.singletonList(study1), select(STUDY_SIZE, 10));
+        setAccessTime(study2, 4000L);
+        assertEquals(Collections.singletonList(study3), select(2 * STUDY_SIZE, 10));
+    }
+
+    private List<Long> select(long deleteSize, int fetchSize) {
+        return ranking.select(desc, deleteSize, fetchSize).stream()
+                .map(study -> study.pk)
+                .collect(Collectors.toList());
+    }
+
+    private Patient createPatient() {
+        Patient patient = new Patient();
+        patient.setAttributes(patientAttrs(), FILTER, FUZZY_STR);
+        em.persist(patient);
+        return patient;
+    }
+
+    private long createStudy(String suid, long accessTime) {
+        Attributes attrs = patientAttrs();
+        attrs.setString(Tag.StudyInstanceUID, VR.UI, suid);
+        Study study = new Study();
+        study.setPatient(patient);
+        study.setAttributes(attrs, FILTER, FUZZY_STR);
+        study.setStorageIDs(STORAGE_ID);
+        em.persist(study);
+        em.flush();
+        setAccessTime(study.getPk(), accessTime);
+        return study.getPk();
+    }
+
+    private void setAccessTime(long studyPk, long accessTime) {
+        em.createQuery("update Study st set st.accessTime = ?2 where st.pk = ?1")
+                .setParameter(1, studyPk)
+                .setParameter(2, new Date(accessTime))
+                .executeUpdate();
+        em.clear();
+        patient = em.find(Patient.class, patient.getPk());
+    }
+
+    private static Attributes patientAttrs() {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.PatientID, VR.LO, "PID");
+        attrs.setString(Tag.PatientName, VR.PN, "Test^Patient");
+        return attrs;
+    }
+}
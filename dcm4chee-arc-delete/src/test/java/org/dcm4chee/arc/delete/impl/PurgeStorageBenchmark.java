@@ -0,0 +1,183 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.delete.impl;
+
+import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.Duration;
+import org.dcm4chee.arc.conf.StorageDescriptor;
+import org.dcm4chee.arc.entity.Location;
+import org.dcm4chee.arc.storage.Storage;
+import org.dcm4chee.arc.storage.StorageFactory;
+import org.dcm4chee.arc.storage.filesystem.FileSystemStorage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.dcm4chee.arc.test.Stubs.inject;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the throughput of {@link PurgeStorageScheduler#deleteObjectsFromStorage} in objects per second, deleting
+ * objects from a file system storage with injected latency per deleted object, as of a network file system, by one
+ * and by several deleter threads. Not matched by the default includes of the surefire plugin; run explicitly by
+ * {@code mvn test -Dtest=PurgeStorageBenchmark}.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class PurgeStorageBenchmark {
+
+    private static final int OBJECTS = 2000;
+    private static final int FETCH_SIZE = 100;
+    private static final long DELETE_LATENCY_MS = 5L;
+
+    @Rule
+    public final TemporaryFolder storageRoot = new TemporaryFolder();
+
+    @Test
+    public void benchmark() throws Exception {
+        for (int deleterThreads : new int[]{ 1, 4, 8 })
+            benchmark(deleterThreads);
+    }
+
+    private void benchmark(int deleterThreads) throws Exception {
+        Path dir = storageRoot.newFolder().toPath();
+        StorageDescriptor desc = new StorageDescriptor("fs");
+        desc.setStorageURIStr(dir.toUri().toString());
+        desc.setDeleterThreads(deleterThreads);
+        ArchiveDeviceExtension arcDev = new ArchiveDeviceExtension();
+        arcDev.setPurgeStoragePollingInterval(Duration.valueOf("PT1M"));
+        arcDev.setPurgeStorageFetchSize(FETCH_SIZE);
+        arcDev.addStorageDescriptor(desc);
+        Device device = new Device("dcm4chee-arc");
+        device.addDeviceExtension(arcDev);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        device.setExecutor(executor);
+        List<Location> locations = createObjects(dir, desc.getStorageID());
+        AtomicInteger removed = new AtomicInteger();
+        PurgeStorageScheduler scheduler = new PurgeStorageScheduler();
+        inject(scheduler, "device", device);
+        inject(scheduler, "ejb", new DeletionServiceEJB() {
+            @Override
+            public List<Location> findLocationsWithStatus(String storageID, Location.Status status, long afterPk,
+                                                          int limit) {
+                List<Location> found = new ArrayList<>(limit);
+                for (Location l : locations)
+                    if (l.getPk() > afterPk && found.size() < limit)
+                        found.add(l);
+                return found;
+            }
+
+            @Override
+            public List<Location> claimDeleteObjects(List<Location> batch) {
+                return batch;
+            }
+
+            @Override
+            public void removeLocations(Collection<Long> locationPks) {
+                removed.addAndGet(locationPks.size());
+            }
+        });
+        inject(scheduler, "storageFactory", new StorageFactory() {
+            @Override
+            public Storage getStorage(StorageDescriptor descriptor) {
+                return new SlowFileSystemStorage(descriptor);
+            }
+        });
+        try {
+            long start = System.nanoTime();
+            scheduler.deleteObjectsFromStorage(arcDev, desc);
+            long time = Math.max(1L, (System.nanoTime() - start) / 1000000);
+            assertEquals(OBJECTS, removed.get());
+            System.out.printf("Deleted %d objects with %d ms latency by %d deleter threads in %d ms (%d objects/s)%n",
+                    OBJECTS, DELETE_LATENCY_MS, deleterThreads, time, OBJECTS * 1000L / time);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<Location> createObjects(Path dir, String storageID) throws IOException {
+        List<Location> locations = new ArrayList<>(OBJECTS);
+        for (int i = 1; i <= OBJECTS; i++) {
+            String storagePath = String.format("%02X/%08X", i % 16, i);
+            Path path = dir.resolve(storagePath);
+            Files.createDirectories(path.getParent());
+            Files.write(path, new byte[]{ (byte) i });
+            locations.add(new Location.Builder()
+                    .pk(i)
+                    .storageID(storageID)
+                    .storagePath(storagePath)
+                    .status(Location.Status.TO_DELETE)
+                    .build());
+        }
+        return locations;
+    }
+
+    private static class SlowFileSystemStorage extends FileSystemStorage {
+
+        SlowFileSystemStorage(StorageDescriptor descriptor) {
+            super(descriptor);
+        }
+
+        @Override
+        public void deleteObject(String storagePath) throws IOException {
+            try {
+                Thread.sleep(DELETE_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            super.deleteObject(storagePath);
+        }
+    }
+}
@@ -75,6 +75,7 @@ import java.io.BufferedWriter;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -332,6 +333,7 @@ public class DiffTaskRS {
             int rescheduled = 0;
             int count;
             int rescheduleTasksFetchSize = queueTasksFetchSize();
+            queueTaskQueryParam.setUpdatedBefore(new Date());
             do {
                 List<String> diffTaskQueueMsgIDs = diffService.listDiffTaskQueueMsgIDs(
                                                                 queueTaskQueryParam,
@@ -215,6 +215,7 @@ public class DiffServiceEJB {
         return true;
     }
 
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
     public long cancelDiffTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam diffTaskQueryParam) {
         return queueManager.cancelDiffTasks(queueTaskQueryParam, diffTaskQueryParam);
     }
@@ -48,6 +48,7 @@ import org.dcm4che3.net.service.QueryRetrieveLevel2;
 import org.dcm4che3.util.StringUtils;
 import org.dcm4che3.util.TagUtils;
 import org.dcm4che3.util.UIDUtils;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
 import org.dcm4chee.arc.conf.Duration;
 import org.dcm4chee.arc.qmgt.HttpServletRequestInfo;
 import org.dcm4chee.arc.qmgt.QueueSizeLimitExceededException;
@@ -69,7 +70,9 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import java.io.*;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -198,17 +201,21 @@ public class QueryRetrieveRS {
                         .entity("CSV field for Study Instance UID should be greater than or equal to 1").build();
 
             int count = 0;
+            int batchSize = queueTasksFetchSize();
+            List<ExternalRetrieveContext> ctxs = new ArrayList<>(batchSize);
             String warning = null;
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
                     String studyUID = StringUtils.split(line, ',')[field - 1].replaceAll("\"", "");
-                    if (count > 0 || UIDUtils.isValid(studyUID)) {
-                        if (retrieveManager.scheduleRetrieveTask(
-                                priority(), createExtRetrieveCtx(destAET, studyUID), batchID, null, 0L))
-                            count++;
+                    if (count > 0 || !ctxs.isEmpty() || UIDUtils.isValid(studyUID)) {
+                        ctxs.add(createExtRetrieveCtx(destAET, studyUID));
+                        if (ctxs.size() >= batchSize)
+                            count += scheduleRetrieveTasks(priority(), ctxs);
                     }
                 }
+                if (!ctxs.isEmpty())
+                    count += scheduleRetrieveTasks(priority(), ctxs);
             } catch (QueueSizeLimitExceededException e) {
                 errorStatus = Response.Status.SERVICE_UNAVAILABLE;
                 warning = e.getMessage();
@@ -256,6 +263,17 @@ public class QueryRetrieveRS {
         return sw.toString();
     }
 
+    private int queueTasksFetchSize() {
+        return device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class).getQueueTasksFetchSize();
+    }
+
+    private int scheduleRetrieveTasks(int priority, List<ExternalRetrieveContext> ctxs)
+            throws QueueSizeLimitExceededException {
+        int count = retrieveManager.scheduleRetrieveTasks(priority, ctxs, batchID, null, 0L);
+        ctxs.clear();
+        return count;
+    }
+
     private int priority() {
         return parseInt(priority, 0);
     }
@@ -293,17 +311,21 @@ public class QueryRetrieveRS {
             try {
                 as = findSCU.openAssociation(localAE, queryAET, UID.StudyRootQueryRetrieveInformationModelFIND, queryOptions);
                 int priority = priority();
+                int batchSize = queueTasksFetchSize();
+                List<ExternalRetrieveContext> ctxs = new ArrayList<>(batchSize);
                 DimseRSP dimseRSP = findSCU.query(as, priority, keys, 0, 1, splitStudyDateRange());
                 dimseRSP.next();
                 int status;
                 do {
                     status = dimseRSP.getCommand().getInt(Tag.Status, -1);
                     if (Status.isPending(status)) {
-                        if (retrieveManager.scheduleRetrieveTask(priority,
-                                createExtRetrieveCtx(destAET, dimseRSP), batchID, null, 0L))
-                            count++;
+                        ctxs.add(createExtRetrieveCtx(destAET, dimseRSP));
+                        if (ctxs.size() >= batchSize)
+                            count += scheduleRetrieveTasks(priority, ctxs);
                     }
                 } while (dimseRSP.next());
+                if (!ctxs.isEmpty())
+                    count += scheduleRetrieveTasks(priority, ctxs);
                 warning = warning(status);
             } catch (QueueSizeLimitExceededException e) {
                 errorStatus = Response.Status.SERVICE_UNAVAILABLE;
@@ -56,8 +56,12 @@ import java.io.IOException;
  */
 @Entity
 @Table(name = "dicomattrs")
+@NamedQuery(name = AttributesBlob.DELETE_BY_PKS,
+        query = "delete from AttributesBlob a where a.pk in ?1")
 public class AttributesBlob {
 
+    public static final String DELETE_BY_PKS = "AttributesBlob.DeleteByPks";
+
     @Id
     @GeneratedValue(strategy=GenerationType.IDENTITY)
     @Column(name = "pk")
@@ -51,8 +51,13 @@ import javax.persistence.*;
         @Index(columnList = "rel_type"),
         @Index(columnList = "text_value")
 })
+@NamedNativeQuery(name = ContentItem.DELETE_BY_SERIES_PK,
+        query = "delete from content_item " +
+                "where instance_fk in (select pk from instance where series_fk = ?1)")
 public class ContentItem {
 
+    public static final String DELETE_BY_SERIES_PK = "ContentItem.DeleteBySeriesPk";
+
     public static final int MAX_TEXT_LENGTH = 64;
 
     protected ContentItem() {}
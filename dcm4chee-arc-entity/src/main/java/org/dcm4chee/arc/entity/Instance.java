@@ -153,7 +153,26 @@ import java.util.*;
     name = Instance.IUIDS_OF_SERIES,
     query = "select instance.series.study.studyInstanceUID, instance.series.seriesInstanceUID, instance.sopInstanceUID, instance.numberOfFrames " +
             "from Instance instance " +
-            "where instance.series.study.studyInstanceUID = ?1 and instance.series.seriesInstanceUID = ?2")
+            "where instance.series.study.studyInstanceUID = ?1 and instance.series.seriesInstanceUID = ?2"),
+@NamedQuery(
+    name = Instance.SOP_UIDS_OF_SERIES,
+    query = "select new org.dcm4chee.arc.entity.Instance(i.sopClassUID, i.sopInstanceUID) " +
+            "from Instance i " +
+            "where i.series = ?1"),
+@NamedQuery(
+    name = Instance.ATTRIBUTES_BLOB_PKS_OF_SERIES,
+    query = "select i.attributesBlob.pk from Instance i " +
+            "where i.series = ?1"),
+@NamedQuery(
+    name = Instance.VERIFYING_OBSERVER_NAME_PKS_OF_SERIES,
+    query = "select pn.pk from Instance i " +
+            "join i.verifyingObservers vo " +
+            "join vo.verifyingObserverName pn " +
+            "where i.series = ?1"),
+@NamedQuery(
+    name = Instance.DELETE_BY_SERIES,
+    query = "delete from Instance i " +
+            "where i.series = ?1")
 })
 @Entity
 @Table(name = "instance",
@@ -181,6 +200,10 @@ public class Instance {
     public static final String FIND_BY_STUDY_IUID = "Instance.findByStudyIUID";
     public static final String IUIDS_OF_STUDY = "Instance.iuidsOfStudy";
     public static final String IUIDS_OF_SERIES = "Instance.iuidsOfSeries";
+    public static final String SOP_UIDS_OF_SERIES = "Instance.sopUIDsOfSeries";
+    public static final String ATTRIBUTES_BLOB_PKS_OF_SERIES = "Instance.attributesBlobPksOfSeries";
+    public static final String VERIFYING_OBSERVER_NAME_PKS_OF_SERIES = "Instance.verifyingObserverNamePksOfSeries";
+    public static final String DELETE_BY_SERIES = "Instance.deleteBySeries";
     public static final String FIND_LAST_MODIFIED_STUDY_LEVEL = "Instance.findLastModifiedStudyLevel";
     public static final String FIND_LAST_MODIFIED_SERIES_LEVEL = "Instance.findLastModifiedSeriesLevel";
     public static final String FIND_LAST_MODIFIED_INSTANCE_LEVEL = "Instance.findLastModifiedInstanceLevel";
@@ -299,6 +322,13 @@ public class Instance {
         updatedTime = now;
     }
 
+    public Instance() {}
+
+    public Instance(String sopClassUID, String sopInstanceUID) {
+        this.sopClassUID = sopClassUID;
+        this.sopInstanceUID = sopInstanceUID;
+    }
+
     @PreUpdate
     public void onPreUpdate() {
         updatedTime = new Date();
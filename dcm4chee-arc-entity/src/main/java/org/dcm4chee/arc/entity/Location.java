@@ -59,11 +59,27 @@ import java.util.Date;
 @NamedQueries({
         @NamedQuery(name = Location.FIND_BY_STORAGE_ID_AND_STATUS,
                 query = "select l from Location l where l.storageID=?1 and l.status=?2"),
+        @NamedQuery(name = Location.FIND_BY_STORAGE_ID_AND_STATUS_AFTER_PK,
+                query = "select l from Location l where l.storageID=?1 and l.status=?2 and l.pk>?3 order by l.pk"),
+        @NamedQuery(name = Location.FIND_BY_PKS_AND_STATUS,
+                query = "select l from Location l where l.pk in ?1 and l.status=?2"),
         @NamedQuery(name = Location.FIND_BY_STUDY_PK,
                 query = "select l from Location l join fetch l.instance inst " +
                         "where inst.series.study.pk=?1"),
         @NamedQuery(name = Location.FIND_BY_SERIES_PK,
                 query = "select l from Location l where l.instance.series.pk=?1"),
+        @NamedQuery(name = Location.MULTI_REFS_BY_SERIES,
+                query = "select l.pk, l.multiReference from Location l join l.instance i " +
+                        "where i.series = ?1 and l.multiReference is not null"),
+        @NamedQuery(name = Location.MULTI_REFS_BY_SERIES_AND_STORAGE_IDS,
+                query = "select l.pk, l.multiReference from Location l join l.instance i " +
+                        "where i.series = ?1 and l.storageID in ?2 and l.multiReference is not null"),
+        @NamedQuery(name = Location.UIDMAP_PKS_BY_SERIES,
+                query = "select distinct u.pk from Location l join l.instance i join l.uidMap u " +
+                        "where i.series = ?1"),
+        @NamedQuery(name = Location.UIDMAP_PKS_BY_SERIES_AND_STORAGE_IDS,
+                query = "select distinct u.pk from Location l join l.instance i join l.uidMap u " +
+                        "where i.series = ?1 and l.storageID in ?2"),
         @NamedQuery(name = Location.FIND_BY_STUDY_PK_AND_STORAGE_IDS,
                 query = "select l from Location l join fetch l.instance inst " +
                         "where inst.series.study.pk=?1 and l.storageID in ?2"),
@@ -88,6 +104,9 @@ import java.util.Date;
                         "where i.conceptNameCode=?1 and i.updatedTime<?2 order by i.pk"),
         @NamedQuery(name = Location.COUNT_BY_MULTI_REF,
                 query = "select count(l) from Location l where l.multiReference=?1"),
+        @NamedQuery(name = Location.COUNT_BY_MULTI_REFS,
+                query = "select l.multiReference, count(l) from Location l " +
+                        "where l.multiReference in ?1 group by l.multiReference"),
         @NamedQuery(name = Location.COUNT_BY_UIDMAP,
                 query = "select count(l) from Location l where l.uidMap=?1"),
         @NamedQuery(name = Location.SET_DIGEST,
@@ -96,8 +115,23 @@ import java.util.Date;
                 query = "update Location l set l.status = ?2 where l.pk = ?1"),
         @NamedQuery(name = Location.UPDATE_STATUS_FROM,
                 query = "update Location l set l.status = ?3 where l.pk = ?1 and l.status = ?2"),
+        @NamedQuery(name = Location.UPDATE_STATUS_BY_PKS,
+                query = "update Location l set l.status = ?2 where l.pk in ?1"),
+        @NamedQuery(name = Location.MARK_TO_DELETE_BY_PKS,
+                query = "update Location l set l.status = ?2, l.instance = null, l.multiReference = null, " +
+                        "l.uidMap = null where l.pk in ?1"),
+        @NamedQuery(name = Location.MARK_TO_DELETE_BY_SERIES,
+                query = "update Location l set l.status = ?2, l.instance = null, l.uidMap = null " +
+                        "where l.multiReference is null " +
+                        "and l.instance in (select i from Instance i where i.series = ?1)"),
+        @NamedQuery(name = Location.MARK_TO_DELETE_BY_SERIES_AND_STORAGE_IDS,
+                query = "update Location l set l.status = ?2, l.instance = null, l.uidMap = null " +
+                        "where l.multiReference is null and l.storageID in ?3 " +
+                        "and l.instance in (select i from Instance i where i.series = ?1)"),
         @NamedQuery(name = Location.DELETE_BY_PK,
-                query = "delete from Location l where l.pk = ?1")
+                query = "delete from Location l where l.pk = ?1"),
+        @NamedQuery(name = Location.DELETE_BY_PKS,
+                query = "delete from Location l where l.pk in ?1")
 })
 @NamedNativeQueries({
         @NamedNativeQuery(name = Location.SIZE_OF_SERIES,
@@ -110,6 +144,8 @@ import java.util.Date;
 public class Location {
 
     public static final String FIND_BY_STORAGE_ID_AND_STATUS = "Location.FindByStorageIDAndStatus";
+    public static final String FIND_BY_STORAGE_ID_AND_STATUS_AFTER_PK = "Location.FindByStorageIDAndStatusAfterPk";
+    public static final String FIND_BY_PKS_AND_STATUS = "Location.FindByPksAndStatus";
     public static final String FIND_BY_STUDY_PK = "Location.FindByStudyPk";
     public static final String FIND_BY_SERIES_PK = "Location.FindBySeriesPk";
     public static final String FIND_BY_STUDY_PK_AND_STORAGE_IDS = "Location.FindByStudyPkAndStorageIDs";
@@ -120,12 +156,22 @@ public class Location {
     public static final String FIND_BY_CONCEPT_NAME_CODE = "Location.FindByConceptNameCode";
     public static final String FIND_BY_REJECTION_CODE_BEFORE = "Location.FindByRejectionCodeBefore";
     public static final String FIND_BY_CONCEPT_NAME_CODE_BEFORE = "Location.FindByConceptNameCodeBefore";
+    public static final String MULTI_REFS_BY_SERIES = "Location.MultiRefsBySeries";
+    public static final String MULTI_REFS_BY_SERIES_AND_STORAGE_IDS = "Location.MultiRefsBySeriesAndStorageIDs";
+    public static final String UIDMAP_PKS_BY_SERIES = "Location.UIDMapPksBySeries";
+    public static final String UIDMAP_PKS_BY_SERIES_AND_STORAGE_IDS = "Location.UIDMapPksBySeriesAndStorageIDs";
     public static final String COUNT_BY_MULTI_REF = "Location.CountByMultiRef";
+    public static final String COUNT_BY_MULTI_REFS = "Location.CountByMultiRefs";
     public static final String COUNT_BY_UIDMAP = "Location.CountByUIDMap";
     public static final String SET_DIGEST = "Location.SetDigest";
     public static final String SET_STATUS = "Location.SetStatus";
     public static final String UPDATE_STATUS_FROM = "Location.UpdateStatusFrom";
+    public static final String UPDATE_STATUS_BY_PKS = "Location.UpdateStatusByPks";
+    public static final String MARK_TO_DELETE_BY_PKS = "Location.MarkToDeleteByPks";
+    public static final String MARK_TO_DELETE_BY_SERIES = "Location.MarkToDeleteBySeries";
+    public static final String MARK_TO_DELETE_BY_SERIES_AND_STORAGE_IDS = "Location.MarkToDeleteBySeriesAndStorageIDs";
     public static final String DELETE_BY_PK = "Location.DeleteByPk";
+    public static final String DELETE_BY_PKS = "Location.DeleteByPks";
     public static final String SIZE_OF_SERIES = "Location.SizeOfSeries";
 
     public enum Status {
@@ -66,8 +66,12 @@ import static org.dcm4che3.data.PersonName.Group;
     @Index(columnList = "p_given_name"),
     @Index(columnList = "p_middle_name")
 })
+@NamedQuery(name = PersonName.DELETE_BY_PKS,
+        query = "delete from PersonName pn where pn.pk in ?1")
 public class PersonName {
 
+    public static final String DELETE_BY_PKS = "PersonName.DeleteByPks";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "pk")
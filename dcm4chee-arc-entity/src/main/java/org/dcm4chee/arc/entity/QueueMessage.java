@@ -79,8 +79,29 @@ import java.util.*;
                 query = "select distinct o.deviceName from QueueMessage o where o.batchID=?1 order by o.deviceName"),
         @NamedQuery(name = QueueMessage.COUNT_BY_DEVICE_AND_QUEUE_NAME_AND_STATUS,
                 query = "select count(o) from QueueMessage o where o.deviceName=?1 and o.queueName=?2 and o.status=?3"),
+        @NamedQuery(name = QueueMessage.COUNT_BY_DEVICE_AND_QUEUE_NAME_AND_STATUS_GROUP_BY_FLOW,
+                query = "select o.batchID, r.destinationAET, e.exporterID, count(o) from QueueMessage o " +
+                        "left join o.retrieveTask r left join o.exportTask e " +
+                        "where o.deviceName=?1 and o.queueName=?2 and o.status=?3 " +
+                        "group by o.batchID, r.destinationAET, e.exporterID"),
         @NamedQuery(name = QueueMessage.COUNT_BY_BATCH_ID_AND_STATUS,
-                query = "select count(o) from QueueMessage o where o.batchID=?1 and o.status=?2")
+                query = "select count(o) from QueueMessage o where o.batchID=?1 and o.status=?2"),
+        @NamedQuery(name = QueueMessage.FIND_STARTED_BEFORE,
+                query = "select o from QueueMessage o where o.deviceName=?1 and o.queueName=?2 and o.status=?3 " +
+                        "and o.processingStartTime<?4"),
+        @NamedQuery(name = QueueMessage.FIND_PKS_TO_CLAIM,
+                query = "select o.pk from QueueMessage o where o.deviceName=?1 and o.queueName=?2 and o.status=?3 " +
+                        "and o.scheduledTime<=?4 order by o.priority desc, o.scheduledTime"),
+        @NamedQuery(name = QueueMessage.FIND_BY_PKS_AND_STATUS,
+                query = "select o from QueueMessage o where o.pk in ?1 and o.status=?2 " +
+                        "order by o.priority desc, o.scheduledTime"),
+        @NamedQuery(name = QueueMessage.FIND_BY_MSG_IDS,
+                query = "select o from QueueMessage o " +
+                        "left join fetch o.exportTask " +
+                        "left join fetch o.retrieveTask " +
+                        "left join fetch o.diffTask " +
+                        "left join fetch o.storageVerificationTask " +
+                        "where o.messageID in ?1")
 })
 public class QueueMessage {
 
@@ -88,7 +109,13 @@ public class QueueMessage {
     public static final String FIND_DEVICE_BY_MSG_ID = "QueueMessage.FindDeviceByMsgId";
     public static final String FIND_DEVICE_BY_BATCH_ID = "QueueMessage.FindDeviceByBatchId";
     public static final String COUNT_BY_DEVICE_AND_QUEUE_NAME_AND_STATUS = "QueueMessage.CountByDeviceAndQueueNameAndStatus";
+    public static final String COUNT_BY_DEVICE_AND_QUEUE_NAME_AND_STATUS_GROUP_BY_FLOW =
+            "QueueMessage.CountByDeviceAndQueueNameAndStatusGroupByFlow";
     public static final String COUNT_BY_BATCH_ID_AND_STATUS = "QueueMessage.CountByBatchIdAndStatus";
+    public static final String FIND_STARTED_BEFORE = "QueueMessage.FindStartedBefore";
+    public static final String FIND_PKS_TO_CLAIM = "QueueMessage.FindPksToClaim";
+    public static final String FIND_BY_PKS_AND_STATUS = "QueueMessage.FindByPksAndStatus";
+    public static final String FIND_BY_MSG_IDS = "QueueMessage.FindByMsgIds";
 
     public enum Status {
         SCHEDULED, IN_PROCESS, COMPLETED, WARNING, FAILED, CANCELED, TO_SCHEDULE;
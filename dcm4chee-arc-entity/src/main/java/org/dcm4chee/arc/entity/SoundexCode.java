@@ -56,8 +56,12 @@ import java.util.StringTokenizer;
     @Index(columnList = "sx_pn_comp_part"),
     @Index(columnList = "sx_code_value")
 })
+@NamedQuery(name = SoundexCode.DELETE_BY_PERSON_NAME_PKS,
+        query = "delete from SoundexCode sx where sx.personName.pk in ?1")
 public class SoundexCode {
 
+    public static final String DELETE_BY_PERSON_NAME_PKS = "SoundexCode.DeleteByPersonNamePks";
+
     @Id
     @GeneratedValue(strategy=GenerationType.IDENTITY)
     @Column(name = "pk")
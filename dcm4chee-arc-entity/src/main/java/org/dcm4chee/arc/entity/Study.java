@@ -88,6 +88,23 @@ import java.util.*;
                 query="select new org.dcm4chee.arc.entity.Study$PKUID(st.pk, st.studyInstanceUID) from Study st " +
                         "where st.storageIDs in ?1 and st.externalRetrieveAET = ?2 " +
                         "order by st.accessTime"),
+        @NamedQuery(
+                name=Study.FIND_DELETION_CANDIDATES_BY_STORAGE_IDS,
+                query="select new org.dcm4chee.arc.entity.Study$DeletionCandidate(" +
+                        "st.pk, st.studyInstanceUID, st.accessTime, st.size) from Study st " +
+                        "where st.storageIDs in ?1 " +
+                        "and (st.accessTime > ?2 or (st.accessTime = ?2 and st.pk > ?3)) " +
+                        "order by st.accessTime, st.pk"),
+        @NamedQuery(
+                name=Study.FIND_DELETION_CANDIDATES_BY_STORAGE_IDS_AND_EXT_RETR_AET,
+                query="select new org.dcm4chee.arc.entity.Study$DeletionCandidate(" +
+                        "st.pk, st.studyInstanceUID, st.accessTime, st.size) from Study st " +
+                        "where st.storageIDs in ?1 and st.externalRetrieveAET = ?4 " +
+                        "and (st.accessTime > ?2 or (st.accessTime = ?2 and st.pk > ?3)) " +
+                        "order by st.accessTime, st.pk"),
+        @NamedQuery(
+                name=Study.ACCESS_TIME_BY_PKS,
+                query="select st.pk, st.accessTime from Study st where st.pk in ?1"),
         @NamedQuery(
                 name=Study.UPDATE_ACCESS_TIME,
                 query="update Study st set st.accessTime = CURRENT_TIMESTAMP where st.pk = ?1"),
@@ -165,6 +182,11 @@ public class Study {
     public static final String FIND_BY_STUDY_IUID_EAGER = "Study.findByStudyIUIDEager";
     public static final String FIND_PK_BY_STORAGE_IDS_ORDER_BY_ACCESS_TIME = "Study.findPkByStorageIDsOrderByAccessTime";
     public static final String FIND_PK_BY_STORAGE_IDS_AND_EXT_RETR_AET = "Study.findPkByStorageIDsAndExtRetrAET";
+    public static final String FIND_DELETION_CANDIDATES_BY_STORAGE_IDS =
+            "Study.findDeletionCandidatesByStorageIDs";
+    public static final String FIND_DELETION_CANDIDATES_BY_STORAGE_IDS_AND_EXT_RETR_AET =
+            "Study.findDeletionCandidatesByStorageIDsAndExtRetrAET";
+    public static final String ACCESS_TIME_BY_PKS = "Study.accessTimeByPks";
     public static final String UPDATE_ACCESS_TIME = "Study.UpdateAccessTime";
     public static final String SET_STUDY_SIZE = "Study.setStudySize";
     public static final String SET_COMPLETENESS = "Study.setCompleteness";
@@ -195,6 +217,26 @@ public class Study {
         }
     }
 
+    public static class DeletionCandidate extends PKUID {
+        public final Date accessTime;
+        public final long size;
+
+        public DeletionCandidate(Long pk, String uid, Date accessTime, long size) {
+            super(pk, uid);
+            this.accessTime = accessTime;
+            this.size = size;
+        }
+
+        @Override
+        public String toString() {
+            return "Study[pk=" + pk
+                    + ", uid=" + uid
+                    + ", accessTime=" + accessTime
+                    + ", size=" + size
+                    + "]";
+        }
+    }
+
     @Id
     @GeneratedValue(strategy=GenerationType.IDENTITY)
     @Column(name = "pk")
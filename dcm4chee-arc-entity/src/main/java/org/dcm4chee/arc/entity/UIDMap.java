@@ -51,7 +51,13 @@ import java.util.Map;
  */
 @Entity
 @Table(name = "uidmap")
+@NamedQuery(name = UIDMap.DELETE_ORPHANED_BY_PKS,
+        query = "delete from UIDMap u where u.pk in ?1 " +
+                "and not exists (select l from Location l where l.uidMap = u)")
 public class UIDMap {
+
+    public static final String DELETE_ORPHANED_BY_PKS = "UIDMap.DeleteOrphanedByPks";
+
     @Id
     @GeneratedValue(strategy= GenerationType.IDENTITY)
     @Column(name = "pk")
@@ -58,8 +58,13 @@ import java.util.Date;
 @Table(name = "verify_observer", indexes = {
     @Index(columnList = "verify_datetime")
 })
+@NamedNativeQuery(name = VerifyingObserver.DELETE_BY_SERIES_PK,
+        query = "delete from verify_observer " +
+                "where instance_fk in (select pk from instance where series_fk = ?1)")
 public class VerifyingObserver {
 
+    public static final String DELETE_BY_SERIES_PK = "VerifyingObserver.DeleteBySeriesPk";
+
     @Id
     @GeneratedValue(strategy=GenerationType.IDENTITY)
     @Column(name = "pk")
@@ -40,6 +40,7 @@
 
 package org.dcm4chee.arc.export.mgt;
 
+import org.dcm4che3.data.Attributes;
 import org.dcm4chee.arc.conf.ExporterDescriptor;
 import org.dcm4chee.arc.entity.ExportTask;
 import org.dcm4chee.arc.event.QueueMessageEvent;
@@ -71,6 +72,10 @@ public interface ExportManager {
                             HttpServletRequestInfo httpServletRequestInfo, String batchID)
             throws QueueSizeLimitExceededException;
 
+    void scheduleExportTasks(List<Attributes> matches, ExporterDescriptor exporter,
+                             HttpServletRequestInfo httpServletRequestInfo, String batchID)
+            throws QueueSizeLimitExceededException;
+
     boolean scheduleStudyExport(String suid, ExporterDescriptor exporter, Date notExportedAfter, String batchID);
 
     boolean deleteExportTask(Long pk, QueueMessageEvent queueEvent);
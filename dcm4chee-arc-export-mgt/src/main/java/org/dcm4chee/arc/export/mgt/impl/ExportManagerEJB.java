@@ -62,6 +62,7 @@ import org.dcm4chee.arc.query.QueryService;
 import org.dcm4chee.arc.query.util.MatchTask;
 import org.dcm4chee.arc.query.util.QueryBuilder;
 import org.dcm4chee.arc.query.util.TaskQueryParam;
+import org.hibernate.LockOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,6 +74,7 @@ import javax.jms.JMSException;
 import javax.jms.JMSRuntimeException;
 import javax.jms.ObjectMessage;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
@@ -159,11 +161,8 @@ public class ExportManagerEJB implements ExportManager {
         task.setScheduledTime(scheduledTime);
         QueueMessage queueMessage = task.getQueueMessage();
         if (queueMessage != null) {
-            if (queueMessage.getStatus() == QueueMessage.Status.SCHEDULED) {
-                queueMessage.setStatus(QueueMessage.Status.CANCELED);
-                LOG.info("Cancel processing of Task[id={}] at Queue {}",
-                        queueMessage.getMessageID(), queueMessage.getQueueName());
-            }
+            if (queueMessage.getStatus() == QueueMessage.Status.SCHEDULED)
+                queueManager.cancelScheduledTask(queueMessage);
             task.setQueueMessage(null);
         }
         LOG.debug("Update {}", task);
@@ -185,11 +184,7 @@ public class ExportManagerEJB implements ExportManager {
 
     @Override
     public int scheduleExportTasks(int fetchSize) {
-        final List<ExportTask> resultList = em.createNamedQuery(
-                ExportTask.FIND_SCHEDULED_BY_DEVICE_NAME, ExportTask.class)
-                .setParameter(1, device.getDeviceName())
-                .setMaxResults(fetchSize)
-                .getResultList();
+        final List<ExportTask> resultList = claimExportTasks(em, device.getDeviceName(), fetchSize);
         ArchiveDeviceExtension arcDev = device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class);
         int count = 0;
         for (ExportTask exportTask : resultList) {
@@ -205,6 +200,15 @@ public class ExportManagerEJB implements ExportManager {
         return count;
     }
 
+    static List<ExportTask> claimExportTasks(EntityManager em, String deviceName, int fetchSize) {
+        return em.createNamedQuery(ExportTask.FIND_SCHEDULED_BY_DEVICE_NAME, ExportTask.class)
+                .setParameter(1, deviceName)
+                .setMaxResults(fetchSize)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("javax.persistence.lock.timeout", LockOptions.SKIP_LOCKED)
+                .getResultList();
+    }
+
     @Override
     public void scheduleExportTask(String studyUID, String seriesUID, String objectUID, ExporterDescriptor exporter,
                                    HttpServletRequestInfo httpServletRequestInfo, String batchID)
@@ -218,6 +222,22 @@ public class ExportManagerEJB implements ExportManager {
         scheduleExportTask(task, exporter, httpServletRequestInfo, batchID);
     }
 
+    @Override
+    public void scheduleExportTasks(List<Attributes> matches, ExporterDescriptor exporter,
+                                    HttpServletRequestInfo httpServletRequestInfo, String batchID)
+            throws QueueSizeLimitExceededException {
+        Date now = new Date();
+        List<ExportTask> tasks = new ArrayList<>(matches.size());
+        for (Attributes match : matches)
+            tasks.add(createExportTask(
+                    exporter.getExporterID(),
+                    match.getString(Tag.StudyInstanceUID),
+                    match.getString(Tag.SeriesInstanceUID, "*"),
+                    match.getString(Tag.SOPInstanceUID, "*"),
+                    now));
+        scheduleExportTasks(tasks, exporter, httpServletRequestInfo, batchID);
+    }
+
     @Override
     public boolean scheduleStudyExport(
             String studyUID, ExporterDescriptor exporter, Date notExportedAfter, String batchID) {
@@ -251,6 +271,28 @@ public class ExportManagerEJB implements ExportManager {
                 exporter.getPriority(),
                 batchID, 0L);
         exportTask.setQueueMessage(queueMessage);
+        updateExportTaskInfo(exportTask, exporter);
+    }
+
+    private void scheduleExportTasks(List<ExportTask> exportTasks, ExporterDescriptor exporter,
+                                     HttpServletRequestInfo httpServletRequestInfo, String batchID)
+            throws QueueSizeLimitExceededException {
+        List<ObjectMessage> msgs = new ArrayList<>(exportTasks.size());
+        for (ExportTask exportTask : exportTasks)
+            msgs.add(createMessage(exportTask, httpServletRequestInfo));
+        List<QueueMessage> queueMessages = queueManager.scheduleMessages(
+                exporter.getQueueName(),
+                msgs,
+                exporter.getPriority(),
+                batchID, 0L);
+        Iterator<QueueMessage> iter = queueMessages.iterator();
+        for (ExportTask exportTask : exportTasks) {
+            exportTask.setQueueMessage(iter.next());
+            updateExportTaskInfo(exportTask, exporter);
+        }
+    }
+
+    private void updateExportTaskInfo(ExportTask exportTask, ExporterDescriptor exporter) {
         try {
             Attributes attrs = queryService.queryExportTaskInfo(
                     exportTask.getStudyInstanceUID(),
@@ -320,6 +362,7 @@ public class ExportManagerEJB implements ExportManager {
     }
 
     @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
     public long cancelExportTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam exportTaskQueryParam) {
         return queueManager.cancelExportTasks(queueTaskQueryParam, exportTaskQueryParam);
     }
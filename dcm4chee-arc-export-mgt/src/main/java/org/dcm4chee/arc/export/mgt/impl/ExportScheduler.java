@@ -33,6 +33,9 @@ public class ExportScheduler extends Scheduler {
     @Inject
     private ExportManager ejb;
 
+    @Inject
+    private ExportTaskCoalescer coalescer;
+
     protected ExportScheduler() {
         super(Mode.scheduleWithFixedDelay);
     }
@@ -121,6 +124,9 @@ public class ExportScheduler extends Scheduler {
 
     private boolean createOrUpdateStudyExportTask(StoreSession session, String exporterID,
             String studyIUID, Date scheduledTime) {
+        if (coalescer.createOrUpdateStudyExportTask(exporterID, studyIUID, scheduledTime))
+            return true;
+
         ArchiveAEExtension arcAE = session.getArchiveAEExtension();
         ArchiveDeviceExtension arcDev = arcAE.getArchiveDeviceExtension();
         int retries = arcDev.getStoreUpdateDBMaxRetries();
@@ -146,6 +152,9 @@ public class ExportScheduler extends Scheduler {
 
     private boolean createOrUpdateSeriesExportTask(StoreSession session, String exporterID,
             String studyIUID, String seriesIUID, Date scheduledTime) {
+        if (coalescer.createOrUpdateSeriesExportTask(exporterID, studyIUID, seriesIUID, scheduledTime))
+            return true;
+
         ArchiveAEExtension arcAE = session.getArchiveAEExtension();
         ArchiveDeviceExtension arcDev = arcAE.getArchiveDeviceExtension();
         int retries = arcDev.getStoreUpdateDBMaxRetries();
@@ -171,7 +180,6 @@ public class ExportScheduler extends Scheduler {
 
     private boolean createOrUpdateInstanceExportTask(StoreSession session, String exporterID,
             String studyIUID, String seriesIUID, String sopIUID, Date scheduledTime) {
-        ejb.createOrUpdateInstanceExportTask(exporterID, studyIUID, seriesIUID, sopIUID, scheduledTime);
         ArchiveAEExtension arcAE = session.getArchiveAEExtension();
         ArchiveDeviceExtension arcDev = arcAE.getArchiveDeviceExtension();
         int retries = arcDev.getStoreUpdateDBMaxRetries();
@@ -0,0 +1,203 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.export.mgt.impl;
+
+import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.Scheduler;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.Duration;
+import org.dcm4chee.arc.export.mgt.ExportManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ejb.EJBException;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Coalesces the updates of Study and Series Export Tasks triggered by received objects, so the Export Task of a
+ * study or series is only created or updated once per Export Task Flush Interval, instead of once per object.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class ExportTaskCoalescer extends Scheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExportTaskCoalescer.class);
+
+    @Inject
+    private Device device;
+
+    @Inject
+    private ExportManager ejb;
+
+    private final Map<Key, Date> pending = new ConcurrentHashMap<>();
+    private volatile boolean stopped = true;
+
+    protected ExportTaskCoalescer() {
+        super(Mode.scheduleWithFixedDelay);
+    }
+
+    @Override
+    protected Logger log() {
+        return LOG;
+    }
+
+    @Override
+    protected Duration getPollingInterval() {
+        return arcDev().getExportTaskFlushInterval();
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        stopped = getPollingInterval() == null;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        super.stop();
+        execute();
+    }
+
+    @Override
+    protected void execute() {
+        Iterator<Key> iter = pending.keySet().iterator();
+        while (iter.hasNext()) {
+            Key key = iter.next();
+            Date scheduledTime = pending.remove(key);
+            if (scheduledTime != null)
+                createOrUpdateExportTask(key, scheduledTime);
+        }
+    }
+
+    public boolean createOrUpdateStudyExportTask(String exporterID, String studyIUID, Date scheduledTime) {
+        return offer(new Key(exporterID, studyIUID, null), scheduledTime);
+    }
+
+    public boolean createOrUpdateSeriesExportTask(
+            String exporterID, String studyIUID, String seriesIUID, Date scheduledTime) {
+        return offer(new Key(exporterID, studyIUID, seriesIUID), scheduledTime);
+    }
+
+    private boolean offer(Key key, Date scheduledTime) {
+        if (stopped)
+            return false;
+
+        pending.merge(key, scheduledTime, (prev, value) -> prev.after(value) ? prev : value);
+        if (stopped)
+            execute();
+        return true;
+    }
+
+    private void createOrUpdateExportTask(Key key, Date scheduledTime) {
+        ArchiveDeviceExtension arcDev = arcDev();
+        int retries = arcDev.getStoreUpdateDBMaxRetries();
+        for (;;) {
+            try {
+                if (key.seriesIUID == null)
+                    ejb.createOrUpdateStudyExportTask(key.exporterID, key.studyIUID, scheduledTime);
+                else
+                    ejb.createOrUpdateSeriesExportTask(key.exporterID, key.studyIUID, key.seriesIUID, scheduledTime);
+                return;
+            } catch (EJBException e) {
+                if (retries-- > 0) {
+                    LOG.info("Failed to update {} - retry:\n", key, e);
+                } else {
+                    LOG.warn("Failed to update {}:\n", key, e);
+                    return;
+                }
+            }
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(arcDev.getStoreUpdateDBMaxRetryDelay()));
+            } catch (InterruptedException e) {
+                LOG.info("Failed to delay retry to update {}:\n", key, e);
+            }
+        }
+    }
+
+    private ArchiveDeviceExtension arcDev() {
+        return device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class);
+    }
+
+    private static final class Key {
+        final String exporterID;
+        final String studyIUID;
+        final String seriesIUID;
+
+        Key(String exporterID, String studyIUID, String seriesIUID) {
+            this.exporterID = exporterID;
+            this.studyIUID = studyIUID;
+            this.seriesIUID = seriesIUID;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return exporterID.equals(key.exporterID)
+                    && studyIUID.equals(key.studyIUID)
+                    && Objects.equals(seriesIUID, key.seriesIUID);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(exporterID, studyIUID, seriesIUID);
+        }
+
+        @Override
+        public String toString() {
+            return seriesIUID == null
+                    ? "Study Export Task[exporterID=" + exporterID + ", studyUID=" + studyIUID + ']'
+                    : "Series Export Task[exporterID=" + exporterID + ", studyUID=" + studyIUID
+                        + ", seriesUID=" + seriesIUID + ']';
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.export.mgt.impl;
+
+import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.ExporterDescriptor;
+import org.dcm4chee.arc.entity.ExportTask;
+import org.dcm4chee.arc.entity.QueueMessage;
+import org.dcm4chee.arc.qmgt.QueueManager;
+import org.dcm4chee.arc.query.QueryService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.jms.ObjectMessage;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.dcm4chee.arc.test.Stubs.inject;
+import static org.dcm4chee.arc.test.Stubs.proxy;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Schedules Export Tasks from an in-memory H2 database by {@link ExportManagerEJB#scheduleExportTasks(int)}
+ * invoked by several threads in parallel, as performed by several archive nodes, and checks that each due Export
+ * Task is scheduled exactly once. H2 does not support {@code SKIP LOCKED}, so concurrent claims are only resolved by
+ * row locks and the version check of Export Tasks; skipping of locked rows by other databases is not covered.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ExportTaskClaimTest {
+
+    private static final String DEVICE = "dcm4chee-arc";
+    private static final int TASKS = 200;
+    private static final int THREADS = 4;
+    private static final int FETCH_SIZE = 10;
+    private static final String EXPORTER_ID = "STORESCP";
+
+    private EntityManagerFactory emf;
+    private Device device;
+
+    @Before
+    public void setUp() {
+        emf = Persistence.createEntityManagerFactory("dcm4chee-arc-test");
+        ExporterDescriptor exporter = new ExporterDescriptor(EXPORTER_ID);
+        exporter.setQueueName("Export1");
+        exporter.setAETitle("DCM4CHEE");
+        ArchiveDeviceExtension arcDev = new ArchiveDeviceExtension();
+        arcDev.addExporterDescriptor(exporter);
+        device = new Device(DEVICE);
+        device.addDeviceExtension(arcDev);
+    }
+
+    @After
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Test
+    public void testClaimInParallel() throws Exception {
+        createExportTasks();
+        Collection<Long> scheduled = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++)
+                futures.add(executor.submit(() -> {
+                    scheduleExportTasks(scheduled);
+                    return null;
+                }));
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals("duplicate scheduled", scheduled.size(), new HashSet<>(scheduled).size());
+        assertEquals("missed", TASKS, scheduled.size());
+    }
+
+    private void createExportTasks() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Date scheduledTime = new Date(System.currentTimeMillis() - 60000L);
+            for (int i = 0; i < TASKS; i++) {
+                ExportTask task = new ExportTask();
+                task.setDeviceName(DEVICE);
+                task.setExporterID(EXPORTER_ID);
+                task.setStudyInstanceUID("1.2.3." + i);
+                task.setSeriesInstanceUID("*");
+                task.setSopInstanceUID("*");
+                task.setScheduledTime(scheduledTime);
+                em.persist(task);
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    private void scheduleExportTasks(Collection<Long> scheduled) throws ReflectiveOperationException {
+        int count;
+        boolean retry;
+        do {
+            count = 0;
+            retry = false;
+            List<Long> pks = new ArrayList<>();
+            EntityManager em = emf.createEntityManager();
+            try {
+                em.getTransaction().begin();
+                count = exportManager(em, pks).scheduleExportTasks(FETCH_SIZE);
+                em.getTransaction().commit();
+                scheduled.addAll(pks);
+            } catch (PersistenceException e) {
+                // concurrent update of the same Export Task detected by its version - retry
+                if (em.getTransaction().isActive())
+                    em.getTransaction().rollback();
+                retry = true;
+            } finally {
+                em.close();
+            }
+        } while (retry || count > 0);
+    }
+
+    private ExportManagerEJB exportManager(EntityManager em, List<Long> scheduled)
+            throws ReflectiveOperationException {
+        ExportManagerEJB ejb = new ExportManagerEJB();
+        inject(ejb, "em", em);
+        inject(ejb, "device", device);
+        inject(ejb, "queryService", proxy(QueryService.class, (method, args) -> null));
+        inject(ejb, "queueManager", proxy(QueueManager.class, (method, args) -> {
+            switch (method.getName()) {
+                case "createObjectMessage":
+                    return message((Long) args[0]);
+                case "scheduleMessage":
+                    ObjectMessage msg = (ObjectMessage) args[1];
+                    scheduled.add((Long) msg.getObject());
+                    return new QueueMessage(DEVICE, (String) args[0], msg, (long) args[4]);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }));
+        return ejb;
+    }
+
+    private static ObjectMessage message(Long pk) {
+        String msgId = "ID:" + pk;
+        return proxy(ObjectMessage.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getJMSMessageID":
+                    return msgId;
+                case "getJMSPriority":
+                    return 4;
+                case "getPropertyNames":
+                    return Collections.emptyEnumeration();
+                case "getObject":
+                    return pk;
+                case "setStringProperty":
+                    return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
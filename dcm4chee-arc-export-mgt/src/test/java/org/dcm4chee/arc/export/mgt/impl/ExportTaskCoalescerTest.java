@@ -0,0 +1,204 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.export.mgt.impl;
+
+import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.Duration;
+import org.dcm4chee.arc.export.mgt.ExportManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.dcm4chee.arc.test.Stubs.inject;
+import static org.dcm4chee.arc.test.Stubs.proxy;
+import static org.junit.Assert.*;
+
+/**
+ * Offers updates of Study and Series Export Tasks to {@link ExportTaskCoalescer} by several threads in parallel and
+ * checks that the stubbed {@link ExportManager} receives the latest scheduled time of each offered Export Task, once
+ * per flush, and that pending updates are flushed on {@link ExportTaskCoalescer#stop()} and on
+ * {@link ExportTaskCoalescer#reload()}, if the Export Task Flush Interval was removed.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ExportTaskCoalescerTest {
+
+    private static final String EXPORTER_ID = "EXPORTER";
+    private static final int THREADS = 4;
+    private static final int STUDIES = 10;
+    private static final int OFFERS_PER_THREAD = 1000;
+    private static final long BASE_TIME = 1500000000000L;
+
+    private final Map<String, List<Date>> updates = new ConcurrentHashMap<>();
+    private ArchiveDeviceExtension arcDev;
+    private ScheduledExecutorService scheduledExecutor;
+    private ExecutorService executor;
+    private ExportTaskCoalescer coalescer;
+
+    @Before
+    public void setUp() throws Exception {
+        arcDev = new ArchiveDeviceExtension();
+        arcDev.setExportTaskFlushInterval(Duration.valueOf("PT1H"));
+        Device device = new Device("dcm4chee-arc");
+        device.addDeviceExtension(arcDev);
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
+        executor = Executors.newFixedThreadPool(THREADS);
+        coalescer = new ExportTaskCoalescer();
+        inject(coalescer, "device", device);
+        inject(coalescer, "ejb", proxy(ExportManager.class, (method, args) -> {
+            switch (method.getName()) {
+                case "createOrUpdateStudyExportTask":
+                    update(args[0] + "/" + args[1], (Date) args[2]);
+                    return null;
+                case "createOrUpdateSeriesExportTask":
+                    update(args[0] + "/" + args[1] + "/" + args[2], (Date) args[3]);
+                    return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }));
+        inject(coalescer, "scheduledExecutor", proxy(ManagedScheduledExecutorService.class,
+                (method, args) -> method.invoke(scheduledExecutor, args)));
+        coalescer.start();
+    }
+
+    @After
+    public void tearDown() {
+        if (coalescer != null)
+            coalescer.stop();
+        if (executor != null)
+            executor.shutdown();
+        if (scheduledExecutor != null)
+            scheduledExecutor.shutdown();
+    }
+
+    @Test
+    public void testMergeConcurrentOffers() throws Exception {
+        Map<String, Date> offered = offerConcurrently(() -> {});
+        assertTrue(updates.isEmpty());
+        coalescer.stop();
+        assertEquals(offered.keySet(), updates.keySet());
+        for (Map.Entry<String, Date> e : offered.entrySet())
+            assertEquals(e.getKey(), Collections.singletonList(e.getValue()), updates.get(e.getKey()));
+    }
+
+    @Test
+    public void testOffersDuringStop() throws Exception {
+        CountDownLatch offering = new CountDownLatch(THREADS);
+        ExecutorService stopper = Executors.newSingleThreadExecutor();
+        Map<String, Date> offered;
+        try {
+            Future<?> stop = stopper.submit(() -> {
+                offering.await();
+                coalescer.stop();
+                return null;
+            });
+            offered = offerConcurrently(offering::countDown);
+            stop.get();
+        } finally {
+            stopper.shutdown();
+        }
+        assertEquals(offered.keySet(), updates.keySet());
+        for (Map.Entry<String, Date> e : offered.entrySet())
+            assertEquals(e.getKey(), e.getValue(), Collections.max(updates.get(e.getKey())));
+        assertFalse(coalescer.createOrUpdateStudyExportTask(EXPORTER_ID, "1.2.3", new Date()));
+    }
+
+    @Test
+    public void testFlushOnReload() throws Exception {
+        Date scheduledTime = new Date(BASE_TIME);
+        assertTrue(coalescer.createOrUpdateStudyExportTask(EXPORTER_ID, "1.2.3", scheduledTime));
+        assertTrue(coalescer.createOrUpdateSeriesExportTask(EXPORTER_ID, "1.2.3", "1.2.3.4", scheduledTime));
+        coalescer.reload();
+        assertTrue(updates.isEmpty());
+        arcDev.setExportTaskFlushInterval(null);
+        coalescer.reload();
+        assertEquals(Collections.singletonList(scheduledTime), updates.get(EXPORTER_ID + "/1.2.3"));
+        assertEquals(Collections.singletonList(scheduledTime), updates.get(EXPORTER_ID + "/1.2.3/1.2.3.4"));
+        assertFalse(coalescer.createOrUpdateStudyExportTask(EXPORTER_ID, "1.2.3", scheduledTime));
+    }
+
+    /**
+     * Offers updates of Study and Series Export Tasks by several threads in parallel, and returns the latest
+     * scheduled time of accepted offers by Export Task. Each thread invokes {@code started} after its first offer.
+     */
+    private Map<String, Date> offerConcurrently(Runnable started) throws Exception {
+        List<Future<Map<String, Date>>> futures = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                Map<String, Date> offered = new HashMap<>();
+                for (int i = 0; i < OFFERS_PER_THREAD; i++) {
+                    String studyIUID = "1.2.3." + (i % STUDIES);
+                    String seriesIUID = studyIUID + '.' + (i % 3);
+                    Date scheduledTime = new Date(BASE_TIME + i * THREADS + thread);
+                    if (coalescer.createOrUpdateStudyExportTask(EXPORTER_ID, studyIUID, scheduledTime))
+                        offered.merge(EXPORTER_ID + '/' + studyIUID, scheduledTime, ExportTaskCoalescerTest::latest);
+                    if (coalescer.createOrUpdateSeriesExportTask(
+                            EXPORTER_ID, studyIUID, seriesIUID, scheduledTime))
+                        offered.merge(EXPORTER_ID + '/' + studyIUID + '/' + seriesIUID, scheduledTime,
+                                ExportTaskCoalescerTest::latest);
+                    if (i == 0)
+                        started.run();
+                }
+                return offered;
+            }));
+        }
+        Map<String, Date> offered = new HashMap<>();
+        for (Future<Map<String, Date>> future : futures)
+            future.get().forEach((key, scheduledTime) -> offered.merge(key, scheduledTime,
+                    ExportTaskCoalescerTest::latest));
+        return offered;
+    }
+
+    private void update(String key, Date scheduledTime) {
+        updates.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(scheduledTime);
+    }
+
+    private static Date latest(Date d1, Date d2) {
+        return d1.after(d2) ? d1 : d2;
+    }
+}
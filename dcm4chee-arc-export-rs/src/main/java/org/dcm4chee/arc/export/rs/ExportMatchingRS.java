@@ -75,6 +75,8 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -288,6 +290,8 @@ public class ExportMatchingRS {
             QueryContext ctx = queryContext(method, qrlevel, studyInstanceUID, seriesInstanceUID, ae);
             String warning = null;
             int count = 0;
+            int batchSize = arcDev.getQueueTasksFetchSize();
+            List<Attributes> batch = new ArrayList<>(batchSize);
             Response.Status status = Response.Status.ACCEPTED;
             try (Query query = queryService.createQuery(ctx)) {
                 query.beginTransaction();
@@ -301,10 +305,15 @@ public class ExportMatchingRS {
                                 ianScheduler.scheduleIAN(exportContext, exporter);
                             if (bOnlyStgCmt)
                                 stgCmtSCU.scheduleStorageCommit(exportContext, exporter);
-                        } else
-                            scheduleExportTask(exporter, match, qrlevel);
-                        count++;
+                            count++;
+                        } else {
+                            batch.add(exportKeys(match, qrlevel));
+                            if (batch.size() >= batchSize)
+                                count += scheduleExportTasks(exporter, batch);
+                        }
                     }
+                    if (!batch.isEmpty())
+                        count += scheduleExportTasks(exporter, batch);
                 } catch (QueueSizeLimitExceededException e) {
                     status = Response.Status.SERVICE_UNAVAILABLE;
                     warning = e.getMessage();
@@ -398,15 +407,23 @@ public class ExportMatchingRS {
         return ctx;
     }
 
-    private void scheduleExportTask(ExporterDescriptor exporter, Attributes match, QueryRetrieveLevel2 qrlevel)
+    private static Attributes exportKeys(Attributes match, QueryRetrieveLevel2 qrlevel) {
+        Attributes keys = new Attributes(3);
+        keys.setString(Tag.StudyInstanceUID, VR.UI, match.getString(Tag.StudyInstanceUID));
+        if (qrlevel != QueryRetrieveLevel2.STUDY) {
+            keys.setString(Tag.SeriesInstanceUID, VR.UI, match.getString(Tag.SeriesInstanceUID));
+            if (qrlevel == QueryRetrieveLevel2.IMAGE)
+                keys.setString(Tag.SOPInstanceUID, VR.UI, match.getString(Tag.SOPInstanceUID));
+        }
+        return keys;
+    }
+
+    private int scheduleExportTasks(ExporterDescriptor exporter, List<Attributes> batch)
             throws QueueSizeLimitExceededException {
-        exportManager.scheduleExportTask(
-                match.getString(Tag.StudyInstanceUID),
-                qrlevel != QueryRetrieveLevel2.STUDY ? match.getString(Tag.SeriesInstanceUID) : null,
-                qrlevel == QueryRetrieveLevel2.IMAGE ? match.getString(Tag.SOPInstanceUID) : null,
-                exporter,
-                HttpServletRequestInfo.valueOf(request),
-                batchID);
+        exportManager.scheduleExportTasks(batch, exporter, HttpServletRequestInfo.valueOf(request), batchID);
+        int count = batch.size();
+        batch.clear();
+        return count;
     }
 
     private Response errResponseAsTextPlain(Exception e) {
@@ -70,6 +70,7 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.*;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -319,9 +320,11 @@ public class ExportTaskRS {
             int rescheduled = 0;
             int count;
             int rescheduleTasksFetchSize = queueTasksFetchSize();
+            TaskQueryParam queueTaskQueryParam = queueTaskQueryParam(status);
+            queueTaskQueryParam.setUpdatedBefore(new Date());
             do {
                 List<Tuple> exportTasks = mgr.exportTaskPksAndExporterIDs(
-                    queueTaskQueryParam(status), exportTaskQueryParam(devName, updatedTime), rescheduleTasksFetchSize);
+                    queueTaskQueryParam, exportTaskQueryParam(devName, updatedTime), rescheduleTasksFetchSize);
                 exportTasks.forEach(exportTask -> {
                     long pk = (long) exportTask.get(0);
                     try {
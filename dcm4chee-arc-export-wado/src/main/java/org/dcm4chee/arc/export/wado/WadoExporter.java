@@ -45,7 +45,8 @@ import org.dcm4che3.data.Tag;
 import org.dcm4che3.data.VR;
 import org.dcm4che3.net.Device;
 import org.dcm4che3.util.SafeClose;
-import org.dcm4che3.util.StreamUtils;
+import org.dcm4chee.arc.RateLimiter;
+import org.dcm4chee.arc.RateLimiters;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
 import org.dcm4chee.arc.conf.ExporterDescriptor;
 import org.dcm4chee.arc.conf.StorageDescriptor;
@@ -79,12 +80,15 @@ public class WadoExporter extends AbstractExporter {
     private static final int COPY_BUFFER_SIZE = 8192;
     private final QueryService queryService;
     private final StorageFactory storageFactory;
+    private final RateLimiters rateLimiters;
     private final EnumMap<Entity,List<WadoRequest>> wadoRequests = new EnumMap<>(Entity.class);
 
-    public WadoExporter(ExporterDescriptor descriptor, QueryService queryService, StorageFactory storageFactory, Device device) {
+    public WadoExporter(ExporterDescriptor descriptor, QueryService queryService, StorageFactory storageFactory,
+                        RateLimiters rateLimiters, Device device) {
         super(descriptor);
         this.queryService = queryService;
         this.storageFactory = storageFactory;
+        this.rateLimiters = rateLimiters;
         EnumMap<HeaderField, String> headerFields0 = getHeaderFields(0, new EnumMap<>(HeaderField.class));
         String storageID = descriptor.getProperty("StorageID", null);
         addWadoRequest(descriptor.getExportURI().getSchemeSpecificPart(), headerFields0,
@@ -136,12 +140,13 @@ public class WadoExporter extends AbstractExporter {
         int failed = 0;
         Exception ex = null;
         HashMap<String, Storage> storageMap = new HashMap<>();
+        RateLimiter rateLimiter = rateLimiters.getRateLimiter(descriptor.getExporterID());
         try {
             for (Map.Entry<Entity, List<WadoRequest>> entry : wadoRequests.entrySet()) {
                 for (Object[] params : entry.getKey().queryParams(exportContext, queryService)) {
                     for (WadoRequest wadoRequest : entry.getValue()) {
                         try {
-                            if (invoke(wadoRequest, params, buffer, storageMap))
+                            if (invoke(wadoRequest, params, buffer, storageMap, rateLimiter))
                                 count++;
                         } catch (Exception e) {
                             failed++;
@@ -168,19 +173,35 @@ public class WadoExporter extends AbstractExporter {
         throw ex;
     }
 
-    private boolean invoke(WadoRequest request, Object[] params, byte[] buffer, Map<String, Storage> storageMap)
-            throws Exception {
+    private boolean invoke(WadoRequest request, Object[] params, byte[] buffer, Map<String, Storage> storageMap,
+                           RateLimiter rateLimiter) throws Exception {
+        if (rateLimiter != null)
+            rateLimiter.acquire(1, 0L);
         HttpURLConnection httpConn = request.openConnection(params);
         int responseCode = httpConn.getResponseCode();
         if (responseCode == HttpURLConnection.HTTP_NOT_FOUND)
             return false;
+        long size;
         try (InputStream in = httpConn.getInputStream();
              OutputStream out = getOutputStream(request.storageDescriptor, params, storageMap)) {
-            StreamUtils.copy(in, out, buffer);
+            size = copy(in, out, buffer);
         }
+        if (rateLimiter != null)
+            rateLimiter.take(0, size);
         return true;
     }
 
+    private static long copy(InputStream in, OutputStream out, byte[] buffer) throws IOException {
+        long size = 0L;
+        int count;
+        while ((count = in.read(buffer)) > 0) {
+            if (out != null)
+                out.write(buffer, 0, count);
+            size += count;
+        }
+        return size;
+    }
+
     private OutputStream getOutputStream(
             StorageDescriptor storageDescriptor, Object[] params, Map<String, Storage> storageMap) throws IOException {
         if (storageDescriptor == null)
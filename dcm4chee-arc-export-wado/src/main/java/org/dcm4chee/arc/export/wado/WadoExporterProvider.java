@@ -41,6 +41,7 @@
 package org.dcm4chee.arc.export.wado;
 
 import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.RateLimiters;
 import org.dcm4chee.arc.conf.ExporterDescriptor;
 import org.dcm4chee.arc.exporter.Exporter;
 import org.dcm4chee.arc.exporter.ExporterProvider;
@@ -65,11 +66,14 @@ public class WadoExporterProvider implements ExporterProvider {
     @Inject
     private StorageFactory storageFactory;
 
+    @Inject
+    private RateLimiters rateLimiters;
+
     @Inject
     private Device device;
 
     @Override
     public Exporter getExporter(ExporterDescriptor descriptor) {
-        return new WadoExporter(descriptor, queryService, storageFactory, device);
+        return new WadoExporter(descriptor, queryService, storageFactory, rateLimiters, device);
     }
 }
@@ -0,0 +1,116 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.metadata;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4chee.arc.conf.SeriesMetadataFormat;
+import org.dcm4chee.arc.storage.SeriesMetadataCodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Compares the entries of previous Series Metadata with the current versions of the Instances of the Series.
+ * An entry is only reused if its stored version equals the current version of the Instance.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class PreviousSeriesMetadata {
+
+    private PreviousSeriesMetadata() {}
+
+    /**
+     * Checks if the previous Series Metadata contains exactly one entry of each Instance with its current version,
+     * encoded in the specified format, so it does not need to be written again.
+     */
+    static boolean isCurrent(InputStream in, SeriesMetadataFormat format, Map<String, long[]> versions)
+            throws IOException {
+        ZipInputStream zip = new ZipInputStream(in);
+        int count = 0;
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            long[] version = versions.get(entry.getName());
+            if (version == null
+                    || !Arrays.equals(version, SeriesMetadataCodec.versionOf(entry))
+                    || SeriesMetadataCodec.formatOf(entry) != format)
+                return false;
+            count++;
+        }
+        return count == versions.size();
+    }
+
+    /**
+     * Writes the entries of the previous Series Metadata with current versions to {@code out}. Entries not
+     * changed by {@code refresh} and already encoded in the specified format are copied without encoding them
+     * again. The Instances of reused entries are removed from {@code versions}.
+     *
+     * @return number of reused entries
+     */
+    static int reuse(InputStream in, SeriesMetadataFormat format, ZipOutputStream out, Map<String, long[]> versions,
+            BiFunction<String, Attributes, Attributes> refresh) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in);
+        int reused = 0;
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            String iuid = entry.getName();
+            long[] version = versions.get(iuid);
+            if (version != null && Arrays.equals(version, SeriesMetadataCodec.versionOf(entry))) {
+                byte[] b = SeriesMetadataCodec.readBytes(zip);
+                Attributes metadata = SeriesMetadataCodec.readEntry(b, false);
+                Attributes refreshed = refresh.apply(iuid, new Attributes(metadata));
+                if (SeriesMetadataCodec.formatOf(b) == format && refreshed.equals(metadata))
+                    SeriesMetadataCodec.copyEntry(out, iuid, b, version);
+                else
+                    SeriesMetadataCodec.writeEntry(out, format, iuid, refreshed, version);
+                versions.remove(iuid);
+                reused++;
+            }
+        }
+        return reused;
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.metadata;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Sequence;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.net.Device;
+import org.dcm4che3.util.StringUtils;
+import org.dcm4che3.util.TagUtils;
+import org.dcm4chee.arc.DiskCache;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.BinaryPrefix;
+import org.dcm4chee.arc.delete.StudyDeleteContext;
+import org.dcm4chee.arc.entity.Patient;
+import org.dcm4chee.arc.entity.Study;
+import org.dcm4chee.arc.patient.PatientMgtContext;
+import org.dcm4chee.arc.store.StoreContext;
+import org.dcm4chee.arc.study.StudyMgtContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches gzip compressed WADO-RS Study Metadata in JSON format in the directory configured by
+ * {@link ArchiveDeviceExtension#getWadoMetadataCacheDirectory()}.
+ * <p>
+ * Cache entries are keyed by Study Instance UID, by a variant - covering the request URL and the
+ * applied metadata filter - and by the Last Modified date of the Study, so an entry is never served after
+ * the Study was modified. Entries of a Study are removed eagerly on store, update, rejection and deletion.
+ * The total size of the cache is bounded by {@link ArchiveDeviceExtension#getWadoMetadataCacheMaxSize()}, evicting
+ * least recently accessed entries on exceeding the limit.
+ * <p>
+ * Each entry is accompanied by a file with the Patient, Study and Instance attributes of the returned Instances
+ * required for auditing, so a cache hit is served without querying the Instances of the Study.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class StudyMetadataCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StudyMetadataCache.class);
+    private static final String SUFFIX = ".json.gz";
+    private static final String AUDIT_SUFFIX = ".audit";
+    private static final int[] AUDIT_TAGS = {
+            Tag.SOPClassUID,
+            Tag.SOPInstanceUID,
+            Tag.StudyDate,
+            Tag.AccessionNumber,
+            Tag.PatientName,
+            Tag.PatientID,
+            Tag.IssuerOfPatientID,
+            Tag.IssuerOfPatientIDQualifiersSequence,
+            Tag.StudyInstanceUID
+    };
+
+    @PersistenceContext(unitName="dcm4chee-arc")
+    private EntityManager em;
+
+    @Inject
+    private Device device;
+
+    private final DiskCache cache = new DiskCache("metadata cache",
+            this::cacheDirectory,
+            () -> BinaryPrefix.parse(arcDev().getWadoMetadataCacheMaxSize()),
+            name -> name.endsWith(SUFFIX) || name.endsWith(AUDIT_SUFFIX));
+
+    public StudyMetadataCache() {
+    }
+
+    StudyMetadataCache(Device device) {
+        this.device = device;
+    }
+
+    public boolean isEnabled() {
+        return cacheDirectory() != null;
+    }
+
+    public String entityTag(String variant, Date lastModified) {
+        return variantHash(variant) + '-' + Long.toHexString(lastModified.getTime());
+    }
+
+    /**
+     * Opens the cached metadata of the Study, which stays readable if the entry is evicted concurrently. Returns
+     * {@code null} if there is no such entry or it could not be opened.
+     */
+    public CachedMetadata getCachedMetadata(String studyIUID, String variant, Date lastModified) {
+        Path dir = cacheDirectory();
+        if (dir == null)
+            return null;
+
+        Path studyDir = dir.resolve(studyIUID);
+        String name = entityTag(variant, lastModified);
+        Path file = studyDir.resolve(name + SUFFIX);
+        Path auditFile = studyDir.resolve(name + AUDIT_SUFFIX);
+        try {
+            if (!cache.contains(file) || !cache.contains(auditFile))
+                return null;
+
+            List<Attributes> auditData = readAuditData(auditFile);
+            FileChannel channel = FileChannel.open(file);
+            return new CachedMetadata(file, channel, auditData);
+        } catch (IOException e) {
+            LOG.info("Failed to open cached metadata at {}", file, e);
+            return null;
+        }
+    }
+
+    public Entry newEntry(String studyIUID, String variant, Date lastModified) throws IOException {
+        Path dir = cacheDirectory();
+        if (dir == null)
+            return null;
+
+        Path studyDir = Files.createDirectories(dir.resolve(studyIUID));
+        String variantHash = variantHash(variant);
+        String name = variantHash + '-' + Long.toHexString(lastModified.getTime());
+        return new Entry(studyDir, variantHash, studyDir.resolve(name + SUFFIX), studyDir.resolve(name + AUDIT_SUFFIX));
+    }
+
+    public void invalidate(String studyIUID) {
+        Path dir = cacheDirectory();
+        if (dir == null || studyIUID == null)
+            return;
+
+        Path studyDir = dir.resolve(studyIUID);
+        if (!Files.isDirectory(studyDir))
+            return;
+
+        try {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(studyDir)) {
+                for (Path file : files)
+                    cache.remove(file);
+            }
+            Files.deleteIfExists(studyDir);
+            LOG.debug("Invalidated cached metadata of Study[uid={}]", studyIUID);
+        } catch (DirectoryNotEmptyException | NoSuchFileException e) {
+            LOG.debug("Concurrent access to {} on invalidating cached metadata", studyDir, e);
+        } catch (IOException e) {
+            LOG.warn("Failed to invalidate cached metadata of Study[uid={}]", studyIUID, e);
+        }
+    }
+
+    public void onStore(@Observes StoreContext ctx) {
+        if (ctx.getException() == null && (ctx.getStoredInstance() != null || ctx.getRejectionNote() != null))
+            invalidate(ctx.getStudyInstanceUID());
+    }
+
+    public void onStudyUpdate(@Observes StudyMgtContext ctx) {
+        if (ctx.getException() == null)
+            invalidate(ctx.getStudyInstanceUID());
+    }
+
+    public void onStudyDeleted(@Observes StudyDeleteContext ctx) {
+        Study study = ctx.getStudy();
+        if (study != null)
+            invalidate(study.getStudyInstanceUID());
+    }
+
+    public void onPatientUpdate(@Observes PatientMgtContext ctx) {
+        Patient patient = ctx.getPatient();
+        if (ctx.getException() != null || patient == null || !isEnabled())
+            return;
+
+        em.createNamedQuery(Study.FIND_BY_PATIENT, Study.class)
+                .setParameter(1, patient)
+                .getResultList()
+                .forEach(study -> invalidate(study.getStudyInstanceUID()));
+    }
+
+    public long getTotalSize() {
+        return cache.getTotalSize();
+    }
+
+    private Path cacheDirectory() {
+        String dir = arcDev().getWadoMetadataCacheDirectory();
+        return dir != null ? Paths.get(StringUtils.replaceSystemProperties(dir)) : null;
+    }
+
+    private ArchiveDeviceExtension arcDev() {
+        return device.getDeviceExtension(ArchiveDeviceExtension.class);
+    }
+
+    private static List<Attributes> readAuditData(Path auditFile) throws IOException {
+        try (DicomInputStream in = new DicomInputStream(Files.newInputStream(auditFile))) {
+            return in.readDataset(-1, -1).getSequence(Tag.ReferencedSOPSequence);
+        }
+    }
+
+    private static void writeAuditData(Path auditFile, Collection<Attributes> instances) throws IOException {
+        Attributes attrs = new Attributes(1);
+        Sequence seq = attrs.newSequence(Tag.ReferencedSOPSequence, instances.size());
+        for (Attributes inst : instances)
+            seq.add(new Attributes(inst, AUDIT_TAGS));
+        try (DicomOutputStream out = new DicomOutputStream(Files.newOutputStream(auditFile),
+                UID.ExplicitVRLittleEndian)) {
+            out.writeDataset(null, attrs);
+        }
+    }
+
+    private static String variantHash(String variant) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            return TagUtils.toHexString(digest.digest(variant.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    public static final class CachedMetadata implements Closeable {
+        private final Path file;
+        private final FileChannel channel;
+        private final List<Attributes> auditData;
+
+        private CachedMetadata(Path file, FileChannel channel, List<Attributes> auditData) {
+            this.file = file;
+            this.channel = channel;
+            this.auditData = auditData;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        /**
+         * Returns the gzip compressed metadata.
+         */
+        public InputStream getInputStream() {
+            return Channels.newInputStream(channel);
+        }
+
+        /**
+         * Returns the attributes required for auditing of each returned Instance.
+         */
+        public List<Attributes> getAuditData() {
+            return auditData;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    public final class Entry {
+        private final Path studyDir;
+        private final String variantHash;
+        private final Path file;
+        private final Path auditFile;
+        private final Path tmpFile;
+        private final GZIPOutputStream out;
+
+        private Entry(Path studyDir, String variantHash, Path file, Path auditFile) throws IOException {
+            this.studyDir = studyDir;
+            this.variantHash = variantHash;
+            this.file = file;
+            this.auditFile = auditFile;
+            this.tmpFile = Files.createTempFile(studyDir, variantHash, ".tmp");
+            this.out = new GZIPOutputStream(Files.newOutputStream(tmpFile), 8192);
+        }
+
+        public OutputStream getOutputStream() {
+            return out;
+        }
+
+        /**
+         * Adds the written metadata to the cache, together with the attributes required for auditing of the
+         * returned Instances.
+         */
+        public void commit(Collection<Attributes> instances) {
+            Path tmpAuditFile = null;
+            try {
+                out.close();
+                tmpAuditFile = Files.createTempFile(studyDir, variantHash, ".tmp");
+                writeAuditData(tmpAuditFile, instances);
+                Files.move(tmpAuditFile, auditFile,
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                LOG.debug("Cached metadata at {}", file);
+                purgeOutdated();
+                cache.add(auditFile);
+                cache.add(file);
+            } catch (IOException e) {
+                LOG.info("Failed to cache metadata at {}", file, e);
+                discard();
+                deleteIfExists(tmpAuditFile);
+            }
+        }
+
+        public void discard() {
+            try {
+                out.close();
+            } catch (IOException ignore) {}
+            deleteIfExists(tmpFile);
+        }
+
+        private void deleteIfExists(Path path) {
+            if (path == null)
+                return;
+
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                LOG.warn("Failed to delete {}", path, e);
+            }
+        }
+
+        private void purgeOutdated() {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(studyDir,
+                    variantHash + "-*{" + SUFFIX + ',' + AUDIT_SUFFIX + "}")) {
+                for (Path other : files)
+                    if (!other.equals(file) && !other.equals(auditFile))
+                        cache.remove(other);
+            } catch (IOException e) {
+                LOG.info("Failed to purge outdated cached metadata in {}", studyDir, e);
+            }
+        }
+    }
+}
@@ -44,17 +44,19 @@ import org.dcm4che3.conf.api.ConfigurationChanges;
 import org.dcm4che3.conf.api.ConfigurationException;
 import org.dcm4che3.conf.api.DicomConfiguration;
 import org.dcm4che3.data.Attributes;
-import org.dcm4che3.json.JSONWriter;
 import org.dcm4che3.net.Device;
 import org.dcm4chee.arc.Scheduler;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
 import org.dcm4chee.arc.conf.Duration;
+import org.dcm4chee.arc.conf.SeriesMetadataFormat;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.entity.Metadata;
 import org.dcm4chee.arc.entity.Series;
 import org.dcm4chee.arc.event.SoftwareConfiguration;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
 import org.dcm4chee.arc.retrieve.RetrieveService;
+import org.dcm4chee.arc.storage.ReadContext;
+import org.dcm4chee.arc.storage.SeriesMetadataCodec;
 import org.dcm4chee.arc.storage.Storage;
 import org.dcm4chee.arc.storage.StorageFactory;
 import org.dcm4chee.arc.storage.WriteContext;
@@ -65,15 +67,11 @@ import org.slf4j.LoggerFactory;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
-import javax.json.Json;
-import javax.json.stream.JsonGenerator;
 import java.io.IOException;
-import java.util.Date;
-import java.util.EnumSet;
-import java.util.List;
+import java.io.InputStream;
+import java.util.*;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 /**
@@ -202,20 +200,33 @@ public class UpdateMetadataScheduler extends Scheduler {
                                 AtomicInteger success, AtomicInteger skipped) {
         try (RetrieveContext ctx = retrieveService.newRetrieveContextSeriesMetadata(metadataUpdate)) {
             if (claim(metadataUpdate, storage) && retrieveService.calculateMatches(ctx)) {
+                SeriesMetadataFormat format = arcDev.getSeriesMetadataFormat();
+                Map<String, InstanceLocations> matches = new HashMap<>();
+                Map<String, long[]> versions = new LinkedHashMap<>();
+                for (InstanceLocations match : ctx.getMatches()) {
+                    matches.put(match.getSopInstanceUID(), match);
+                    versions.put(match.getSopInstanceUID(), versionOf(ctx, match));
+                }
+                if (isCurrent(ctx, storage, format, versions)) {
+                    LOG.debug("Metadata for Series[pk={}] on {} is up to date",
+                            ctx.getSeriesMetadataUpdate().seriesPk,
+                            storage.getStorageDescriptor());
+                    success.getAndIncrement();
+                    return;
+                }
                 LOG.debug("Creating/Updating Metadata for Series[pk={}] on {}",
                         ctx.getSeriesMetadataUpdate().seriesPk,
                         storage.getStorageDescriptor());
                 WriteContext writeCtx = createWriteContext(storage, ctx.getMatches().iterator().next());
                 try {
                     try (ZipOutputStream out = new ZipOutputStream(storage.openOutputStream(writeCtx))) {
-                        for (InstanceLocations match : ctx.getMatches()) {
-                            out.putNextEntry(new ZipEntry(match.getSopInstanceUID()));
-                            JsonGenerator gen = Json.createGenerator(out);
-                            new JSONWriter(gen).write(loadMetadata(ctx, match));
-                            gen.flush();
-                            out.closeEntry();
-                        }
+                        int reused = reuseUnchangedEntries(ctx, format, out, matches, versions);
+                        for (Map.Entry<String, long[]> entry : versions.entrySet())
+                            SeriesMetadataCodec.writeEntry(out, format, entry.getKey(),
+                                    loadMetadata(ctx, matches.get(entry.getKey())), entry.getValue());
                         out.finish();
+                        LOG.debug("Reused {} and loaded {} Instance Metadata entries for Series[pk={}]",
+                                reused, versions.size(), ctx.getSeriesMetadataUpdate().seriesPk);
                     }
                     storage.commitStorage(writeCtx);
                     ejb.commit(ctx.getSeriesMetadataUpdate().seriesPk, createMetadata(writeCtx));
@@ -268,6 +279,59 @@ public class UpdateMetadataScheduler extends Scheduler {
         }
     }
 
+    private static long[] versionOf(RetrieveContext ctx, InstanceLocations match) {
+        return new long[] {
+                ctx.getPatientUpdatedTime().getTime(),
+                ctx.getStudyInfos().get(0).getModifiedTime().getTime(),
+                match.getUpdatedTime().getTime()
+        };
+    }
+
+    private static boolean hasPrevious(Series.MetadataUpdate metadataUpdate) {
+        return metadataUpdate.storagePath != null
+                && metadataUpdate.instancePurgeState != Series.InstancePurgeState.PURGED;
+    }
+
+    private InputStream openPrevious(RetrieveContext ctx, Storage prevStorage) throws IOException {
+        ReadContext readCtx = prevStorage.createReadContext();
+        readCtx.setStoragePath(ctx.getSeriesMetadataUpdate().storagePath);
+        return prevStorage.openInputStream(readCtx);
+    }
+
+    private boolean isCurrent(RetrieveContext ctx, Storage storage, SeriesMetadataFormat format,
+            Map<String, long[]> versions) {
+        Series.MetadataUpdate metadataUpdate = ctx.getSeriesMetadataUpdate();
+        if (!hasPrevious(metadataUpdate)
+                || !storage.getStorageDescriptor().getStorageID().equals(metadataUpdate.storageID))
+            return false;
+
+        try (InputStream in = openPrevious(ctx, storage)) {
+            return PreviousSeriesMetadata.isCurrent(in, format, versions);
+        } catch (IOException e) {
+            LOG.info("Failed to read previous Metadata of Series[pk={}] from {} - recreate Metadata:\n",
+                    metadataUpdate.seriesPk, storage.getStorageDescriptor(), e);
+            return false;
+        }
+    }
+
+    private int reuseUnchangedEntries(RetrieveContext ctx, SeriesMetadataFormat format, ZipOutputStream out,
+            Map<String, InstanceLocations> matches, Map<String, long[]> versions) {
+        Series.MetadataUpdate metadataUpdate = ctx.getSeriesMetadataUpdate();
+        if (!hasPrevious(metadataUpdate))
+            return 0;
+
+        int sizeBefore = versions.size();
+        Storage prevStorage = retrieveService.getStorage(metadataUpdate.storageID, ctx);
+        try (InputStream in = openPrevious(ctx, prevStorage)) {
+            PreviousSeriesMetadata.reuse(in, format, out, versions, (iuid, metadata) ->
+                    retrieveService.refreshMetadata(ctx, matches.get(iuid), metadata));
+        } catch (IOException e) {
+            LOG.info("Failed to read previous Metadata of Series[pk={}] from {} - recreate Metadata:\n",
+                    metadataUpdate.seriesPk, prevStorage.getStorageDescriptor(), e);
+        }
+        return sizeBefore - versions.size();
+    }
+
     private Attributes loadMetadata(RetrieveContext ctx, InstanceLocations match) throws IOException {
         return match.isContainsMetadata() ? match.getAttributes() : retrieveService.loadMetadata(ctx, match);
     }
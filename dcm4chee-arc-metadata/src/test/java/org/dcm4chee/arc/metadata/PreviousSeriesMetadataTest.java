@@ -0,0 +1,197 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.metadata;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4chee.arc.conf.SeriesMetadataFormat;
+import org.dcm4chee.arc.storage.SeriesMetadataCodec;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class PreviousSeriesMetadataTest {
+
+    private static final String IUID1 = "1.2.3.4.1";
+    private static final String IUID2 = "1.2.3.4.2";
+    private static final String IUID3 = "1.2.3.4.3";
+    private static final long[] VERSION1 = { 1000L, 2000L, 3001L };
+    private static final long[] VERSION2 = { 1000L, 2000L, 3002L };
+
+    @Test
+    public void testIsCurrent() throws Exception {
+        byte[] prev = write(SeriesMetadataFormat.DICOM, IUID1, VERSION1, IUID2, VERSION2);
+        assertTrue(PreviousSeriesMetadata.isCurrent(in(prev), SeriesMetadataFormat.DICOM,
+                versions(IUID1, VERSION1, IUID2, VERSION2)));
+        assertFalse(PreviousSeriesMetadata.isCurrent(in(prev), SeriesMetadataFormat.JSON,
+                versions(IUID1, VERSION1, IUID2, VERSION2)));
+    }
+
+    @Test
+    public void testIsNotCurrentOnChangedVersion() throws Exception {
+        byte[] prev = write(SeriesMetadataFormat.DICOM, IUID1, VERSION1, IUID2, VERSION2);
+        assertFalse(PreviousSeriesMetadata.isCurrent(in(prev), SeriesMetadataFormat.DICOM,
+                versions(IUID1, VERSION1, IUID2, new long[]{ 1000L, 2001L, 3002L })));
+    }
+
+    @Test
+    public void testIsNotCurrentOnAddedOrRemovedInstance() throws Exception {
+        byte[] prev = write(SeriesMetadataFormat.DICOM, IUID1, VERSION1, IUID2, VERSION2);
+        assertFalse(PreviousSeriesMetadata.isCurrent(in(prev), SeriesMetadataFormat.DICOM,
+                versions(IUID1, VERSION1, IUID2, VERSION2, IUID3, VERSION1)));
+        assertFalse(PreviousSeriesMetadata.isCurrent(in(prev), SeriesMetadataFormat.DICOM,
+                versions(IUID1, VERSION1)));
+    }
+
+    @Test
+    public void testIsNotCurrentWithoutVersion() throws Exception {
+        byte[] prev = write(SeriesMetadataFormat.DICOM, IUID1, null);
+        assertFalse(PreviousSeriesMetadata.isCurrent(in(prev), SeriesMetadataFormat.DICOM,
+                versions(IUID1, VERSION1)));
+    }
+
+    @Test
+    public void testReuseOnlyEntriesWithCurrentVersion() throws Exception {
+        byte[] prev = write(SeriesMetadataFormat.DICOM, IUID1, VERSION1, IUID2, VERSION1, IUID3, VERSION1);
+        Map<String, long[]> versions = versions(IUID1, VERSION1, IUID2, VERSION2);
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bout)) {
+            assertEquals(1, PreviousSeriesMetadata.reuse(in(prev), SeriesMetadataFormat.DICOM, out, versions,
+                    (iuid, metadata) -> metadata));
+        }
+        assertEquals(Collections.singleton(IUID2), versions.keySet());
+        ZipInputStream zip = new ZipInputStream(in(bout.toByteArray()));
+        ZipEntry entry = zip.getNextEntry();
+        assertEquals(IUID1, entry.getName());
+        assertArrayEquals(VERSION1, SeriesMetadataCodec.versionOf(entry));
+        assertNull(zip.getNextEntry());
+    }
+
+    @Test
+    public void testReuseCopiesUnchangedEntries() throws Exception {
+        byte[] prev = write(SeriesMetadataFormat.DICOM, IUID1, VERSION1);
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bout)) {
+            PreviousSeriesMetadata.reuse(in(prev), SeriesMetadataFormat.DICOM, out, versions(IUID1, VERSION1),
+                    (iuid, metadata) -> metadata);
+        }
+        assertArrayEquals(entryBytes(prev), entryBytes(bout.toByteArray()));
+    }
+
+    @Test
+    public void testReuseRefreshedEntries() throws Exception {
+        byte[] prev = write(SeriesMetadataFormat.JSON, IUID1, VERSION1);
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bout)) {
+            PreviousSeriesMetadata.reuse(in(prev), SeriesMetadataFormat.JSON, out, versions(IUID1, VERSION1),
+                    (iuid, metadata) -> {
+                        metadata.setString(Tag.PatientName, VR.PN, "DOE^JANE");
+                        return metadata;
+                    });
+        }
+        ZipInputStream zip = new ZipInputStream(in(bout.toByteArray()));
+        assertArrayEquals(VERSION1, SeriesMetadataCodec.versionOf(zip.getNextEntry()));
+        assertEquals("DOE^JANE", SeriesMetadataCodec.readEntry(zip, false).getString(Tag.PatientName));
+    }
+
+    @Test
+    public void testReuseEncodesEntriesInConfiguredFormat() throws Exception {
+        byte[] prev = write(SeriesMetadataFormat.JSON, IUID1, VERSION1);
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bout)) {
+            PreviousSeriesMetadata.reuse(in(prev), SeriesMetadataFormat.DICOM, out, versions(IUID1, VERSION1),
+                    (iuid, metadata) -> metadata);
+        }
+        ZipInputStream zip = new ZipInputStream(in(bout.toByteArray()));
+        assertEquals(SeriesMetadataFormat.DICOM, SeriesMetadataCodec.formatOf(zip.getNextEntry()));
+        assertEquals(IUID1, SeriesMetadataCodec.readEntry(zip, false).getString(Tag.SOPInstanceUID));
+    }
+
+    private static byte[] write(SeriesMetadataFormat format, Object... iuidsAndVersions) throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bout)) {
+            for (int i = 0; i < iuidsAndVersions.length; i += 2) {
+                String iuid = (String) iuidsAndVersions[i];
+                SeriesMetadataCodec.writeEntry(out, format, iuid, metadata(iuid), (long[]) iuidsAndVersions[i + 1]);
+            }
+        }
+        return bout.toByteArray();
+    }
+
+    private static Map<String, long[]> versions(Object... iuidsAndVersions) {
+        Map<String, long[]> versions = new LinkedHashMap<>();
+        for (int i = 0; i < iuidsAndVersions.length; i += 2)
+            versions.put((String) iuidsAndVersions[i], (long[]) iuidsAndVersions[i + 1]);
+        return versions;
+    }
+
+    private static byte[] entryBytes(byte[] b) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in(b));
+        zip.getNextEntry();
+        return SeriesMetadataCodec.readBytes(zip);
+    }
+
+    private static ByteArrayInputStream in(byte[] b) {
+        return new ByteArrayInputStream(b);
+    }
+
+    private static Attributes metadata(String iuid) {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.SOPClassUID, VR.UI, UID.CTImageStorage);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, iuid);
+        attrs.setString(Tag.PatientName, VR.PN, "DOE^JOHN");
+        return attrs;
+    }
+}
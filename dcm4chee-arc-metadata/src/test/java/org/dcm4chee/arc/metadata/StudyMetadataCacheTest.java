@@ -0,0 +1,210 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.metadata;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class StudyMetadataCacheTest {
+
+    private static final String VARIANT = "http://localhost/dcm4chee-arc/aets/DCM4CHEE/rs/studies/1.2.3/metadata";
+    private static final Date LAST_MODIFIED = new Date(1000000L);
+    private static final int ENTRY_SIZE = 700;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private ArchiveDeviceExtension arcDev;
+    private StudyMetadataCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        arcDev = new ArchiveDeviceExtension();
+        arcDev.setWadoMetadataCacheDirectory(folder.newFolder("metadata").toString());
+        Device device = new Device("dcm4chee-arc");
+        device.addDeviceExtension(arcDev);
+        cache = new StudyMetadataCache(device);
+    }
+
+    @Test
+    public void testMissThenHit() throws IOException {
+        assertFalse(isCached("1.2.3", LAST_MODIFIED));
+        byte[] json = put("1.2.3", LAST_MODIFIED);
+        try (StudyMetadataCache.CachedMetadata cached = cache.getCachedMetadata("1.2.3", VARIANT, LAST_MODIFIED)) {
+            assertNotNull(cached);
+            assertArrayEquals(json, gunzip(cached.getInputStream()));
+            assertEquals(1, cached.getAuditData().size());
+            Attributes auditData = cached.getAuditData().get(0);
+            assertEquals("1.2.3.1", auditData.getString(Tag.SOPInstanceUID));
+            assertEquals("P1", auditData.getString(Tag.PatientID));
+            assertFalse(auditData.contains(Tag.Rows));
+        }
+        assertEquals(sizeOfFiles(), cache.getTotalSize());
+    }
+
+    @Test
+    public void testHitOnEvictedEntry() throws IOException {
+        byte[] json = put("1.2.3", LAST_MODIFIED);
+        try (StudyMetadataCache.CachedMetadata cached = cache.getCachedMetadata("1.2.3", VARIANT, LAST_MODIFIED)) {
+            cache.invalidate("1.2.3");
+            assertArrayEquals(json, gunzip(cached.getInputStream()));
+        }
+        assertFalse(isCached("1.2.3", LAST_MODIFIED));
+    }
+
+    @Test
+    public void testMissOnOtherVariant() throws IOException {
+        put("1.2.3", LAST_MODIFIED);
+        assertNull(cache.getCachedMetadata("1.2.3", VARIANT + "?includefields=all", LAST_MODIFIED));
+    }
+
+    @Test
+    public void testMissAfterStudyModified() throws IOException {
+        put("1.2.3", LAST_MODIFIED);
+        Date modified = new Date(LAST_MODIFIED.getTime() + 1000L);
+        assertFalse(isCached("1.2.3", modified));
+        put("1.2.3", modified);
+        assertFalse(isCached("1.2.3", LAST_MODIFIED));
+        assertTrue(isCached("1.2.3", modified));
+        assertEquals(sizeOfFiles(), cache.getTotalSize());
+    }
+
+    @Test
+    public void testInvalidate() throws IOException {
+        put("1.2.3", LAST_MODIFIED);
+        put("1.2.4", LAST_MODIFIED);
+        cache.invalidate("1.2.3");
+        assertFalse(isCached("1.2.3", LAST_MODIFIED));
+        assertTrue(isCached("1.2.4", LAST_MODIFIED));
+        assertEquals(sizeOfFiles(), cache.getTotalSize());
+    }
+
+    @Test
+    public void testDiscard() throws IOException {
+        assertFalse(isCached("1.2.3", LAST_MODIFIED));
+        StudyMetadataCache.Entry entry = cache.newEntry("1.2.3", VARIANT, LAST_MODIFIED);
+        entry.getOutputStream().write(randomBytes());
+        entry.discard();
+        assertFalse(isCached("1.2.3", LAST_MODIFIED));
+        assertEquals(0L, cache.getTotalSize());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws IOException {
+        arcDev.setWadoMetadataCacheMaxSize("2KB");
+        put("1.2.1", LAST_MODIFIED);
+        put("1.2.2", LAST_MODIFIED);
+        assertTrue(isCached("1.2.1", LAST_MODIFIED));
+        put("1.2.3", LAST_MODIFIED);
+        assertTrue(isCached("1.2.1", LAST_MODIFIED));
+        assertFalse(isCached("1.2.2", LAST_MODIFIED));
+        assertTrue(isCached("1.2.3", LAST_MODIFIED));
+        assertTrue(cache.getTotalSize() <= 2000L);
+    }
+
+    private boolean isCached(String studyIUID, Date lastModified) throws IOException {
+        try (StudyMetadataCache.CachedMetadata cached = cache.getCachedMetadata(studyIUID, VARIANT, lastModified)) {
+            return cached != null;
+        }
+    }
+
+    private byte[] put(String studyIUID, Date lastModified) throws IOException {
+        if (isCached(studyIUID, lastModified))
+            fail("Unexpected cache hit");
+        byte[] json = randomBytes();
+        StudyMetadataCache.Entry entry = cache.newEntry(studyIUID, VARIANT, lastModified);
+        entry.getOutputStream().write(json);
+        Attributes inst = new Attributes(3);
+        inst.setString(Tag.SOPInstanceUID, VR.UI, studyIUID + ".1");
+        inst.setString(Tag.PatientID, VR.LO, "P1");
+        inst.setInt(Tag.Rows, VR.US, 512);
+        entry.commit(Collections.singletonList(inst));
+        return json;
+    }
+
+    private long sizeOfFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(Paths.get(arcDev.getWadoMetadataCacheDirectory()))) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static byte[] randomBytes() {
+        byte[] b = new byte[ENTRY_SIZE];
+        new Random().nextBytes(b);
+        return b;
+    }
+
+    private static byte[] gunzip(InputStream gzip) throws IOException {
+        byte[] b = new byte[ENTRY_SIZE];
+        try (InputStream in = new GZIPInputStream(gzip)) {
+            int off = 0, n;
+            while (off < b.length && (n = in.read(b, off, b.length - off)) > 0)
+                off += n;
+            assertEquals(-1, in.read());
+            assertEquals(ENTRY_SIZE, off);
+        }
+        return b;
+    }
+}
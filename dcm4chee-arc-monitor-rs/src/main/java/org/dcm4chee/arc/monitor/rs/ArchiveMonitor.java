@@ -48,6 +48,13 @@ package org.dcm4chee.arc.monitor.rs;
 import org.dcm4che3.net.Association;
 import org.dcm4che3.net.Device;
 import org.dcm4che3.net.Dimse;
+import org.dcm4chee.arc.DiskCache;
+import org.dcm4chee.arc.RateLimiter;
+import org.dcm4chee.arc.RateLimiters;
+import org.dcm4chee.arc.conf.BinaryPrefix;
+import org.dcm4chee.arc.conf.RateLimit;
+import org.dcm4chee.arc.retrieve.TranscodedObjectCache;
+import org.dcm4chee.arc.wado.RenderedImageCache;
 import org.jboss.resteasy.annotations.cache.NoCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,6 +81,15 @@ public class ArchiveMonitor {
     @Inject
     private Device device;
 
+    @Inject
+    private RenderedImageCache renderedImageCache;
+
+    @Inject
+    private TranscodedObjectCache transcodedObjectCache;
+
+    @Inject
+    private RateLimiters rateLimiters;
+
     @Context
     private HttpServletRequest request;
 
@@ -127,6 +143,107 @@ public class ArchiveMonitor {
         throw new WebApplicationException(Response.Status.NOT_FOUND);
     }
 
+    @GET
+    @NoCache
+    @Path("renderedImageCache")
+    @Produces("application/json")
+    public String getRenderedImageCacheStatistics() {
+        logRequest();
+        DiskCache.Statistics stats = renderedImageCache.getStatistics();
+        return "{\"hits\":" + stats.hits
+                + ",\"misses\":" + stats.misses
+                + ",\"hitRatio\":" + stats.hitRatio()
+                + ",\"renderings\":" + stats.writes
+                + ",\"avgRenderingTime\":" + stats.avgWriteTime()
+                + ",\"maxRenderingTime\":" + stats.maxWriteTime
+                + ",\"evictions\":" + stats.evictions
+                + ",\"entries\":" + stats.entries
+                + ",\"size\":" + stats.size
+                + ",\"maxSize\":" + stats.maxSize
+                + "}";
+    }
+
+    @GET
+    @NoCache
+    @Path("transcodeCache")
+    @Produces("application/json")
+    public String getTranscodeCacheStatistics() {
+        logRequest();
+        DiskCache.Statistics stats = transcodedObjectCache.getStatistics();
+        return "{\"hits\":" + stats.hits
+                + ",\"misses\":" + stats.misses
+                + ",\"hitRatio\":" + stats.hitRatio()
+                + ",\"transcodings\":" + stats.writes
+                + ",\"avgTranscodingTime\":" + stats.avgWriteTime()
+                + ",\"maxTranscodingTime\":" + stats.maxWriteTime
+                + ",\"evictions\":" + stats.evictions
+                + ",\"entries\":" + stats.entries
+                + ",\"size\":" + stats.size
+                + ",\"maxSize\":" + stats.maxSize
+                + "}";
+    }
+
+    @GET
+    @NoCache
+    @Path("rateLimits")
+    @Produces("application/json")
+    public StreamingOutput listRateLimits() {
+        logRequest();
+        return out -> {
+            Writer w = new OutputStreamWriter(out, "UTF-8");
+            int count = 0;
+            w.write('[');
+            for (RateLimiter limiter : rateLimiters.listRateLimiters()) {
+                RateLimiter.Statistics stats = limiter.getStatistics();
+                if (count++ > 0)
+                    w.write(',');
+                w.write("{\"name\":\"");
+                w.write(limiter.getName());
+                w.write("\",\"objectsPerSecond\":");
+                w.write(String.valueOf(stats.rateLimit.getObjectsPerSecond()));
+                w.write(",\"bytesPerSecond\":");
+                w.write(String.valueOf(stats.rateLimit.getBytesPerSecond()));
+                w.write(",\"overwritten\":");
+                w.write(String.valueOf(rateLimiters.isOverwritten(limiter.getName())));
+                w.write(",\"availableObjects\":");
+                w.write(String.valueOf(stats.availableObjects));
+                w.write(",\"availableBytes\":");
+                w.write(String.valueOf(stats.availableBytes));
+                w.write(",\"sentObjects\":");
+                w.write(String.valueOf(stats.sentObjects));
+                w.write(",\"sentBytes\":");
+                w.write(String.valueOf(stats.sentBytes));
+                w.write(",\"throttledTime\":");
+                w.write(String.valueOf(stats.throttledTime));
+                w.write('}');
+            }
+            w.write(']');
+            w.flush();
+        };
+    }
+
+    @PUT
+    @Path("rateLimits/{name}")
+    public void overwriteRateLimit(
+            @PathParam("name") String name,
+            @QueryParam("objectsPerSecond") @DefaultValue("0") int objectsPerSecond,
+            @QueryParam("bytesPerSecond") @DefaultValue("0") String bytesPerSecond) {
+        logRequest();
+        try {
+            rateLimiters.overwrite(new RateLimit(name, objectsPerSecond, BinaryPrefix.parse(bytesPerSecond)));
+        } catch (IllegalArgumentException e) {
+            throw new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
+        }
+    }
+
+    @DELETE
+    @Path("rateLimits/{name}")
+    public void resetRateLimit(@PathParam("name") String name) {
+        logRequest();
+        if (!rateLimiters.resetOverwrite(name))
+            throw new WebApplicationException(Response.Status.NOT_FOUND);
+    }
+
     @GET
     @NoCache
     @Path("/serverTime")
@@ -67,6 +67,7 @@ import javax.ws.rs.core.*;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 
@@ -265,6 +266,7 @@ public class QueueManagerRS {
         BulkQueueMessageEvent queueEvent = new BulkQueueMessageEvent(request, QueueMessageOperation.RescheduleTasks);
         try {
             int rescheduleTaskFetchSize = queueTasksFetchSize();
+            queueTaskQueryParam.setUpdatedBefore(new Date());
             int count;
             int rescheduled = 0;
             do {
@@ -276,7 +278,7 @@ public class QueueManagerRS {
             } while (count >= rescheduleTaskFetchSize);
             queueEvent.setCount(rescheduled);
             LOG.info("Rescheduled {} tasks on device {}", rescheduled, device.getDeviceName());
-            return count;
+            return rescheduled;
         } catch (Exception e) {
             queueEvent.setException(e);
             throw e;
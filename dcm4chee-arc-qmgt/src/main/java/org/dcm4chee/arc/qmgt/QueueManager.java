@@ -60,8 +60,14 @@ public interface QueueManager {
     QueueMessage scheduleMessage(String queueName, ObjectMessage message, int priority, String batchID, long delay)
             throws QueueSizeLimitExceededException;
 
+    List<QueueMessage> scheduleMessages(String queueName, List<ObjectMessage> messages, int priority, String batchID,
+                                        long delay)
+            throws QueueSizeLimitExceededException;
+
     long countScheduledMessagesOnThisDevice(String queueName);
 
+    void reconcileQueueSize(String queueName);
+
     QueueMessage onProcessingStart(String msgId);
 
     QueueMessage onProcessingSuccessful(String msgId, Outcome outcome);
@@ -70,6 +76,8 @@ public interface QueueManager {
 
     boolean cancelTask(String msgId, QueueMessageEvent queueEvent) throws IllegalTaskStateException;
 
+    void cancelScheduledTask(QueueMessage queueMessage);
+
     long cancelTasks(TaskQueryParam queueTaskQueryParam);
 
     long cancelRetrieveTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam retrieveTaskQueryParam);
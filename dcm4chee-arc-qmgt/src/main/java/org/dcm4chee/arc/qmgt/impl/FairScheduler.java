@@ -0,0 +1,240 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.qmgt.impl;
+
+import org.dcm4chee.arc.conf.QueueDescriptor;
+import org.dcm4chee.arc.entity.QueueMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Weighted fair scheduling of tasks of different flows - identified by their batch ID or, if not associated with
+ * a batch, by their destination - on queues with enabled fair scheduling. Messages are consumed in JMS priority
+ * and FIFO order, so the priority of a scheduled message is decreased by the logarithm of the weighted number of
+ * messages of the same flow still waiting in the queue. Tasks of small flows therefore overtake the remaining tasks
+ * of large batches. Additionally, the number of tasks to one destination processed concurrently may be limited.
+ * Counters are kept in memory of this device; as tasks may also leave the queue by being canceled, deleted,
+ * rescheduled or rolled back, the backlogs of flows are replaced by the numbers of scheduled tasks counted in the
+ * database on reconciliation of the queue size. Tasks deferred because the maximal number of tasks to their
+ * destination are in process are rescheduled with exponential backoff.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class FairScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FairScheduler.class);
+
+    static final int QUANTUM = 10;
+    static final long DEFER_DELAY = 1000L;
+    static final long MAX_DEFER_DELAY = 60000L;
+
+    @Resource(lookup = "java:comp/TransactionSynchronizationRegistry")
+    private TransactionSynchronizationRegistry txSyncRegistry;
+
+    private final ConcurrentHashMap<String, AtomicInteger> backlogs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicInteger> inProcess = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> destinationByMsgId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Deferral> deferrals = new ConcurrentHashMap<>();
+
+    /**
+     * Decreases specified priority by one level for each doubling of the weighted backlog above {@link #QUANTUM}.
+     */
+    static int priority(int priority, int backlog, int weight) {
+        int lag = backlog / weight;
+        int level = lag < QUANTUM ? 0 : 32 - Integer.numberOfLeadingZeros(lag / QUANTUM);
+        return Math.max(0, priority - level);
+    }
+
+    public int priority(QueueDescriptor desc, Message msg, int priority, String batchID) {
+        return desc.isFairScheduling()
+                ? enqueue(desc, batchID != null ? batchID : destinationOf(msg), priority)
+                : priority;
+    }
+
+    public void onDequeue(QueueDescriptor desc, QueueMessage entity) {
+        if (desc.isFairScheduling())
+            dequeue(desc, entity.getBatchID() != null ? entity.getBatchID() : destinationOf(entity));
+    }
+
+    int enqueue(QueueDescriptor desc, String flow, int priority) {
+        int backlog = backlogs.computeIfAbsent(key(desc.getQueueName(), flow), key -> new AtomicInteger())
+                .getAndIncrement();
+        return priority(priority, backlog, desc.getTaskWeight(flow));
+    }
+
+    void dequeue(QueueDescriptor desc, String flow) {
+        AtomicInteger backlog = backlogs.get(key(desc.getQueueName(), flow));
+        if (backlog != null)
+            backlog.updateAndGet(n -> n > 0 ? n - 1 : 0);
+    }
+
+    /**
+     * Replaces the backlogs of the flows of the specified queue by the specified numbers of scheduled tasks per flow.
+     */
+    public void reconcileBacklogs(String queueName, Map<String, Integer> scheduled) {
+        String prefix = key(queueName, "");
+        backlogs.keySet().removeIf(key ->
+                key.startsWith(prefix) && !scheduled.containsKey(key.substring(prefix.length())));
+        scheduled.forEach((flow, backlog) ->
+                backlogs.computeIfAbsent(key(queueName, flow), key -> new AtomicInteger()).set(backlog));
+        long expired = System.currentTimeMillis() - 2 * MAX_DEFER_DELAY;
+        deferrals.values().removeIf(deferral -> deferral.time < expired);
+    }
+
+    int backlog(String queueName, String flow) {
+        AtomicInteger backlog = backlogs.get(key(queueName, flow));
+        return backlog != null ? backlog.get() : 0;
+    }
+
+    /**
+     * Returns the delay for rescheduling the specified task, because {@link #tryAcquire} returned {@code false}.
+     * The delay doubles with each deferral of the same task up to {@link #MAX_DEFER_DELAY}; a random jitter of up to
+     * half of the delay spreads the retries of tasks deferred at the same time.
+     */
+    public long deferDelay(QueueMessage entity) {
+        return deferDelay(entity.getPk());
+    }
+
+    long deferDelay(long pk) {
+        long now = System.currentTimeMillis();
+        Deferral deferral = deferrals.compute(pk, (key, prev) -> new Deferral(prev != null ? prev.count + 1 : 0, now));
+        long delay = Math.min(MAX_DEFER_DELAY, DEFER_DELAY << Math.min(deferral.count, 16));
+        return delay - ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * Returns {@code false} if the maximal number of tasks to the destination of the specified task are already
+     * in process on this device. Otherwise the task is accounted as in process until {@link #release} is invoked
+     * with its message ID or the current transaction is rolled back.
+     */
+    public boolean tryAcquire(QueueDescriptor desc, QueueMessage entity) {
+        int maxTasks = desc.getMaxTasksPerDestination();
+        String destination;
+        if (maxTasks <= 0 || (destination = destinationOf(entity)) == null)
+            return true;
+
+        String msgId = entity.getMessageID();
+        if (destinationByMsgId.containsKey(msgId))
+            return true;
+
+        String key = key(desc.getQueueName(), destination);
+        AtomicInteger counter = inProcess.computeIfAbsent(key, k -> new AtomicInteger());
+        if (counter.incrementAndGet() > maxTasks) {
+            counter.decrementAndGet();
+            LOG.debug("Maximal number of {} Tasks to {} in process", maxTasks, destination);
+            return false;
+        }
+        destinationByMsgId.put(msgId, key);
+        deferrals.remove(entity.getPk());
+        if (txSyncRegistry.getTransactionStatus() == Status.STATUS_ACTIVE)
+            txSyncRegistry.registerInterposedSynchronization(new ReleaseOnRollback(msgId));
+        return true;
+    }
+
+    public void release(String msgId) {
+        String key = destinationByMsgId.remove(msgId);
+        if (key != null)
+            inProcess.get(key).decrementAndGet();
+    }
+
+    private static String key(String queueName, String flow) {
+        return queueName + '\\' + flow;
+    }
+
+    private static String destinationOf(QueueMessage entity) {
+        return entity.getRetrieveTask() != null
+                ? entity.getRetrieveTask().getDestinationAET()
+                : entity.getExportTask() != null
+                ? entity.getExportTask().getExporterID()
+                : null;
+    }
+
+    private static String destinationOf(Message msg) {
+        try {
+            String destinationAET = msg.getStringProperty("DestinationAET");
+            return destinationAET != null ? destinationAET : msg.getStringProperty("ExporterID");
+        } catch (JMSException e) {
+            return null;
+        }
+    }
+
+    private static class Deferral {
+        final int count;
+        final long time;
+
+        Deferral(int count, long time) {
+            this.count = count;
+            this.time = time;
+        }
+    }
+
+    private class ReleaseOnRollback implements Synchronization {
+        final String msgId;
+
+        ReleaseOnRollback(String msgId) {
+            this.msgId = msgId;
+        }
+
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != Status.STATUS_COMMITTED)
+                release(msgId);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.qmgt.impl;
+
+import org.dcm4chee.arc.conf.QueueDescriptor;
+import org.dcm4chee.arc.qmgt.QueueListener;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the {@link QueueListener} which processes the tasks of a queue by the Task Polling engine from the
+ * session beans implementing it, by the JMS destination of the queue.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class QueueListeners {
+
+    private static final String JAVA_PREFIX = "java:/";
+
+    @Inject
+    private Instance<QueueListener> listeners;
+
+    private final Map<String, QueueListener> listenerByDestination = new ConcurrentHashMap<>();
+
+    public QueueListener getListener(QueueDescriptor desc) {
+        return listenerByDestination.computeIfAbsent(jmsNameOf(desc.getJndiName()), destination -> {
+            for (QueueListener listener : listeners)
+                if (listener.listensTo(destination))
+                    return listener;
+
+            throw new IllegalStateException("No Queue Listener for Queue " + desc.getQueueName());
+        });
+    }
+
+    private static String jmsNameOf(String jndiName) {
+        return jndiName.startsWith(JAVA_PREFIX) ? jndiName.substring(JAVA_PREFIX.length()) : jndiName;
+    }
+}
@@ -42,7 +42,9 @@ package org.dcm4chee.arc.qmgt.impl;
 
 import javax.persistence.criteria.Predicate;
 import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.RateLimiters;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.ExporterDescriptor;
 import org.dcm4chee.arc.conf.QueueDescriptor;
 import org.dcm4chee.arc.entity.*;
 import org.dcm4chee.arc.event.QueueMessageEvent;
@@ -50,6 +52,8 @@ import org.dcm4chee.arc.qmgt.*;
 import org.dcm4chee.arc.query.util.MatchTask;
 import org.dcm4chee.arc.query.util.QueryBuilder;
 import org.dcm4chee.arc.query.util.TaskQueryParam;
+import org.hibernate.LockOptions;
+import org.hibernate.Session;
 import org.hibernate.annotations.QueryHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,10 +70,19 @@ import javax.persistence.*;
 import javax.persistence.criteria.*;
 import javax.persistence.metamodel.SingularAttribute;
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.BiConsumer;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -93,6 +106,15 @@ public class QueueManagerEJB {
     @Inject
     private Event<MessageCanceled> messageCanceledEvent;
 
+    @Inject
+    private QueueSizeCounters queueSizeCounters;
+
+    @Inject
+    private FairScheduler fairScheduler;
+
+    @Inject
+    private RateLimiters rateLimiters;
+
     @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
     public ObjectMessage createObjectMessage(Serializable object) {
         return jmsCtx.createObjectMessage(object);
@@ -101,18 +123,102 @@ public class QueueManagerEJB {
     public QueueMessage scheduleMessage(String queueName, ObjectMessage msg, int priority, String batchID, long delay)
             throws QueueSizeLimitExceededException {
         QueueDescriptor queueDescriptor = descriptorOf(queueName);
-        int maxQueueSize = queueDescriptor.getMaxQueueSize();
-        if (maxQueueSize > 0 && maxQueueSize < countScheduledMessagesOnThisDevice(queueName))
-            throw new QueueSizeLimitExceededException(queueDescriptor);
-
-        sendMessage(queueDescriptor, msg, delay, priority);
+        checkQueueSize(queueDescriptor, 1);
+        sendMessage(queueDescriptor, msg, delay, fairScheduler.priority(queueDescriptor, msg, priority, batchID));
         QueueMessage entity = new QueueMessage(device.getDeviceName(), queueName, msg, delay);
         entity.setBatchID(batchID);
         em.persist(entity);
+        queueSizeCounters.add(queueName, 1);
         LOG.info("Schedule Task[id={}] at Queue {}", entity.getMessageID(), entity.getQueueName());
         return entity;
     }
 
+    public List<QueueMessage> scheduleMessages(String queueName, List<ObjectMessage> msgs, int priority,
+                                               String batchID, long delay)
+            throws QueueSizeLimitExceededException {
+        QueueDescriptor queueDescriptor = descriptorOf(queueName);
+        checkQueueSize(queueDescriptor, msgs.size());
+        Queue queue = queueDescriptor.isPolling() ? null : lookup(queueDescriptor.getJndiName());
+        JMSProducer producer = jmsCtx.createProducer().setDeliveryDelay(delay).setPriority(priority);
+        List<QueueMessage> entities = new ArrayList<>(msgs.size());
+        for (ObjectMessage msg : msgs) {
+            int msgPriority = queueDescriptor.isFairScheduling()
+                    ? fairScheduler.priority(queueDescriptor, msg, priority, batchID)
+                    : priority;
+            if (queue == null)
+                assignMessageID(msg, msgPriority);
+            else
+                producer.setPriority(msgPriority).send(queue, msg);
+            QueueMessage entity = new QueueMessage(device.getDeviceName(), queueName, msg, delay);
+            entity.setBatchID(batchID);
+            em.persist(entity);
+            entities.add(entity);
+            LOG.debug("Schedule Task[id={}] at Queue {}", entity.getMessageID(), queueName);
+        }
+        queueSizeCounters.add(queueName, msgs.size());
+        LOG.info("Schedule {} Tasks at Queue {}", msgs.size(), queueName);
+        return entities;
+    }
+
+    private void checkQueueSize(QueueDescriptor queueDescriptor, int numberOfMessages)
+            throws QueueSizeLimitExceededException {
+        int maxQueueSize = queueDescriptor.getMaxQueueSize();
+        if (maxQueueSize > 0 && maxQueueSize < queueSizeCounters.get(
+                queueDescriptor.getQueueName(), this::countScheduledMessagesOnThisDevice) + numberOfMessages - 1)
+            throw new QueueSizeLimitExceededException(queueDescriptor);
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<QueueMessage> claimTasks(String queueName, int limit) {
+        List<QueueMessage> entities = claimTasks(em, device.getDeviceName(), queueName, limit);
+        for (QueueMessage entity : entities)
+            LOG.debug("Claimed Task[id={}] from Queue {}", entity.getMessageID(), queueName);
+        queueSizeCounters.add(queueName, -entities.size());
+        return entities;
+    }
+
+    static List<QueueMessage> claimTasks(EntityManager em, String deviceName, String queueName, int limit) {
+        List<Long> pks = em.createNamedQuery(QueueMessage.FIND_PKS_TO_CLAIM, Long.class)
+                .setParameter(1, deviceName)
+                .setParameter(2, queueName)
+                .setParameter(3, QueueMessage.Status.SCHEDULED)
+                .setParameter(4, new Date())
+                .setMaxResults(limit)
+                .getResultList();
+        if (pks.isEmpty())
+            return Collections.emptyList();
+
+        List<QueueMessage> entities = em.createNamedQuery(QueueMessage.FIND_BY_PKS_AND_STATUS, QueueMessage.class)
+                .setParameter(1, pks)
+                .setParameter(2, QueueMessage.Status.SCHEDULED)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("javax.persistence.lock.timeout", LockOptions.SKIP_LOCKED)
+                .getResultList();
+        Date now = new Date();
+        for (QueueMessage entity : entities) {
+            entity.setStatus(QueueMessage.Status.IN_PROCESS);
+            entity.setProcessingStartTime(now);
+        }
+        return entities;
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int rescheduleInProcessTasks(String queueName) {
+        List<QueueMessage> entities = em.createNamedQuery(QueueMessage.FIND_STARTED_BEFORE, QueueMessage.class)
+                .setParameter(1, device.getDeviceName())
+                .setParameter(2, queueName)
+                .setParameter(3, QueueMessage.Status.IN_PROCESS)
+                .setParameter(4, new Date(ManagementFactory.getRuntimeMXBean().getStartTime()))
+                .getResultList();
+        QueueDescriptor descriptor = descriptorOf(queueName);
+        for (QueueMessage entity : entities) {
+            LOG.info("Task[id={}] at Queue {} was interrupted by restart", entity.getMessageID(), queueName);
+            rescheduleTask(entity, descriptor, 0L);
+        }
+        queueSizeCounters.add(queueName, entities.size());
+        return entities.size();
+    }
+
     public long countScheduledMessagesOnThisDevice(String queueName) {
         return em.createNamedQuery(QueueMessage.COUNT_BY_DEVICE_AND_QUEUE_NAME_AND_STATUS, Long.class)
                 .setParameter(1, device.getDeviceName())
@@ -120,6 +226,45 @@ public class QueueManagerEJB {
                 .setParameter(3, QueueMessage.Status.SCHEDULED).getSingleResult();
     }
 
+    public void reconcileQueueSize(String queueName) {
+        queueSizeCounters.reconcile(queueName, countScheduledMessagesOnThisDevice(queueName));
+        if (descriptorOf(queueName).isFairScheduling())
+            fairScheduler.reconcileBacklogs(queueName, countScheduledMessagesOnThisDeviceByFlow(queueName));
+    }
+
+    private Map<String, Integer> countScheduledMessagesOnThisDeviceByFlow(String queueName) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Object[] row : em.createNamedQuery(
+                QueueMessage.COUNT_BY_DEVICE_AND_QUEUE_NAME_AND_STATUS_GROUP_BY_FLOW, Object[].class)
+                .setParameter(1, device.getDeviceName())
+                .setParameter(2, queueName)
+                .setParameter(3, QueueMessage.Status.SCHEDULED)
+                .getResultList()) {
+            String flow = (String) (row[0] != null ? row[0] : row[1] != null ? row[1] : row[2]);
+            if (flow != null)
+                counts.merge(flow, ((Long) row[3]).intValue(), Integer::sum);
+        }
+        return counts;
+    }
+
+    private String scheduledOnThisDevice(QueueMessage entity) {
+        return entity.getStatus() == QueueMessage.Status.SCHEDULED
+                && device.getDeviceName().equals(entity.getDeviceName())
+                ? entity.getQueueName()
+                : null;
+    }
+
+    private void updateQueueSize(String prevScheduledOnThisDevice, QueueMessage entity) {
+        String scheduledOnThisDevice = entity != null ? scheduledOnThisDevice(entity) : null;
+        if (Objects.equals(prevScheduledOnThisDevice, scheduledOnThisDevice))
+            return;
+
+        if (prevScheduledOnThisDevice != null)
+            queueSizeCounters.add(prevScheduledOnThisDevice, -1);
+        if (scheduledOnThisDevice != null)
+            queueSizeCounters.add(scheduledOnThisDevice, 1);
+    }
+
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
     public QueueMessage onProcessingStart(String msgId) {
         QueueMessage entity = findQueueMessage(msgId);
@@ -128,11 +273,33 @@ public class QueueManagerEJB {
         } else switch (entity.getStatus()) {
             case IN_PROCESS:
             case SCHEDULED:
+                String scheduledOnThisDevice = scheduledOnThisDevice(entity);
+                QueueDescriptor descriptor = descriptorOf(entity.getQueueName());
+                long rateLimitDelay = rateLimiters.defer(rateLimitNameOf(entity));
+                if (rateLimitDelay > 0) {
+                    LOG.info("Defer processing of Task[id={}] from Queue {} by {} ms - rate limit exceeded",
+                            msgId, entity.getQueueName(), rateLimitDelay);
+                    rescheduleTask(entity, descriptor, rateLimitDelay);
+                    updateQueueSize(scheduledOnThisDevice, entity);
+                    return null;
+                }
+                if (!fairScheduler.tryAcquire(descriptor, entity)) {
+                    long deferDelay = fairScheduler.deferDelay(entity);
+                    LOG.info("Defer processing of Task[id={}] from Queue {} by {} ms - maximal number of Tasks to "
+                            + "the same destination in process", msgId, entity.getQueueName(), deferDelay);
+                    rescheduleTask(entity, descriptor, deferDelay);
+                    updateQueueSize(scheduledOnThisDevice, entity);
+                    return null;
+                }
+                fairScheduler.onDequeue(descriptor, entity);
                 LOG.info("Start processing Task[id={}] from Queue {} with Status: {}",
                         entity.getMessageID(), entity.getQueueName(), entity.getStatus());
+                if (descriptor.isPolling() && entity.getStatus() == QueueMessage.Status.IN_PROCESS)
+                    return entity; // already claimed by QueueTaskPoller
                 entity.setProcessingStartTime(new Date());
                 entity.setStatus(QueueMessage.Status.IN_PROCESS);
                 setUpdateTime(entity);
+                updateQueueSize(scheduledOnThisDevice, entity);
                 return entity;
             default:
                 LOG.info("Suppress processing of Task[id={}] from Queue {} with Status: {}",
@@ -141,23 +308,78 @@ public class QueueManagerEJB {
         return null;
     }
 
+    private String rateLimitNameOf(QueueMessage entity) {
+        RetrieveTask retrieveTask = entity.getRetrieveTask();
+        if (retrieveTask != null)
+            return retrieveTask.getRemoteAET();
+
+        ExportTask exportTask = entity.getExportTask();
+        if (exportTask == null)
+            return null;
+
+        ExporterDescriptor exporter = device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class)
+                .getExporterDescriptor(exportTask.getExporterID());
+        if (exporter == null)
+            return null;
+
+        URI exportURI = exporter.getExportURI();
+        return "dicom".equals(exportURI.getScheme())
+                ? exportURI.getSchemeSpecificPart()
+                : exporter.getExporterID();
+    }
+
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
     public QueueMessage onProcessingSuccessful(String msgId, Outcome outcome) {
+        fairScheduler.release(msgId);
         QueueMessage entity = findQueueMessage(msgId);
         if (entity == null) {
             LOG.info("Finished processing of Task[id={}]", msgId);
             return null;
         }
+        String scheduledOnThisDevice = scheduledOnThisDevice(entity);
+        onProcessingSuccessful(entity, outcome, new Date());
+        updateQueueSize(scheduledOnThisDevice, entity);
+        return entity;
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void onProcessingSuccessful(Collection<TaskCompletion> completions) {
+        Map<String, TaskCompletion> completionByMsgId = new HashMap<>();
+        for (TaskCompletion completion : completions)
+            completionByMsgId.put(completion.getMessageID(), completion);
+        em.unwrap(Session.class).setJdbcBatchSize(completionByMsgId.size());
+        List<QueueMessage> entities = em.createNamedQuery(QueueMessage.FIND_BY_MSG_IDS, QueueMessage.class)
+                .setParameter(1, completionByMsgId.keySet())
+                .getResultList();
+        for (QueueMessage entity : entities) {
+            TaskCompletion completion = completionByMsgId.get(entity.getMessageID());
+            switch (entity.getStatus()) {
+                case IN_PROCESS:
+                case SCHEDULED:
+                    String scheduledOnThisDevice = scheduledOnThisDevice(entity);
+                    onProcessingSuccessful(entity, completion.getOutcome(), completion.getProcessingEndTime());
+                    updateQueueSize(scheduledOnThisDevice, entity);
+                    break;
+                default:
+                    LOG.info("Suppress update of Task[id={}] at Queue {} with Status: {}",
+                            entity.getMessageID(), entity.getQueueName(), entity.getStatus());
+            }
+        }
+        LOG.debug("Updated Status of {} Tasks", entities.size());
+    }
+
+    private void onProcessingSuccessful(QueueMessage entity, Outcome outcome, Date processingEndTime) {
+        String msgId = entity.getMessageID();
         QueueMessage.Status status = outcome.getStatus();
         String queueName = entity.getQueueName();
-        entity.setProcessingEndTime(new Date());
+        entity.setProcessingEndTime(processingEndTime);
         entity.setOutcomeMessage(outcome.getDescription());
         entity.setStatus(status);
         setUpdateTime(entity);
         if (status == QueueMessage.Status.COMPLETED
                 || status == QueueMessage.Status.WARNING && !descriptorOf(queueName).isRetryOnWarning()) {
             LOG.info("Finished processing of Task[id={}] at Queue {} with Status {}", msgId, queueName, status);
-            return entity;
+            return;
         }
         QueueDescriptor descriptor = descriptorOf(queueName);
         long delay = descriptor.getRetryDelayInSeconds(entity.incrementNumberOfFailures());
@@ -166,21 +388,22 @@ public class QueueManagerEJB {
                     msgId, queueName, status);
             entity.setStatus(QueueMessage.Status.SCHEDULED);
             rescheduleTask(entity, descriptor, delay * 1000L);
-            return entity;
+            return;
         }
         LOG.warn("Failed processing of Task[id={}] at Queue {} with Status {}", msgId, queueName, status);
         entity.setStatus(status);
-        return entity;
     }
 
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
     public QueueMessage onProcessingFailed(String msgId, Throwable e) {
+        fairScheduler.release(msgId);
         QueueMessage entity = findQueueMessage(msgId);
         if (entity == null) {
             LOG.warn("Failed processing of Task[id={}]:\n", msgId, e);
             return null;
         }
 
+        String scheduledOnThisDevice = scheduledOnThisDevice(entity);
         entity.setErrorMessage(e.getMessage());
         entity.setProcessingEndTime(new Date());
         QueueDescriptor descriptor = descriptorOf(entity.getQueueName());
@@ -193,6 +416,7 @@ public class QueueManagerEJB {
             LOG.info("Failed processing of Task[id={}] at Queue {} - retry:\n", msgId, entity.getQueueName(), e);
             rescheduleTask(entity, descriptor, delay * 1000L);
         }
+        updateQueueSize(scheduledOnThisDevice, entity);
         return entity;
     }
 
@@ -212,10 +436,18 @@ public class QueueManagerEJB {
                 throw new IllegalTaskStateException(
                         "Cannot cancel Task[id=" + msgId + "] with Status: " + entity.getStatus());
         }
+        String scheduledOnThisDevice = scheduledOnThisDevice(entity);
         cancelTask(entity);
+        updateQueueSize(scheduledOnThisDevice, entity);
         return true;
     }
 
+    public void cancelScheduledTask(QueueMessage entity) {
+        String scheduledOnThisDevice = scheduledOnThisDevice(entity);
+        cancelTask(entity);
+        updateQueueSize(scheduledOnThisDevice, entity);
+    }
+
     private void cancelTask(QueueMessage entity) {
         entity.setStatus(QueueMessage.Status.CANCELED);
         setUpdateTime(entity);
@@ -234,28 +466,52 @@ public class QueueManagerEJB {
             entity.getStorageVerificationTask().setUpdatedTime();
     }
 
-    public long cancelTasks(TaskQueryParam queueTaskQueryParam) {
-        Date now = new Date();
-        Subquery<QueueMessage> sq = queueMsgQuery(queueTaskQueryParam);
-
-        if (queueTaskQueryParam.getStatus() == QueueMessage.Status.IN_PROCESS) {
-            CriteriaQuery<QueueMessage> q = em.getCriteriaBuilder().createQuery(QueueMessage.class);
-            Root<QueueMessage> queueMsg = q.from(QueueMessage.class);
-            AtomicInteger count = new AtomicInteger(0);
-            em.createQuery(q.where(queueMsg.in(sq)).select(queueMsg))
-                    .getResultStream()
-                    .forEach(qMsg -> {
-                        cancelTask(qMsg);
-                        count.getAndIncrement();
-                    });
-            return count.get();
+    public CanceledTasks cancelTasks(TaskQueryParam queueTaskQueryParam, long afterPk, int limit) {
+        return cancelTasks(queueMsgQuery(queueTaskQueryParam), queueTaskQueryParam.getStatus(), afterPk, limit,
+                this::updateTaskUpdatedTime);
+    }
+
+    private CanceledTasks cancelTasks(Subquery<QueueMessage> sq, QueueMessage.Status status, long afterPk,
+                                      int limit, BiConsumer<List<Long>, Date> updateTaskUpdatedTime) {
+        List<Long> pks = queueMsgPks(sq, afterPk, limit);
+        if (pks.isEmpty())
+            return new CanceledTasks(pks, 0);
+
+        if (status == QueueMessage.Status.IN_PROCESS) {
+            int canceled = 0;
+            for (Long pk : pks) {
+                QueueMessage entity = em.find(QueueMessage.class, pk);
+                if (entity != null && entity.getStatus() == QueueMessage.Status.IN_PROCESS) {
+                    cancelTask(entity);
+                    canceled++;
+                }
+            }
+            return new CanceledTasks(pks, canceled);
         }
 
-        updateExportTaskUpdatedTime(sq, now);
-        updateRetrieveTaskUpdatedTime(sq, now);
-        updateDiffTaskUpdatedTime(sq, now);
-        updateStgVerTaskUpdatedTime(sq, now);
-        return updateStatus(sq, QueueMessage.Status.CANCELED, now);
+        Date now = new Date();
+        updateTaskUpdatedTime.accept(pks, now);
+        return new CanceledTasks(pks, updateStatus(pks, status, QueueMessage.Status.CANCELED, now));
+    }
+
+    private List<Long> queueMsgPks(Subquery<QueueMessage> sq, long afterPk, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> q = cb.createQuery(Long.class);
+        Root<QueueMessage> queueMsg = q.from(QueueMessage.class);
+        Path<Long> pk = queueMsg.get(QueueMessage_.pk);
+        return em.createQuery(q
+                .where(pk.in(sq), cb.greaterThan(pk, afterPk))
+                .orderBy(cb.asc(pk))
+                .select(pk))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private void updateTaskUpdatedTime(List<Long> pks, Date now) {
+        updateExportTaskUpdatedTime(pks, now);
+        updateRetrieveTaskUpdatedTime(pks, now);
+        updateDiffTaskUpdatedTime(pks, now);
+        updateStgVerTaskUpdatedTime(pks, now);
     }
 
     private Subquery<QueueMessage> queueMsgQuery(TaskQueryParam queueTaskQueryParam) {
@@ -271,43 +527,29 @@ public class QueueManagerEJB {
         return sq.select(queueMsg);
     }
 
-    public long cancelExportTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam exportTaskQueryParam) {
-        Date now = new Date();
-        Subquery<QueueMessage> sq = exportTaskQuery(queueTaskQueryParam, exportTaskQueryParam);
-
-        if (queueTaskQueryParam.getStatus() == QueueMessage.Status.IN_PROCESS)
-            return cancelInProcessTasks(sq, ExportTask_.queueMessage, ExportTask.class);
-
-        updateExportTaskUpdatedTime(sq, now);
-        return updateStatus(sq, QueueMessage.Status.CANCELED, now);
+    public CanceledTasks cancelExportTasks(
+            TaskQueryParam queueTaskQueryParam, TaskQueryParam exportTaskQueryParam, long afterPk, int limit) {
+        return cancelTasks(exportTaskQuery(queueTaskQueryParam, exportTaskQueryParam),
+                queueTaskQueryParam.getStatus(), afterPk, limit, this::updateExportTaskUpdatedTime);
     }
 
-    private <T> long cancelInProcessTasks(Subquery<QueueMessage> sq, SingularAttribute<T, QueueMessage> queueMsg,
-                                          Class<T> clazz) {
-        CriteriaQuery<QueueMessage> q = em.getCriteriaBuilder().createQuery(QueueMessage.class);
-        Root<T> task = q.from(clazz);
-        AtomicInteger count = new AtomicInteger(0);
-        em.createQuery(q.where(task.get(queueMsg).in(sq)).select(task.get(queueMsg)))
-                .getResultStream()
-                .forEach(qMsg -> {
-                    cancelTask(qMsg);
-                    count.getAndIncrement();
-                });
-        return count.get();
-    }
-
-    private void updateExportTaskUpdatedTime(Subquery<QueueMessage> sq, Date now) {
+    private void updateExportTaskUpdatedTime(List<Long> pks, Date now) {
         CriteriaUpdate<ExportTask> q = em.getCriteriaBuilder().createCriteriaUpdate(ExportTask.class);
         Root<ExportTask> exportTask = q.from(ExportTask.class);
-        em.createQuery(q.where(exportTask.get(ExportTask_.queueMessage).in(sq))
+        em.createQuery(q.where(exportTask.get(ExportTask_.queueMessage).get(QueueMessage_.pk).in(pks))
                 .set(exportTask.get(ExportTask_.updatedTime), now))
                 .executeUpdate();
     }
 
-    private long updateStatus(Subquery<QueueMessage> sq, QueueMessage.Status status, Date now) {
-        CriteriaUpdate<QueueMessage> q = em.getCriteriaBuilder().createCriteriaUpdate(QueueMessage.class);
+    private int updateStatus(List<Long> pks, QueueMessage.Status prevStatus, QueueMessage.Status status, Date now) {
+        queueSizeCounters.invalidateAll();
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaUpdate<QueueMessage> q = cb.createCriteriaUpdate(QueueMessage.class);
         Root<QueueMessage> queueMsg = q.from(QueueMessage.class);
-        return em.createQuery(q.where(queueMsg.get(QueueMessage_.pk).in(sq))
+        Predicate predicate = queueMsg.get(QueueMessage_.pk).in(pks);
+        if (prevStatus != null)
+            predicate = cb.and(predicate, cb.equal(queueMsg.get(QueueMessage_.status), prevStatus));
+        return em.createQuery(q.where(predicate)
                 .set(queueMsg.get(QueueMessage_.updatedTime), now)
                 .set(queueMsg.get(QueueMessage_.status), status))
                 .executeUpdate();
@@ -330,21 +572,16 @@ public class QueueManagerEJB {
         return sq.select(exportTask.get(ExportTask_.queueMessage));
     }
 
-    public long cancelRetrieveTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam retrieveTaskQueryParam) {
-        Date now = new Date();
-        Subquery<QueueMessage> sq = retrieveTaskQuery(queueTaskQueryParam, retrieveTaskQueryParam);
-
-        if (queueTaskQueryParam.getStatus() == QueueMessage.Status.IN_PROCESS)
-            return cancelInProcessTasks(sq, RetrieveTask_.queueMessage, RetrieveTask.class);
-
-        updateRetrieveTaskUpdatedTime(sq, now);
-        return updateStatus(sq, QueueMessage.Status.CANCELED, now);
+    public CanceledTasks cancelRetrieveTasks(
+            TaskQueryParam queueTaskQueryParam, TaskQueryParam retrieveTaskQueryParam, long afterPk, int limit) {
+        return cancelTasks(retrieveTaskQuery(queueTaskQueryParam, retrieveTaskQueryParam),
+                queueTaskQueryParam.getStatus(), afterPk, limit, this::updateRetrieveTaskUpdatedTime);
     }
 
-    private void updateRetrieveTaskUpdatedTime(Subquery<QueueMessage> sq, Date now) {
+    private void updateRetrieveTaskUpdatedTime(List<Long> pks, Date now) {
         CriteriaUpdate<RetrieveTask> q = em.getCriteriaBuilder().createCriteriaUpdate(RetrieveTask.class);
         Root<RetrieveTask> retrieveTask = q.from(RetrieveTask.class);
-        em.createQuery(q.where(retrieveTask.get(RetrieveTask_.queueMessage).in(sq))
+        em.createQuery(q.where(retrieveTask.get(RetrieveTask_.queueMessage).get(QueueMessage_.pk).in(pks))
                 .set(retrieveTask.get(RetrieveTask_.updatedTime), now))
                 .executeUpdate();
     }
@@ -366,21 +603,16 @@ public class QueueManagerEJB {
         return sq.select(retrieveTask.get(RetrieveTask_.queueMessage));
     }
 
-    public long cancelStgVerTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam stgVerTaskQueryParam) {
-        Date now = new Date();
-        Subquery<QueueMessage> sq = stgVerTaskQuery(queueTaskQueryParam, stgVerTaskQueryParam);
-
-        if (queueTaskQueryParam.getStatus() == QueueMessage.Status.IN_PROCESS)
-            return cancelInProcessTasks(sq, StorageVerificationTask_.queueMessage, StorageVerificationTask.class);
-
-        updateStgVerTaskUpdatedTime(sq, now);
-        return updateStatus(sq, QueueMessage.Status.CANCELED, now);
+    public CanceledTasks cancelStgVerTasks(
+            TaskQueryParam queueTaskQueryParam, TaskQueryParam stgVerTaskQueryParam, long afterPk, int limit) {
+        return cancelTasks(stgVerTaskQuery(queueTaskQueryParam, stgVerTaskQueryParam),
+                queueTaskQueryParam.getStatus(), afterPk, limit, this::updateStgVerTaskUpdatedTime);
     }
 
-    private void updateStgVerTaskUpdatedTime(Subquery<QueueMessage> sq, Date now) {
+    private void updateStgVerTaskUpdatedTime(List<Long> pks, Date now) {
         CriteriaUpdate<StorageVerificationTask> q = em.getCriteriaBuilder().createCriteriaUpdate(StorageVerificationTask.class);
         Root<StorageVerificationTask> stgVerTask = q.from(StorageVerificationTask.class);
-        em.createQuery(q.where(stgVerTask.get(StorageVerificationTask_.queueMessage).in(sq))
+        em.createQuery(q.where(stgVerTask.get(StorageVerificationTask_.queueMessage).get(QueueMessage_.pk).in(pks))
                 .set(stgVerTask.get(StorageVerificationTask_.updatedTime), now))
                 .executeUpdate();
     }
@@ -402,21 +634,16 @@ public class QueueManagerEJB {
         return sq.select(stgVerTask.get(StorageVerificationTask_.queueMessage));
     }
 
-    public long cancelDiffTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam diffTaskQueryParam) {
-        Date now = new Date();
-        Subquery<QueueMessage> sq = diffTaskQuery(queueTaskQueryParam, diffTaskQueryParam);
-
-        if (queueTaskQueryParam.getStatus() == QueueMessage.Status.IN_PROCESS)
-            return cancelInProcessTasks(sq, DiffTask_.queueMessage, DiffTask.class);
-
-        updateDiffTaskUpdatedTime(sq, now);
-        return updateStatus(sq, QueueMessage.Status.CANCELED, now);
+    public CanceledTasks cancelDiffTasks(
+            TaskQueryParam queueTaskQueryParam, TaskQueryParam diffTaskQueryParam, long afterPk, int limit) {
+        return cancelTasks(diffTaskQuery(queueTaskQueryParam, diffTaskQueryParam),
+                queueTaskQueryParam.getStatus(), afterPk, limit, this::updateDiffTaskUpdatedTime);
     }
 
-    private void updateDiffTaskUpdatedTime(Subquery<QueueMessage> sq, Date now) {
+    private void updateDiffTaskUpdatedTime(List<Long> pks, Date now) {
         CriteriaUpdate<DiffTask> q = em.getCriteriaBuilder().createCriteriaUpdate(DiffTask.class);
         Root<DiffTask> diffTask = q.from(DiffTask.class);
-        em.createQuery(q.where(diffTask.get(DiffTask_.queueMessage).in(sq))
+        em.createQuery(q.where(diffTask.get(DiffTask_.queueMessage).get(QueueMessage_.pk).in(pks))
                 .set(diffTask.get(DiffTask_.updatedTime), now))
                 .executeUpdate();
     }
@@ -456,6 +683,7 @@ public class QueueManagerEJB {
         if (queueEvent != null)
             queueEvent.setQueueMsg(entity);
 
+        String scheduledOnThisDevice = scheduledOnThisDevice(entity);
         switch (entity.getStatus()) {
             case SCHEDULED:
             case IN_PROCESS:
@@ -468,6 +696,7 @@ public class QueueManagerEJB {
         entity.setOutcomeMessage(null);
         entity.updateExporterIDInMessageProperties();
         rescheduleTask(entity, descriptorOf(entity.getQueueName()), 0L);
+        updateQueueSize(scheduledOnThisDevice, entity);
     }
 
     private void rescheduleTask(QueueMessage entity, QueueDescriptor descriptor, long delay) {
@@ -501,6 +730,7 @@ public class QueueManagerEJB {
     }
 
     private void deleteTask(QueueMessage entity) {
+        updateQueueSize(scheduledOnThisDevice(entity), null);
         if (entity.getStatus() == QueueMessage.Status.IN_PROCESS)
             messageCanceledEvent.fire(new MessageCanceled(entity.getMessageID()));
 
@@ -542,7 +772,19 @@ public class QueueManagerEJB {
     }
 
     private void sendMessage(QueueDescriptor desc, ObjectMessage msg, long delay, int priority) {
-        jmsCtx.createProducer().setDeliveryDelay(delay).setPriority(priority).send(lookup(desc.getJndiName()), msg);
+        if (desc.isPolling())
+            assignMessageID(msg, priority);
+        else
+            jmsCtx.createProducer().setDeliveryDelay(delay).setPriority(priority).send(lookup(desc.getJndiName()), msg);
+    }
+
+    private void assignMessageID(ObjectMessage msg, int priority) {
+        try {
+            msg.setJMSMessageID("ID:" + UUID.randomUUID());
+            msg.setJMSPriority(priority);
+        } catch (JMSException e) {
+            throw toJMSRuntimeException(e);
+        }
     }
 
     private Queue lookup(String jndiName) {
@@ -633,4 +875,25 @@ public class QueueManagerEJB {
         }
         return count;
     }
-}
\ No newline at end of file
+
+    /**
+     * Result of canceling one chunk of tasks: the number of matching tasks fetched, the pk of the last fetched task
+     * and the number of tasks actually canceled, which may be less, if the status of some tasks was changed
+     * concurrently.
+     */
+    public static final class CanceledTasks {
+        final int fetched;
+        final long lastPk;
+        final int canceled;
+
+        CanceledTasks(List<Long> pks, int canceled) {
+            this(pks.size(), pks.isEmpty() ? 0L : pks.get(pks.size() - 1), canceled);
+        }
+
+        CanceledTasks(int fetched, long lastPk, int canceled) {
+            this.fetched = fetched;
+            this.lastPk = lastPk;
+            this.canceled = canceled;
+        }
+    }
+}
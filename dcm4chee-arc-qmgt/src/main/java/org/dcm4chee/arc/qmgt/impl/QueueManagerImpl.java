@@ -38,6 +38,8 @@
 
 package org.dcm4chee.arc.qmgt.impl;
 
+import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
 import org.dcm4chee.arc.entity.QueueMessage;
 import org.dcm4chee.arc.event.QueueMessageEvent;
 import org.dcm4chee.arc.qmgt.*;
@@ -65,6 +67,12 @@ public class QueueManagerImpl implements QueueManager {
     @Inject
     private QueueManagerEJB ejb;
 
+    @Inject
+    private Device device;
+
+    @Inject
+    private TaskStatusWriter taskStatusWriter;
+
     @Override
     public ObjectMessage createObjectMessage(Serializable object) {
         return ejb.createObjectMessage(object);
@@ -77,15 +85,30 @@ public class QueueManagerImpl implements QueueManager {
         return ejb.scheduleMessage(queueName, message, priority, batchID, delay);
     }
 
+    @Override
+    public List<QueueMessage> scheduleMessages(String queueName, List<ObjectMessage> messages, int priority,
+                                               String batchID, long delay)
+            throws QueueSizeLimitExceededException {
+        return ejb.scheduleMessages(queueName, messages, priority, batchID, delay);
+    }
+
     @Override
     public long countScheduledMessagesOnThisDevice(String queueName) {
         return ejb.countScheduledMessagesOnThisDevice(queueName);
     }
 
+    @Override
+    public void reconcileQueueSize(String queueName) {
+        ejb.reconcileQueueSize(queueName);
+    }
+
     @Override
     public QueueMessage onProcessingStart(String msgId) {
         try {
-            return ejb.onProcessingStart(msgId);
+            QueueMessage entity = ejb.onProcessingStart(msgId);
+            if (entity != null)
+                taskStatusWriter.onProcessingStart(entity);
+            return entity;
         } catch (Throwable e) {
             logDBUpdateFailed("onProcessingStart", msgId, e);
             return null;
@@ -95,6 +118,9 @@ public class QueueManagerImpl implements QueueManager {
     @Override
     public QueueMessage onProcessingSuccessful(String msgId, Outcome outcome) {
         try {
+            if (taskStatusWriter.onProcessingSuccessful(msgId, outcome))
+                return null;
+
             return ejb.onProcessingSuccessful(msgId, outcome);
         } catch (Throwable e) {
             logDBUpdateFailed("onProcessingSuccessful", msgId, e);
@@ -104,6 +130,7 @@ public class QueueManagerImpl implements QueueManager {
 
     @Override
     public QueueMessage onProcessingFailed(String msgId, Throwable e) {
+        taskStatusWriter.onProcessingFailed(msgId);
         try {
             return ejb.onProcessingFailed(msgId, e);
         } catch (Throwable e1) {
@@ -121,29 +148,67 @@ public class QueueManagerImpl implements QueueManager {
         return ejb.cancelTask(msgId, queueEvent);
     }
 
+    @Override
+    public void cancelScheduledTask(QueueMessage queueMessage) {
+        ejb.cancelScheduledTask(queueMessage);
+    }
+
     @Override
     public long cancelTasks(TaskQueryParam queueTaskQueryParam) {
-        return ejb.cancelTasks(queueTaskQueryParam);
+        return cancelTasks("Tasks",
+                (afterPk, limit) -> ejb.cancelTasks(queueTaskQueryParam, afterPk, limit));
     }
 
     @Override
     public long cancelExportTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam exportTaskQueryParam) {
-        return ejb.cancelExportTasks(queueTaskQueryParam, exportTaskQueryParam);
+        return cancelTasks("Export Tasks",
+                (afterPk, limit) -> ejb.cancelExportTasks(queueTaskQueryParam, exportTaskQueryParam, afterPk, limit));
     }
 
     @Override
     public long cancelRetrieveTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam retrieveTaskQueryParam) {
-        return ejb.cancelRetrieveTasks(queueTaskQueryParam, retrieveTaskQueryParam);
+        return cancelTasks("Retrieve Tasks",
+                (afterPk, limit) -> ejb.cancelRetrieveTasks(
+                        queueTaskQueryParam, retrieveTaskQueryParam, afterPk, limit));
     }
 
     @Override
     public long cancelDiffTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam diffTaskQueryParam) {
-        return ejb.cancelDiffTasks(queueTaskQueryParam, diffTaskQueryParam);
+        return cancelTasks("Diff Tasks",
+                (afterPk, limit) -> ejb.cancelDiffTasks(queueTaskQueryParam, diffTaskQueryParam, afterPk, limit));
     }
 
     @Override
     public long cancelStgVerTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam stgVerTaskQueryParam) {
-        return ejb.cancelStgVerTasks(queueTaskQueryParam, stgVerTaskQueryParam);
+        return cancelTasks("Storage Verification Tasks",
+                (afterPk, limit) -> ejb.cancelStgVerTasks(
+                        queueTaskQueryParam, stgVerTaskQueryParam, afterPk, limit));
+    }
+
+    private long cancelTasks(String tasks, CancelTasks cancelTasks) {
+        return cancelTasks(tasks,
+                device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class).getQueueTasksFetchSize(),
+                cancelTasks);
+    }
+
+    static long cancelTasks(String tasks, int fetchSize, CancelTasks cancelTasks) {
+        long afterPk = 0L;
+        long count = 0L;
+        QueueManagerEJB.CanceledTasks canceled;
+        do {
+            canceled = cancelTasks.cancel(afterPk, fetchSize);
+            if (canceled.fetched == 0)
+                break;
+            count += canceled.canceled;
+            afterPk = canceled.lastPk;
+            LOG.info("Canceled {} {} - continue after Task[pk={}]", count, tasks, afterPk);
+        } while (canceled.fetched >= fetchSize);
+        return count;
+    }
+
+    @FunctionalInterface
+    interface CancelTasks {
+        QueueManagerEJB.CanceledTasks cancel(long afterPk, int limit);
     }
 
     @Override
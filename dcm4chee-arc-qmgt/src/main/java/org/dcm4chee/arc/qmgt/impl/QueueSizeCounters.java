@@ -0,0 +1,148 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.qmgt.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Number of scheduled messages on this device per queue, used to check the configured maximal queue size without
+ * counting the scheduled messages on each schedule of a message. Changes are applied on commit of the transaction
+ * which performed the status transition. Counters are initialized and reconciled by counting the scheduled messages
+ * in the database; bulk status updates invalidate all counters.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class QueueSizeCounters {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueueSizeCounters.class);
+
+    @Resource(lookup = "java:comp/TransactionSynchronizationRegistry")
+    private TransactionSynchronizationRegistry txSyncRegistry;
+
+    private final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    public long get(String queueName, ToLongFunction<String> count) {
+        AtomicLong counter = counters.get(queueName);
+        if (counter == null) {
+            counter = new AtomicLong(count.applyAsLong(queueName));
+            AtomicLong prev = counters.putIfAbsent(queueName, counter);
+            if (prev != null)
+                counter = prev;
+        }
+        Changes changes = changes(false);
+        return counter.get() + (changes != null ? changes.deltas.getOrDefault(queueName, 0) : 0);
+    }
+
+    public void add(String queueName, int delta) {
+        Changes changes = changes(true);
+        if (changes != null)
+            changes.deltas.merge(queueName, delta, Integer::sum);
+        else
+            apply(queueName, delta);
+    }
+
+    public void invalidateAll() {
+        Changes changes = changes(true);
+        if (changes != null)
+            changes.invalidateAll = true;
+        else
+            counters.clear();
+    }
+
+    public void reconcile(String queueName, long count) {
+        AtomicLong prev = counters.put(queueName, new AtomicLong(count));
+        if (prev != null && prev.get() != count)
+            LOG.info("Reconciled number of scheduled messages in queue {} from {} to {}",
+                    queueName, prev.get(), count);
+    }
+
+    private void apply(String queueName, int delta) {
+        AtomicLong counter = counters.get(queueName);
+        if (counter != null)
+            counter.addAndGet(delta);
+    }
+
+    private Changes changes(boolean create) {
+        if (txSyncRegistry.getTransactionStatus() != Status.STATUS_ACTIVE)
+            return null;
+
+        Changes changes = (Changes) txSyncRegistry.getResource(Changes.class);
+        if (changes == null && create) {
+            changes = new Changes();
+            txSyncRegistry.putResource(Changes.class, changes);
+            txSyncRegistry.registerInterposedSynchronization(changes);
+        }
+        return changes;
+    }
+
+    private class Changes implements Synchronization {
+        final HashMap<String, Integer> deltas = new HashMap<>();
+        boolean invalidateAll;
+
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != Status.STATUS_COMMITTED)
+                return;
+
+            if (invalidateAll)
+                counters.clear();
+            else
+                deltas.forEach(QueueSizeCounters.this::apply);
+        }
+    }
+}
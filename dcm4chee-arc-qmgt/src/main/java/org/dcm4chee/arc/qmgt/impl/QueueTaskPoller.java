@@ -0,0 +1,188 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.qmgt.impl;
+
+import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.Scheduler;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.Duration;
+import org.dcm4chee.arc.conf.QueueDescriptor;
+import org.dcm4chee.arc.entity.QueueMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.jms.ObjectMessage;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes tasks of queues configured with a Task Polling Interval by claiming them directly from the
+ * {@code queue_msg} table, instead of receiving them from the JMS provider.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class QueueTaskPoller extends Scheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueueTaskPoller.class);
+
+    @Inject
+    private Device device;
+
+    @Inject
+    private QueueManagerEJB ejb;
+
+    @Inject
+    private QueueListeners listeners;
+
+    private final Map<String, AtomicInteger> activeWorkers = new ConcurrentHashMap<>();
+    private final Set<String> recovered = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopped;
+
+    protected QueueTaskPoller() {
+        super(Mode.scheduleWithFixedDelay);
+    }
+
+    @Override
+    protected Logger log() {
+        return LOG;
+    }
+
+    @Override
+    protected Duration getPollingInterval() {
+        Duration pollingInterval = null;
+        for (QueueDescriptor desc : arcDev().getQueueDescriptors()) {
+            Duration taskPollingInterval = desc.getTaskPollingInterval();
+            if (taskPollingInterval != null && (pollingInterval == null
+                    || taskPollingInterval.getSeconds() < pollingInterval.getSeconds()))
+                pollingInterval = taskPollingInterval;
+        }
+        return pollingInterval;
+    }
+
+    @Override
+    public void start() {
+        stopped = false;
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        super.stop();
+    }
+
+    @Override
+    protected void execute() {
+        for (QueueDescriptor desc : arcDev().getQueueDescriptors()) {
+            if (desc.isPolling())
+                poll(desc);
+        }
+    }
+
+    private void poll(QueueDescriptor desc) {
+        String queueName = desc.getQueueName();
+        if (recovered.add(queueName)) {
+            int count = ejb.rescheduleInProcessTasks(queueName);
+            if (count > 0)
+                LOG.info("Rescheduled {} interrupted Tasks at Queue {}", count, queueName);
+        }
+        AtomicInteger active = activeWorkers.computeIfAbsent(queueName, key -> new AtomicInteger());
+        int free = desc.getMaxTasksParallel() - active.get();
+        if (free <= 0 || stopped)
+            return;
+
+        List<QueueMessage> entities = ejb.claimTasks(queueName, free);
+        for (QueueMessage entity : entities) {
+            active.incrementAndGet();
+            try {
+                device.execute(() -> work(queueName, active, entity));
+            } catch (RuntimeException e) {
+                active.decrementAndGet();
+                LOG.warn("Failed to start processing of Task[id={}] from Queue {}:\n",
+                        entity.getMessageID(), queueName, e);
+                ejb.onProcessingFailed(entity.getMessageID(), e);
+            }
+        }
+    }
+
+    private void work(String queueName, AtomicInteger active, QueueMessage entity) {
+        try {
+            do {
+                process(queueName, entity);
+            } while ((entity = claimNext(queueName, active)) != null);
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    private QueueMessage claimNext(String queueName, AtomicInteger active) {
+        QueueDescriptor desc = arcDev().getQueueDescriptor(queueName);
+        if (stopped || desc == null || !desc.isPolling() || active.get() > desc.getMaxTasksParallel())
+            return null;
+
+        List<QueueMessage> entities = ejb.claimTasks(queueName, 1);
+        return entities.isEmpty() ? null : entities.get(0);
+    }
+
+    private void process(String queueName, QueueMessage entity) {
+        String msgId = entity.getMessageID();
+        try {
+            ObjectMessage msg = entity.initProperties(ejb.createObjectMessage(entity.getMessageBody()));
+            msg.setJMSMessageID(msgId);
+            msg.setJMSPriority(entity.getPriority());
+            listeners.getListener(arcDev().getQueueDescriptorNotNull(queueName)).onMessage(msg);
+        } catch (Throwable e) {
+            LOG.warn("Failed to process Task[id={}] from Queue {}:\n", msgId, queueName, e);
+            ejb.onProcessingFailed(msgId, e);
+        }
+    }
+
+    private ArchiveDeviceExtension arcDev() {
+        return device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class);
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.qmgt.impl;
+
+import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.Scheduler;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.Duration;
+import org.dcm4chee.arc.conf.QueueDescriptor;
+import org.dcm4chee.arc.entity.QueueMessage;
+import org.dcm4chee.arc.qmgt.Outcome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects the final status of successfully processed tasks of queues configured with a Task Status Flush Interval
+ * and writes them to the database in batches, instead of updating each task in a separate transaction.
+ * <p>
+ * Tasks of such queues, which are still IN PROCESS after a restart of the archive - processed, but not yet written -
+ * are rescheduled by the first flush after the restart.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class TaskStatusWriter extends Scheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TaskStatusWriter.class);
+    private static final int MAX_BATCH_SIZE = 100;
+
+    @Inject
+    private Device device;
+
+    @Inject
+    private QueueManagerEJB ejb;
+
+    @Inject
+    private FairScheduler fairScheduler;
+
+    private final Map<String, String> queueNameByMsgId = new ConcurrentHashMap<>();
+    private final Map<String, TaskCompletion> pending = new ConcurrentHashMap<>();
+    private final Set<String> recovered = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private volatile boolean stopped = true;
+
+    protected TaskStatusWriter() {
+        super(Mode.scheduleWithFixedDelay);
+    }
+
+    @Override
+    protected Logger log() {
+        return LOG;
+    }
+
+    @Override
+    protected Duration getPollingInterval() {
+        Duration pollingInterval = null;
+        for (QueueDescriptor desc : arcDev().getQueueDescriptors()) {
+            Duration flushInterval = desc.getTaskStatusFlushInterval();
+            if (flushInterval != null && (pollingInterval == null
+                    || flushInterval.getSeconds() < pollingInterval.getSeconds()))
+                pollingInterval = flushInterval;
+        }
+        return pollingInterval;
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        stopped = getPollingInterval() == null;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        super.stop();
+        flush();
+    }
+
+    @Override
+    protected void execute() {
+        for (QueueDescriptor desc : arcDev().getQueueDescriptors()) {
+            if (desc.isStatusWriteBehind())
+                recover(desc.getQueueName());
+        }
+        flush();
+    }
+
+    public void onProcessingStart(QueueMessage entity) {
+        QueueDescriptor desc = arcDev().getQueueDescriptor(entity.getQueueName());
+        if (desc != null && desc.isStatusWriteBehind())
+            queueNameByMsgId.put(entity.getMessageID(), entity.getQueueName());
+    }
+
+    public boolean onProcessingSuccessful(String msgId, Outcome outcome) {
+        String queueName = queueNameByMsgId.remove(msgId);
+        if (queueName == null || stopped)
+            return false;
+
+        QueueDescriptor desc = arcDev().getQueueDescriptor(queueName);
+        if (desc == null || !desc.isStatusWriteBehind() || !isFinal(desc, outcome.getStatus()))
+            return false;
+
+        fairScheduler.release(msgId);
+        pending.put(msgId, new TaskCompletion(msgId, outcome));
+        if (pending.size() >= MAX_BATCH_SIZE && !flushing.get())
+            device.execute(this::flush);
+        return true;
+    }
+
+    public void onProcessingFailed(String msgId) {
+        queueNameByMsgId.remove(msgId);
+    }
+
+    private static boolean isFinal(QueueDescriptor desc, QueueMessage.Status status) {
+        return status == QueueMessage.Status.COMPLETED
+                || status == QueueMessage.Status.WARNING && !desc.isRetryOnWarning();
+    }
+
+    private void recover(String queueName) {
+        if (!recovered.add(queueName))
+            return;
+
+        try {
+            int count = ejb.rescheduleInProcessTasks(queueName);
+            if (count > 0)
+                LOG.info("Rescheduled {} interrupted Tasks at Queue {}", count, queueName);
+        } catch (RuntimeException e) {
+            recovered.remove(queueName);
+            LOG.warn("Failed to reschedule interrupted Tasks at Queue {}:\n", queueName, e);
+        }
+    }
+
+    private void flush() {
+        if (!flushing.compareAndSet(false, true))
+            return;
+
+        try {
+            List<TaskCompletion> batch;
+            while (!(batch = nextBatch()).isEmpty())
+                write(batch);
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    private List<TaskCompletion> nextBatch() {
+        List<TaskCompletion> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        Iterator<TaskCompletion> iter = pending.values().iterator();
+        while (iter.hasNext() && batch.size() < MAX_BATCH_SIZE) {
+            batch.add(iter.next());
+            iter.remove();
+        }
+        return batch;
+    }
+
+    private void write(List<TaskCompletion> batch) {
+        try {
+            ejb.onProcessingSuccessful(batch);
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to update Status of {} Tasks in batch - update one by one:\n", batch.size(), e);
+            for (TaskCompletion completion : batch) {
+                try {
+                    ejb.onProcessingSuccessful(completion.getMessageID(), completion.getOutcome());
+                } catch (RuntimeException e1) {
+                    LOG.error("Failed to update Status of Task[id={}]:\n", completion.getMessageID(), e1);
+                }
+            }
+        }
+    }
+
+    private ArchiveDeviceExtension arcDev() {
+        return device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.qmgt.impl;
+
+import org.dcm4chee.arc.conf.QueueDescriptor;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Simulates the consumption of a queue in JMS priority and FIFO order by one worker, processing one task per tick,
+ * with two large batches scheduled upfront and small interactive tasks scheduled periodically.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class FairSchedulerTest {
+
+    private static final int PRIORITY = 4;
+    private static final int MIGRATION = 5000;
+    private static final int IMPORT = 500;
+    private static final int IMPORT_WEIGHT = 2;
+    private static final int INTERACTIVE_INTERVAL = 20;
+
+    @Test
+    public void testPriority() {
+        assertEquals(4, FairScheduler.priority(4, 0, 1));
+        assertEquals(4, FairScheduler.priority(4, 9, 1));
+        assertEquals(3, FairScheduler.priority(4, 10, 1));
+        assertEquals(2, FairScheduler.priority(4, 20, 1));
+        assertEquals(2, FairScheduler.priority(4, 39, 1));
+        assertEquals(1, FairScheduler.priority(4, 40, 1));
+        assertEquals(0, FairScheduler.priority(4, 1000, 1));
+        assertEquals(4, FairScheduler.priority(4, 39, 4));
+        assertEquals(3, FairScheduler.priority(4, 40, 4));
+    }
+
+    @Test
+    public void testBoundedLatencyWithFairScheduling() {
+        int maxLatency = simulate(new FairScheduler());
+        assertTrue("max latency: " + maxLatency, maxLatency <= (1 + IMPORT_WEIGHT) * FairScheduler.QUANTUM);
+    }
+
+    @Test
+    public void testUnboundedLatencyWithoutFairScheduling() {
+        int maxLatency = simulate(null);
+        assertTrue("max latency: " + maxLatency, maxLatency > MIGRATION / 2);
+    }
+
+    @Test
+    public void testReconcileBacklogs() {
+        FairScheduler scheduler = new FairScheduler();
+        QueueDescriptor desc = new QueueDescriptor("Export1");
+        desc.setFairScheduling(true);
+        for (int i = 0; i < 100; i++) {
+            scheduler.enqueue(desc, "canceled", PRIORITY);
+            scheduler.enqueue(desc, "deleted", PRIORITY);
+        }
+        assertEquals(0, scheduler.enqueue(desc, "canceled", PRIORITY));
+        scheduler.reconcileBacklogs("Export1", Collections.singletonMap("canceled", 5));
+        assertEquals(5, scheduler.backlog("Export1", "canceled"));
+        assertEquals(0, scheduler.backlog("Export1", "deleted"));
+        assertEquals(PRIORITY, scheduler.enqueue(desc, "canceled", PRIORITY));
+    }
+
+    @Test
+    public void testDeferDelay() {
+        FairScheduler scheduler = new FairScheduler();
+        long expected = FairScheduler.DEFER_DELAY;
+        for (int i = 0; i < 10; i++) {
+            long delay = scheduler.deferDelay(1L);
+            assertTrue("delay: " + delay, delay >= expected / 2 && delay <= expected);
+            expected = Math.min(FairScheduler.MAX_DEFER_DELAY, expected * 2);
+        }
+        long delay = scheduler.deferDelay(2L);
+        assertTrue("delay: " + delay, delay <= FairScheduler.DEFER_DELAY);
+    }
+
+    private static int simulate(FairScheduler scheduler) {
+        QueueDescriptor desc = new QueueDescriptor("Export1");
+        desc.setFairScheduling(scheduler != null);
+        desc.setTaskWeight("import", IMPORT_WEIGHT);
+        PriorityQueue<Task> queue = new PriorityQueue<>(
+                Comparator.comparingInt((Task task) -> -task.priority).thenComparingLong(task -> task.seq));
+        long seq = 0;
+        for (int i = 0; i < MIGRATION; i++)
+            queue.add(new Task(scheduler, desc, "migration", 0, seq++));
+        for (int i = 0; i < IMPORT; i++)
+            queue.add(new Task(scheduler, desc, "import", 0, seq++));
+
+        int maxLatency = 0;
+        int interactive = 0;
+        int processedInteractive = 0;
+        for (int tick = 0; !queue.isEmpty(); tick++) {
+            if (tick % INTERACTIVE_INTERVAL == 0 && tick < MIGRATION) {
+                queue.add(new Task(scheduler, desc, "VIEWER", tick, seq++));
+                interactive++;
+            }
+            Task task = queue.poll();
+            if (scheduler != null)
+                scheduler.dequeue(desc, task.flow);
+            if (task.flow.equals("VIEWER")) {
+                maxLatency = Math.max(maxLatency, tick - task.scheduled);
+                processedInteractive++;
+            }
+        }
+        assertEquals(interactive, processedInteractive);
+        return maxLatency;
+    }
+
+    private static class Task {
+        final String flow;
+        final int scheduled;
+        final long seq;
+        final int priority;
+
+        Task(FairScheduler scheduler, QueueDescriptor desc, String flow, int scheduled, long seq) {
+            this.flow = flow;
+            this.scheduled = scheduled;
+            this.seq = seq;
+            this.priority = scheduler != null ? scheduler.enqueue(desc, flow, PRIORITY) : PRIORITY;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.qmgt.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class QueueManagerImplTest {
+
+    private static final int FETCH_SIZE = 10;
+
+    @Test
+    public void testCancelTasksCountsCanceledTasks() {
+        List<Long> afterPks = new ArrayList<>();
+        QueueManagerEJB.CanceledTasks[] chunks = {
+                new QueueManagerEJB.CanceledTasks(FETCH_SIZE, 10L, 8),
+                new QueueManagerEJB.CanceledTasks(FETCH_SIZE, 25L, FETCH_SIZE),
+                new QueueManagerEJB.CanceledTasks(5, 31L, 4)
+        };
+        long count = QueueManagerImpl.cancelTasks("Tasks", FETCH_SIZE, (afterPk, limit) -> {
+            assertEquals(FETCH_SIZE, limit);
+            afterPks.add(afterPk);
+            return chunks[afterPks.size() - 1];
+        });
+        assertEquals(22L, count);
+        assertEquals(Arrays.asList(0L, 10L, 25L), afterPks);
+    }
+
+    @Test
+    public void testCancelTasksContinuesAfterLastFetchedTask() {
+        List<Long> afterPks = new ArrayList<>();
+        long count = QueueManagerImpl.cancelTasks("Tasks", FETCH_SIZE, (afterPk, limit) -> {
+            afterPks.add(afterPk);
+            return afterPks.size() == 1
+                    ? new QueueManagerEJB.CanceledTasks(FETCH_SIZE, 42L, 0)
+                    : new QueueManagerEJB.CanceledTasks(0, 0L, 0);
+        });
+        assertEquals(0L, count);
+        assertEquals(Arrays.asList(0L, 42L), afterPks);
+    }
+}
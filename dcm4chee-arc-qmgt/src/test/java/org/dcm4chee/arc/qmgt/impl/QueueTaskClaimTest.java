@@ -0,0 +1,208 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.qmgt.impl;
+
+import org.dcm4chee.arc.entity.QueueMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.jms.ObjectMessage;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.dcm4chee.arc.test.Stubs.proxy;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Claims tasks from the {@code queue_msg} table of an in-memory H2 database, as performed by the Task Polling
+ * engine. H2 does not support {@code SKIP LOCKED}, so concurrent pollers wait for the row locks of each other or
+ * conflict on the version of claimed tasks and have to retry, but must never claim a task twice or lose one.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class QueueTaskClaimTest {
+
+    private static final String DEVICE = "dcm4chee-arc";
+    private static final String QUEUE = "Export1";
+    private static final int TASKS = 100;
+    private static final int POLLERS = 4;
+    private static final int CLAIM_LIMIT = 5;
+
+    private EntityManagerFactory emf;
+
+    @Before
+    public void setUp() {
+        emf = Persistence.createEntityManagerFactory("dcm4chee-arc-test");
+    }
+
+    @After
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Test
+    public void testClaimByPriorityAndScheduledTime() throws Exception {
+        schedule(DEVICE, QUEUE, "ID:low", 4, 0L);
+        Thread.sleep(10L);
+        schedule(DEVICE, QUEUE, "ID:high", 5, 0L);
+        schedule(DEVICE, QUEUE, "ID:delayed", 9, 60000L);
+        schedule(DEVICE, "Export2", "ID:other-queue", 9, 0L);
+        schedule("other-device", QUEUE, "ID:other-device", 9, 0L);
+
+        assertEquals(Arrays.asList("ID:high", "ID:low"), claim(10, QueueTaskClaimTest::messageIDsOf));
+    }
+
+    @Test
+    public void testClaimedTasksAreNotClaimedAgain() {
+        schedule(DEVICE, QUEUE, "ID:1", 4, 0L);
+        schedule(DEVICE, QUEUE, "ID:2", 4, 0L);
+        schedule(DEVICE, QUEUE, "ID:3", 4, 0L);
+
+        assertEquals(2, (int) claim(2, List::size));
+        assertEquals(1, (int) claim(10, List::size));
+        assertEquals(0, (int) claim(10, List::size));
+        assertEquals(3, countInProcess());
+    }
+
+    @Test
+    public void testConcurrentPollersClaimEachTaskOnce() throws Exception {
+        for (int i = 0; i < TASKS; i++)
+            schedule(DEVICE, QUEUE, "ID:" + i, 4, 0L);
+
+        List<String> claimed = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(POLLERS);
+        try {
+            List<Future<?>> pollers = new ArrayList<>();
+            for (int i = 0; i < POLLERS; i++)
+                pollers.add(executor.submit(() -> poll(claimed)));
+            for (Future<?> poller : pollers)
+                poller.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(TASKS, claimed.size());
+        assertEquals(TASKS, new HashSet<>(claimed).size());
+        assertEquals(TASKS, countInProcess());
+    }
+
+    private void poll(List<String> claimed) {
+        while (count(QueueMessage.Status.SCHEDULED) > 0) {
+            try {
+                claimed.addAll(claim(CLAIM_LIMIT, QueueTaskClaimTest::messageIDsOf));
+            } catch (PersistenceException e) {
+                // claim rolled back by conflict with concurrent poller
+            }
+        }
+    }
+
+    private void schedule(String deviceName, String queueName, String msgId, int priority, long delay) {
+        inTransaction(em -> {
+            em.persist(new QueueMessage(deviceName, queueName, message(msgId, priority), delay));
+            return null;
+        });
+    }
+
+    private <T> T claim(int limit, Function<List<QueueMessage>, T> result) {
+        return inTransaction(em -> result.apply(QueueManagerEJB.claimTasks(em, DEVICE, QUEUE, limit)));
+    }
+
+    private long countInProcess() {
+        return count(QueueMessage.Status.IN_PROCESS);
+    }
+
+    private long count(QueueMessage.Status status) {
+        return inTransaction(em -> em.createNamedQuery(
+                QueueMessage.COUNT_BY_DEVICE_AND_QUEUE_NAME_AND_STATUS, Long.class)
+                .setParameter(1, DEVICE)
+                .setParameter(2, QUEUE)
+                .setParameter(3, status)
+                .getSingleResult());
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            T result = work.apply(em);
+            em.getTransaction().commit();
+            return result;
+        } finally {
+            if (em.getTransaction().isActive())
+                em.getTransaction().rollback();
+            em.close();
+        }
+    }
+
+    private static List<String> messageIDsOf(List<QueueMessage> entities) {
+        return entities.stream().map(QueueMessage::getMessageID).collect(Collectors.toList());
+    }
+
+    private static ObjectMessage message(String msgId, int priority) {
+        return proxy(ObjectMessage.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getJMSMessageID":
+                    return msgId;
+                case "getJMSPriority":
+                    return priority;
+                case "getPropertyNames":
+                    return Collections.emptyEnumeration();
+                case "getObject":
+                    return msgId;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
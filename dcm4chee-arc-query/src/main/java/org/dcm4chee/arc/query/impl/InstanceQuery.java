@@ -46,7 +46,6 @@ import org.dcm4che3.data.Sequence;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.data.VR;
 import org.dcm4che3.dict.archive.ArchiveTag;
-import org.dcm4che3.json.JSONReader;
 import org.dcm4che3.net.Status;
 import org.dcm4che3.net.service.DicomServiceException;
 import org.dcm4che3.util.SafeClose;
@@ -57,15 +56,13 @@ import org.dcm4chee.arc.conf.QueryRetrieveView;
 import org.dcm4chee.arc.entity.*;
 import org.dcm4chee.arc.query.QueryContext;
 import org.dcm4chee.arc.query.util.QueryBuilder;
+import org.dcm4chee.arc.storage.SeriesMetadataCodec;
 
-import javax.json.Json;
 import javax.persistence.EntityManager;
 import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.*;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -303,10 +300,7 @@ class InstanceQuery extends AbstractQuery {
         do {
             while ((entry = seriesMetadataStream.getNextEntry()) != null) {
                 if (matchSOPInstanceUID(entry.getName())) {
-                    JSONReader jsonReader = new JSONReader(Json.createParser(
-                            new InputStreamReader(seriesMetadataStream, StandardCharsets.UTF_8)));
-                    jsonReader.setSkipBulkDataURI(true);
-                    Attributes metadata = jsonReader.readDataset(null);
+                    Attributes metadata = SeriesMetadataCodec.readEntry(seriesMetadataStream, true);
                     if (!qrView.hideRejectedInstance(
                             metadata.getNestedDataset(ArchiveTag.PrivateCreator, ArchiveTag.RejectionCodeSequence))
                             && !qrView.hideRejectionNote(metadata)
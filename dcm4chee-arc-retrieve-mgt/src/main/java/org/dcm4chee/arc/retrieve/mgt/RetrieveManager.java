@@ -61,6 +61,10 @@ public interface RetrieveManager {
                                  long delay)
             throws QueueSizeLimitExceededException;
 
+    int scheduleRetrieveTasks(int priority, List<ExternalRetrieveContext> ctxs, String batchID,
+                              Date notRetrievedAfter, long delay)
+            throws QueueSizeLimitExceededException;
+
     boolean deleteRetrieveTask(Long pk, QueueMessageEvent queueEvent);
 
     boolean cancelRetrieveTask(Long pk, QueueMessageEvent queueEvent) throws IllegalTaskStateException;
@@ -72,7 +72,9 @@ import javax.persistence.metamodel.SingularAttribute;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -96,6 +98,36 @@ public class RetrieveManagerEJB {
         if (isAlreadyScheduledOrRetrievedAfter(em, ctx, notRetrievedAfter)) {
             return false;
         }
+        QueueMessage queueMessage = queueManager.scheduleMessage(ctx.getQueueName(), createMessage(priority, ctx),
+                Message.DEFAULT_PRIORITY, batchID, delay);
+        createRetrieveTask(ctx, queueMessage);
+        return true;
+    }
+
+    public int scheduleRetrieveTasks(int priority, List<ExternalRetrieveContext> ctxs, String batchID,
+                                     Date notRetrievedAfter, long delay)
+            throws QueueSizeLimitExceededException {
+        Map<String, List<ExternalRetrieveContext>> ctxsByQueueName = new LinkedHashMap<>();
+        for (ExternalRetrieveContext ctx : ctxs) {
+            if (!isAlreadyScheduledOrRetrievedAfter(em, ctx, notRetrievedAfter))
+                ctxsByQueueName.computeIfAbsent(ctx.getQueueName(), queueName -> new ArrayList<>()).add(ctx);
+        }
+        int count = 0;
+        for (Map.Entry<String, List<ExternalRetrieveContext>> entry : ctxsByQueueName.entrySet()) {
+            List<ExternalRetrieveContext> queueCtxs = entry.getValue();
+            List<ObjectMessage> msgs = new ArrayList<>(queueCtxs.size());
+            for (ExternalRetrieveContext ctx : queueCtxs)
+                msgs.add(createMessage(priority, ctx));
+            Iterator<QueueMessage> queueMessages = queueManager.scheduleMessages(entry.getKey(), msgs,
+                    Message.DEFAULT_PRIORITY, batchID, delay).iterator();
+            for (ExternalRetrieveContext ctx : queueCtxs)
+                createRetrieveTask(ctx, queueMessages.next());
+            count += queueCtxs.size();
+        }
+        return count;
+    }
+
+    private ObjectMessage createMessage(int priority, ExternalRetrieveContext ctx) {
         try {
             ObjectMessage msg = queueManager.createObjectMessage(ctx.getKeys());
             msg.setStringProperty("LocalAET", ctx.getLocalAET());
@@ -104,10 +136,7 @@ public class RetrieveManagerEJB {
             msg.setStringProperty("DestinationAET", ctx.getDestinationAET());
             msg.setStringProperty("StudyInstanceUID", ctx.getStudyInstanceUID());
             HttpServletRequestInfo.copyTo(ctx.getHttpServletRequestInfo(), msg);
-            QueueMessage queueMessage = queueManager.scheduleMessage(ctx.getQueueName(), msg,
-                    Message.DEFAULT_PRIORITY, batchID, delay);
-            createRetrieveTask(ctx, queueMessage);
-            return true;
+            return msg;
         } catch (JMSException e) {
             throw QueueMessage.toJMSRuntimeException(e);
         }
@@ -219,6 +248,7 @@ public class RetrieveManagerEJB {
         return true;
     }
 
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
     public long cancelRetrieveTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam retrieveTaskQueryParam) {
         return queueManager.cancelRetrieveTasks(queueTaskQueryParam, retrieveTaskQueryParam);
     }
@@ -43,6 +43,8 @@ import org.dcm4che3.data.Tag;
 import org.dcm4che3.net.*;
 import org.dcm4che3.util.ReverseDNS;
 import org.dcm4che3.util.TagUtils;
+import org.dcm4chee.arc.RateLimiter;
+import org.dcm4chee.arc.RateLimiters;
 import org.dcm4chee.arc.entity.QueueMessage;
 import org.dcm4chee.arc.entity.RetrieveTask;
 import org.dcm4chee.arc.event.QueueMessageEvent;
@@ -86,6 +88,9 @@ public class RetrieveManagerImpl implements RetrieveManager {
     @Inject
     private RetrieveManagerEJB ejb;
 
+    @Inject
+    private RateLimiters rateLimiters;
+
     @Override
     public Outcome cmove(int priority, ExternalRetrieveContext ctx, QueueMessage queueMessage) throws Exception {
         ApplicationEntity localAE = device.getApplicationEntity(ctx.getLocalAET(), true);
@@ -98,6 +103,9 @@ public class RetrieveManagerImpl implements RetrieveManager {
                 ejb.updateRetrieveTask(queueMessage, rsp.getCommand());
             }
             externalRetrieve.fire(ctx.setResponse(rsp.getCommand()));
+            RateLimiter rateLimiter = rateLimiters.getRateLimiter(ctx.getRemoteAET());
+            if (rateLimiter != null)
+                rateLimiter.take(ctx.completed() + ctx.warning(), 0L);
             return toOutcome(ctx);
         } finally {
             try {
@@ -150,6 +158,13 @@ public class RetrieveManagerImpl implements RetrieveManager {
         return ejb.scheduleRetrieveTask(priority, ctx, batchID, notRetrievedAfter, delay);
     }
 
+    @Override
+    public int scheduleRetrieveTasks(int priority, List<ExternalRetrieveContext> ctxs, String batchID,
+                                     Date notRetrievedAfter, long delay)
+            throws QueueSizeLimitExceededException {
+        return ejb.scheduleRetrieveTasks(priority, ctxs, batchID, notRetrievedAfter, delay);
+    }
+
     @Override
     public boolean deleteRetrieveTask(Long pk, QueueMessageEvent queueEvent) {
         return ejb.deleteRetrieveTask(pk, queueEvent);
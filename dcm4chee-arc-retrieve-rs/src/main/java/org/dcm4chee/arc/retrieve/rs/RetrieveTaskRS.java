@@ -70,6 +70,7 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.*;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -338,6 +339,7 @@ public class RetrieveTaskRS {
             int rescheduled = 0;
             int count;
             int rescheduleTasksFetchSize = queueTasksFetchSize();
+            queueTaskQueryParam.setUpdatedBefore(new Date());
             do {
                 List<String> retrieveTaskQueueMsgIDs = mgr.listRetrieveTaskQueueMsgIDs(
                                                             queueTaskQueryParam,
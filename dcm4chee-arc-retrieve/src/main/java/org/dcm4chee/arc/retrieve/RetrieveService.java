@@ -129,6 +129,8 @@ public interface RetrieveService {
 
     Attributes loadMetadata(RetrieveContext ctx, InstanceLocations inst) throws IOException;
 
+    Attributes refreshMetadata(RetrieveContext ctx, InstanceLocations inst, Attributes metadata);
+
     Map<String,Collection<InstanceLocations>> removeNotAccessableMatches(RetrieveContext ctx);
 
     AttributesCoercion getAttributesCoercion(RetrieveContext ctx, InstanceLocations inst);
@@ -0,0 +1,137 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.retrieve;
+
+import org.dcm4che3.net.Device;
+import org.dcm4che3.util.StringUtils;
+import org.dcm4chee.arc.DiskCache;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.BinaryPrefix;
+import org.dcm4chee.arc.store.InstanceLocations;
+import org.dcm4chee.arc.store.StoreContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Disk cache for objects transcoded on retrieve, bounded in size by least recently used eviction.
+ * Cached objects are stored as {@code <cache-dir>/<sop-iuid>/<tsuid>-<updated-time>.dcm}, so an update of the
+ * instance never serves an outdated variant; outdated variants are removed on caching the current one or on
+ * receiving the instance again. Concurrent retrieves of the same variant trigger only one transcoding.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class TranscodedObjectCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TranscodedObjectCache.class);
+
+    @Inject
+    private Device device;
+
+    private final DiskCache cache = new DiskCache("transcode cache",
+            () -> Paths.get(StringUtils.replaceSystemProperties(arcDev().getTranscodeCacheDirectory())),
+            () -> BinaryPrefix.parse(arcDev().getTranscodeCacheMaxSize()),
+            name -> name.endsWith(".dcm"));
+
+    @FunctionalInterface
+    public interface Transcoding {
+        void transcodeTo(OutputStream out) throws IOException;
+    }
+
+    public boolean isEnabled() {
+        return arcDev().getTranscodeCacheDirectory() != null;
+    }
+
+    public InputStream open(InstanceLocations inst, String tsuid, Transcoding transcoding) throws IOException {
+        String iuid = inst.getSopInstanceUID();
+        String name = tsuid + '-' + Long.toHexString(inst.getUpdatedTime().getTime()) + ".dcm";
+        return cache.open(iuid + '/' + name, out -> {
+            transcoding.transcodeTo(out);
+            invalidate(iuid, name);
+        });
+    }
+
+    public void onStore(@Observes StoreContext ctx) {
+        if (ctx.getLocations().isEmpty() || !isEnabled())
+            return;
+
+        invalidate(ctx.getSopInstanceUID(), null);
+    }
+
+    public DiskCache.Statistics getStatistics() {
+        return cache.getStatistics();
+    }
+
+    private void invalidate(String iuid, String current) {
+        Path instDir = cache.directory().resolve(iuid);
+        if (!Files.isDirectory(instDir))
+            return;
+
+        String prefix = current != null ? current.substring(0, current.indexOf('-') + 1) : "";
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(instDir)) {
+            for (Path file : dir) {
+                String name = file.getFileName().toString();
+                if (!name.equals(current) && name.startsWith(prefix) && name.endsWith(".dcm")) {
+                    cache.remove(file);
+                    LOG.debug("Removed outdated {} from transcode cache", file);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to remove outdated objects from {}", instDir, e);
+        }
+    }
+
+    private ArchiveDeviceExtension arcDev() {
+        return device.getDeviceExtension(ArchiveDeviceExtension.class);
+    }
+}
@@ -64,6 +64,7 @@ import org.dcm4chee.arc.query.scu.CFindSCUAttributeCoercion;
 import org.dcm4chee.arc.query.util.QueryBuilder;
 import org.dcm4chee.arc.retrieve.*;
 import org.dcm4chee.arc.storage.ReadContext;
+import org.dcm4chee.arc.storage.SeriesMetadataCodec;
 import org.dcm4chee.arc.storage.Storage;
 import org.dcm4chee.arc.storage.StorageFactory;
 import org.dcm4chee.arc.store.InstanceLocations;
@@ -131,6 +132,9 @@ public class RetrieveServiceImpl implements RetrieveService {
     @Inject
     private LeadingCFindSCPQueryCache leadingCFindSCPQueryCache;
 
+    @Inject
+    private TranscodedObjectCache transcodedObjectCache;
+
     @Inject @RetrieveFailures
     private Event<RetrieveContext> retrieveFailures;
 
@@ -436,7 +440,7 @@ public class RetrieveServiceImpl implements RetrieveService {
             ZipEntry entry;
             while ((entry = zip.getNextEntry()) != null) {
                 if (isEmptyOrContains(ctx.getSopInstanceUIDs(), entry.getName())) {
-                    Attributes metadata = parseJSON(zip, !ctx.isRetrieveMetadata());
+                    Attributes metadata = SeriesMetadataCodec.readEntry(zip, !ctx.isRetrieveMetadata());
                     if (qrView == null
                             || !qrView.hideRejectedInstance(
                                 metadata.getNestedDataset(ArchiveTag.PrivateCreator, ArchiveTag.RejectionCodeSequence))
@@ -523,19 +527,65 @@ public class RetrieveServiceImpl implements RetrieveService {
     public Transcoder openTranscoder(RetrieveContext ctx, InstanceLocations inst,
                                      Collection<String> tsuids, boolean fmi) throws IOException {
         removeUnsupportedTransferSyntax(inst, tsuids);
+        String transcodedTS = transcodedObjectCache.isEnabled() ? transcodedTransferSyntax(inst, tsuids) : null;
+        Transcoder transcoder = transcodedTS != null
+                ? openCachedTranscoder(ctx, inst, tsuids, transcodedTS)
+                : newTranscoder(ctx, inst, tsuids);
+        transcoder.setCloseOutputStream(false);
+        transcoder.setIncludeFileMetaInformation(fmi);
+        return transcoder;
+    }
+
+    private Transcoder newTranscoder(RetrieveContext ctx, InstanceLocations inst, Collection<String> tsuids)
+            throws IOException {
         LocationInputStream locationInputStream = openLocationInputStream(ctx, inst);
-        Transcoder transcoder = new Transcoder(toDicomInputStream(locationInputStream));
+        return newTranscoder(ctx, toDicomInputStream(locationInputStream),
+                selectTransferSyntax(locationInputStream, tsuids));
+    }
+
+    private Transcoder openCachedTranscoder(RetrieveContext ctx, InstanceLocations inst,
+            Collection<String> tsuids, String tsuid) throws IOException {
+        InputStream in = transcodedObjectCache.open(inst, tsuid, out -> {
+            try (Transcoder transcoder = newTranscoder(ctx, inst, tsuids)) {
+                transcoder.setCloseOutputStream(false);
+                transcoder.setIncludeFileMetaInformation(true);
+                transcoder.transcode((t, dataset) -> out);
+            }
+        });
+        try {
+            return newTranscoder(ctx, new DicomInputStream(in), tsuid);
+        } catch (IOException e) {
+            SafeClose.close(in);
+            throw e;
+        }
+    }
+
+    private static Transcoder newTranscoder(RetrieveContext ctx, DicomInputStream dis, String tsuid)
+            throws IOException {
+        Transcoder transcoder = new Transcoder(dis);
         transcoder.setIncludeBulkData(DicomInputStream.IncludeBulkData.URI);
         ArchiveAEExtension arcAE = ctx.getArchiveAEExtension();
         transcoder.setBulkDataDescriptor(arcAE.getBulkDataDescriptor());
         transcoder.setBulkDataDirectory(arcAE.getBulkDataSpoolDirectoryFile());
         transcoder.setConcatenateBulkDataFiles(true);
-        transcoder.setDestinationTransferSyntax(selectTransferSyntax(locationInputStream, tsuids));
-        transcoder.setCloseOutputStream(false);
-        transcoder.setIncludeFileMetaInformation(fmi);
+        transcoder.setDestinationTransferSyntax(tsuid);
         return transcoder;
     }
 
+    private static String transcodedTransferSyntax(InstanceLocations inst, Collection<String> tsuids) {
+        if (tsuids.isEmpty() || inst.getUpdatedTime() == null)
+            return null;
+
+        for (Location location : inst.getLocations()) {
+            if (location.getObjectType() == Location.ObjectType.DICOM_FILE
+                    && tsuids.contains(location.getTransferSyntaxUID()))
+                return null;
+        }
+        return tsuids.contains(UID.ExplicitVRLittleEndian)
+                ? UID.ExplicitVRLittleEndian
+                : UID.ImplicitVRLittleEndian;
+    }
+
     private static void removeUnsupportedTransferSyntax(InstanceLocations inst, Collection<String> tsuids)
             throws NoPresentationContextException {
         if (tsuids.isEmpty()
@@ -879,6 +929,20 @@ public class RetrieveServiceImpl implements RetrieveService {
         return attrs;
     }
 
+    @Override
+    public Attributes refreshMetadata(RetrieveContext ctx, InstanceLocations inst, Attributes metadata) {
+        metadata.remove(ArchiveTag.PrivateCreator, ArchiveTag.StudyExpirationDate);
+        metadata.remove(ArchiveTag.PrivateCreator, ArchiveTag.StudyAccessControlID);
+        metadata.remove(ArchiveTag.PrivateCreator, ArchiveTag.SeriesExpirationDate);
+        metadata.remove(ArchiveTag.PrivateCreator, ArchiveTag.RejectionCodeSequence);
+        metadata.remove(ArchiveTag.PrivateCreator, ArchiveTag.InstanceExternalRetrieveAETitle);
+        metadata.remove(ArchiveTag.PrivateCreator, ArchiveTag.StorageObjectDigest);
+        metadata.remove(ArchiveTag.PrivateCreator, ArchiveTag.StorageObjectStatus);
+        metadata.remove(ArchiveTag.PrivateCreator, ArchiveTag.OtherStorageSequence);
+        coercion(ctx, inst).coerce(metadata, null);
+        return metadata;
+    }
+
     private Attributes loadMetadataFromJSONFile(RetrieveContext ctx, InstanceLocations inst) throws IOException {
         String studyInstanceUID = inst.getAttributes().getString(Tag.StudyInstanceUID);
         for (Location location : inst.getLocations()) {
@@ -0,0 +1,347 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc;
+
+import org.dcm4chee.arc.conf.BinaryPrefix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Disk cache of files in a configurable directory, bounded in size by least recently used eviction.
+ * <p>
+ * Files are indexed on first access of the cache directory, ordered by their last modification time, and on being
+ * written by {@link #open} or added by {@link #add}. Concurrent {@link #open} of the same missing file triggers only
+ * one write of its content, other callers wait for its completion.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class DiskCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiskCache.class);
+
+    private final String name;
+    private final Supplier<Path> directory;
+    private final LongSupplier maxSize;
+    private final Predicate<String> isEntry;
+
+    private final ConcurrentHashMap<Path, CompletableFuture<Path>> inProgress = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Path, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private Path loadedDirectory;
+    private long totalSize;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong writeTime = new AtomicLong();
+    private final AtomicLong maxWriteTime = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * @param name      name of the cache used in log messages
+     * @param directory provides the current cache directory
+     * @param maxSize   provides the current maximal total size of cached files in bytes
+     * @param isEntry   selects the names of files indexed on loading the cache directory
+     */
+    public DiskCache(String name, Supplier<Path> directory, LongSupplier maxSize, Predicate<String> isEntry) {
+        this.name = name;
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.isEntry = isEntry;
+    }
+
+    public Path directory() {
+        return directory.get();
+    }
+
+    /**
+     * Opens the cached file at the specified path relative to the cache directory. If it is not cached, its content
+     * is written by {@code writer} to a temporary file, which is moved to the specified path on completion.
+     */
+    public InputStream open(String path, ContentWriter writer) throws IOException {
+        Path dir = directory();
+        Path file = dir.resolve(path);
+        for (;;) {
+            if (contains(dir, file)) {
+                try {
+                    InputStream in = Files.newInputStream(file);
+                    hits.incrementAndGet();
+                    return in;
+                } catch (NoSuchFileException e) {
+                    removeEntry(file);
+                }
+            }
+            CompletableFuture<Path> writing = new CompletableFuture<>();
+            CompletableFuture<Path> prev = inProgress.putIfAbsent(file, writing);
+            if (prev != null) {
+                await(prev);
+                continue;
+            }
+            try {
+                misses.incrementAndGet();
+                write(file, writer);
+                writing.complete(file);
+                return Files.newInputStream(file);
+            } catch (IOException | RuntimeException e) {
+                writing.completeExceptionally(e);
+                throw e;
+            } finally {
+                inProgress.remove(file, writing);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the specified file is cached and marks it as recently used.
+     */
+    public boolean contains(Path file) throws IOException {
+        return contains(directory(), file);
+    }
+
+    /**
+     * Adds the specified file, which was written to the cache directory by the caller, to the cache, evicting least
+     * recently used files on exceeding the maximal total size.
+     */
+    public void add(Path file) throws IOException {
+        add(file, Files.size(file));
+    }
+
+    /**
+     * Removes the specified file from the cache and deletes it.
+     */
+    public void remove(Path file) throws IOException {
+        removeEntry(file);
+        Files.deleteIfExists(file);
+    }
+
+    public long getTotalSize() {
+        synchronized (entries) {
+            return totalSize;
+        }
+    }
+
+    public Statistics getStatistics() {
+        synchronized (entries) {
+            return new Statistics(hits.get(), misses.get(), writes.get(), writeTime.get(), maxWriteTime.get(),
+                    evictions.get(), entries.size(), totalSize, maxSize.getAsLong());
+        }
+    }
+
+    private void write(Path file, ContentWriter writer) throws IOException {
+        Path tmpFile = createTempFile(file.getParent());
+        try {
+            long start = System.nanoTime();
+            try (OutputStream out = Files.newOutputStream(tmpFile)) {
+                writer.writeTo(out);
+            }
+            long time = (System.nanoTime() - start) / 1000000L;
+            writes.incrementAndGet();
+            writeTime.addAndGet(time);
+            maxWriteTime.accumulateAndGet(time, Math::max);
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.debug("Wrote {} to {} in {} ms", file, name, time);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+        add(file);
+    }
+
+    private static Path createTempFile(Path dir) throws IOException {
+        try {
+            return Files.createTempFile(Files.createDirectories(dir), null, ".tmp");
+        } catch (NoSuchFileException e) {
+            // directory concurrently deleted on evicting its last file
+            return Files.createTempFile(Files.createDirectories(dir), null, ".tmp");
+        }
+    }
+
+    private static void await(CompletableFuture<Path> writing) throws IOException {
+        try {
+            writing.get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private boolean contains(Path dir, Path file) throws IOException {
+        synchronized (entries) {
+            if (!dir.equals(loadedDirectory))
+                load(dir);
+            return entries.get(file) != null;
+        }
+    }
+
+    private void add(Path file, long size) {
+        List<Path> evicted = new ArrayList<>();
+        synchronized (entries) {
+            Long prev = entries.put(file, size);
+            totalSize += size - (prev != null ? prev : 0L);
+            long maxSize = this.maxSize.getAsLong();
+            Iterator<Map.Entry<Path, Long>> iter = entries.entrySet().iterator();
+            while (totalSize > maxSize && entries.size() > 1) {
+                Map.Entry<Path, Long> eldest = iter.next();
+                totalSize -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                iter.remove();
+            }
+        }
+        for (Path path : evicted) {
+            try {
+                Files.deleteIfExists(path);
+                evictions.incrementAndGet();
+                deleteIfEmpty(path.getParent());
+                LOG.debug("Evicted {} from {}", path, name);
+            } catch (IOException e) {
+                LOG.warn("Failed to evict {} from {}", path, name, e);
+            }
+        }
+    }
+
+    private void deleteIfEmpty(Path dir) {
+        if (dir.equals(directory()))
+            return;
+
+        try {
+            Files.deleteIfExists(dir);
+        } catch (IOException ignore) {
+            // not empty or concurrently (re-)populated
+        }
+    }
+
+    private void removeEntry(Path file) {
+        synchronized (entries) {
+            Long size = entries.remove(file);
+            if (size != null)
+                totalSize -= size;
+        }
+    }
+
+    private void load(Path dir) throws IOException {
+        entries.clear();
+        totalSize = 0L;
+        loadedDirectory = dir;
+        if (!Files.isDirectory(dir))
+            return;
+
+        List<Map.Entry<Path, BasicFileAttributes>> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(dir, 2)) {
+            paths.filter(path -> isEntry.test(path.getFileName().toString()))
+                    .forEach(path -> {
+                        try {
+                            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                            if (attrs.isRegularFile())
+                                files.add(new AbstractMap.SimpleEntry<>(path, attrs));
+                        } catch (IOException e) {
+                            LOG.info("Failed to read attributes of {}", path, e);
+                        }
+                    });
+        }
+        files.sort(Comparator.comparing(e -> e.getValue().lastModifiedTime()));
+        for (Map.Entry<Path, BasicFileAttributes> e : files) {
+            entries.put(e.getKey(), e.getValue().size());
+            totalSize += e.getValue().size();
+        }
+        LOG.info("Loaded {} files with total size of {} into {} from {}",
+                entries.size(), BinaryPrefix.formatDecimal(totalSize), name, dir);
+    }
+
+    public static final class Statistics {
+        public final long hits;
+        public final long misses;
+        public final long writes;
+        public final long writeTime;
+        public final long maxWriteTime;
+        public final long evictions;
+        public final int entries;
+        public final long size;
+        public final long maxSize;
+
+        Statistics(long hits, long misses, long writes, long writeTime, long maxWriteTime,
+                   long evictions, int entries, long size, long maxSize) {
+            this.hits = hits;
+            this.misses = misses;
+            this.writes = writes;
+            this.writeTime = writeTime;
+            this.maxWriteTime = maxWriteTime;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        public float hitRatio() {
+            long total = hits + misses;
+            return total > 0 ? (float) hits / total : 0f;
+        }
+
+        public long avgWriteTime() {
+            return writes > 0 ? writeTime / writes : 0L;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc;
+
+import org.dcm4chee.arc.conf.RateLimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets for objects and bytes sent to one destination, holding at most the tokens of one second. Tokens are
+ * taken on sending an object, so the buckets may become indebted by objects larger than the bucket; the sender waits
+ * until the debt is paid before sending the next object, and subsequent tasks to the destination are deferred.
+ * Only the time actually waited or deferred is accounted as throttled time.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class RateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final String name;
+    private RateLimit rateLimit;
+    private double objects;
+    private double bytes;
+    private long lastRefill = System.nanoTime();
+    private long sentObjects;
+    private long sentBytes;
+    private long throttledNanos;
+
+    public RateLimiter(RateLimit rateLimit) {
+        this.name = rateLimit.getName();
+        this.rateLimit = rateLimit;
+        this.objects = rateLimit.getObjectsPerSecond();
+        this.bytes = rateLimit.getBytesPerSecond();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public synchronized void setRateLimit(RateLimit rateLimit) {
+        if (!rateLimit.equals(this.rateLimit)) {
+            refill(System.nanoTime());
+            this.rateLimit = rateLimit;
+            objects = rateLimit.getObjectsPerSecond() > 0 ? Math.min(objects, rateLimit.getObjectsPerSecond()) : 0;
+            bytes = rateLimit.getBytesPerSecond() > 0 ? Math.min(bytes, rateLimit.getBytesPerSecond()) : 0;
+        }
+    }
+
+    /**
+     * Takes the tokens for sending an object of the specified size and waits until the buckets are no longer
+     * indebted.
+     */
+    public void acquire(int numObjects, long numBytes) throws InterruptedException {
+        long nanos = take(numObjects, numBytes);
+        if (nanos > 0) {
+            long start = System.nanoTime();
+            try {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            } finally {
+                throttled(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Takes the tokens for sending objects of the specified size and returns the time in nanoseconds until the
+     * buckets are no longer indebted.
+     */
+    public synchronized long take(int numObjects, long numBytes) {
+        long now = System.nanoTime();
+        refill(now);
+        sentObjects += numObjects;
+        sentBytes += numBytes;
+        if (rateLimit.getObjectsPerSecond() > 0)
+            objects -= numObjects;
+        if (rateLimit.getBytesPerSecond() > 0)
+            bytes -= numBytes;
+        return debtNanos();
+    }
+
+    /**
+     * Returns the time in milliseconds until the buckets are no longer indebted.
+     */
+    public synchronized long getDelay() {
+        refill(System.nanoTime());
+        return TimeUnit.NANOSECONDS.toMillis(debtNanos());
+    }
+
+    /**
+     * Returns the time in milliseconds until the buckets are no longer indebted, by which the caller defers the
+     * task to the destination, and accounts it as throttled time.
+     */
+    public synchronized long defer() {
+        refill(System.nanoTime());
+        long nanos = debtNanos();
+        throttledNanos += nanos;
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    public synchronized Statistics getStatistics() {
+        refill(System.nanoTime());
+        return new Statistics(this);
+    }
+
+    private synchronized void throttled(long nanos) {
+        throttledNanos += nanos;
+    }
+
+    private void refill(long now) {
+        double seconds = (double) (now - lastRefill) / NANOS_PER_SECOND;
+        lastRefill = now;
+        int objectsPerSecond = rateLimit.getObjectsPerSecond();
+        long bytesPerSecond = rateLimit.getBytesPerSecond();
+        if (objectsPerSecond > 0)
+            objects = Math.min(objectsPerSecond, objects + seconds * objectsPerSecond);
+        if (bytesPerSecond > 0)
+            bytes = Math.min(bytesPerSecond, bytes + seconds * bytesPerSecond);
+    }
+
+    private long debtNanos() {
+        double seconds = 0;
+        if (objects < 0 && rateLimit.getObjectsPerSecond() > 0)
+            seconds = -objects / rateLimit.getObjectsPerSecond();
+        if (bytes < 0 && rateLimit.getBytesPerSecond() > 0)
+            seconds = Math.max(seconds, -bytes / rateLimit.getBytesPerSecond());
+        return (long) (seconds * NANOS_PER_SECOND);
+    }
+
+    public static class Statistics {
+        public final RateLimit rateLimit;
+        public final long availableObjects;
+        public final long availableBytes;
+        public final long sentObjects;
+        public final long sentBytes;
+        public final long throttledTime;
+
+        private Statistics(RateLimiter limiter) {
+            this.rateLimit = limiter.rateLimit;
+            this.availableObjects = (long) limiter.objects;
+            this.availableBytes = (long) limiter.bytes;
+            this.sentObjects = limiter.sentObjects;
+            this.sentBytes = limiter.sentBytes;
+            this.throttledTime = TimeUnit.NANOSECONDS.toMillis(limiter.throttledNanos);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc;
+
+import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.RateLimit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate limiters of destinations with configured rate limit. Configured rate limits may be overwritten at runtime,
+ * until the overwrite is reset or the archive is restarted.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class RateLimiters {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimiters.class);
+
+    @Inject
+    private Device device;
+
+    private final ConcurrentHashMap<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, RateLimit> overwrites = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the rate limiter of the specified destination or {@code null}, if sending to the destination is not
+     * limited.
+     */
+    public RateLimiter getRateLimiter(String name) {
+        if (name == null)
+            return null;
+
+        RateLimit rateLimit = rateLimit(name);
+        if (rateLimit == null || rateLimit.isUnlimited()) {
+            limiters.remove(name);
+            return null;
+        }
+        RateLimiter limiter = limiters.computeIfAbsent(name, key -> new RateLimiter(rateLimit));
+        limiter.setRateLimit(rateLimit);
+        return limiter;
+    }
+
+    /**
+     * Returns the time in milliseconds until the rate limiter of the specified destination is no longer indebted,
+     * by which the caller defers the task to the destination.
+     */
+    public long defer(String name) {
+        RateLimiter limiter = getRateLimiter(name);
+        return limiter != null ? limiter.defer() : 0L;
+    }
+
+    public List<RateLimiter> listRateLimiters() {
+        for (RateLimit rateLimit : arcDev().getRateLimits())
+            getRateLimiter(rateLimit.getName());
+        for (String name : overwrites.keySet())
+            getRateLimiter(name);
+        return new ArrayList<>(limiters.values());
+    }
+
+    public void overwrite(RateLimit rateLimit) {
+        LOG.info("Overwrite configured rate limit {} by {}", arcDev().getRateLimit(rateLimit.getName()), rateLimit);
+        overwrites.put(rateLimit.getName(), rateLimit);
+        getRateLimiter(rateLimit.getName());
+    }
+
+    public boolean resetOverwrite(String name) {
+        RateLimit rateLimit = overwrites.remove(name);
+        if (rateLimit == null)
+            return false;
+
+        LOG.info("Reset overwrite {} of configured rate limit {}", rateLimit, arcDev().getRateLimit(name));
+        getRateLimiter(name);
+        return true;
+    }
+
+    public boolean isOverwritten(String name) {
+        return overwrites.containsKey(name);
+    }
+
+    private RateLimit rateLimit(String name) {
+        RateLimit rateLimit = overwrites.get(name);
+        return rateLimit != null ? rateLimit : arcDev().getRateLimit(name);
+    }
+
+    private ArchiveDeviceExtension arcDev() {
+        return device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class);
+    }
+}
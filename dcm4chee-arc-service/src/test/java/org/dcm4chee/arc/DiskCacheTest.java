@@ -0,0 +1,232 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class DiskCacheTest {
+
+    private static final int MAX_SIZE = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path dir;
+    private DiskCache cache;
+
+    @Before
+    public void setUp() {
+        dir = folder.getRoot().toPath();
+        cache = new DiskCache("test cache", () -> dir, () -> MAX_SIZE, name -> !name.endsWith(".tmp"));
+    }
+
+    @Test
+    public void testOpen() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        assertEquals("abc", read(cache.open("a/1", out -> {
+            writes.incrementAndGet();
+            out.write("abc".getBytes());
+        })));
+        assertEquals("abc", read(cache.open("a/1", out -> fail("not cached"))));
+        assertEquals(1, writes.get());
+        DiskCache.Statistics stats = cache.getStatistics();
+        assertEquals(1, stats.hits);
+        assertEquals(1, stats.misses);
+        assertEquals(1, stats.writes);
+        assertEquals(1, stats.entries);
+        assertEquals(3, stats.size);
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        open("a/1", 4);
+        open("b/2", 4);
+        open("a/1", 4);
+        open("c/3", 4);
+        assertTrue(cache.contains(dir.resolve("a/1")));
+        assertFalse(cache.contains(dir.resolve("b/2")));
+        assertTrue(cache.contains(dir.resolve("c/3")));
+        assertFalse(Files.exists(dir.resolve("b")));
+        assertEquals(8, cache.getTotalSize());
+        assertEquals(1, cache.getStatistics().evictions);
+    }
+
+    @Test
+    public void testKeepEntryExceedingMaxSize() throws Exception {
+        open("a/1", 4);
+        open("b/2", MAX_SIZE + 1);
+        assertFalse(cache.contains(dir.resolve("a/1")));
+        assertTrue(cache.contains(dir.resolve("b/2")));
+    }
+
+    @Test
+    public void testLoadInOrderOfLastModification() throws Exception {
+        write("a/1", 4, 2000L);
+        write("b/2", 4, 1000L);
+        write("b/3.tmp", 4, 3000L);
+        assertFalse(cache.contains(dir.resolve("x")));
+        assertEquals(8, cache.getTotalSize());
+        open("c/3", 4);
+        assertTrue(cache.contains(dir.resolve("a/1")));
+        assertFalse(cache.contains(dir.resolve("b/2")));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        open("a/1", 4);
+        Path file = dir.resolve("a/1");
+        cache.remove(file);
+        assertFalse(Files.exists(file));
+        assertFalse(cache.contains(file));
+        assertEquals(0, cache.getTotalSize());
+        AtomicInteger writes = new AtomicInteger();
+        cache.open("a/1", out -> {
+            writes.incrementAndGet();
+            out.write(1);
+        }).close();
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    public void testReloadExternallyDeletedFile() throws Exception {
+        open("a/1", 4);
+        Files.delete(dir.resolve("a/1"));
+        assertEquals("xy", read(cache.open("a/1", out -> out.write("xy".getBytes()))));
+        assertEquals(2, cache.getTotalSize());
+    }
+
+    @Test
+    public void testSingleFlightOpen() throws Exception {
+        int threads = 4;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger writes = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+                futures.add(executor.submit(() -> read(cache.open("a/1", out -> {
+                    writes.incrementAndGet();
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    out.write("abc".getBytes());
+                }))));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> future : futures)
+                assertEquals("abc", future.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, writes.get());
+        assertEquals(1, cache.getStatistics().misses);
+    }
+
+    @Test
+    public void testFailedWriteNotCached() throws Exception {
+        try {
+            cache.open("a/1", out -> {
+                out.write(1);
+                throw new IOException("failed");
+            });
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("failed", e.getMessage());
+        }
+        assertFalse(cache.contains(dir.resolve("a/1")));
+        try (Stream<Path> files = Files.list(dir.resolve("a"))) {
+            assertEquals(0, files.count());
+        }
+        assertEquals("abc", read(cache.open("a/1", out -> out.write("abc".getBytes()))));
+    }
+
+    private void open(String path, int size) throws IOException {
+        cache.open(path, out -> out.write(new byte[size])).close();
+    }
+
+    private void write(String path, int size, long lastModified) throws IOException {
+        Path file = dir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream is = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[256];
+            int read;
+            while ((read = is.read(buf)) > 0)
+                out.write(buf, 0, read);
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc;
+
+import org.dcm4chee.arc.conf.RateLimit;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class RateLimiterTest {
+
+    @Test
+    public void testObjectsPerSecond() {
+        RateLimiter limiter = new RateLimiter(RateLimit.valueOf("STORESCP:10"));
+        for (int i = 0; i < 10; i++)
+            assertEquals(0L, limiter.take(1, 1000000L));
+        long nanos = limiter.take(1, 1000000L);
+        assertTrue(nanos > TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(nanos <= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void testBytesPerSecond() {
+        RateLimiter limiter = new RateLimiter(RateLimit.valueOf("STORESCP:0:1kB"));
+        long nanos = limiter.take(1, 3000L);
+        assertTrue(nanos > TimeUnit.MILLISECONDS.toNanos(1900));
+        assertTrue(nanos <= TimeUnit.MILLISECONDS.toNanos(2000));
+        assertTrue(limiter.getDelay() > 1900L);
+    }
+
+    @Test
+    public void testThrottledTimeOnlyByWaitingOrDeferring() throws Exception {
+        RateLimiter limiter = new RateLimiter(RateLimit.valueOf("STORESCP:20"));
+        for (int i = 0; i < 100; i++)
+            limiter.take(1, 0L);
+        assertEquals(0L, limiter.getStatistics().throttledTime);
+        long delay = limiter.defer();
+        assertTrue(delay > 3900L);
+        assertEquals(delay, limiter.getStatistics().throttledTime, 1L);
+
+        limiter = new RateLimiter(RateLimit.valueOf("STORESCP:20"));
+        long start = System.nanoTime();
+        for (int i = 0; i < 25; i++)
+            limiter.acquire(1, 0L);
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waited >= 200L);
+        long throttledTime = limiter.getStatistics().throttledTime;
+        assertTrue(throttledTime >= 200L);
+        assertTrue(throttledTime <= waited);
+    }
+
+    @Test
+    public void testSetRateLimit() {
+        RateLimiter limiter = new RateLimiter(RateLimit.valueOf("STORESCP:100"));
+        limiter.setRateLimit(RateLimit.valueOf("STORESCP:1"));
+        assertEquals(0L, limiter.take(1, 0L));
+        assertTrue(limiter.take(1, 0L) > TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    public void testSetRateLimitToUnlimitedWhileIndebted() {
+        RateLimiter limiter = new RateLimiter(RateLimit.valueOf("STORESCP:1:1kB"));
+        assertTrue(limiter.take(2, 3000L) > 0L);
+        limiter.setRateLimit(RateLimit.valueOf("STORESCP:0:1kB"));
+        assertTrue(limiter.getDelay() > 1900L);
+        limiter.setRateLimit(RateLimit.valueOf("STORESCP:0:0"));
+        assertEquals(0L, limiter.getDelay());
+        assertEquals(0L, limiter.take(1, 1000000L));
+        limiter.setRateLimit(RateLimit.valueOf("STORESCP:1"));
+        assertTrue(limiter.take(1, 0L) > TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    public void testValueOf() {
+        RateLimit rateLimit = RateLimit.valueOf("STORESCP:20:10MB");
+        assertEquals("STORESCP", rateLimit.getName());
+        assertEquals(20, rateLimit.getObjectsPerSecond());
+        assertEquals(10000000L, rateLimit.getBytesPerSecond());
+        assertEquals("STORESCP:20:10MB", rateLimit.toString());
+    }
+}
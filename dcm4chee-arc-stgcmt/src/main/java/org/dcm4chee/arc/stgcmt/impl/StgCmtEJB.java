@@ -324,6 +324,7 @@ public class StgCmtEJB {
         return true;
     }
 
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
     public long cancelStgVerTasks(TaskQueryParam queueTaskQueryParam, TaskQueryParam stgVerTaskQueryParam) {
         return queueManager.cancelStgVerTasks(queueTaskQueryParam, stgVerTaskQueryParam);
     }
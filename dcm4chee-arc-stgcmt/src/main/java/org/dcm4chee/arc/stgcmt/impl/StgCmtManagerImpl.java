@@ -50,6 +50,9 @@ import org.dcm4che3.net.Status;
 import org.dcm4che3.util.StreamUtils;
 import org.dcm4che3.util.StringUtils;
 import org.dcm4che3.util.TagUtils;
+import org.dcm4chee.arc.RateLimiter;
+import org.dcm4chee.arc.RateLimiters;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
 import org.dcm4chee.arc.conf.StorageVerificationPolicy;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.entity.*;
@@ -63,6 +66,7 @@ import org.dcm4chee.arc.retrieve.RetrieveContext;
 import org.dcm4chee.arc.retrieve.RetrieveFailures;
 import org.dcm4chee.arc.retrieve.RetrieveService;
 import org.dcm4chee.arc.stgcmt.*;
+import org.dcm4chee.arc.storage.ObjectMetadata;
 import org.dcm4chee.arc.storage.ReadContext;
 import org.dcm4chee.arc.storage.Storage;
 import org.dcm4chee.arc.store.InstanceLocations;
@@ -80,6 +84,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -103,6 +109,9 @@ public class StgCmtManagerImpl implements StgCmtManager {
     @Inject
     private StoreService storeService;
 
+    @Inject
+    private RateLimiters rateLimiters;
+
     @Inject
     private Event<StgCmtContext> stgCmtEvent;
 
@@ -363,8 +372,12 @@ public class StgCmtManagerImpl implements StgCmtManager {
         if (commonRetrieveAET != null)
             eventInfo.setString(Tag.RetrieveAETitle, VR.AE, commonRetrieveAET);
 
+        boolean[] verified = ctx.getStorageVerificationPolicy() != StorageVerificationPolicy.DB_RECORD_EXISTS
+                ? new InstanceVerification(ctx, retrCtx, matches).verify()
+                : null;
         Set<String> studyInstanceUIDs = new HashSet<>();
-        for (InstanceLocations inst : matches) {
+        for (int i = 0; i < matches.size(); i++) {
+            InstanceLocations inst = matches.get(i);
             String cuid = inst.getSopClassUID();
             String iuid = inst.getSopInstanceUID();
             Attributes attr = inst.getAttributes();
@@ -373,8 +386,7 @@ public class StgCmtManagerImpl implements StgCmtManager {
                     attr.getString(Tag.SeriesInstanceUID),
                     key -> new int[1])
                     : null;
-            if (ctx.getStorageVerificationPolicy() == StorageVerificationPolicy.DB_RECORD_EXISTS
-                    || checkLocationsOfInstance(ctx, retrCtx, inst)) {
+            if (verified == null || verified[i]) {
                 eventInfo.ensureSequence(Tag.ReferencedSOPSequence, retrCtx.getNumberOfMatches())
                         .add(refSOP(cuid, iuid, commonRetrieveAET == null ? inst.getRetrieveAETs() : null));
             } else {
@@ -430,8 +442,141 @@ public class StgCmtManagerImpl implements StgCmtManager {
         return attrs;
     }
 
-    private boolean checkLocationsOfInstance(StgCmtContext ctx, RetrieveContext retrCtx, InstanceLocations inst) {
-        List<UpdateLocation> updateLocations = retrCtx.getUpdateLocations();
+    class InstanceVerification {
+        final StgCmtContext ctx;
+        final RetrieveContext retrCtx;
+        final List<InstanceLocations> matches;
+        final boolean[] verified;
+        final ObjectListings listings = new ObjectListings();
+        final AtomicInteger next = new AtomicInteger();
+        final Semaphore helpersDone = new Semaphore(0);
+
+        InstanceVerification(StgCmtContext ctx, RetrieveContext retrCtx, List<InstanceLocations> matches) {
+            this.ctx = ctx;
+            this.retrCtx = retrCtx;
+            this.matches = matches;
+            this.verified = new boolean[matches.size()];
+        }
+
+        boolean[] verify() {
+            openStorages();
+            if (listsObjects(ctx.getStorageVerificationPolicy()))
+                listObjects();
+            int threads = Math.min(arcDev().getStorageVerificationThreads(), verified.length);
+            int helpers = 0;
+            for (int i = 1; i < threads; i++) {
+                try {
+                    device.execute(() -> {
+                        try {
+                            verifyNext();
+                        } finally {
+                            helpersDone.release();
+                        }
+                    });
+                    helpers++;
+                } catch (RuntimeException e) {
+                    LOG.info("Failed to start thread for Storage Verification:\n", e);
+                    break;
+                }
+            }
+            verifyNext();
+            helpersDone.acquireUninterruptibly(helpers);
+            return verified;
+        }
+
+        /**
+         * Opens the storages in the calling thread, so threads verifying instances only read the storages cached by
+         * the Retrieve Context.
+         */
+        private void openStorages() {
+            for (InstanceLocations inst : matches)
+                for (Location l : inst.getLocations())
+                    if (ctx.checkStorageID(l.getStorageID()))
+                        retrieveService.getStorage(l.getStorageID(), retrCtx);
+        }
+
+        /**
+         * Lists the objects of directories containing at least two locations of the verified instances, if the
+         * storage supports listing objects.
+         */
+        private void listObjects() {
+            Map<String, Map<String, int[]>> locationsByStorageIDAndDirectory = new HashMap<>();
+            for (InstanceLocations inst : matches)
+                for (Location l : inst.getLocations())
+                    if (ctx.checkStorageID(l.getStorageID()))
+                        locationsByStorageIDAndDirectory
+                                .computeIfAbsent(l.getStorageID(), key -> new HashMap<>())
+                                .computeIfAbsent(ObjectListings.directoryOf(l.getStoragePath()), key -> new int[1])[0]++;
+            locationsByStorageIDAndDirectory.forEach((storageID, locationsByDirectory) -> {
+                Storage storage = retrieveService.getStorage(storageID, retrCtx);
+                for (Map.Entry<String, int[]> entry : locationsByDirectory.entrySet()) {
+                    String dir = entry.getKey();
+                    if (dir.isEmpty() || entry.getValue()[0] < 2)
+                        continue;
+
+                    acquire(storage, 0L);
+                    try {
+                        Map<String, ObjectMetadata> objects = storage.listObjects(dir);
+                        if (objects == null)
+                            return;
+
+                        listings.put(storageID, dir, objects);
+                    } catch (IOException e) {
+                        LOG.info("Failed to list objects of {}{} - verify objects individually:\n",
+                                storage, dir, e);
+                    }
+                }
+            });
+        }
+
+        private void verifyNext() {
+            List<UpdateLocation> updateLocations = new ArrayList<>();
+            int i;
+            while ((i = next.getAndIncrement()) < verified.length) {
+                InstanceLocations inst = matches.get(i);
+                try {
+                    verified[i] = checkLocationsOfInstance(ctx, retrCtx, listings, inst, updateLocations);
+                } catch (RuntimeException e) {
+                    LOG.warn("Failed to verify {}:\n", inst, e);
+                }
+            }
+            List<UpdateLocation> retrCtxUpdateLocations = retrCtx.getUpdateLocations();
+            synchronized (retrCtxUpdateLocations) {
+                retrCtxUpdateLocations.addAll(updateLocations);
+            }
+        }
+    }
+
+    /**
+     * Metadata of listed objects by Storage ID and directory.
+     */
+    private static class ObjectListings {
+        final Map<String, Map<String, Map<String, ObjectMetadata>>> objectsByStorageIDAndDirectory = new HashMap<>();
+
+        static String directoryOf(String storagePath) {
+            return storagePath.substring(0, storagePath.lastIndexOf('/') + 1);
+        }
+
+        void put(String storageID, String dir, Map<String, ObjectMetadata> objects) {
+            objectsByStorageIDAndDirectory.computeIfAbsent(storageID, key -> new HashMap<>()).put(dir, objects);
+        }
+
+        /**
+         * Returns the listed objects of the directory of the location or {@code null}, if the directory was not listed.
+         */
+        Map<String, ObjectMetadata> get(Location l) {
+            Map<String, Map<String, ObjectMetadata>> objectsByDirectory =
+                    objectsByStorageIDAndDirectory.get(l.getStorageID());
+            return objectsByDirectory != null ? objectsByDirectory.get(directoryOf(l.getStoragePath())) : null;
+        }
+    }
+
+    private ArchiveDeviceExtension arcDev() {
+        return device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class);
+    }
+
+    private boolean checkLocationsOfInstance(StgCmtContext ctx, RetrieveContext retrCtx, ObjectListings listings,
+                                             InstanceLocations inst, List<UpdateLocation> updateLocations) {
         int locationsOnStgCmtStorage = 0;
         Attributes attrs = inst.getAttributes();
         String studyInstanceUID = attrs.getString(Tag.StudyInstanceUID);
@@ -439,7 +584,7 @@ public class StgCmtManagerImpl implements StgCmtManager {
             if (ctx.checkStorageID(l.getStorageID())) {
                 locationsOnStgCmtStorage++;
                 Storage storage = retrieveService.getStorage(l.getStorageID(), retrCtx);
-                CheckResult result = checkLocation(ctx, inst, l, storage, updateLocations);
+                CheckResult result = checkLocation(ctx, inst, l, storage, listings.get(l), updateLocations);
                 if (ctx.isUpdateLocationStatus() && l.getStatus() != result.status) {
                     updateLocations.add(new UpdateLocation(inst, l, result.status, null));
                 }
@@ -472,10 +617,17 @@ public class StgCmtManagerImpl implements StgCmtManager {
     }
 
     private CheckResult checkLocation(StgCmtContext ctx, InstanceLocations inst, Location l, Storage storage,
-                                      List<UpdateLocation> updateLocations) {
+                                      Map<String, ObjectMetadata> listedObjects, List<UpdateLocation> updateLocations) {
+        if (listedObjects != null) {
+            CheckResult result = checkListedObject(ctx.getStorageVerificationPolicy(), l,
+                    listedObjects.get(l.getStoragePath()), storage.getStorageDescriptor());
+            if (result != null)
+                return result;
+        }
         ReadContext readContext = storage.createReadContext();
         readContext.setStoragePath(l.getStoragePath());
         readContext.setStudyInstanceUID(inst.getAttributes().getString(Tag.StudyInstanceUID));
+        acquire(storage, readsObject(ctx.getStorageVerificationPolicy()) ? l.getSize() : 0L);
         switch (ctx.getStorageVerificationPolicy()) {
             case OBJECT_EXISTS:
                 return objectExists(readContext);
@@ -491,6 +643,76 @@ public class StgCmtManagerImpl implements StgCmtManager {
         throw new AssertionError("StgCmtPolicy: " + ctx.getStorageVerificationPolicy());
     }
 
+    /**
+     * Verifies the location by the metadata of the listed objects of its directory. Returns {@code null}, if the
+     * metadata does not suffice, or if the object was not listed, so it is requested individually.
+     */
+    private static CheckResult checkListedObject(StorageVerificationPolicy policy, Location l, ObjectMetadata metadata,
+                                                 StorageDescriptor storageDescriptor) {
+        if (metadata == null)
+            return null;
+
+        switch (policy) {
+            case OBJECT_EXISTS:
+                return new CheckResult(Location.Status.OK);
+            case S3_MD5SUM:
+                if ("MD5".equals(storageDescriptor.getDigestAlgorithm())) {
+                    String digest = l.getDigestAsHexString();
+                    if (digest == null || metadata.getContentMD5() == null)
+                        return null;
+
+                    return TagUtils.toHexString(metadata.getContentMD5()).equals(digest)
+                            ? new CheckResult(Location.Status.OK)
+                            : new CheckResult(Location.Status.DIFFERING_S3_MD5SUM);
+                }
+                // fall through: compare object size instead S3 MD5, as compareS3md5Sum() does
+            case OBJECT_SIZE:
+                if (metadata.getContentLength() < 0)
+                    return null;
+
+                return metadata.getContentLength() == l.getSize()
+                        ? new CheckResult(Location.Status.OK)
+                        : new CheckResult(Location.Status.DIFFERING_OBJECT_SIZE);
+        }
+        return null;
+    }
+
+    private static boolean listsObjects(StorageVerificationPolicy policy) {
+        switch (policy) {
+            case OBJECT_EXISTS:
+            case OBJECT_SIZE:
+            case S3_MD5SUM:
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean readsObject(StorageVerificationPolicy policy) {
+        switch (policy) {
+            case OBJECT_FETCH:
+            case OBJECT_CHECKSUM:
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes the tokens for one request and the specified number of read bytes from the rate limiter of the storage.
+     */
+    private void acquire(Storage storage, long numBytes) {
+        RateLimiter rateLimiter = rateLimiters.getRateLimiter(
+                storage.getStorageDescriptor().getStorageVerificationRateLimit());
+        if (rateLimiter == null)
+            return;
+
+        try {
+            rateLimiter.acquire(1, numBytes);
+        } catch (InterruptedException e) {
+            LOG.info("Interrupted waiting for {}", rateLimiter.getRateLimit());
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private static class CheckResult {
         final Location.Status status;
         final IOException ioException;
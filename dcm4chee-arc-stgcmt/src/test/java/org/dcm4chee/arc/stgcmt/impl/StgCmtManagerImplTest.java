@@ -0,0 +1,247 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.stgcmt.impl;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.net.ApplicationEntity;
+import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.RateLimiter;
+import org.dcm4chee.arc.RateLimiters;
+import org.dcm4chee.arc.conf.*;
+import org.dcm4chee.arc.entity.Location;
+import org.dcm4chee.arc.retrieve.RetrieveContext;
+import org.dcm4chee.arc.retrieve.RetrieveService;
+import org.dcm4chee.arc.stgcmt.StgCmtContext;
+import org.dcm4chee.arc.storage.DefaultReadContext;
+import org.dcm4chee.arc.storage.ReadContext;
+import org.dcm4chee.arc.storage.Storage;
+import org.dcm4chee.arc.store.InstanceLocations;
+import org.dcm4chee.arc.store.UpdateLocation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.dcm4chee.arc.test.Stubs.inject;
+import static org.dcm4chee.arc.test.Stubs.proxy;
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the Instances of one Series against a stubbed Storage and checks that failures of single Instances do not
+ * affect the other Instances, and that the number of verifying threads and the rate of verified objects are limited
+ * by the configuration.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class StgCmtManagerImplTest {
+
+    private static final int INSTANCES = 20;
+    private static final String STORAGE_ID = "fs1";
+    private static final String RATE_LIMIT = "nas";
+
+    private ExecutorService executor;
+    private ArchiveDeviceExtension arcDev;
+    private StorageDescriptor desc;
+    private StgCmtManagerImpl manager;
+    private StgCmtContext ctx;
+    private RateLimiters rateLimiters;
+    private final List<UpdateLocation> updateLocations = new ArrayList<>();
+    private final Set<String> missing = new HashSet<>();
+    private final Set<String> failing = new HashSet<>();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile long existsMillis;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        arcDev = new ArchiveDeviceExtension();
+        desc = new StorageDescriptor(STORAGE_ID);
+        arcDev.addStorageDescriptor(desc);
+        Device device = new Device("dcm4chee-arc");
+        device.addDeviceExtension(arcDev);
+        device.setExecutor(executor);
+        ApplicationEntity ae = new ApplicationEntity("DCM4CHEE");
+        ae.addAEExtension(new ArchiveAEExtension());
+        device.addApplicationEntity(ae);
+        Storage storage = storage();
+        manager = new StgCmtManagerImpl();
+        rateLimiters = new RateLimiters();
+        inject(rateLimiters, "device", device);
+        inject(manager, "device", device);
+        inject(manager, "rateLimiters", rateLimiters);
+        inject(manager, "retrieveService", proxy(RetrieveService.class, (proxy, method, args) -> {
+            if (method.getName().equals("getStorage"))
+                return storage;
+            throw new UnsupportedOperationException(method.getName());
+        }));
+        ctx = new StgCmtContext(ae, ae.getAETitle());
+        ctx.setStorageVerificationPolicy(StorageVerificationPolicy.OBJECT_EXISTS);
+        ctx.setUpdateLocationStatus(true);
+        ctx.setStorageIDs();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testFailureOfInstanceDoesNotAffectOtherInstances() {
+        arcDev.setStorageVerificationThreads(4);
+        failing.add(path(5));
+        missing.add(path(7));
+        boolean[] verified = verify();
+        for (int i = 0; i < INSTANCES; i++)
+            assertEquals("verified[" + i + "]", i != 5 && i != 7, verified[i]);
+        assertEquals(1, updateLocations.size());
+        assertEquals(Location.Status.MISSING_OBJECT, updateLocations.get(0).newStatus);
+    }
+
+    @Test
+    public void testThreadsLimitedByConfiguration() {
+        arcDev.setStorageVerificationThreads(3);
+        existsMillis = 20L;
+        boolean[] verified = verify();
+        for (boolean b : verified)
+            assertTrue(b);
+        assertTrue("max concurrent: " + maxConcurrent, maxConcurrent.get() > 1);
+        assertTrue("max concurrent: " + maxConcurrent, maxConcurrent.get() <= 3);
+    }
+
+    @Test
+    public void testRateLimitOfStorage() {
+        arcDev.setStorageVerificationThreads(4);
+        arcDev.setRateLimits(new RateLimit[]{ new RateLimit(RATE_LIMIT, INSTANCES / 2, 0L) });
+        desc.setStorageVerificationRateLimit(RATE_LIMIT);
+        long start = System.currentTimeMillis();
+        boolean[] verified = verify();
+        long elapsed = System.currentTimeMillis() - start;
+        for (boolean b : verified)
+            assertTrue(b);
+        RateLimiter.Statistics stats = rateLimiters.getRateLimiter(RATE_LIMIT).getStatistics();
+        assertEquals(INSTANCES, stats.sentObjects);
+        assertEquals(0L, stats.sentBytes);
+        assertTrue("elapsed: " + elapsed, elapsed >= 800L);
+    }
+
+    private boolean[] verify() {
+        List<InstanceLocations> matches = new ArrayList<>(INSTANCES);
+        for (int i = 0; i < INSTANCES; i++)
+            matches.add(instance(i));
+        RetrieveContext retrCtx = proxy(RetrieveContext.class, (proxy, method, args) -> {
+            if (method.getName().equals("getUpdateLocations"))
+                return updateLocations;
+            throw new UnsupportedOperationException(method.getName());
+        });
+        return manager.new InstanceVerification(ctx, retrCtx, matches).verify();
+    }
+
+    private Storage storage() {
+        return proxy(Storage.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getStorageDescriptor":
+                    return desc;
+                case "createReadContext":
+                    return new DefaultReadContext((Storage) proxy);
+                case "listObjects":
+                    return null;
+                case "exists":
+                    return exists((ReadContext) args[0]);
+                case "toString":
+                    return "Storage[id=" + STORAGE_ID + "]";
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private boolean exists(ReadContext readContext) throws InterruptedException {
+        int n = concurrent.incrementAndGet();
+        maxConcurrent.accumulateAndGet(n, Math::max);
+        try {
+            if (existsMillis > 0)
+                Thread.sleep(existsMillis);
+            if (failing.contains(readContext.getStoragePath()))
+                throw new IllegalStateException("Failed to access " + readContext.getStoragePath());
+            return !missing.contains(readContext.getStoragePath());
+        } finally {
+            concurrent.decrementAndGet();
+        }
+    }
+
+    private static String path(int i) {
+        return "dir" + i + "/obj";
+    }
+
+    private static InstanceLocations instance(int i) {
+        String iuid = "1.2.3.1." + i;
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.StudyInstanceUID, VR.UI, "1.2.3");
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, iuid);
+        List<Location> locations = Collections.singletonList(new Location.Builder()
+                .storageID(STORAGE_ID)
+                .storagePath(path(i))
+                .transferSyntaxUID(UID.ExplicitVRLittleEndian)
+                .objectType(Location.ObjectType.DICOM_FILE)
+                .build());
+        return proxy(InstanceLocations.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getSopInstanceUID":
+                    return iuid;
+                case "getAttributes":
+                    return attrs;
+                case "getLocations":
+                    return locations;
+                case "toString":
+                    return "Instance[iuid=" + iuid + "]";
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
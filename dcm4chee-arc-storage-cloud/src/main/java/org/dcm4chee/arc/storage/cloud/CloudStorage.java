@@ -40,12 +40,14 @@
 
 package org.dcm4chee.arc.storage.cloud;
 
+import com.google.common.collect.Iterables;
 import com.google.common.hash.HashCode;
 import org.dcm4che3.net.Device;
 import org.dcm4che3.util.AttributesFormat;
 import org.dcm4chee.arc.conf.BinaryPrefix;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.storage.AbstractStorage;
+import org.dcm4chee.arc.storage.ObjectMetadata;
 import org.dcm4chee.arc.storage.ReadContext;
 import org.dcm4chee.arc.storage.WriteContext;
 import org.jclouds.ContextBuilder;
@@ -53,15 +55,19 @@ import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.io.Payload;
 import org.jclouds.io.payloads.InputStreamPayload;
 import org.jclouds.logging.slf4j.config.SLF4JLoggingModule;
+import org.jclouds.s3.S3Client;
+import org.jclouds.s3.domain.DeleteResult;
 
 import java.io.*;
 import java.nio.file.NoSuchFileException;
-import java.util.Collections;
-import java.util.Map;
-import java.util.Properties;
+import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
@@ -75,6 +81,7 @@ import java.util.concurrent.ThreadLocalRandom;
 public class CloudStorage extends AbstractStorage {
 
     private static final String DEFAULT_CONTAINER = "org.dcm4chee.arc";
+    private static final int MAX_KEYS_PER_DELETE_REQUEST = 1000;
     private static final Uploader STREAMING_UPLOADER = new Uploader() {
         @Override
         public void upload(BlobStoreContext context, InputStream in, long length,
@@ -92,6 +99,9 @@ public class CloudStorage extends AbstractStorage {
     private final BlobStoreContext context;
     private final boolean streamingUpload;
     private final long maxPartSize;
+    private final boolean multiObjectDelete;
+    private final boolean listObjects;
+    private final int maxListedObjects;
     private int count;
 
     @Override
@@ -114,6 +124,10 @@ public class CloudStorage extends AbstractStorage {
         }
         this.streamingUpload = Boolean.parseBoolean(descriptor.getProperty("streamingUpload", null));
         this.maxPartSize = BinaryPrefix.parse(descriptor.getProperty("maxPartSize", "5G"));
+        this.multiObjectDelete = (api.equals("s3") || api.equals("aws-s3"))
+                && Boolean.parseBoolean(descriptor.getProperty("multiObjectDelete", "true"));
+        this.listObjects = Boolean.parseBoolean(descriptor.getProperty("listObjects", null));
+        this.maxListedObjects = Integer.parseInt(descriptor.getProperty("maxListedObjects", "10000"));
         ContextBuilder ctxBuilder = ContextBuilder.newBuilder(api);
         String identity = descriptor.getProperty("identity", null);
         if (identity != null)
@@ -245,6 +259,88 @@ public class CloudStorage extends AbstractStorage {
         blobStore.removeBlob(container, storagePath);
     }
 
+    @Override
+    public Map<String, IOException> deleteObjects(Collection<String> storagePaths) {
+        if (!multiObjectDelete)
+            return super.deleteObjects(storagePaths);
+
+        S3Client client = context.unwrapApi(S3Client.class);
+        Map<String, IOException> failures = new HashMap<>();
+        for (List<String> keys : Iterables.partition(storagePaths, MAX_KEYS_PER_DELETE_REQUEST)) {
+            // S3 reports keys of non-existing objects as deleted, which the caller treats as deleted anyway
+            try {
+                DeleteResult result = client.deleteObjects(container, keys);
+                for (Map.Entry<String, DeleteResult.Error> error : result.getErrors().entrySet())
+                    failures.put(error.getKey(), new IOException("Failed to delete Object[" + error.getKey()
+                            + "] in Container[" + container
+                            + "] on " + getStorageDescriptor()
+                            + ": " + error.getValue().getCode() + " - " + error.getValue().getMessage()));
+            } catch (RuntimeException e) {
+                IOException ioe = new IOException("Failed to delete " + keys.size()
+                        + " Objects in Container[" + container
+                        + "] on " + getStorageDescriptor(), e);
+                for (String key : keys)
+                    failures.put(key, ioe);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Lists only the objects directly below the specified prefix, without descending into sub-directories. Fails
+     * if there are more than {@code maxListedObjects}, so the caller verifies the objects individually instead.
+     */
+    @Override
+    public Map<String, ObjectMetadata> listObjects(String prefix) throws IOException {
+        if (!listObjects)
+            return null;
+
+        BlobStore blobStore = context.getBlobStore();
+        Map<String, ObjectMetadata> objects = new HashMap<>();
+        String marker = null;
+        try {
+            do {
+                ListContainerOptions options = ListContainerOptions.Builder.prefix(prefix);
+                if (marker != null)
+                    options.afterMarker(marker);
+                PageSet<? extends StorageMetadata> page = blobStore.list(container, options);
+                for (StorageMetadata metadata : page)
+                    if (metadata.getType() == StorageType.BLOB)
+                        objects.put(metadata.getName(), new ObjectMetadata(
+                                metadata.getSize() != null ? metadata.getSize() : -1L,
+                                contentMD5(metadata)));
+                if (objects.size() > maxListedObjects)
+                    throw new IOException("More than " + maxListedObjects + " Objects[" + prefix
+                            + "*] in Container[" + container
+                            + "] on " + getStorageDescriptor());
+                marker = page.getNextMarker();
+            } while (marker != null);
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to list Objects[" + prefix
+                    + "*] in Container[" + container
+                    + "] on " + getStorageDescriptor(), e);
+        }
+        return objects;
+    }
+
+    /**
+     * Returns the Content-MD5 of a listed object, or the MD5 provided by its ETag, which is not the case for objects
+     * uploaded in multiple parts.
+     */
+    private static byte[] contentMD5(StorageMetadata metadata) {
+        if (metadata instanceof BlobMetadata) {
+            HashCode hashCode = ((BlobMetadata) metadata).getContentMetadata().getContentMD5AsHashCode();
+            if (hashCode != null)
+                return hashCode.asBytes();
+        }
+        String eTag = metadata.getETag();
+        if (eTag == null)
+            return null;
+
+        eTag = eTag.replace("\"", "").toLowerCase();
+        return eTag.matches("[0-9a-f]{32}") ? HashCode.fromString(eTag).asBytes() : null;
+    }
+
     private IOException objectNotFound(String storagePath) {
         return new NoSuchFileException("No Object[" + storagePath
                 + "] in Container[" + container
@@ -0,0 +1,121 @@
+package org.dcm4chee.arc.storage.cloud;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4chee.arc.conf.StorageDescriptor;
+import org.dcm4chee.arc.storage.ObjectMetadata;
+import org.dcm4chee.arc.storage.WriteContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class CloudStorageTest {
+
+    private static final String SERIES_IUID = "1.2.3.4";
+    private static final String OTHER_SERIES_IUID = "1.2.3.5";
+
+    private CloudStorage storage;
+
+    @Before
+    public void setUp() {
+        StorageDescriptor descriptor = new StorageDescriptor("cloud");
+        descriptor.setStorageURIStr("jclouds:transient");
+        descriptor.setProperty("pathFormat", "{0020000E}/{00080018}");
+        descriptor.setProperty("listObjects", "true");
+        storage = new CloudStorage(descriptor, null);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        storage.close();
+    }
+
+    @Test
+    public void testListObjects() throws Exception {
+        byte[] data1 = { 1, 2, 3 };
+        byte[] data2 = { 4, 5, 6, 7 };
+        String path1 = upload(SERIES_IUID, "1.2.3.4.1", data1);
+        String path2 = upload(SERIES_IUID, "1.2.3.4.2", data2);
+        upload(OTHER_SERIES_IUID, "1.2.3.5.1", data1);
+        upload(SERIES_IUID + "/sub", "1.2.3.4.3", data1);
+
+        Map<String, ObjectMetadata> objects = storage.listObjects(SERIES_IUID + '/');
+        assertEquals(2, objects.size());
+        assertObjectMetadata(data1, objects.get(path1));
+        assertObjectMetadata(data2, objects.get(path2));
+        assertTrue(storage.listObjects("1.2.3.6/").isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testListObjectsExceedsMaxListedObjects() throws Exception {
+        StorageDescriptor descriptor = new StorageDescriptor("cloud");
+        descriptor.setStorageURIStr("jclouds:transient");
+        descriptor.setProperty("pathFormat", "{0020000E}/{00080018}");
+        descriptor.setProperty("listObjects", "true");
+        descriptor.setProperty("maxListedObjects", "1");
+        try (CloudStorage storage = new CloudStorage(descriptor, null)) {
+            byte[] data = { 1, 2, 3 };
+            upload(storage, SERIES_IUID, "1.2.3.4.1", data);
+            upload(storage, SERIES_IUID, "1.2.3.4.2", data);
+            storage.listObjects(SERIES_IUID + '/');
+        }
+    }
+
+    @Test
+    public void testListObjectsNotEnabled() throws Exception {
+        StorageDescriptor descriptor = new StorageDescriptor("cloud");
+        descriptor.setStorageURIStr("jclouds:transient");
+        try (CloudStorage storage = new CloudStorage(descriptor, null)) {
+            assertNull(storage.listObjects(SERIES_IUID + '/'));
+        }
+    }
+
+    @Test
+    public void testDeleteObjects() throws Exception {
+        byte[] data = { 1, 2, 3 };
+        String path1 = upload(SERIES_IUID, "1.2.3.4.1", data);
+        String path2 = upload(SERIES_IUID, "1.2.3.4.2", data);
+        String missing = SERIES_IUID + "/1.2.3.4.3";
+
+        Map<String, IOException> failures = storage.deleteObjects(Arrays.asList(path1, missing, path2));
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(missing) instanceof NoSuchFileException);
+        assertTrue(storage.listObjects(SERIES_IUID + '/').isEmpty());
+    }
+
+    private String upload(String seriesIUID, String sopIUID, byte[] data) throws Exception {
+        return upload(storage, seriesIUID, sopIUID, data);
+    }
+
+    private static String upload(CloudStorage storage, String seriesIUID, String sopIUID, byte[] data)
+            throws Exception {
+        Attributes attrs = new Attributes(2);
+        attrs.setString(Tag.SeriesInstanceUID, VR.UI, seriesIUID);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, sopIUID);
+        WriteContext ctx = storage.createWriteContext();
+        ctx.setAttributes(attrs);
+        ctx.setContentLength(data.length);
+        storage.copy(new ByteArrayInputStream(data), ctx);
+        return ctx.getStoragePath();
+    }
+
+    private static void assertObjectMetadata(byte[] data, ObjectMetadata metadata) throws Exception {
+        assertNotNull(metadata);
+        assertEquals(data.length, metadata.getContentLength());
+        assertArrayEquals(MessageDigest.getInstance("MD5").digest(data), metadata.getContentMD5());
+    }
+}
@@ -44,8 +44,12 @@ import com.emc.object.s3.S3Client;
 import com.emc.object.s3.S3Config;
 import com.emc.object.s3.S3Exception;
 import com.emc.object.s3.S3ObjectMetadata;
+import com.emc.object.s3.bean.AbstractDeleteResult;
+import com.emc.object.s3.bean.DeleteError;
+import com.emc.object.s3.bean.DeleteObjectsResult;
 import com.emc.object.s3.bean.GetObjectResult;
 import com.emc.object.s3.jersey.S3JerseyClient;
+import com.emc.object.s3.request.DeleteObjectsRequest;
 import com.emc.object.s3.request.PutObjectRequest;
 import com.sun.jersey.client.urlconnection.URLConnectionClientHandler;
 import org.dcm4che3.net.Device;
@@ -60,6 +64,7 @@ import org.dcm4chee.arc.storage.WriteContext;
 import java.io.*;
 import java.net.URI;
 import java.nio.file.NoSuchFileException;
+import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.ThreadLocalRandom;
@@ -73,6 +78,7 @@ public class EMCECSStorage extends AbstractStorage {
     public static final String PROPERTY_URL_CONNECTION_CLIENT_HANDLER = "emc-ecs-s3.URLConnectionClientHandler";
 
     private static final String DEFAULT_CONTAINER = "org.dcm4chee.arc";
+    private static final int MAX_KEYS_PER_DELETE_REQUEST = 1000;
     private static final Uploader STREAMING_UPLOADER = new Uploader() {
         @Override
         public void upload(S3Client s3, InputStream in, long length, String container, String storagePath) {
@@ -220,6 +226,34 @@ public class EMCECSStorage extends AbstractStorage {
         s3.deleteObject(container, storagePath);
     }
 
+    @Override
+    public Map<String, IOException> deleteObjects(Collection<String> storagePaths) {
+        Map<String, IOException> failures = new HashMap<>();
+        List<String> keys = new ArrayList<>(storagePaths);
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_DELETE_REQUEST) {
+            List<String> batch = keys.subList(from, Math.min(from + MAX_KEYS_PER_DELETE_REQUEST, keys.size()));
+            try {
+                DeleteObjectsResult result = s3.deleteObjects(
+                        new DeleteObjectsRequest(container).withKeys(batch.toArray(new String[0])));
+                for (AbstractDeleteResult deleteResult : result.getResults())
+                    if (deleteResult instanceof DeleteError) {
+                        DeleteError error = (DeleteError) deleteResult;
+                        failures.put(error.getKey(), new IOException("Failed to delete Object[" + error.getKey()
+                                + "] in Container[" + container
+                                + "] on " + getStorageDescriptor()
+                                + ": " + error.getCode() + " - " + error.getMessage()));
+                    }
+            } catch (RuntimeException e) {
+                IOException ioe = new IOException("Failed to delete " + batch.size()
+                        + " Objects in Container[" + container
+                        + "] on " + getStorageDescriptor(), e);
+                for (String key : batch)
+                    failures.put(key, ioe);
+            }
+        }
+        return failures;
+    }
+
     @Override
     public void close() throws IOException {
         s3.destroy();
@@ -45,6 +45,9 @@ import org.dcm4chee.arc.conf.StorageDescriptor;
 import java.io.*;
 import java.security.DigestInputStream;
 import java.security.DigestOutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -190,6 +193,27 @@ public abstract class AbstractStorage implements Storage {
         deleteObject(ctx.getStoragePath());
     }
 
+    @Override
+    public Map<String, IOException> deleteObjects(Collection<String> storagePaths) {
+        Map<String, IOException> failures = new HashMap<>();
+        for (String storagePath : storagePaths) {
+            try {
+                deleteObject(storagePath);
+            } catch (IOException e) {
+                failures.put(storagePath, e);
+            } catch (RuntimeException e) {
+                failures.put(storagePath, new IOException("Failed to delete Object[" + storagePath
+                        + "] on " + descriptor, e));
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public Map<String, ObjectMetadata> listObjects(String prefix) throws IOException {
+        return null;
+    }
+
     @Override
     public InputStream openInputStream(final ReadContext ctx) throws IOException {
         checkAccessable();
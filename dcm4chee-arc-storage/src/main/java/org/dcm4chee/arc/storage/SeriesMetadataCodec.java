@@ -0,0 +1,262 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage;
+
+import org.dcm4che3.data.*;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.json.JSONReader;
+import org.dcm4che3.json.JSONWriter;
+import org.dcm4che3.util.StreamUtils;
+import org.dcm4chee.arc.conf.SeriesMetadataFormat;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes and reads the per Instance entries of Series Metadata ZIP files in the {@link SeriesMetadataFormat}
+ * configured for the archive.
+ * <p>
+ * {@link SeriesMetadataFormat#DICOM} encodes bulk data placeholders as OB Fragments with one item containing
+ * the original VR. {@link #readEntry} detects the encoding of each entry, so Series Metadata written in either
+ * format remains readable. Each entry may carry a version of the Instance attributes, which allows to reuse
+ * entries of previous Series Metadata without loading the attributes again.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class SeriesMetadataCodec {
+
+    private static final short VERSION_EXTRA_FIELD_ID = 0x4344;
+
+    private SeriesMetadataCodec() {}
+
+    public static void writeEntry(ZipOutputStream out, SeriesMetadataFormat format, String iuid,
+            Attributes metadata, long[] version) throws IOException {
+        if (format == SeriesMetadataFormat.DICOM) {
+            writeStored(out, iuid, encode(metadata), version);
+            return;
+        }
+        out.putNextEntry(newEntry(iuid, version));
+        JsonGenerator gen = Json.createGenerator(out);
+        new JSONWriter(gen).write(metadata);
+        gen.flush();
+        out.closeEntry();
+    }
+
+    /**
+     * Writes the encoded Instance attributes of an entry read from other Series Metadata without decoding and
+     * encoding them again. The entry keeps its encoding.
+     */
+    public static void copyEntry(ZipOutputStream out, String iuid, byte[] b, long[] version) throws IOException {
+        if (formatOf(b) == SeriesMetadataFormat.DICOM) {
+            writeStored(out, iuid, b, version);
+            return;
+        }
+        out.putNextEntry(newEntry(iuid, version));
+        out.write(b);
+        out.closeEntry();
+    }
+
+    private static void writeStored(ZipOutputStream out, String iuid, byte[] b, long[] version)
+            throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(b);
+        ZipEntry entry = newEntry(iuid, version);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(b.length);
+        entry.setCompressedSize(b.length);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        out.write(b);
+        out.closeEntry();
+    }
+
+    private static ZipEntry newEntry(String iuid, long[] version) {
+        ZipEntry entry = new ZipEntry(iuid);
+        entry.setTime(System.currentTimeMillis());
+        if (version != null) {
+            ByteBuffer extra = ByteBuffer.allocate(4 + version.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+            extra.putShort(VERSION_EXTRA_FIELD_ID).putShort((short) (version.length * 8));
+            for (long l : version)
+                extra.putLong(l);
+            entry.setExtra(extra.array());
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the version of the Instance attributes passed to {@link #writeEntry} or {@link #copyEntry}, stored
+     * in an extra field of the local file header of the entry.
+     *
+     * @return the version or {@code null}, if the entry does not contain a version
+     */
+    public static long[] versionOf(ZipEntry entry) {
+        byte[] extra = entry.getExtra();
+        if (extra == null)
+            return null;
+
+        ByteBuffer bb = ByteBuffer.wrap(extra).order(ByteOrder.LITTLE_ENDIAN);
+        while (bb.remaining() >= 4) {
+            short id = bb.getShort();
+            int len = bb.getShort() & 0xffff;
+            if (len > bb.remaining())
+                break;
+            if (id == VERSION_EXTRA_FIELD_ID) {
+                long[] version = new long[len / 8];
+                for (int i = 0; i < version.length; i++)
+                    version[i] = bb.getLong();
+                return version;
+            }
+            bb.position(bb.position() + len);
+        }
+        return null;
+    }
+
+    public static SeriesMetadataFormat formatOf(ZipEntry entry) {
+        return entry.getMethod() == ZipEntry.STORED ? SeriesMetadataFormat.DICOM : SeriesMetadataFormat.JSON;
+    }
+
+    public static SeriesMetadataFormat formatOf(byte[] b) {
+        return b.length > 0 && b[0] == '{' ? SeriesMetadataFormat.JSON : SeriesMetadataFormat.DICOM;
+    }
+
+    public static byte[] readBytes(ZipInputStream zip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        StreamUtils.copy(zip, out);
+        return out.toByteArray();
+    }
+
+    public static Attributes readEntry(byte[] b, boolean skipBulkDataURI) throws IOException {
+        if (b.length == 0)
+            throw new EOFException();
+
+        InputStream in = new ByteArrayInputStream(b);
+        return formatOf(b) == SeriesMetadataFormat.JSON
+                ? parseJSON(in, skipBulkDataURI)
+                : decode(in, skipBulkDataURI);
+    }
+
+    public static Attributes readEntry(ZipInputStream zip, boolean skipBulkDataURI) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(zip, 1);
+        int b = in.read();
+        if (b < 0)
+            throw new EOFException();
+
+        in.unread(b);
+        return b == '{' ? parseJSON(in, skipBulkDataURI) : decode(in, skipBulkDataURI);
+    }
+
+    private static Attributes parseJSON(InputStream in, boolean skipBulkDataURI) {
+        JSONReader jsonReader = new JSONReader(Json.createParser(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        jsonReader.setSkipBulkDataURI(skipBulkDataURI);
+        return jsonReader.readDataset(null);
+    }
+
+    static byte[] encode(Attributes metadata) throws IOException {
+        Attributes attrs = new Attributes(metadata);
+        for (Element el : select(attrs, BulkData.class, Fragments.class)) {
+            Fragments placeholder = el.attrs.newFragments(el.tag, VR.OB, 1);
+            placeholder.add(el.vr.name().getBytes(StandardCharsets.US_ASCII));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try (DicomOutputStream dos = new DicomOutputStream(out, UID.ExplicitVRLittleEndian)) {
+            dos.writeDataset(null, attrs);
+        }
+        return out.toByteArray();
+    }
+
+    static Attributes decode(InputStream in, boolean skipBulkDataURI) throws IOException {
+        DicomInputStream dis = new DicomInputStream(in, UID.ExplicitVRLittleEndian);
+        Attributes attrs = dis.readDataset(-1, -1);
+        for (Element el : select(attrs, Fragments.class)) {
+            VR vr = VR.valueOf(new String((byte[]) ((Fragments) el.value).get(0), StandardCharsets.US_ASCII));
+            if (skipBulkDataURI)
+                el.attrs.setNull(el.tag, vr);
+            else
+                el.attrs.setValue(el.tag, vr, new BulkData(null, "", false));
+        }
+        return attrs;
+    }
+
+    private static List<Element> select(Attributes attrs, Class<?>... valueTypes) throws IOException {
+        List<Element> result = new ArrayList<>();
+        try {
+            attrs.accept((item, tag, vr, value) -> {
+                for (Class<?> valueType : valueTypes)
+                    if (valueType.isInstance(value)) {
+                        result.add(new Element(item, tag, vr, value));
+                        break;
+                    }
+                return true;
+            }, true);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+        return result;
+    }
+
+    private static class Element {
+        final Attributes attrs;
+        final int tag;
+        final VR vr;
+        final Object value;
+
+        Element(Attributes attrs, int tag, VR vr, Object value) {
+            this.attrs = attrs;
+            this.tag = tag;
+            this.vr = vr;
+            this.value = value;
+        }
+    }
+}
@@ -6,6 +6,8 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -40,5 +42,19 @@ public interface Storage extends Closeable {
 
     void deleteObject(String storagePath) throws IOException;
 
+    /**
+     * Deletes the objects with the specified storage paths and returns the failures to delete particular objects by
+     * storage path. An object which does not exist may be reported by a {@link java.nio.file.NoSuchFileException},
+     * as by {@link #deleteObject(String)}, or - without checking its existence in advance - as deleted, so callers
+     * shall treat both as deleted.
+     */
+    Map<String, IOException> deleteObjects(Collection<String> storagePaths);
+
+    /**
+     * Returns the metadata of all objects which storage path starts with the specified prefix, by storage path, or
+     * {@code null} if listing objects is not supported or not enabled for the storage.
+     */
+    Map<String, ObjectMetadata> listObjects(String prefix) throws IOException;
+
     InputStream openInputStream(ReadContext ctx) throws IOException;
 }
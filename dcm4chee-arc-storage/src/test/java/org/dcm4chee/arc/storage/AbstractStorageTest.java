@@ -0,0 +1,120 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage;
+
+import org.dcm4chee.arc.conf.StorageDescriptor;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class AbstractStorageTest {
+
+    @Test
+    public void testDeleteObjects() {
+        TestStorage storage = new TestStorage("a", "b", "c");
+        Map<String, IOException> failures = storage.deleteObjects(Arrays.asList("a", "b", "c"));
+        assertTrue(failures.isEmpty());
+        assertTrue(storage.objects.isEmpty());
+    }
+
+    @Test
+    public void testDeleteObjectsWithMissingObject() {
+        TestStorage storage = new TestStorage("a", "c");
+        Map<String, IOException> failures = storage.deleteObjects(Arrays.asList("a", "b", "c"));
+        assertEquals(1, failures.size());
+        assertTrue(failures.get("b") instanceof NoSuchFileException);
+        assertTrue(storage.objects.isEmpty());
+    }
+
+    @Test
+    public void testDeleteObjectsWithPartialFailure() {
+        TestStorage storage = new TestStorage("a", "io-error", "runtime-error", "d");
+        Map<String, IOException> failures = storage.deleteObjects(
+                Arrays.asList("a", "io-error", "runtime-error", "d"));
+        assertEquals(2, failures.size());
+        assertEquals("io-error", failures.get("io-error").getMessage());
+        assertTrue(failures.get("runtime-error").getCause() instanceof IllegalStateException);
+        assertEquals(new HashSet<>(Arrays.asList("io-error", "runtime-error")), storage.objects);
+    }
+
+    private static class TestStorage extends AbstractStorage {
+        final Set<String> objects;
+
+        TestStorage(String... storagePaths) {
+            super(new StorageDescriptor("test"));
+            objects = new HashSet<>(Arrays.asList(storagePaths));
+        }
+
+        @Override
+        public void deleteObject(String storagePath) throws IOException {
+            if (!objects.contains(storagePath))
+                throw new NoSuchFileException(storagePath);
+            if (storagePath.equals("io-error"))
+                throw new IOException(storagePath);
+            if (storagePath.equals("runtime-error"))
+                throw new IllegalStateException(storagePath);
+            objects.remove(storagePath);
+        }
+
+        @Override
+        protected OutputStream openOutputStreamA(WriteContext ctx) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected InputStream openInputStreamA(ReadContext ctx) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage;
+
+import org.dcm4che3.data.*;
+import org.dcm4chee.arc.conf.SeriesMetadataFormat;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares size, write time and read time of Series Metadata of a synthetic CT Series encoded in each
+ * {@link SeriesMetadataFormat}. The single Instance read time covers skipping all preceding entries, as done
+ * on fetching the metadata of one Instance from the Series Metadata.
+ * Not matched by the default includes of the surefire plugin; run explicitly by
+ * {@code mvn test -Dtest=SeriesMetadataCodecBenchmark}.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class SeriesMetadataCodecBenchmark {
+
+    private static final int INSTANCES = 1000;
+    private static final int WARMUP = 3;
+    private static final int RUNS = 5;
+
+    @Test
+    public void benchmark() throws Exception {
+        Attributes[] metadata = new Attributes[INSTANCES];
+        for (int i = 0; i < INSTANCES; i++)
+            metadata[i] = metadata(i);
+        for (SeriesMetadataFormat format : SeriesMetadataFormat.values()) {
+            byte[] zip = null;
+            long write = 0, readAll = 0, readLast = 0;
+            for (int run = 0; run < WARMUP + RUNS; run++) {
+                long start = System.nanoTime();
+                zip = write(format, metadata);
+                long t1 = System.nanoTime();
+                assertEquals(INSTANCES, readAll(zip));
+                long t2 = System.nanoTime();
+                assertEquals(iuid(INSTANCES - 1), readLast(zip).getString(Tag.SOPInstanceUID));
+                long t3 = System.nanoTime();
+                if (run >= WARMUP) {
+                    write += t1 - start;
+                    readAll += t2 - t1;
+                    readLast += t3 - t2;
+                }
+            }
+            System.out.printf("%s: %d instances in %d KB, write %d ms, read all %d ms, read last %.2f ms%n",
+                    format, INSTANCES, zip.length / 1024, write / RUNS / 1000000, readAll / RUNS / 1000000,
+                    readLast / RUNS / 1000000.);
+        }
+    }
+
+    private static byte[] write(SeriesMetadataFormat format, Attributes[] metadata) throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bout)) {
+            for (Attributes attrs : metadata)
+                SeriesMetadataCodec.writeEntry(out, format, attrs.getString(Tag.SOPInstanceUID), attrs, null);
+        }
+        return bout.toByteArray();
+    }
+
+    private static int readAll(byte[] b) throws IOException {
+        int count = 0;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(b))) {
+            while (zip.getNextEntry() != null) {
+                SeriesMetadataCodec.readEntry(zip, true);
+                zip.closeEntry();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Attributes readLast(byte[] b) throws IOException {
+        String iuid = iuid(INSTANCES - 1);
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(b))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.getName().equals(iuid))
+                    return SeriesMetadataCodec.readEntry(zip, true);
+                zip.closeEntry();
+            }
+        }
+        return null;
+    }
+
+    private static String iuid(int i) {
+        return "1.2.40.0.13.1.1.99." + (i + 1);
+    }
+
+    private static Attributes metadata(int i) {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.SpecificCharacterSet, VR.CS, "ISO_IR 100");
+        attrs.setString(Tag.ImageType, VR.CS, "ORIGINAL", "PRIMARY", "AXIAL");
+        attrs.setString(Tag.SOPClassUID, VR.UI, UID.CTImageStorage);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, iuid(i));
+        attrs.setString(Tag.StudyDate, VR.DA, "20190301");
+        attrs.setString(Tag.ContentDate, VR.DA, "20190301");
+        attrs.setString(Tag.StudyTime, VR.TM, "101500");
+        attrs.setString(Tag.ContentTime, VR.TM, "101512." + i);
+        attrs.setString(Tag.AccessionNumber, VR.SH, "A123456");
+        attrs.setString(Tag.Modality, VR.CS, "CT");
+        attrs.setString(Tag.Manufacturer, VR.LO, "ACME Medical Systems");
+        attrs.setString(Tag.InstitutionName, VR.LO, "General Hospital");
+        attrs.setString(Tag.ReferringPhysicianName, VR.PN, "SMITH^JANE");
+        attrs.setString(Tag.StudyDescription, VR.LO, "CT THORAX ABDOMEN");
+        attrs.setString(Tag.SeriesDescription, VR.LO, "Thorax 1.0 B31f");
+        attrs.setString(Tag.ManufacturerModelName, VR.LO, "Scanner 64");
+        Attributes code = new Attributes();
+        code.setString(Tag.CodeValue, VR.SH, "CTTHORAXABD");
+        code.setString(Tag.CodingSchemeDesignator, VR.SH, "99LOCAL");
+        code.setString(Tag.CodeMeaning, VR.LO, "CT Thorax Abdomen");
+        attrs.newSequence(Tag.ProcedureCodeSequence, 1).add(code);
+        attrs.setString(Tag.PatientName, VR.PN, "DOE^JOHN");
+        attrs.setString(Tag.PatientID, VR.LO, "P123456");
+        attrs.setString(Tag.IssuerOfPatientID, VR.LO, "HOSPITAL");
+        attrs.setString(Tag.PatientBirthDate, VR.DA, "19600101");
+        attrs.setString(Tag.PatientSex, VR.CS, "M");
+        attrs.setString(Tag.BodyPartExamined, VR.CS, "CHEST");
+        attrs.setString(Tag.SliceThickness, VR.DS, "1.0");
+        attrs.setString(Tag.KVP, VR.DS, "120");
+        attrs.setString(Tag.DataCollectionDiameter, VR.DS, "500");
+        attrs.setString(Tag.ReconstructionDiameter, VR.DS, "380");
+        attrs.setString(Tag.GantryDetectorTilt, VR.DS, "0");
+        attrs.setString(Tag.TableHeight, VR.DS, "160");
+        attrs.setString(Tag.ExposureTime, VR.IS, "500");
+        attrs.setString(Tag.XRayTubeCurrent, VR.IS, "210");
+        attrs.setString(Tag.ConvolutionKernel, VR.SH, "B31f");
+        attrs.setString(Tag.PatientPosition, VR.CS, "HFS");
+        attrs.setString(Tag.StudyInstanceUID, VR.UI, "1.2.40.0.13.1.1.1");
+        attrs.setString(Tag.SeriesInstanceUID, VR.UI, "1.2.40.0.13.1.1.99");
+        attrs.setString(Tag.StudyID, VR.SH, "1");
+        attrs.setString(Tag.SeriesNumber, VR.IS, "2");
+        attrs.setString(Tag.InstanceNumber, VR.IS, Integer.toString(i + 1));
+        attrs.setDouble(Tag.ImagePositionPatient, VR.DS, -190.0, -190.0, -i);
+        attrs.setDouble(Tag.ImageOrientationPatient, VR.DS, 1, 0, 0, 0, 1, 0);
+        attrs.setString(Tag.FrameOfReferenceUID, VR.UI, "1.2.40.0.13.1.1.99.0");
+        attrs.setDouble(Tag.SliceLocation, VR.DS, -i);
+        attrs.setInt(Tag.SamplesPerPixel, VR.US, 1);
+        attrs.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2");
+        attrs.setInt(Tag.Rows, VR.US, 512);
+        attrs.setInt(Tag.Columns, VR.US, 512);
+        attrs.setDouble(Tag.PixelSpacing, VR.DS, 0.742, 0.742);
+        attrs.setInt(Tag.BitsAllocated, VR.US, 16);
+        attrs.setInt(Tag.BitsStored, VR.US, 12);
+        attrs.setInt(Tag.HighBit, VR.US, 11);
+        attrs.setInt(Tag.PixelRepresentation, VR.US, 0);
+        attrs.setString(Tag.WindowCenter, VR.DS, "40", "-600");
+        attrs.setString(Tag.WindowWidth, VR.DS, "400", "1200");
+        attrs.setString(Tag.RescaleIntercept, VR.DS, "-1024");
+        attrs.setString(Tag.RescaleSlope, VR.DS, "1");
+        attrs.setValue(Tag.PixelData, VR.OW, new BulkData(null, "", false));
+        return attrs;
+    }
+}
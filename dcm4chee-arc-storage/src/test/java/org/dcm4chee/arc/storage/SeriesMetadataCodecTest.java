@@ -0,0 +1,154 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage;
+
+import org.dcm4che3.data.*;
+import org.dcm4chee.arc.conf.SeriesMetadataFormat;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class SeriesMetadataCodecTest {
+
+    private static final String IUID1 = "1.2.3.4.1";
+    private static final String IUID2 = "1.2.3.4.2";
+
+    @Test
+    public void testReadMixedEntries() throws Exception {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bout)) {
+            SeriesMetadataCodec.writeEntry(out, SeriesMetadataFormat.JSON, IUID1, metadata(IUID1), null);
+            SeriesMetadataCodec.writeEntry(out, SeriesMetadataFormat.DICOM, IUID2, metadata(IUID2), null);
+        }
+        ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bout.toByteArray()));
+        assertEntry(zip, IUID1, false);
+        assertEntry(zip, IUID2, false);
+        assertNull(zip.getNextEntry());
+    }
+
+    @Test
+    public void testSkipBulkDataURI() throws Exception {
+        Attributes attrs = SeriesMetadataCodec.decode(new ByteArrayInputStream(
+                SeriesMetadataCodec.encode(metadata(IUID1))), true);
+        assertTrue(attrs.containsValue(Tag.SOPInstanceUID));
+        assertTrue(attrs.contains(Tag.PixelData));
+        assertFalse(attrs.containsValue(Tag.PixelData));
+        assertEquals(VR.OW, attrs.getVR(Tag.PixelData));
+    }
+
+    @Test
+    public void testVersion() throws Exception {
+        long[] version = { 1000L, 2000L, 3000L };
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bout)) {
+            SeriesMetadataCodec.writeEntry(out, SeriesMetadataFormat.JSON, IUID1, metadata(IUID1), version);
+            SeriesMetadataCodec.writeEntry(out, SeriesMetadataFormat.DICOM, IUID2, metadata(IUID2), null);
+        }
+        ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bout.toByteArray()));
+        assertArrayEquals(version, SeriesMetadataCodec.versionOf(zip.getNextEntry()));
+        assertNull(SeriesMetadataCodec.versionOf(zip.getNextEntry()));
+    }
+
+    @Test
+    public void testCopyEntry() throws Exception {
+        long[] version = { 1000L, 2000L, 3000L };
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bout)) {
+            SeriesMetadataCodec.writeEntry(out, SeriesMetadataFormat.JSON, IUID1, metadata(IUID1), null);
+            SeriesMetadataCodec.writeEntry(out, SeriesMetadataFormat.DICOM, IUID2, metadata(IUID2), null);
+        }
+        ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bout.toByteArray()));
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(copy)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null)
+                SeriesMetadataCodec.copyEntry(out, entry.getName(), SeriesMetadataCodec.readBytes(zip), version);
+        }
+        zip = new ZipInputStream(new ByteArrayInputStream(copy.toByteArray()));
+        ZipEntry entry = zip.getNextEntry();
+        assertEquals(SeriesMetadataFormat.JSON, SeriesMetadataCodec.formatOf(entry));
+        assertArrayEquals(version, SeriesMetadataCodec.versionOf(entry));
+        assertEquals(IUID1, SeriesMetadataCodec.readEntry(zip, false).getString(Tag.SOPInstanceUID));
+        entry = zip.getNextEntry();
+        assertEquals(SeriesMetadataFormat.DICOM, SeriesMetadataCodec.formatOf(entry));
+        assertArrayEquals(version, SeriesMetadataCodec.versionOf(entry));
+        assertEquals(IUID2, SeriesMetadataCodec.readEntry(zip, false).getString(Tag.SOPInstanceUID));
+        assertNull(zip.getNextEntry());
+    }
+
+    private static void assertEntry(ZipInputStream zip, String iuid, boolean skipBulkDataURI) throws Exception {
+        ZipEntry entry = zip.getNextEntry();
+        assertEquals(iuid, entry.getName());
+        Attributes attrs = SeriesMetadataCodec.readEntry(zip, skipBulkDataURI);
+        assertEquals(iuid, attrs.getString(Tag.SOPInstanceUID));
+        assertEquals("DOE^JOHN", attrs.getString(Tag.PatientName));
+        assertEquals(VR.OW, attrs.getVR(Tag.PixelData));
+        assertTrue(attrs.getValue(Tag.PixelData) instanceof BulkData);
+        Attributes item = attrs.getNestedDataset(Tag.IconImageSequence);
+        assertEquals(VR.OB, item.getVR(Tag.PixelData));
+        assertTrue(item.getValue(Tag.PixelData) instanceof BulkData);
+        zip.closeEntry();
+    }
+
+    private static Attributes metadata(String iuid) {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.SOPClassUID, VR.UI, UID.CTImageStorage);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, iuid);
+        attrs.setString(Tag.PatientName, VR.PN, "DOE^JOHN");
+        attrs.setInt(Tag.Rows, VR.US, 512);
+        attrs.setInt(Tag.Columns, VR.US, 512);
+        Attributes icon = new Attributes();
+        icon.setValue(Tag.PixelData, VR.OB, new BulkData(null, "", false));
+        attrs.newSequence(Tag.IconImageSequence, 1).add(icon);
+        attrs.setValue(Tag.PixelData, VR.OW, new BulkData(null, "", false));
+        return attrs;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.scu.impl;
+
+import org.dcm4che3.net.ApplicationEntity;
+import org.dcm4che3.net.Association;
+import org.dcm4che3.net.IncompatibleConnectionException;
+import org.dcm4che3.net.pdu.AAssociateRQ;
+import org.dcm4che3.net.pdu.PresentationContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps associations for sending objects open after a task completed, so subsequent tasks to the same destination
+ * AE may reuse them, if the association was requested for a superset of the required Presentation Contexts and the
+ * destination AE accepted each required Abstract Syntax only with Transfer Syntaxes offered by the new request.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class AssociationPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AssociationPool.class);
+
+    private final Map<String, Deque<Entry>> idle = new ConcurrentHashMap<>();
+    private final Map<Association, Entry> inUse = new ConcurrentHashMap<>();
+
+    public Association open(ApplicationEntity localAE, ApplicationEntity remoteAE, AAssociateRQ aarq)
+            throws IOException, InterruptedException, IncompatibleConnectionException, GeneralSecurityException {
+        String key = key(localAE.getAETitle(), remoteAE.getAETitle(), aarq.getCallingAET());
+        Deque<Entry> entries = idle.get(key);
+        if (entries != null)
+            for (Entry entry : entries) {
+                if (compatible(entry.as, aarq) && entries.remove(entry)) {
+                    entry.idleTimeout.cancel(false);
+                    if (entry.as.isReadyForDataTransfer()) {
+                        LOG.debug("{}: reuse association", entry.as);
+                        inUse.put(entry.as, entry);
+                        return entry.as;
+                    }
+                }
+            }
+        Association as = localAE.connect(remoteAE, aarq);
+        inUse.put(as, new Entry(key, as));
+        return as;
+    }
+
+    public void close(Association as, int poolSize, long idleTimeout) {
+        Entry entry = inUse.remove(as);
+        if (entry != null && idleTimeout > 0 && as.isReadyForDataTransfer()) {
+            Deque<Entry> entries = idle.computeIfAbsent(entry.key, key -> new ConcurrentLinkedDeque<>());
+            synchronized (entries) { // entries are only removed concurrently, which cannot exceed the pool size
+                if (entries.size() < poolSize) {
+                    entry.idleTimeout = as.getApplicationEntity().getDevice().schedule(
+                            () -> {
+                                if (entries.remove(entry))
+                                    release(as);
+                            },
+                            idleTimeout, TimeUnit.MILLISECONDS);
+                    entries.addFirst(entry);
+                    LOG.debug("{}: keep association open for reuse", as);
+                    return;
+                }
+            }
+        }
+        release(as);
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        for (Deque<Entry> entries : idle.values()) {
+            Entry entry;
+            while ((entry = entries.pollFirst()) != null) {
+                entry.idleTimeout.cancel(false);
+                release(entry.as);
+            }
+        }
+    }
+
+    private static void release(Association as) {
+        try {
+            as.release();
+        } catch (IOException e) {
+            LOG.warn("{}: failed to release association to {}", as, as.getRemoteAET(), e);
+        }
+    }
+
+    private static String key(String localAET, String remoteAET, String callingAET) {
+        return localAET + '\\' + remoteAET + '\\' + callingAET;
+    }
+
+    static boolean compatible(Association pooled, AAssociateRQ aarq) {
+        AAssociateRQ pooledRQ = pooled.getAAssociateRQ();
+        Map<String, Set<String>> offered = new HashMap<>();
+        for (PresentationContext pc : aarq.getPresentationContexts()) {
+            String cuid = pc.getAbstractSyntax();
+            for (String tsuid : pc.getTransferSyntaxes()) {
+                if (!pooledRQ.containsPresentationContextFor(cuid, tsuid))
+                    return false;
+                offered.computeIfAbsent(cuid, key -> new HashSet<>()).add(tsuid);
+            }
+        }
+        for (Map.Entry<String, Set<String>> e : offered.entrySet()) {
+            Set<String> accepted = pooled.getTransferSyntaxesFor(e.getKey());
+            if (accepted.isEmpty() || !e.getValue().containsAll(accepted))
+                return false;
+        }
+        return true;
+    }
+
+    private static final class Entry {
+        final String key;
+        final Association as;
+        volatile ScheduledFuture<?> idleTimeout;
+
+        Entry(String key, Association as) {
+            this.key = key;
+            this.as = as;
+        }
+    }
+}
@@ -48,6 +48,7 @@ import org.dcm4che3.net.pdu.AAssociateRQ;
 import org.dcm4che3.net.pdu.PresentationContext;
 import org.dcm4che3.net.service.DicomServiceException;
 import org.dcm4che3.net.service.RetrieveTask;
+import org.dcm4chee.arc.RateLimiters;
 import org.dcm4chee.arc.entity.Location;
 import org.dcm4chee.arc.store.InstanceLocations;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
@@ -73,12 +74,18 @@ public class CStoreSCUImpl implements CStoreSCU {
     @Inject @RetrieveEnd
     private Event<RetrieveContext> retrieveEnd;
 
+    @Inject
+    private RateLimiters rateLimiters;
+
+    @Inject
+    private AssociationPool associationPool;
+
     private Association openAssociation(RetrieveContext ctx)
             throws DicomServiceException {
         try {
             try {
                 ApplicationEntity localAE = ctx.getLocalApplicationEntity();
-                return localAE.connect(ctx.getDestinationAE(), createAARQ(ctx));
+                return associationPool.open(localAE, ctx.getDestinationAE(), createAARQ(ctx));
             } catch (Exception e) {
                 throw new DicomServiceException(Status.UnableToPerformSubOperations, e);
             }
@@ -114,7 +121,8 @@ public class CStoreSCUImpl implements CStoreSCU {
     public RetrieveTask newRetrieveTaskSTORE(RetrieveContext ctx) throws DicomServiceException {
         Association storeas = openAssociation(ctx);
         ctx.setStoreAssociation(storeas);
-        return new RetrieveTaskImpl(ctx, storeas, retrieveStart, retrieveEnd);
+        return new RetrieveTaskImpl(ctx, storeas, retrieveStart, retrieveEnd, rateLimiters,
+                associationPool);
     }
 
     @Override
@@ -123,7 +131,8 @@ public class CStoreSCUImpl implements CStoreSCU {
             throws DicomServiceException {
         Association storeas = openAssociation(ctx);
         ctx.setStoreAssociation(storeas);
-        RetrieveTaskImpl retrieveTask = new RetrieveTaskImpl(ctx, storeas, retrieveStart, retrieveEnd);
+        RetrieveTaskImpl retrieveTask = new RetrieveTaskImpl(ctx, storeas, retrieveStart, retrieveEnd, rateLimiters,
+                associationPool);
         retrieveTask.setRequestAssociation(Dimse.C_MOVE_RQ, as, pc, rq);
         return retrieveTask;
     }
@@ -133,7 +142,8 @@ public class CStoreSCUImpl implements CStoreSCU {
             Association as, PresentationContext pc, Attributes rq, RetrieveContext ctx)
             throws DicomServiceException {
         ctx.setStoreAssociation(as);
-        RetrieveTaskImpl retrieveTask = new RetrieveTaskImpl(ctx, as, retrieveStart, retrieveEnd);
+        RetrieveTaskImpl retrieveTask = new RetrieveTaskImpl(ctx, as, retrieveStart, retrieveEnd, rateLimiters,
+                associationPool);
         retrieveTask.setRequestAssociation(Dimse.C_GET_RQ, as, pc, rq);
         return retrieveTask;
     }
@@ -50,7 +50,10 @@ import org.dcm4che3.net.pdu.PresentationContext;
 import org.dcm4che3.net.service.RetrieveTask;
 import org.dcm4che3.util.ReverseDNS;
 import org.dcm4che3.util.SafeClose;
+import org.dcm4chee.arc.RateLimiter;
+import org.dcm4chee.arc.RateLimiters;
 import org.dcm4chee.arc.conf.ArchiveAEExtension;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
 import org.dcm4chee.arc.conf.Duration;
 import org.dcm4chee.arc.store.InstanceLocations;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
@@ -77,6 +80,8 @@ final class RetrieveTaskImpl implements RetrieveTask {
     private final Association storeas;
     private final ArchiveAEExtension aeExt;
     private final String hostName;
+    private final RateLimiter rateLimiter;
+    private final AssociationPool associationPool;
     private Dimse dimserq;
     private Association rqas;
     private PresentationContext pc;
@@ -89,13 +94,16 @@ final class RetrieveTaskImpl implements RetrieveTask {
     private volatile boolean canceled;
 
     RetrieveTaskImpl(RetrieveContext ctx, Association storeas,
-                     Event<RetrieveContext> retrieveStart, Event<RetrieveContext> retrieveEnd) {
+                     Event<RetrieveContext> retrieveStart, Event<RetrieveContext> retrieveEnd,
+                     RateLimiters rateLimiters, AssociationPool associationPool) {
         this.retrieveStart = retrieveStart;
         this.retrieveEnd = retrieveEnd;
         this.ctx = ctx;
         this.storeas = storeas;
         this.aeExt = ctx.getArchiveAEExtension();
         this.hostName = ReverseDNS.hostNameOf(storeas.getSocket().getInetAddress());
+        this.rateLimiter = rateLimiters.getRateLimiter(storeas.getRemoteAET());
+        this.associationPool = associationPool;
     }
 
     void setRequestAssociation(Dimse dimserq, Association rqas, PresentationContext pc, Attributes rqCmd) {
@@ -161,6 +169,8 @@ final class RetrieveTaskImpl implements RetrieveTask {
             if (tsuids.isEmpty()) {
                 throw new NoPresentationContextException(cuid);
             }
+            if (rateLimiter != null)
+                rateLimiter.acquire(1, inst.getLocations().get(0).getSize());
             RetrieveService service = ctx.getRetrieveService();
             try (Transcoder transcoder = service.openTranscoder(ctx, inst, tsuids, false)) {
                 String tsuid = transcoder.getDestinationTransferSyntax();
@@ -292,12 +302,12 @@ final class RetrieveTaskImpl implements RetrieveTask {
     }
 
     protected void releaseStoreAssociation() {
-        if (dimserq != Dimse.C_GET_RQ)
-            try {
-                storeas.release();
-            } catch (IOException e) {
-                LOG.warn("{}: failed to release association to {}", rqas, storeas.getRemoteAET(), e);
-            }
+        if (dimserq != Dimse.C_GET_RQ) {
+            ArchiveDeviceExtension arcDev = aeExt.getArchiveDeviceExtension();
+            Duration idleTimeout = arcDev.getAssociationPoolIdleTimeout();
+            associationPool.close(storeas, arcDev.getAssociationPoolSize(),
+                    idleTimeout != null ? idleTimeout.getSeconds() * 1000L : 0L);
+        }
     }
 
     private final class CStoreRSPHandler extends DimseRSPHandler {
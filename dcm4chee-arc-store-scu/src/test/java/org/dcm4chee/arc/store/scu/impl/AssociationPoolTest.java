@@ -0,0 +1,269 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.scu.impl;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.net.*;
+import org.dcm4che3.net.pdu.AAssociateAC;
+import org.dcm4che3.net.pdu.AAssociateRQ;
+import org.dcm4che3.net.pdu.PresentationContext;
+import org.dcm4che3.net.service.BasicCStoreSCP;
+import org.dcm4che3.net.service.DicomServiceRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Negotiates associations with an in-process Storage SCP, which only accepts CT Image Storage in Implicit VR Little
+ * Endian, and counts the associations it accepted and the objects it received.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class AssociationPoolTest {
+
+    private static final int POOL_SIZE = 2;
+    private static final long IDLE_TIMEOUT = 60000L;
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduledExecutor;
+    private Device scpDevice;
+    private ApplicationEntity scpAE;
+    private ApplicationEntity scuAE;
+    private AssociationPool pool;
+    private final List<Association> opened = new CopyOnWriteArrayList<>();
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final AtomicInteger stored = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
+        scpDevice = new Device("storescp");
+        Connection scpConn = new Connection("dicom", "localhost", freePort());
+        scpDevice.addConnection(scpConn);
+        scpAE = new ApplicationEntity("STORESCP");
+        scpAE.setAssociationAcceptor(true);
+        scpAE.addConnection(scpConn);
+        scpAE.addTransferCapability(new TransferCapability(null,
+                UID.CTImageStorage, TransferCapability.Role.SCP, UID.ImplicitVRLittleEndian));
+        scpDevice.addApplicationEntity(scpAE);
+        scpDevice.setAssociationHandler(new AssociationHandler() {
+            @Override
+            protected AAssociateAC negotiate(Association as, AAssociateRQ rq) throws IOException {
+                AAssociateAC ac = super.negotiate(as, rq);
+                accepted.getAndIncrement();
+                return ac;
+            }
+        });
+        DicomServiceRegistry serviceRegistry = new DicomServiceRegistry();
+        serviceRegistry.addDicomService(new BasicCStoreSCP(UID.CTImageStorage) {
+            @Override
+            protected void store(Association as, PresentationContext pc, Attributes rq, PDVInputStream data,
+                                 Attributes rsp) throws IOException {
+                data.readDataset(pc.getTransferSyntax());
+                stored.getAndIncrement();
+            }
+        });
+        scpDevice.setDimseRQHandler(serviceRegistry);
+        scpDevice.setExecutor(executor);
+        scpDevice.setScheduledExecutor(scheduledExecutor);
+        scpDevice.bindConnections();
+
+        Device scuDevice = new Device("storescu");
+        Connection scuConn = new Connection();
+        scuDevice.addConnection(scuConn);
+        scuAE = new ApplicationEntity("STORESCU");
+        scuAE.setAssociationInitiator(true);
+        scuAE.addConnection(scuConn);
+        scuDevice.addApplicationEntity(scuAE);
+        scuDevice.setExecutor(executor);
+        scuDevice.setScheduledExecutor(scheduledExecutor);
+        pool = new AssociationPool();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (pool != null)
+            pool.releaseAll();
+        for (Association as : opened)
+            if (as.isReadyForDataTransfer())
+                as.release();
+        if (scpDevice != null)
+            scpDevice.unbindConnections();
+        if (scheduledExecutor != null)
+            scheduledExecutor.shutdown();
+        if (executor != null)
+            executor.shutdown();
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        Association as = open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian));
+        pool.close(as, POOL_SIZE, IDLE_TIMEOUT);
+        assertSame(as, open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian)));
+        pool.close(as, 0, IDLE_TIMEOUT);
+        assertNotSame(as, open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian)));
+    }
+
+    @Test
+    public void testStoreOnReusedAssociation() throws Exception {
+        Association as = open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian));
+        store(as, "1.2.3.1");
+        pool.close(as, POOL_SIZE, IDLE_TIMEOUT);
+        Association as2 = open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian));
+        assertSame(as, as2);
+        store(as2, "1.2.3.2");
+        assertEquals(2, stored.get());
+        assertEquals(1, accepted.get());
+    }
+
+    @Test
+    public void testConcurrentCloseDoesNotExceedPoolSize() throws Exception {
+        int n = 4 * POOL_SIZE;
+        for (int i = 0; i < n; i++)
+            open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> closed = new ArrayList<>(n);
+        for (Association as : opened)
+            closed.add(executor.submit(() -> {
+                start.await();
+                pool.close(as, POOL_SIZE, IDLE_TIMEOUT);
+                return null;
+            }));
+        start.countDown();
+        for (Future<?> future : closed)
+            future.get();
+        List<Association> reused = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Association as = open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian));
+            if (opened.indexOf(as) < n)
+                reused.add(as);
+        }
+        assertEquals(POOL_SIZE, reused.size());
+        assertEquals(n + n - POOL_SIZE, accepted.get());
+    }
+
+    @Test
+    public void testIdleTimeout() throws Exception {
+        Association as = open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian));
+        pool.close(as, POOL_SIZE, 100L);
+        for (int i = 0; i < 50 && as.isReadyForDataTransfer(); i++)
+            Thread.sleep(100L);
+        assertFalse(as.isReadyForDataTransfer());
+        Association as2 = open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian));
+        assertNotSame(as, as2);
+        assertTrue(as2.isReadyForDataTransfer());
+    }
+
+    @Test
+    public void testAcceptedTransferSyntaxNotOffered() throws Exception {
+        Association as = open(aarq(UID.CTImageStorage, UID.ExplicitVRLittleEndian, UID.ImplicitVRLittleEndian));
+        assertEquals(1, as.getTransferSyntaxesFor(UID.CTImageStorage).size());
+        pool.close(as, POOL_SIZE, IDLE_TIMEOUT);
+        Association as2 = open(aarq(UID.CTImageStorage, UID.ExplicitVRLittleEndian));
+        assertNotSame(as, as2);
+        assertTrue(as2.getTransferSyntaxesFor(UID.CTImageStorage).isEmpty());
+        assertSame(as, open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian)));
+    }
+
+    @Test
+    public void testRejectedAbstractSyntax() throws Exception {
+        AAssociateRQ aarq = aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian);
+        aarq.addPresentationContext(new PresentationContext(3, UID.MRImageStorage, UID.ImplicitVRLittleEndian));
+        Association as = open(aarq);
+        assertTrue(as.getTransferSyntaxesFor(UID.MRImageStorage).isEmpty());
+        pool.close(as, POOL_SIZE, IDLE_TIMEOUT);
+        AAssociateRQ aarq2 = aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian);
+        aarq2.addPresentationContext(new PresentationContext(3, UID.MRImageStorage, UID.ImplicitVRLittleEndian));
+        assertNotSame(as, open(aarq2));
+        assertSame(as, open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian)));
+    }
+
+    @Test
+    public void testNotRequested() throws Exception {
+        Association as = open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian));
+        pool.close(as, POOL_SIZE, IDLE_TIMEOUT);
+        assertNotSame(as, open(aarq(UID.CTImageStorage, UID.ImplicitVRLittleEndian, UID.ExplicitVRLittleEndian)));
+    }
+
+    private Association open(AAssociateRQ aarq) throws Exception {
+        Association as = pool.open(scuAE, scpAE, aarq);
+        opened.add(as);
+        return as;
+    }
+
+    private static void store(Association as, String iuid) throws Exception {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.SOPClassUID, VR.UI, UID.CTImageStorage);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, iuid);
+        DimseRSP rsp = as.cstore(UID.CTImageStorage, iuid, Priority.NORMAL, new DataWriterAdapter(attrs),
+                UID.ImplicitVRLittleEndian);
+        rsp.next();
+        assertEquals(Status.Success, rsp.getCommand().getInt(Tag.Status, -1));
+    }
+
+    private static AAssociateRQ aarq(String cuid, String... tsuids) {
+        AAssociateRQ aarq = new AAssociateRQ();
+        aarq.setCallingAET("STORESCU");
+        aarq.setCalledAET("STORESCP");
+        aarq.addPresentationContext(new PresentationContext(1, cuid, tsuids));
+        return aarq;
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket ss = new ServerSocket(0)) {
+            return ss.getLocalPort();
+        }
+    }
+}
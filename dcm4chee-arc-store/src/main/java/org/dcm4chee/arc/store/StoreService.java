@@ -56,6 +56,7 @@ import java.io.InputStream;
 import java.net.Socket;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.zip.ZipInputStream;
 
 /**
@@ -123,5 +124,8 @@ public interface StoreService {
     void compress(StoreContext ctx, InstanceLocations inst, InputStream data)
             throws IOException;
 
+    boolean compressFramesInParallel(StoreContext ctx, InstanceLocations inst, InputStream data,
+            Executor executor, int parallelism) throws IOException;
+
     void updateLocations(ArchiveAEExtension arcAE, List<UpdateLocation> updateLocations);
 }
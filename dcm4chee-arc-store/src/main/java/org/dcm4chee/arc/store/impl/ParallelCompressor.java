@@ -0,0 +1,186 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.impl;
+
+import org.dcm4che3.imageio.codec.ImageDescriptor;
+import org.dcm4che3.imageio.codec.ImageWriterFactory;
+import org.dcm4che3.imageio.codec.jpeg.PatchJPEGLSImageOutputStream;
+import org.dcm4che3.util.ByteUtils;
+import org.dcm4che3.util.Property;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.color.ColorSpace;
+import java.awt.image.*;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Compresses frames of an unsigned monochrome native encoded image concurrently by the specified executor. Because
+ * {@link ImageWriter} instances are not thread-safe, each running compression task uses its own compressor, which
+ * is returned to a pool of idle compressors after completion. The compressed frames are padded to even length.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class ParallelCompressor implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelCompressor.class);
+
+    private final ImageWriterFactory.ImageWriterParam compressorParam;
+    private final Property[] compressParams;
+    private final ImageDescriptor imageDescriptor;
+    private final Executor executor;
+    private final ConcurrentLinkedQueue<ImageWriter> idleCompressors = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    ParallelCompressor(ImageWriterFactory.ImageWriterParam compressorParam, Property[] compressParams,
+                       ImageDescriptor imageDescriptor, Executor executor) {
+        this.compressorParam = compressorParam;
+        this.compressParams = compressParams;
+        this.imageDescriptor = imageDescriptor;
+        this.executor = executor;
+    }
+
+    CompletableFuture<byte[]> compress(int frameIndex, byte[] frame) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return compressFrame(frameIndex, frame);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    byte[] compressFrame(int frameIndex, byte[] frame) throws IOException {
+        ImageWriter compressor = idleCompressors.poll();
+        if (compressor == null)
+            compressor = ImageWriterFactory.getImageWriter(compressorParam);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(frame.length / 2);
+            long start = System.currentTimeMillis();
+            try (ImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+                compressor.setOutput(compressorParam.patchJPEGLS != null
+                        ? new PatchJPEGLSImageOutputStream(ios, compressorParam.patchJPEGLS)
+                        : ios);
+                compressor.write(null, new IIOImage(toBufferedImage(frame), null, null), compressParam(compressor));
+            }
+            long end = System.currentTimeMillis();
+            if ((out.size() & 1) != 0)
+                out.write(0);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Compressed frame #{} {}:1 in {} ms",
+                        frameIndex + 1, (float) frame.length / out.size(), end - start);
+            return out.toByteArray();
+        } finally {
+            compressor.setOutput(null);
+            idleCompressors.offer(compressor);
+            if (closed)
+                disposeIdleCompressors();
+        }
+    }
+
+    private ImageWriteParam compressParam(ImageWriter compressor) {
+        ImageWriteParam compressParam = compressor.getDefaultWriteParam();
+        int count = 0;
+        for (Property[] properties : new Property[][] { compressorParam.getImageWriteParams(), compressParams })
+            for (Property property : properties) {
+                String name = property.getName();
+                if (name.equals("maxPixelValueError") || name.equals("avgPixelValueBlockSize"))
+                    continue;
+
+                if (count++ == 0)
+                    compressParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                property.setAt(compressParam);
+            }
+        return compressParam;
+    }
+
+    private BufferedImage toBufferedImage(byte[] frame) {
+        int rows = imageDescriptor.getRows();
+        int cols = imageDescriptor.getColumns();
+        int bitsStored = imageDescriptor.getBitsStored();
+        DataBuffer dataBuffer;
+        if (imageDescriptor.getBitsAllocated() == 8) {
+            dataBuffer = new DataBufferByte(frame, frame.length);
+        } else {
+            short[] samples = new short[frame.length >> 1];
+            int mask = (1 << bitsStored) - 1;
+            for (int i = 0; i < samples.length; i++)
+                samples[i] = (short) (ByteUtils.bytesToUShortLE(frame, i << 1) & mask);
+            dataBuffer = new DataBufferUShort(samples, samples.length);
+        }
+        int dataType = dataBuffer.getDataType();
+        ComponentColorModel cm = new ComponentColorModel(
+                ColorSpace.getInstance(ColorSpace.CS_GRAY),
+                new int[] { bitsStored },
+                false, // hasAlpha
+                false, // isAlphaPremultiplied,
+                Transparency.OPAQUE,
+                dataType);
+        SampleModel sm = new BandedSampleModel(dataType, cols, rows, 1);
+        WritableRaster raster = Raster.createWritableRaster(sm, dataBuffer, null);
+        return new BufferedImage(cm, raster, false, null);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        disposeIdleCompressors();
+    }
+
+    private void disposeIdleCompressors() {
+        ImageWriter compressor;
+        while ((compressor = idleCompressors.poll()) != null)
+            compressor.dispose();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.impl;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.imageio.codec.ImageDescriptor;
+import org.dcm4che3.imageio.codec.ImageWriterFactory;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.util.Property;
+import org.dcm4che3.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Compresses a native encoded multi-frame image frame by frame, keeping up to the specified number of frames
+ * compressed concurrently, and writes the frames in their original order as fragments of encapsulated Pixel Data.
+ * Only applicable for unsigned monochrome images with 8 or 16 Bits Allocated and without embedded Overlays, compressed
+ * by a lossless Transfer Syntax; check {@link #isApplicable()} before invoking {@link #writeTo}.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class ParallelFrameCompression {
+
+    private static final Set<String> LOSSLESS_TSUIDS = new HashSet<>(Arrays.asList(
+            UID.JPEGLossless,
+            UID.JPEGLosslessNonHierarchical14,
+            UID.JPEGLSLossless,
+            UID.JPEG2000LosslessOnly,
+            UID.RLELossless));
+
+    private final DicomInputStream dis;
+    private final String tsuid;
+    private final Attributes attrs;
+    private final ImageDescriptor imageDescriptor;
+    private final ImageWriterFactory.ImageWriterParam compressorParam;
+    private final int frameLength;
+    private final boolean applicable;
+
+    ParallelFrameCompression(InputStream in, String tsuid) throws IOException {
+        this.dis = new DicomInputStream(in);
+        this.tsuid = tsuid;
+        this.attrs = dis.readDataset(-1, Tag.PixelData);
+        this.imageDescriptor = new ImageDescriptor(attrs);
+        this.compressorParam = LOSSLESS_TSUIDS.contains(tsuid) ? ImageWriterFactory.getImageWriterParam(tsuid) : null;
+        this.frameLength = imageDescriptor.getRows() * imageDescriptor.getColumns()
+                * (imageDescriptor.getBitsAllocated() >> 3);
+        this.applicable = compressorParam != null
+                && dis.tag() == Tag.PixelData
+                && isApplicable(imageDescriptor, dis.getTransferSyntax(), tsuid)
+                && dis.length() != -1
+                && (long) dis.length() >= (long) frameLength * imageDescriptor.getFrames();
+    }
+
+    static boolean isApplicable(ImageDescriptor imageDescriptor, String sourceTransferSyntax, String tsuid) {
+        return LOSSLESS_TSUIDS.contains(tsuid)
+                && isNativeLittleEndian(sourceTransferSyntax)
+                && imageDescriptor.getSamples() == 1
+                && imageDescriptor.getPhotometricInterpretation().isMonochrome()
+                && (imageDescriptor.getBitsAllocated() == 8 || imageDescriptor.getBitsAllocated() == 16)
+                && !imageDescriptor.isSigned()
+                && imageDescriptor.getEmbeddedOverlays().length == 0
+                && imageDescriptor.getFrames() > 1;
+    }
+
+    private static boolean isNativeLittleEndian(String tsuid) {
+        return tsuid.equals(UID.ExplicitVRLittleEndian) || tsuid.equals(UID.ImplicitVRLittleEndian);
+    }
+
+    boolean isApplicable() {
+        return applicable;
+    }
+
+    String getSourceTransferSyntax() {
+        return dis.getTransferSyntax();
+    }
+
+    Attributes getAttributes() {
+        return attrs;
+    }
+
+    int getFrames() {
+        return imageDescriptor.getFrames();
+    }
+
+    void writeTo(OutputStream out, Property[] compressParams, Executor executor, int parallelism)
+            throws IOException {
+        DicomOutputStream dos = new DicomOutputStream(out, UID.ExplicitVRLittleEndian);
+        dos.writeDataset(attrs.createFileMetaInformation(tsuid), attrs);
+        dos.writeHeader(Tag.PixelData, VR.OB, -1);
+        dos.writeHeader(Tag.Item, null, 0);
+        try (ParallelCompressor compressor =
+                     new ParallelCompressor(compressorParam, compressParams, imageDescriptor, executor)) {
+            ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>(parallelism);
+            int frames = imageDescriptor.getFrames();
+            for (int frameIndex = 0; frameIndex < frames; frameIndex++) {
+                if (pending.size() >= parallelism)
+                    writeFragment(dos, pending.poll());
+                byte[] frame = new byte[frameLength];
+                dis.readFully(frame);
+                pending.offer(compressor.compress(frameIndex, frame));
+            }
+            while (!pending.isEmpty())
+                writeFragment(dos, pending.poll());
+        }
+        dos.writeHeader(Tag.SequenceDelimitationItem, null, 0);
+        StreamUtils.skipFully(dis, dis.length() - (long) frameLength * imageDescriptor.getFrames());
+        Attributes trailing = new Attributes();
+        dis.readAttributes(trailing, -1, -1);
+        trailing.writeTo(dos);
+        dos.finish();
+    }
+
+    private static void writeFragment(DicomOutputStream dos, CompletableFuture<byte[]> future) throws IOException {
+        byte[] fragment;
+        try {
+            fragment = future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException)
+                throw ((UncheckedIOException) cause).getCause();
+            throw e;
+        }
+        dos.writeHeader(Tag.Item, null, fragment.length);
+        dos.write(fragment);
+    }
+}
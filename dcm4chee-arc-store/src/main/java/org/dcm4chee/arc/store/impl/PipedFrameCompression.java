@@ -0,0 +1,134 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.impl;
+
+import org.dcm4che3.util.Property;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Passes the native encoded object written by the {@link org.dcm4che3.imageio.codec.Transcoder} on ingest through a
+ * pipe to a {@link ParallelFrameCompression} running in a separate thread, which writes the compressed object to the
+ * specified output stream. {@link #close()} waits for the completion of the compression.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class PipedFrameCompression extends OutputStream {
+
+    private static final int PIPE_SIZE = 0x10000;
+
+    private final PipedOutputStream pipe = new PipedOutputStream();
+    private final CompletableFuture<Void> compression;
+    private boolean closed;
+
+    PipedFrameCompression(OutputStream out, String tsuid, Property[] compressParams, Executor executor,
+                          Executor frameWorkers, int parallelism) throws IOException {
+        PipedInputStream in = new PipedInputStream(pipe, PIPE_SIZE);
+        this.compression = CompletableFuture.runAsync(() -> {
+            try (PipedInputStream pipeIn = in; OutputStream storageOut = out) {
+                ParallelFrameCompression frameCompression = new ParallelFrameCompression(pipeIn, tsuid);
+                if (!frameCompression.isApplicable())
+                    throw new IOException("Parallel compression of frames not applicable");
+
+                frameCompression.writeTo(storageOut, compressParams, frameWorkers, parallelism);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        try {
+            pipe.write(b);
+        } catch (IOException e) {
+            throw compressionFailure(e);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        try {
+            pipe.write(b, off, len);
+        } catch (IOException e) {
+            throw compressionFailure(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+        pipe.close();
+        awaitCompression();
+    }
+
+    private IOException compressionFailure(IOException e) {
+        if (compression.isCompletedExceptionally())
+            try {
+                awaitCompression();
+            } catch (IOException cause) {
+                return cause;
+            }
+        return e;
+    }
+
+    private void awaitCompression() throws IOException {
+        try {
+            compression.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException)
+                throw ((UncheckedIOException) cause).getCause();
+            throw new IOException(cause);
+        }
+    }
+}
@@ -42,7 +42,6 @@ package org.dcm4chee.arc.store.impl;
 
 import org.dcm4che3.data.*;
 import org.dcm4che3.dict.archive.ArchiveTag;
-import org.dcm4che3.json.JSONReader;
 import org.dcm4che3.net.Association;
 import org.dcm4che3.net.Device;
 import org.dcm4che3.net.Status;
@@ -64,6 +63,7 @@ import org.dcm4chee.arc.patient.PatientMgtContext;
 import org.dcm4chee.arc.patient.PatientService;
 import org.dcm4chee.arc.qmgt.HttpServletRequestInfo;
 import org.dcm4chee.arc.storage.Storage;
+import org.dcm4chee.arc.storage.SeriesMetadataCodec;
 import org.dcm4chee.arc.storage.WriteContext;
 import org.dcm4chee.arc.store.InstanceLocations;
 import org.dcm4chee.arc.store.StoreContext;
@@ -74,13 +74,11 @@ import org.slf4j.LoggerFactory;
 
 import javax.ejb.Stateless;
 import javax.inject.Inject;
-import javax.json.Json;
 import javax.persistence.*;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -295,9 +293,7 @@ public class StoreServiceEJB {
                 .openZipInputStream(session, metadata.getStorageID(), metadata.getStoragePath(), studyUID)) {
             ZipEntry entry;
             while ((entry = zip.getNextEntry()) != null) {
-                JSONReader jsonReader = new JSONReader(Json.createParser(new InputStreamReader(zip, "UTF-8")));
-                jsonReader.setSkipBulkDataURI(true);
-                Instance inst = restoreInstance(session, series, jsonReader.readDataset(null));
+                Instance inst = restoreInstance(session, series, SeriesMetadataCodec.readEntry(zip, true));
                 if (instList != null)
                     instList.add(inst);
             }
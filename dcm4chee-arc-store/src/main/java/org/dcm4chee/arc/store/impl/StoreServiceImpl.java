@@ -54,6 +54,7 @@ import org.dcm4che3.net.*;
 import org.dcm4che3.net.hl7.HL7Application;
 import org.dcm4che3.net.hl7.UnparsedHL7Message;
 import org.dcm4che3.net.service.DicomServiceException;
+import org.dcm4che3.util.SafeClose;
 import org.dcm4che3.util.StringUtils;
 import org.dcm4che3.util.UIDUtils;
 import org.dcm4chee.arc.Cache;
@@ -84,6 +85,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -119,6 +122,9 @@ class StoreServiceImpl implements StoreService {
     @Inject
     private MergeMWLCache mergeMWLCache;
 
+    private Semaphore ingestFrameWorkers;
+    private int ingestFrameWorkerPermits;
+
     @Override
     public StoreSession newStoreSession(Association as) {
         StoreSessionImpl session = new StoreSessionImpl(this);
@@ -192,6 +198,7 @@ class StoreServiceImpl implements StoreService {
         List<File> bulkDataFiles = Collections.emptyList();
         String receiveTranferSyntax = ctx.getReceiveTranferSyntax();
         ArchiveAEExtension arcAE = ctx.getStoreSession().getArchiveAEExtension();
+        TranscoderHandler handler = new TranscoderHandler(ctx);
         try (Transcoder transcoder = receiveTranferSyntax != null
                 ? new Transcoder(data, receiveTranferSyntax)
                 : new Transcoder(data)) {
@@ -203,7 +210,17 @@ class StoreServiceImpl implements StoreService {
             transcoder.setBulkDataDirectory(arcAE.getBulkDataSpoolDirectoryFile());
             transcoder.setIncludeFileMetaInformation(true);
             transcoder.setDeleteBulkDataFiles(false);
-            transcoder.transcode(new TranscoderHandler(ctx));
+            long start = System.currentTimeMillis();
+            transcoder.transcode(handler);
+            if (handler.frameCompression != null)
+                handler.frameCompression.close();
+            ArchiveCompressionRule compressionRule = ctx.getCompressionRule();
+            if (compressionRule != null && compressionRule.getDelay() == null && LOG.isDebugEnabled())
+                LOG.debug("{}: Compressed {} frame(s) with {} in {} ms",
+                        ctx.getStoreSession(),
+                        transcoder.getImageDescriptor().getFrames(),
+                        UID.nameOf(compressionRule.getTransferSyntax()),
+                        System.currentTimeMillis() - start);
             bulkDataFiles = transcoder.getBulkDataFiles();
         } catch (StorageException e) {
             LOG.warn("{}: Failed to store received object:\n", ctx.getStoreSession(), e);
@@ -212,6 +229,7 @@ class StoreServiceImpl implements StoreService {
             LOG.warn("{}: Failed to store received object:\n", ctx.getStoreSession(), e);
             throw new DicomServiceException(Status.ProcessingFailure, e);
         } finally {
+            SafeClose.close(handler.frameCompression);
             for (File tmpFile : bulkDataFiles)
                 tmpFile.delete();
         }
@@ -297,6 +315,35 @@ class StoreServiceImpl implements StoreService {
         ejb.replaceLocation(ctx, inst);
     }
 
+    @Override
+    public boolean compressFramesInParallel(StoreContext ctx, InstanceLocations inst, InputStream data,
+            Executor executor, int parallelism) throws IOException {
+        ArchiveCompressionRule compressionRule = ctx.getCompressionRule();
+        ParallelFrameCompression compression =
+                new ParallelFrameCompression(data, compressionRule.getTransferSyntax());
+        if (!compression.isApplicable())
+            return false;
+
+        ctx.setReceiveTransferSyntax(compression.getSourceTransferSyntax());
+        ctx.setAttributes(compression.getAttributes());
+        ctx.setStoreTranferSyntax(compressionRule.getTransferSyntax());
+        long start = System.currentTimeMillis();
+        try (OutputStream out = openOutputStream(ctx, Location.ObjectType.DICOM_FILE)) {
+            compression.writeTo(out, compressionRule.getImageWriteParams(), executor, parallelism);
+        } catch (StorageException e) {
+            LOG.warn("{}: Failed to store compressed object:\n", ctx.getStoreSession(), e);
+            throw new DicomServiceException(Status.OutOfResources, e);
+        }
+        LOG.debug("{}: Compressed {} frame(s) with {} by up to {} threads in {} ms",
+                ctx.getStoreSession(),
+                compression.getFrames(),
+                UID.nameOf(compressionRule.getTransferSyntax()),
+                parallelism,
+                System.currentTimeMillis() - start);
+        ejb.replaceLocation(ctx, inst);
+        return true;
+    }
+
     @Override
     public void addStorageID(String studyIUID, String storageID) {
         ejb.addStorageID(studyIUID, storageID);
@@ -547,6 +594,7 @@ class StoreServiceImpl implements StoreService {
 
     private final class TranscoderHandler implements Transcoder.Handler {
         private final StoreContext storeContext;
+        private PipedFrameCompression frameCompression;
 
         private TranscoderHandler(StoreContext storeContext) {
             this.storeContext = storeContext;
@@ -556,16 +604,53 @@ class StoreServiceImpl implements StoreService {
         public OutputStream newOutputStream(Transcoder transcoder, Attributes dataset) throws IOException {
             storeContext.setAttributes(dataset);
             ArchiveCompressionRule compressionRule = storeContext.getCompressionRule();
-            if (compressionRule == null) {
+            boolean selected = compressionRule == null;
+            if (selected) {
                 storeContext.setCompressionRule(compressionRule = selectCompressionRule(transcoder, storeContext));
             }
             if (compressionRule != null && compressionRule.getDelay() == null) {
+                storeContext.setStoreTranferSyntax(compressionRule.getTransferSyntax());
+                if (selected && compressFramesInParallel(transcoder, compressionRule))
+                    return frameCompression = pipeFrameCompression(compressionRule,
+                            openOutputStream(storeContext, Location.ObjectType.DICOM_FILE));
+
                 transcoder.setDestinationTransferSyntax(compressionRule.getTransferSyntax());
                 transcoder.setCompressParams(compressionRule.getImageWriteParams());
-                storeContext.setStoreTranferSyntax(compressionRule.getTransferSyntax());
             }
             return openOutputStream(storeContext, Location.ObjectType.DICOM_FILE);
         }
+
+        private boolean compressFramesInParallel(Transcoder transcoder, ArchiveCompressionRule compressionRule) {
+            ArchiveDeviceExtension arcDev = storeContext.getStoreSession().getArchiveAEExtension()
+                    .getArchiveDeviceExtension();
+            return arcDev.getCompressionFrameParallelism() > 1
+                    && ParallelFrameCompression.isApplicable(transcoder.getImageDescriptor(),
+                            transcoder.getSourceTransferSyntax(), compressionRule.getTransferSyntax());
+        }
+
+        private PipedFrameCompression pipeFrameCompression(ArchiveCompressionRule compressionRule, OutputStream out)
+                throws IOException {
+            ArchiveDeviceExtension arcDev = storeContext.getStoreSession().getArchiveAEExtension()
+                    .getArchiveDeviceExtension();
+            Device device = arcDev.getDevice();
+            try {
+                return new PipedFrameCompression(out, compressionRule.getTransferSyntax(),
+                        compressionRule.getImageWriteParams(), device::execute,
+                        new BoundedExecutor(device::execute, ingestFrameWorkers(arcDev.getCompressionThreads())),
+                        arcDev.getCompressionFrameParallelism());
+            } catch (IOException | RuntimeException e) {
+                SafeClose.close(out);
+                throw e;
+            }
+        }
+    }
+
+    private synchronized Semaphore ingestFrameWorkers(int permits) {
+        if (ingestFrameWorkers == null || ingestFrameWorkerPermits != permits) {
+            ingestFrameWorkers = new Semaphore(permits);
+            ingestFrameWorkerPermits = permits;
+        }
+        return ingestFrameWorkers;
     }
 
     private OutputStream openOutputStream(StoreContext storeContext, Location.ObjectType objectType)
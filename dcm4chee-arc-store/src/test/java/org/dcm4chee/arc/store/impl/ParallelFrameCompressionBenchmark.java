@@ -0,0 +1,96 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.impl;
+
+import org.dcm4che3.data.UID;
+import org.dcm4che3.imageio.codec.ImageWriterFactory;
+import org.dcm4che3.util.Property;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assume.assumeNotNull;
+
+/**
+ * Measures the latency of compressing one multi-frame image sequentially and with frame parallelism. Not matched by
+ * the default includes of the surefire plugin; run explicitly by
+ * {@code mvn test -Dtest=ParallelFrameCompressionBenchmark}.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ParallelFrameCompressionBenchmark {
+
+    private static final int WARMUP = 3;
+    private static final int RUNS = 10;
+    private static final int[] PARALLELISMS = { 1, 2, 4, 8 };
+
+    @Test
+    public void benchmark() throws Exception {
+        assumeNotNull(ImageWriterFactory.getImageWriterParam(UID.RLELossless));
+        byte[] source = ParallelFrameCompressionTest.multiFrameImage(16, 12, 0);
+        for (int parallelism : PARALLELISMS) {
+            ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+            try {
+                for (int i = 0; i < WARMUP; i++)
+                    compress(source, executor, parallelism);
+                long start = System.nanoTime();
+                for (int i = 0; i < RUNS; i++)
+                    compress(source, executor, parallelism);
+                System.out.printf("Compressed %d bytes with parallelism %d in %d ms per object%n",
+                        source.length, parallelism, (System.nanoTime() - start) / RUNS / 1000000);
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private static void compress(byte[] source, Executor executor, int parallelism) throws IOException {
+        ParallelFrameCompression compression =
+                new ParallelFrameCompression(new ByteArrayInputStream(source), UID.RLELossless);
+        compression.writeTo(new ByteArrayOutputStream(), new Property[0], executor, parallelism);
+    }
+}
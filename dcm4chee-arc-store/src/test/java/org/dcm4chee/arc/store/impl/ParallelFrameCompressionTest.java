@@ -0,0 +1,220 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.impl;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Fragments;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.imageio.codec.ImageWriterFactory;
+import org.dcm4che3.imageio.codec.Transcoder;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.util.Property;
+import org.dcm4che3.util.UIDUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNotNull;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ParallelFrameCompressionTest {
+
+    private static final int ROWS = 256;
+    private static final int COLUMNS = 256;
+    private static final int FRAMES = 20;
+    private static final int PARALLELISM = 4;
+    private static final int PRIVATE_CREATOR_AFTER_PIXEL_DATA = 0x7FE10010;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        assumeNotNull(ImageWriterFactory.getImageWriterParam(UID.RLELossless));
+        executor = Executors.newFixedThreadPool(PARALLELISM);
+    }
+
+    @After
+    public void tearDown() {
+        if (executor != null)
+            executor.shutdown();
+    }
+
+    @Test
+    public void testSequentialEqualsTranscoder() throws Exception {
+        byte[] source = multiFrameImage(16, 12, 0);
+        assertFragmentsEquals(transcode(source), compress(source, 1, false));
+    }
+
+    @Test
+    public void testParallelEqualsTranscoder() throws Exception {
+        byte[] source = multiFrameImage(16, 12, 0);
+        assertFragmentsEquals(transcode(source), compress(source, PARALLELISM, true));
+    }
+
+    @Test
+    public void testPipedEqualsTranscoder() throws Exception {
+        byte[] source = multiFrameImage(8, 8, 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PipedFrameCompression pipe = new PipedFrameCompression(out, UID.RLELossless, new Property[0],
+                executor, executor, PARALLELISM)) {
+            for (int off = 0; off < source.length; off += 1000)
+                pipe.write(source, off, Math.min(1000, source.length - off));
+        }
+        assertFragmentsEquals(transcode(source), out.toByteArray());
+    }
+
+    @Test(expected = IOException.class)
+    public void testPipedTruncated() throws Exception {
+        byte[] source = multiFrameImage(8, 8, 0);
+        try (PipedFrameCompression pipe = new PipedFrameCompression(new ByteArrayOutputStream(), UID.RLELossless,
+                new Property[0], executor, executor, PARALLELISM)) {
+            pipe.write(source, 0, source.length / 2);
+        }
+    }
+
+    @Test
+    public void testEncapsulatedPixelData() throws Exception {
+        byte[] compressed = compress(multiFrameImage(8, 8, 0), PARALLELISM, true);
+        try (DicomInputStream dis = new DicomInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(UID.RLELossless, dis.getTransferSyntax());
+            Attributes attrs = dis.readDataset(-1, -1);
+            Object pixelData = attrs.getValue(Tag.PixelData);
+            assertTrue(pixelData instanceof Fragments);
+            assertEquals(FRAMES + 1, ((Fragments) pixelData).size());
+            assertEquals(FRAMES, attrs.getInt(Tag.NumberOfFrames, 0));
+            assertEquals("TRAILING", attrs.getString(PRIVATE_CREATOR_AFTER_PIXEL_DATA, null));
+        }
+    }
+
+    @Test
+    public void testNotApplicable() throws Exception {
+        assertFalse(new ParallelFrameCompression(
+                new ByteArrayInputStream(multiFrameImage(16, 12, 1)), UID.RLELossless).isApplicable());
+        assertFalse(new ParallelFrameCompression(
+                new ByteArrayInputStream(multiFrameImage(8, 8, 0)), UID.JPEGBaseline1).isApplicable());
+    }
+
+    private byte[] compress(byte[] source, int parallelism, boolean concurrent) throws IOException {
+        ParallelFrameCompression compression =
+                new ParallelFrameCompression(new ByteArrayInputStream(source), UID.RLELossless);
+        assertTrue(compression.isApplicable());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compression.writeTo(out, new Property[0],
+                concurrent ? executor : Runnable::run, parallelism);
+        return out.toByteArray();
+    }
+
+    private static byte[] transcode(byte[] source) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Transcoder transcoder = new Transcoder(new ByteArrayInputStream(source))) {
+            transcoder.setIncludeFileMetaInformation(true);
+            transcoder.setDestinationTransferSyntax(UID.RLELossless);
+            transcoder.transcode((t, dataset) -> out);
+        }
+        return out.toByteArray();
+    }
+
+    private static void assertFragmentsEquals(byte[] expected, byte[] actual) throws IOException {
+        Fragments expectedFragments = fragments(expected);
+        Fragments actualFragments = fragments(actual);
+        assertEquals(FRAMES + 1, expectedFragments.size());
+        assertEquals(expectedFragments.size(), actualFragments.size());
+        for (int i = 1; i < expectedFragments.size(); i++)
+            assertArrayEquals("Frame #" + i,
+                    (byte[]) expectedFragments.get(i), (byte[]) actualFragments.get(i));
+    }
+
+    private static Fragments fragments(byte[] compressed) throws IOException {
+        try (DicomInputStream dis = new DicomInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(UID.RLELossless, dis.getTransferSyntax());
+            return (Fragments) dis.readDataset(-1, -1).getValue(Tag.PixelData);
+        }
+    }
+
+    static byte[] multiFrameImage(int bitsAllocated, int bitsStored, int pixelRepresentation) throws IOException {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.SOPClassUID, VR.UI, UID.XRayAngiographicImageStorage);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, UIDUtils.createUID());
+        attrs.setInt(Tag.SamplesPerPixel, VR.US, 1);
+        attrs.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2");
+        attrs.setInt(Tag.NumberOfFrames, VR.IS, FRAMES);
+        attrs.setInt(Tag.Rows, VR.US, ROWS);
+        attrs.setInt(Tag.Columns, VR.US, COLUMNS);
+        attrs.setInt(Tag.BitsAllocated, VR.US, bitsAllocated);
+        attrs.setInt(Tag.BitsStored, VR.US, bitsStored);
+        attrs.setInt(Tag.HighBit, VR.US, bitsStored - 1);
+        attrs.setInt(Tag.PixelRepresentation, VR.US, pixelRepresentation);
+        attrs.setBytes(Tag.PixelData, bitsAllocated == 8 ? VR.OB : VR.OW, pixelData(bitsAllocated));
+        attrs.setString(PRIVATE_CREATOR_AFTER_PIXEL_DATA, VR.LO, "TRAILING");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DicomOutputStream dos = new DicomOutputStream(out, UID.ExplicitVRLittleEndian)) {
+            dos.writeDataset(attrs.createFileMetaInformation(UID.ExplicitVRLittleEndian), attrs);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] pixelData(int bitsAllocated) {
+        int bytesPerSample = bitsAllocated >> 3;
+        byte[] b = new byte[ROWS * COLUMNS * bytesPerSample * FRAMES];
+        for (int frame = 0, i = 0; frame < FRAMES; frame++)
+            for (int y = 0; y < ROWS; y++)
+                for (int x = 0; x < COLUMNS; x++) {
+                    int sample = (x * y + frame * 37) & ((1 << bitsAllocated) - 1);
+                    b[i++] = (byte) sample;
+                    if (bytesPerSample == 2)
+                        b[i++] = (byte) ((sample >> 8) & 0x0F);
+                }
+        return b;
+    }
+}
@@ -43,6 +43,7 @@ package org.dcm4chee.arc.wado;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.util.SafeClose;
 import org.dcm4che3.util.StreamUtils;
 import org.dcm4che3.util.TagUtils;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
@@ -73,39 +74,117 @@ public class BulkdataOutput implements StreamingOutput {
     public void write(final OutputStream out) throws IOException {
         RetrieveService service = ctx.getRetrieveService();
         try (DicomInputStream dis = service.openDicomInputStream(ctx, inst)) {
-            Attributes attrs = null;
-            for (int level = 0; level < attributePath.length; level++) {
-                if ((level & 1) == 0) {
-                    int stopTag = attributePath[level];
-                    if (attrs == null)
-                        attrs = dis.readDataset(-1, stopTag);
-                    else
-                        dis.readAttributes(attrs, -1, stopTag);
-                    if (dis.tag() != stopTag)
-                        throw new IOException(missingBulkdata());
-                } else {
-                    int index = attributePath[level];
-                    int i = 0;
-                    while (i < index && dis.readItemHeader()) {
-                        int len = dis.length();
-                        boolean undefLen = len == -1;
-                        if (undefLen) {
-                            Attributes item = new Attributes(attrs.bigEndian());
-                            dis.readAttributes(item, len, Tag.ItemDelimitationItem);
-                        } else {
-                            dis.skipFully(len);
-                        }
-                        ++i;
+            copyBulkdata(dis, out, attributePath);
+        }
+    }
+
+    /**
+     * Copies the value specified by {@code attributePath}. Of encapsulated values, the fragments after the
+     * Basic Offset Table are copied one after the other.
+     */
+    static void copyBulkdata(DicomInputStream dis, OutputStream out, int... attributePath) throws IOException {
+        int length = seekBulkdata(dis, attributePath);
+        if (length != -1) {
+            StreamUtils.copy(dis, out, length);
+        } else {
+            while (dis.readItemHeader())
+                StreamUtils.copy(dis, out, dis.length());
+        }
+    }
+
+    /**
+     * Opens the object and positions the stream at the begin of the value specified by {@code attributePath}, if
+     * the value can be accessed by byte ranges. That is the case for values with defined length and for encapsulated
+     * values with only one fragment after the Basic Offset Table - e.g. of MPEG-2 or MPEG-4 video -, for which the
+     * stream is positioned at the begin of that fragment. The fragments of encapsulated values are counted on a second
+     * stream of the object, before the value is read.
+     *
+     * @return stream positioned at the begin of the value, which length is given by {@link DicomInputStream#length()},
+     *         or {@code null} if the value is encapsulated in more than one fragment
+     */
+    static DicomInputStream openByteRangeable(RetrieveContext ctx, InstanceLocations inst, int... attributePath)
+            throws IOException {
+        RetrieveService service = ctx.getRetrieveService();
+        DicomInputStream dis = service.openDicomInputStream(ctx, inst);
+        try {
+            if (seekBulkdata(dis, attributePath) == -1) {
+                try (DicomInputStream scan = service.openDicomInputStream(ctx, inst)) {
+                    if (!isSingleFragment(scan, attributePath)) {
+                        SafeClose.close(dis);
+                        return null;
+                    }
+                }
+                readFragmentHeader(dis, attributePath);
+            }
+            return dis;
+        } catch (IOException | RuntimeException e) {
+            SafeClose.close(dis);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the value specified by {@code attributePath} is encapsulated in exactly one fragment
+     * after the Basic Offset Table.
+     */
+    static boolean isSingleFragment(DicomInputStream dis, int... attributePath) throws IOException {
+        if (seekBulkdata(dis, attributePath) != -1)
+            return false;
+
+        readFragmentHeader(dis, attributePath);
+        dis.skipFully(dis.length());
+        return !dis.readItemHeader();
+    }
+
+    /**
+     * Positions the stream at the begin of the value specified by {@code attributePath}. For encapsulated values,
+     * the stream is positioned after the Basic Offset Table, before the Item of the first fragment.
+     *
+     * @return length of the value or {@code -1} for encapsulated values
+     */
+    static int seekBulkdata(DicomInputStream dis, int... attributePath) throws IOException {
+        Attributes attrs = null;
+        for (int level = 0; level < attributePath.length; level++) {
+            if ((level & 1) == 0) {
+                int stopTag = attributePath[level];
+                if (attrs == null)
+                    attrs = dis.readDataset(-1, stopTag);
+                else
+                    dis.readAttributes(attrs, -1, stopTag);
+                if (dis.tag() != stopTag)
+                    throw new IOException(missingBulkdata(attributePath));
+            } else {
+                int index = attributePath[level];
+                int i = 0;
+                while (i < index && dis.readItemHeader()) {
+                    int len = dis.length();
+                    boolean undefLen = len == -1;
+                    if (undefLen) {
+                        Attributes item = new Attributes(attrs.bigEndian());
+                        dis.readAttributes(item, len, Tag.ItemDelimitationItem);
+                    } else {
+                        dis.skipFully(len);
                     }
-                    if (i < index || !dis.readItemHeader())
-                        throw new IOException(missingBulkdata());
+                    ++i;
                 }
+                if (i < index || !dis.readItemHeader())
+                    throw new IOException(missingBulkdata(attributePath));
             }
-            StreamUtils.copy(dis, out, dis.length());
         }
+        if (dis.length() == -1) {
+            readFragmentHeader(dis, attributePath);
+            dis.skipFully(dis.length());
+            return -1;
+        }
+        return dis.length();
+    }
+
+    private static void readFragmentHeader(DicomInputStream dis, int[] attributePath) throws IOException {
+        if (!dis.readItemHeader())
+            throw new IOException(missingBulkdata(attributePath));
     }
 
-    private String missingBulkdata() {
+    private static String missingBulkdata(int[] attributePath) {
         StringBuilder sb = new StringBuilder();
         sb.append("No bulkdata ");
         for (int i = 0; i < attributePath.length; i++) {
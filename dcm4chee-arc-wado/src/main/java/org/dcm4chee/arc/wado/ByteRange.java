@@ -0,0 +1,130 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+
+/**
+ * Single byte range as specified by a HTTP Range header.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public final class ByteRange {
+    public static final String ACCEPT_RANGES = "Accept-Ranges";
+    public static final String CONTENT_RANGE = "Content-Range";
+    public static final String RANGE = "Range";
+    public static final String IF_RANGE = "If-Range";
+    public static final String BYTES = "bytes";
+
+    public final long first;
+    public final long last;
+    public final long completeLength;
+
+    private ByteRange(long first, long last, long completeLength) {
+        this.first = first;
+        this.last = last;
+        this.completeLength = completeLength;
+    }
+
+    /**
+     * Returns byte range specified by value of HTTP Range header.
+     *
+     * @param range value of HTTP Range header
+     * @param completeLength length of the complete representation
+     * @return byte range or {@code null}, if no or multiple ranges are specified, or the value could not be parsed
+     * @throws WebApplicationException with status 416, if the specified range cannot be satisfied
+     */
+    public static ByteRange valueOf(String range, long completeLength) {
+        if (range == null || !range.startsWith(BYTES + '='))
+            return null;
+
+        String spec = range.substring(BYTES.length() + 1).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0)
+            return null;
+
+        long first, last;
+        try {
+            if (dash == 0) {
+                long suffixLength = Long.parseLong(spec.substring(1).trim());
+                if (suffixLength == 0)
+                    throw notSatisfiable(completeLength);
+                first = Math.max(0L, completeLength - suffixLength);
+                last = completeLength - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0, dash).trim());
+                last = dash + 1 < spec.length()
+                        ? Math.min(Long.parseLong(spec.substring(dash + 1).trim()), completeLength - 1)
+                        : completeLength - 1;
+                if (last < first && first < completeLength)
+                    return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (first < 0 || first >= completeLength)
+            throw notSatisfiable(completeLength);
+
+        return new ByteRange(first, last, completeLength);
+    }
+
+    public long length() {
+        return last - first + 1;
+    }
+
+    public String contentRange() {
+        return BYTES + ' ' + first + '-' + last + '/' + completeLength;
+    }
+
+    @Override
+    public String toString() {
+        return contentRange();
+    }
+
+    private static WebApplicationException notSatisfiable(long completeLength) {
+        return new WebApplicationException(
+                Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(CONTENT_RANGE, BYTES + " */" + completeLength)
+                        .build());
+    }
+}
@@ -45,9 +45,15 @@ import org.dcm4chee.arc.store.InstanceLocations;
 
 import javax.ws.rs.core.StreamingOutput;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -58,33 +64,59 @@ public class DecompressFramesOutput extends DecompressSupport implements Streami
     private final int[] frameList;
     private final Path[] spoolFiles;
     private final Path spoolDirectory;
+    private final Executor executor;
+    private final int maxParallelism;
+    private final ArrayDeque<CompletableFuture<byte[]>> pendingFrames = new ArrayDeque<>();
+    private ParallelDecompressor parallelDecompressor;
+    private CompletableFuture<byte[]> lastPendingFrame;
     private int frame = 1;
     private int frameListIndex;
+    private int readFrameListIndex;
 
     public DecompressFramesOutput(RetrieveContext ctx, InstanceLocations inst, int[] frameList, Path spoolDirectory) {
+        this(ctx, inst, frameList, spoolDirectory, null, 1);
+    }
+
+    public DecompressFramesOutput(RetrieveContext ctx, InstanceLocations inst, int[] frameList, Path spoolDirectory,
+                                  Executor executor, int maxParallelism) {
         super(ctx, inst);
         this.frameList = frameList;
         this.spoolDirectory = spoolDirectory;
         this.spoolFiles = spoolDirectory != null ? new Path[this.frameList.length] : null;
+        this.executor = executor;
+        this.maxParallelism = maxParallelism;
     }
 
     @Override
     public void write(OutputStream out) throws IOException {
         try {
-            if (frameListIndex == 0)
+            if (frameListIndex == 0) {
                 initEncapsulatedPixelData();
+                if (decompressInParallel())
+                    parallelDecompressor = parallelDecompressor(executor);
+            }
+
+            if (parallelDecompressor != null) {
+                writeParallelDecompressedFrame(out);
+                return;
+            }
 
-            if (encapsulatedPixelData == null) {
+            if (spoolFiles != null && spoolFiles[frameListIndex] != null) {
                 Files.copy(spoolFiles[frameListIndex++], out);
                 return;
             }
             int nextFrame = frameList[frameListIndex++];
+            if (nextFrame < frame) { // same frame requested again
+                writeFrameTo(out);
+                return;
+            }
             while (frame < nextFrame) {
                 skipFrame();
                 frame++;
             }
 
             decompressFrame(frame);
+            spoolFrame();
             writeFrameTo(out);
             frame++;
             if (allFramesRead())
@@ -95,19 +127,96 @@ public class DecompressFramesOutput extends DecompressSupport implements Streami
         }
     }
 
+    @Override
+    public void close() {
+        CompletableFuture<byte[]> pendingFrame;
+        while ((pendingFrame = pendingFrames.poll()) != null)
+            pendingFrame.cancel(false);
+        lastPendingFrame = null;
+        if (parallelDecompressor != null) {
+            parallelDecompressor.close();
+            parallelDecompressor = null;
+        }
+        super.close();
+    }
+
+    private boolean decompressInParallel() {
+        return executor != null && maxParallelism > 1 && spoolDirectory == null && frameList.length > 1;
+    }
+
+    private void writeParallelDecompressedFrame(OutputStream out) throws IOException {
+        while (pendingFrames.size() < maxParallelism && readFrameListIndex < frameList.length)
+            readNextFrame();
+
+        out.write(awaitFrame(pendingFrames.remove()));
+        if (++frameListIndex == frameList.length)
+            close();
+    }
+
+    private void readNextFrame() throws IOException {
+        int nextFrame = frameList[readFrameListIndex++];
+        if (nextFrame < frame) { // same frame requested again
+            pendingFrames.add(lastPendingFrame);
+            return;
+        }
+        while (frame < nextFrame) {
+            if (!encapsulatedPixelData.seekNextFrame())
+                throw new IOException("Number of data fragments not sufficient for number of frames in requested object");
+            frame++;
+        }
+        lastPendingFrame = parallelDecompressor.decompress(frame - 1, readFrame(frame - 1));
+        pendingFrames.add(lastPendingFrame);
+        frame++;
+    }
+
+    private static byte[] awaitFrame(CompletableFuture<byte[]> pendingFrame) throws IOException {
+        try {
+            return pendingFrame.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException)
+                throw ((UncheckedIOException) cause).getCause();
+            throw new IOException(cause);
+        }
+    }
+
     private void skipFrame() throws IOException {
+        if (isRequestedLater()) {
+            decompressFrame(frame);
+            spoolFrame();
+            return;
+        }
+        if (!encapsulatedPixelData.seekNextFrame())
+            throw new IOException("Number of data fragments not sufficient for number of frames in requested object");
+    }
+
+    private boolean isRequestedLater() {
+        if (spoolFiles != null)
+            for (int i = frameListIndex; i < frameList.length; i++)
+                if (frame == frameList[i])
+                    return true;
+        return false;
+    }
+
+    private void spoolFrame() throws IOException {
+        if (spoolFiles == null)
+            return;
+
+        Path spoolFile = null;
         for (int i = frameListIndex; i < frameList.length; i++) {
             if (frame == frameList[i]) {
-                spoolFiles[i] = Files.createTempFile(spoolDirectory, null, null);
-                try (OutputStream out = Files.newOutputStream(spoolFiles[i])) {
-                    decompressFrame(frame);
-                    writeFrameTo(out);
+                if (spoolFile == null) {
+                    spoolFile = Files.createTempFile(spoolDirectory, null, null);
+                    try (OutputStream out = Files.newOutputStream(spoolFile)) {
+                        writeFrameTo(out);
+                    }
                 }
-                return;
+                spoolFiles[i] = spoolFile;
             }
         }
-        if (!encapsulatedPixelData.seekNextFrame())
-            throw new IOException("Number of data fragments not sufficient for number of frames in requested object");
     }
 
     private boolean allFramesRead() {
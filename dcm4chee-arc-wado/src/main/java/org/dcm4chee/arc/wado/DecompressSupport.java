@@ -60,9 +60,11 @@ import javax.imageio.ImageReader;
 import java.awt.*;
 import java.awt.color.ColorSpace;
 import java.awt.image.*;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.Executor;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -77,6 +79,8 @@ class DecompressSupport implements Closeable {
     private ImageReaderFactory.ImageReaderParam decompressorParam;
     private ImageReader decompressor;
     private ImageReadParam decompressParam;
+    private ImageDescriptor imageDescriptor;
+    private TransferSyntaxType tsType;
     private BufferedImage bi;
     private DicomInputStream dis;
     protected EncapsulatedPixelDataImageInputStream encapsulatedPixelData;
@@ -93,9 +97,9 @@ class DecompressSupport implements Closeable {
         if (dis.tag() != Tag.PixelData || dis.length() != -1)
             throw new IOException("No or incorrect encapsulated compressed pixel data in requested object");
 
-        ImageDescriptor imageDescriptor = new ImageDescriptor(attrs);
+        imageDescriptor = new ImageDescriptor(attrs);
         String tsuid = dis.getTransferSyntax();
-        TransferSyntaxType tsType = TransferSyntaxType.forUID(tsuid);
+        tsType = TransferSyntaxType.forUID(tsuid);
         encapsulatedPixelData = new EncapsulatedPixelDataImageInputStream(dis, imageDescriptor, tsType);
         initDecompressor(tsuid, tsType, imageDescriptor);
         if (tsType == TransferSyntaxType.RLE)
@@ -124,6 +128,10 @@ class DecompressSupport implements Closeable {
     }
 
     private void initBufferedImage(ImageDescriptor imageDescriptor) {
+        bi = createBufferedImage(imageDescriptor);
+    }
+
+    static BufferedImage createBufferedImage(ImageDescriptor imageDescriptor) {
         int rows = imageDescriptor.getRows();
         int cols = imageDescriptor.getColumns();
         int samples = imageDescriptor.getSamples();
@@ -151,7 +159,7 @@ class DecompressSupport implements Closeable {
 
         SampleModel sm = new BandedSampleModel(dataType, cols, rows, samples);
         WritableRaster raster = Raster.createWritableRaster(sm, null);
-        bi = new BufferedImage(cm, raster, false, null);
+        return new BufferedImage(cm, raster, false, null);
     }
 
     protected BufferedImage decompressFrame(int frameIndex) throws IOException {
@@ -172,7 +180,30 @@ class DecompressSupport implements Closeable {
         return bi;
     }
 
+    protected byte[] readFrame(int frameIndex) throws IOException {
+        if (encapsulatedPixelData.isEndOfStream())
+            throw new IOException("Number of data fragments not sufficient for number of frames in requested object");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        int read;
+        while ((read = encapsulatedPixelData.read(buf)) > 0)
+            out.write(buf, 0, read);
+        LOG.debug("Read compressed frame #{} - {} bytes", frameIndex + 1, out.size());
+        encapsulatedPixelData.seekNextFrame();
+        return out.toByteArray();
+    }
+
+    protected ParallelDecompressor parallelDecompressor(Executor executor) {
+        return new ParallelDecompressor(decompressorParam, imageDescriptor,
+                tsType == TransferSyntaxType.RLE, executor);
+    }
+
     protected void writeFrameTo(OutputStream out) throws IOException {
+        writeTo(bi, out);
+    }
+
+    static void writeTo(BufferedImage bi, OutputStream out) throws IOException {
         WritableRaster raster = bi.getRaster();
         SampleModel sm = raster.getSampleModel();
         DataBuffer db = raster.getDataBuffer();
@@ -199,7 +230,7 @@ class DecompressSupport implements Closeable {
         return db.getSize() * db.getNumBanks() * (DataBuffer.getDataTypeSize(db.getDataType()) / 8);
     }
 
-    private void writeTo(SampleModel sm, byte[][] bankData, OutputStream out) throws IOException {
+    private static void writeTo(SampleModel sm, byte[][] bankData, OutputStream out) throws IOException {
         int h = sm.getHeight();
         int w = sm.getWidth();
         ComponentSampleModel csm = (ComponentSampleModel) sm;
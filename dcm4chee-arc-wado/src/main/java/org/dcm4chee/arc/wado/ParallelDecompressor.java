@@ -0,0 +1,140 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.dcm4che3.imageio.codec.ImageDescriptor;
+import org.dcm4che3.imageio.codec.ImageReaderFactory;
+import org.dcm4che3.imageio.codec.jpeg.PatchJPEGLSImageInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Decompresses frames, which were already read from the encapsulated Pixel Data, concurrently by the specified
+ * executor. Because {@link ImageReader} instances are not thread-safe, each running decompression task uses its own
+ * decompressor, which is returned to a pool of idle decompressors after completion.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class ParallelDecompressor implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelDecompressor.class);
+
+    private final ImageReaderFactory.ImageReaderParam decompressorParam;
+    private final ImageDescriptor imageDescriptor;
+    private final boolean rle;
+    private final Executor executor;
+    private final ConcurrentLinkedQueue<ImageReader> idleDecompressors = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    ParallelDecompressor(ImageReaderFactory.ImageReaderParam decompressorParam, ImageDescriptor imageDescriptor,
+                         boolean rle, Executor executor) {
+        this.decompressorParam = decompressorParam;
+        this.imageDescriptor = imageDescriptor;
+        this.rle = rle;
+        this.executor = executor;
+    }
+
+    CompletableFuture<byte[]> decompress(int frameIndex, byte[] compressedFrame) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return decompressFrame(frameIndex, compressedFrame);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    byte[] decompressFrame(int frameIndex, byte[] compressedFrame) throws IOException {
+        ImageReader decompressor = idleDecompressors.poll();
+        if (decompressor == null)
+            decompressor = ImageReaderFactory.getImageReader(decompressorParam);
+        try {
+            ImageInputStream iis = new MemoryCacheImageInputStream(new ByteArrayInputStream(compressedFrame));
+            decompressor.setInput(decompressorParam.patchJPEGLS != null
+                    ? new PatchJPEGLSImageInputStream(iis, decompressorParam.patchJPEGLS)
+                    : iis);
+            ImageReadParam decompressParam = decompressor.getDefaultReadParam();
+            if (rle)
+                decompressParam.setDestination(DecompressSupport.createBufferedImage(imageDescriptor));
+            long start = System.currentTimeMillis();
+            BufferedImage bi = decompressor.read(0, decompressParam);
+            long end = System.currentTimeMillis();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(imageDescriptor.getFrameLength());
+            DecompressSupport.writeTo(bi, out);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Decompressed frame #{} 1:{} in {} ms",
+                        frameIndex + 1, (float) out.size() / compressedFrame.length, end - start);
+            return out.toByteArray();
+        } finally {
+            decompressor.setInput(null);
+            idleDecompressors.offer(decompressor);
+            if (closed)
+                disposeIdleDecompressors();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        disposeIdleDecompressors();
+    }
+
+    private void disposeIdleDecompressors() {
+        ImageReader decompressor;
+        while ((decompressor = idleDecompressors.poll()) != null)
+            decompressor.dispose();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.dcm4che3.net.Device;
+import org.dcm4che3.util.StringUtils;
+import org.dcm4che3.util.TagUtils;
+import org.dcm4chee.arc.DiskCache;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.BinaryPrefix;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Content addressed disk cache for rendered images, bounded in size by least recently used eviction.
+ * Concurrent requests for the same rendered image trigger only one rendering.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class RenderedImageCache {
+
+    @Inject
+    private Device device;
+
+    private final DiskCache cache = new DiskCache("rendered image cache",
+            () -> Paths.get(StringUtils.replaceSystemProperties(arcDev().getWadoRenderCacheDirectory())),
+            () -> BinaryPrefix.parse(arcDev().getWadoRenderCacheMaxSize()),
+            name -> !name.endsWith(".tmp"));
+
+    public boolean isEnabled() {
+        return arcDev().getWadoRenderCacheDirectory() != null;
+    }
+
+    public static String keyOf(Object... params) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(Arrays.toString(params).getBytes(StandardCharsets.UTF_8));
+            return TagUtils.toHexString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    public InputStream open(String key, String suffix, StreamingOutput renderer) throws IOException {
+        return cache.open(key.substring(0, 2) + '/' + key + suffix, renderer::write);
+    }
+
+    public DiskCache.Statistics getStatistics() {
+        return cache.getStatistics();
+    }
+
+    private ArchiveDeviceExtension arcDev() {
+        return device.getDeviceExtension(ArchiveDeviceExtension.class);
+    }
+}
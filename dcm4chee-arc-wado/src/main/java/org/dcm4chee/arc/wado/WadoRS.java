@@ -48,11 +48,13 @@ import org.dcm4che3.net.ApplicationEntity;
 import org.dcm4che3.net.Device;
 import org.dcm4che3.util.AttributesFormat;
 import org.dcm4che3.util.SafeClose;
+import org.dcm4che3.util.StreamUtils;
 import org.dcm4che3.util.StringUtils;
 import org.dcm4che3.ws.rs.MediaTypes;
 import org.dcm4chee.arc.conf.ArchiveAEExtension;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
 import org.dcm4chee.arc.conf.AttributeSet;
+import org.dcm4chee.arc.metadata.StudyMetadataCache;
 import org.dcm4chee.arc.qmgt.HttpServletRequestInfo;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
 import org.dcm4chee.arc.retrieve.RetrieveEnd;
@@ -78,7 +80,10 @@ import javax.ws.rs.container.CompletionCallback;
 import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.*;
 import javax.xml.transform.stream.StreamResult;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.file.DirectoryStream;
@@ -88,6 +93,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -120,6 +126,9 @@ public class WadoRS {
     @Inject
     private Device device;
 
+    @Inject
+    private StudyMetadataCache metadataCache;
+
     @Inject @RetrieveStart
     private Event<RetrieveContext> retrieveStart;
 
@@ -143,6 +152,10 @@ public class WadoRS {
     private DecompressFramesOutput decompressFramesOutput;
     private Response.Status responseStatus;
     private java.nio.file.Path spoolDirectory;
+    private EntityTag entityTag;
+    private StudyMetadataCache.Entry metadataCacheEntry;
+    private ByteRange byteRange;
+    private boolean acceptRanges;
 
     @Override
     public String toString() {
@@ -235,9 +248,11 @@ public class WadoRS {
             @Suspended AsyncResponse ar) {
         logRequest();
         checkAET();
-        checkMultipartRelatedAcceptable();
+        Output output = byteRangeAcceptable() ? Output.BULKDATA_RANGE : Output.BULKDATA_PATH;
+        if (output == Output.BULKDATA_PATH)
+            checkMultipartRelatedAcceptable();
         retrieve("retrieveBulkdata", studyUID, seriesUID, objectUID,
-                null, new AttributePath(attributePath).path, null, ar, Output.BULKDATA_PATH);
+                null, new AttributePath(attributePath).path, null, ar, output);
     }
 
     @GET
@@ -344,6 +359,14 @@ public class WadoRS {
         }
     }
 
+    private boolean byteRangeAcceptable() {
+        if (request.getHeader(ByteRange.RANGE) == null)
+            return false;
+
+        initAcceptableMediaTypes();
+        return selectMediaType(acceptableMediaTypes, MediaType.APPLICATION_OCTET_STREAM_TYPE).isPresent();
+    }
+
     private Output dicomOrBulkdataOrZIP() {
         initAcceptableMediaTypes();
         if (acceptableMultipartRelatedMediaTypes.isEmpty() && acceptableZipTransferSyntaxes.isEmpty()) {
@@ -384,6 +407,10 @@ public class WadoRS {
             if (output.isMetadata()) {
                 ctx.setObjectType(null);
                 ctx.setMetadataFilter(getMetadataFilter(includefields));
+                if (output == Output.METADATA_JSON && seriesUID == null && metadataCache.isEnabled()) {
+                    retrieveCachedStudyMetadata(method, includefields, ar, ctx);
+                    return;
+                }
             }
 
             if (request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) == null && request.getHeader(HttpHeaders.IF_UNMODIFIED_SINCE) == null
@@ -406,6 +433,94 @@ public class WadoRS {
         }
     }
 
+    private void retrieveCachedStudyMetadata(String method, String includefields, AsyncResponse ar,
+                                             RetrieveContext ctx) throws IOException {
+        Date lastModified = service.getLastModified(ctx);
+        if (lastModified == null)
+            throw new WebApplicationException(errResponse("Last Modified date is null.", Response.Status.NOT_FOUND));
+
+        String variant = metadataCacheVariant(includefields);
+        StudyMetadataCache.CachedMetadata cached =
+                metadataCache.getCachedMetadata(ctx.getStudyInstanceUID(), variant, lastModified);
+        boolean gzip = cached != null && acceptsGzip();
+        String tag = metadataCache.entityTag(variant, lastModified);
+        entityTag = new EntityTag(gzip ? tag + "-gzip" : tag);
+        Response.ResponseBuilder respBuilder = req.evaluatePreconditions(lastModified, entityTag);
+        if (respBuilder != null) {
+            SafeClose.close(cached);
+            ar.resume(respBuilder.build());
+            return;
+        }
+
+        if (cached == null) {
+            metadataCacheEntry = metadataCache.newEntry(ctx.getStudyInstanceUID(), variant, lastModified);
+            try {
+                buildResponse(method, null, null, ar, Output.METADATA_JSON, ctx, lastModified);
+            } catch (IOException | RuntimeException e) {
+                metadataCacheEntry.discard();
+                throw e;
+            }
+            return;
+        }
+
+        Response response;
+        try {
+            for (Attributes attrs : cached.getAuditData())
+                ctx.getMatches().add(service.newInstanceLocations(attrs));
+            ctx.setNumberOfMatches(ctx.getMatches().size());
+            response = cachedMetadataResponse(cached, gzip).lastModified(lastModified).tag(entityTag).build();
+        } catch (IOException | RuntimeException e) {
+            SafeClose.close(cached);
+            throw e;
+        }
+        LOG.info("{}: return cached metadata of {} Matches from {}", method, ctx.getNumberOfMatches(),
+                cached.getFile());
+        retrieveStart.fire(ctx);
+        ar.register((CompletionCallback) throwable -> {
+            SafeClose.close(cached);
+            ctx.setException(throwable);
+            retrieveEnd.fire(ctx);
+        });
+        ar.resume(response);
+    }
+
+    private String metadataCacheVariant(String includefields) {
+        StringBuffer sb = device.getDeviceExtension(ArchiveDeviceExtension.class).remapRetrieveURL(request);
+        if (includefields != null)
+            sb.append("?includefields=").append(includefields);
+        return sb.toString();
+    }
+
+    private boolean acceptsGzip() {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null
+                && Stream.of(StringUtils.split(acceptEncoding, ','))
+                    .map(s -> StringUtils.split(s, ';'))
+                    .anyMatch(s -> s[0].trim().equalsIgnoreCase("gzip")
+                            && !(s.length > 1 && s[1].replace(" ", "").matches("q=0(\\.0*)?")));
+    }
+
+    private Response.ResponseBuilder cachedMetadataResponse(StudyMetadataCache.CachedMetadata cached, boolean gzip)
+            throws IOException {
+        Response.ResponseBuilder builder = Response.ok()
+                .type(MediaTypes.APPLICATION_DICOM_JSON_TYPE)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip)
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .header(HttpHeaders.CONTENT_LENGTH, cached.size())
+                    .entity((StreamingOutput) out -> {
+                        try (InputStream in = cached.getInputStream()) {
+                            StreamUtils.copy(in, out);
+                        }
+                    });
+
+        return builder.entity((StreamingOutput) out -> {
+            try (InputStream in = new GZIPInputStream(cached.getInputStream())) {
+                StreamUtils.copy(in, out);
+            }
+        });
+    }
+
     private AttributeSet getMetadataFilter(String name) {
         if (name == null)
             return null;
@@ -437,6 +552,8 @@ public class WadoRS {
 
         retrieveStart.fire(ctx);
         ar.register((CompletionCallback) throwable -> {
+                if (metadataCacheEntry != null)
+                    metadataCacheEntry.discard();
                 SafeClose.close(compressedMFPixelDataOutput);
                 SafeClose.close(uncompressedFramesOutput);
                 SafeClose.close(compressedFramesOutput);
@@ -447,9 +564,20 @@ public class WadoRS {
                 retrieveEnd.fire(ctx);
         });
         responseStatus = notAccepted.isEmpty() ? Response.Status.OK : Response.Status.PARTIAL_CONTENT;
+        if (entityTag == null)
+            entityTag = new EntityTag(String.valueOf(lastModified.hashCode()));
         Object entity = output.entity(this, ctx, frameList, attributePath);
-        ar.resume(output.adjustType(Response.status(responseStatus).lastModified(lastModified)
-                .tag(String.valueOf(lastModified.hashCode())).entity(entity)).build());
+        Response.ResponseBuilder builder = Response.status(responseStatus).lastModified(lastModified)
+                .tag(entityTag).entity(entity);
+        if (metadataCacheEntry != null)
+            builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptRanges)
+            builder.header(ByteRange.ACCEPT_RANGES, ByteRange.BYTES);
+        if (byteRange != null)
+            builder.status(Response.Status.PARTIAL_CONTENT)
+                    .header(ByteRange.CONTENT_RANGE, byteRange.contentRange())
+                    .header(HttpHeaders.CONTENT_LENGTH, byteRange.length());
+        ar.resume(output.adjustType(builder).build());
     }
 
     private Response.ResponseBuilder evaluatePreConditions(Date lastModified) {
@@ -521,6 +649,22 @@ public class WadoRS {
                 wadoRS.writeBulkdata(output, ctx, inst, attributePath);
             }
         },
+        BULKDATA_RANGE {
+            @Override
+            public Collection<InstanceLocations> removeNotAcceptedMatches(WadoRS wadoRS, RetrieveContext ctx) {
+                return Collections.EMPTY_LIST;
+            }
+            @Override
+            public Object entity(WadoRS wadoRS, RetrieveContext ctx, int[] frameList, int[] attributePath)
+                    throws IOException {
+                return wadoRS.writeBulkdataRange(ctx, attributePath);
+            }
+            @Override
+            public Response.ResponseBuilder adjustType(Response.ResponseBuilder builder) {
+                builder.type(MediaType.APPLICATION_OCTET_STREAM_TYPE);
+                return builder;
+            }
+        },
         RENDER {
             @Override
             protected void addPart(MultipartRelatedOutput output, WadoRS wadoRS, RetrieveContext ctx,
@@ -753,7 +897,9 @@ public class WadoRS {
                                          int[] frameList, StringBuffer bulkdataURL) throws IOException {
         bulkdataURL.append("/frames/");
         int length = bulkdataURL.length();
-        decompressFramesOutput = new DecompressFramesOutput(ctx, inst, frameList, spoolDirectory(frameList));
+        decompressFramesOutput = new DecompressFramesOutput(ctx, inst, frameList, spoolDirectory(frameList),
+                device.getExecutor(),
+                device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class).getWadoDecompressParallelism());
         for (int frame : frameList) {
             OutputPart outputPart = output.addPart(decompressFramesOutput, MediaType.APPLICATION_OCTET_STREAM_TYPE);
             bulkdataURL.setLength(length);
@@ -783,6 +929,27 @@ public class WadoRS {
         outputPart.getHeaders().putSingle("Content-Location", request.getRequestURL());
     }
 
+    private StreamingOutput writeBulkdataRange(RetrieveContext ctx, int[] attributePath) throws IOException {
+        InstanceLocations inst = ctx.getMatches().iterator().next();
+        DicomInputStream dis = BulkdataOutput.openByteRangeable(ctx, inst, attributePath);
+        if (dis == null)
+            return new BulkdataOutput(ctx, inst, attributePath);
+
+        acceptRanges = true;
+        try {
+            int length = dis.length();
+            String ifRange = request.getHeader(ByteRange.IF_RANGE);
+            if (ifRange == null || ifRange.equals(entityTag.toString()))
+                byteRange = ByteRange.valueOf(request.getHeader(ByteRange.RANGE), length);
+            return byteRange != null
+                    ? new ByteRangeOutput(dis, byteRange)
+                    : new ByteRangeOutput(dis, 0, length);
+        } catch (IOException | RuntimeException e) {
+            SafeClose.close(dis);
+            throw e;
+        }
+    }
+
     private void writeDICOM(MultipartRelatedOutput output, RetrieveContext ctx, InstanceLocations inst)  {
         DicomObjectOutput entity = new DicomObjectOutput(ctx, inst, acceptableTransferSyntaxes);
         output.addPart(entity, MediaTypes.APPLICATION_DICOM_TYPE);
@@ -847,15 +1014,21 @@ public class WadoRS {
 
     private Object writeMetadataJSON(final RetrieveContext ctx) {
         final Collection<InstanceLocations> insts = ctx.getMatches();
+        final StudyMetadataCache.Entry cacheEntry = metadataCacheEntry;
         return (StreamingOutput) out -> {
                 try {
-                    JsonGenerator gen = Json.createGenerator(out);
+                    JsonGenerator gen = Json.createGenerator(
+                            cacheEntry != null ? new TeeOutputStream(out, cacheEntry.getOutputStream()) : out);
                     JSONWriter writer = new JSONWriter(gen);
                     gen.writeStartArray();
                     for (InstanceLocations inst : insts)
                         writer.write(loadMetadata(ctx, inst));
                     gen.writeEnd();
                     gen.flush();
+                    if (cacheEntry != null) {
+                        metadataCacheEntry = null;
+                        cacheEntry.commit(insts.stream().map(InstanceLocations::getAttributes).collect(Collectors.toList()));
+                    }
                 } catch (Exception e) {
                     throw new WebApplicationException(errResponseAsTextPlain(e));
                 }
@@ -969,6 +1142,32 @@ public class WadoRS {
 
     }
 
+    private static final class TeeOutputStream extends FilterOutputStream {
+        private final OutputStream branch;
+
+        TeeOutputStream(OutputStream out, OutputStream branch) {
+            super(out);
+            this.branch = branch;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            branch.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            branch.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+
     private static Response errResponse(String errorMessage, Response.Status status) {
         return Response.status(status).entity("{\"errorMessage\":\"" + errorMessage + "\"}").build();
     }
@@ -46,6 +46,8 @@ import org.dcm4che3.io.DicomInputStream;
 import org.dcm4che3.io.TemplatesCache;
 import org.dcm4che3.net.ApplicationEntity;
 import org.dcm4che3.net.Device;
+import org.dcm4che3.util.SafeClose;
+import org.dcm4che3.util.StreamUtils;
 import org.dcm4che3.util.StringUtils;
 import org.dcm4che3.ws.rs.MediaTypes;
 import org.dcm4chee.arc.conf.ArchiveAEExtension;
@@ -74,6 +76,7 @@ import javax.ws.rs.core.*;
 import javax.xml.transform.Templates;
 import java.awt.*;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.*;
@@ -109,6 +112,9 @@ public class WadoURI {
     @Inject
     private Device device;
 
+    @Inject
+    private RenderedImageCache renderedImageCache;
+
     @Inject @RetrieveWADO
     private Event<RetrieveContext> retrieveWado;
 
@@ -240,19 +246,69 @@ public class WadoURI {
         if (mimeType == null)
             throw new WebApplicationException(errResponse("Mime type is null.", Response.Status.NOT_ACCEPTABLE));
 
-        StreamingOutput entity;
+        Response.ResponseBuilder builder;
+        int bulkdataTag;
         if (mimeType.isCompatible(MediaTypes.APPLICATION_DICOM_TYPE)) {
-            mimeType = MediaTypes.APPLICATION_DICOM_TYPE;
-            entity = new DicomObjectOutput(ctx, inst, tsuids());
+            builder = Response.ok(new DicomObjectOutput(ctx, inst, tsuids()), MediaTypes.APPLICATION_DICOM_TYPE);
+        } else if ((bulkdataTag = byteRangeSupportingBulkdataTag(objectType)) != 0) {
+            builder = request.getHeader(ByteRange.RANGE) != null
+                    ? byteRangeResponse(ctx, inst, bulkdataTag, mimeType, lastModified)
+                    : Response.ok(new BulkdataOutput(ctx, inst, bulkdataTag), mimeType)
+                        .header(ByteRange.ACCEPT_RANGES, ByteRange.BYTES);
         } else {
-            entity = entityOf(ctx, inst, objectType, mimeType);
+            builder = Response.ok(entityOf(ctx, inst, objectType, mimeType, lastModified), mimeType);
         }
         ar.register((CompletionCallback) throwable -> {
             ctx.getRetrieveService().updateLocations(ctx);
             ctx.setException(throwable);
                 retrieveWado.fire(ctx);
         });
-        ar.resume(Response.ok(entity, mimeType).lastModified(lastModified).tag(String.valueOf(lastModified.hashCode())).build());
+        ar.resume(builder.lastModified(lastModified).tag(String.valueOf(lastModified.hashCode())).build());
+    }
+
+    private static int byteRangeSupportingBulkdataTag(ObjectType objectType) {
+        switch (objectType) {
+            case MPEG2Video:
+            case MPEG4Video:
+                return Tag.PixelData;
+            case EncapsulatedPDF:
+                return Tag.EncapsulatedDocument;
+        }
+        return 0;
+    }
+
+    /**
+     * Only used for requests with a Range header, because checking if the value can be accessed by byte ranges may
+     * open the object a second time to count its fragments.
+     */
+    private Response.ResponseBuilder byteRangeResponse(RetrieveContext ctx, InstanceLocations inst, int bulkdataTag,
+                                                       MediaType mimeType, Date lastModified) throws IOException {
+        DicomInputStream dis = BulkdataOutput.openByteRangeable(ctx, inst, bulkdataTag);
+        if (dis == null)
+            return Response.ok(new BulkdataOutput(ctx, inst, bulkdataTag), mimeType);
+
+        try {
+            int length = dis.length();
+            ByteRange range = matchesIfRange(lastModified)
+                    ? ByteRange.valueOf(request.getHeader(ByteRange.RANGE), length)
+                    : null;
+            Response.ResponseBuilder builder = range == null
+                    ? Response.ok(new StreamCopyOutput(dis, length), mimeType)
+                    : Response.status(Response.Status.PARTIAL_CONTENT)
+                        .entity(new ByteRangeOutput(dis, range))
+                        .type(mimeType)
+                        .header(ByteRange.CONTENT_RANGE, range.contentRange())
+                        .header(HttpHeaders.CONTENT_LENGTH, range.length());
+            return builder.header(ByteRange.ACCEPT_RANGES, ByteRange.BYTES);
+        } catch (IOException | RuntimeException e) {
+            SafeClose.close(dis);
+            throw e;
+        }
+    }
+
+    private boolean matchesIfRange(Date lastModified) {
+        String ifRange = request.getHeader(ByteRange.IF_RANGE);
+        return ifRange == null || ifRange.equals(new EntityTag(String.valueOf(lastModified.hashCode())).toString());
     }
 
     private Response.ResponseBuilder evaluatePreConditions(Date lastModified) {
@@ -268,7 +324,7 @@ public class WadoURI {
     }
 
     private StreamingOutput entityOf(RetrieveContext ctx, InstanceLocations inst, ObjectType objectType,
-                            MediaType mimeType)
+                            MediaType mimeType, Date lastModified)
             throws IOException {
         int imageIndex = -1;
         switch (objectType) {
@@ -277,23 +333,37 @@ public class WadoURI {
                 imageIndex = frameNumber(inst.getAttributes()) - 1;
             case CompressedMultiFrameImage:
             case UncompressedMultiFrameImage:
-                return renderImage(ctx, inst, mimeType, imageIndex);
+                return renderImage(ctx, inst, mimeType, imageIndex, lastModified);
             case EncapsulatedCDA:
                 return decapsulateCDA(service.openDicomInputStream(ctx, inst),
                         ctx.getArchiveAEExtension().wadoCDA2HtmlTemplateURI());
-            case EncapsulatedPDF:
-                return decapsulateDocument(service.openDicomInputStream(ctx, inst));
-            case MPEG2Video:
-            case MPEG4Video:
-                return decapsulateVideo(service.openDicomInputStream(ctx, inst));
             case SRDocument:
                 return renderSRDocument(ctx, inst, mimeType);
         }
         throw new AssertionError("objectType: " + objectType);
     }
 
-    private RenderedImageOutput renderImage(RetrieveContext ctx, InstanceLocations inst,
-                                            MediaType mimeType, int imageIndex) throws IOException {
+    private StreamingOutput renderImage(RetrieveContext ctx, InstanceLocations inst,
+                                       MediaType mimeType, int imageIndex, Date lastModified) throws IOException {
+        if (!renderedImageCache.isEnabled())
+            return newRenderedImageOutput(ctx, inst, mimeType, imageIndex);
+
+        String key = RenderedImageCache.keyOf(inst.getSopInstanceUID(), imageIndex, rows, columns, region,
+                windowCenter, windowWidth, presentationUID, presentationSeriesUID, imageQuality, mimeType,
+                lastModified.getTime());
+        InputStream in = renderedImageCache.open(key, '.' + mimeType.getSubtype(),
+                out -> newRenderedImageOutput(ctx, inst, mimeType, imageIndex).write(out));
+        return out -> {
+            try {
+                StreamUtils.copy(in, out);
+            } finally {
+                SafeClose.close(in);
+            }
+        };
+    }
+
+    private RenderedImageOutput newRenderedImageOutput(RetrieveContext ctx, InstanceLocations inst,
+                                                       MediaType mimeType, int imageIndex) throws IOException {
         Attributes attrs = inst.getAttributes();
         DicomImageReadParam readParam = new DicomImageReadParam();
         if (windowCenter != null && windowWidth != null) {
@@ -361,16 +431,6 @@ public class WadoURI {
         }
     }
 
-    private StreamingOutput decapsulateVideo(DicomInputStream dis) throws IOException {
-        dis.readDataset(-1, Tag.PixelData);
-        if (dis.tag() != Tag.PixelData || dis.length() != -1
-                || !dis.readItemHeader() || dis.length() != 0
-                || !dis.readItemHeader())
-            throw new IOException("No or incorrect encapsulated video stream in requested object");
-
-        return new StreamCopyOutput(dis, dis.length());
-    }
-
     private StreamingOutput decapsulateCDA(DicomInputStream dis, String templateURI) throws IOException {
         seekEncapsulatedDocument(dis);
         return templateURI != null
@@ -378,11 +438,6 @@ public class WadoURI {
                 : new StreamCopyOutput(dis, dis.length());
     }
 
-    private StreamingOutput decapsulateDocument(DicomInputStream dis) throws IOException {
-        seekEncapsulatedDocument(dis);
-        return new StreamCopyOutput(dis, dis.length());
-    }
-
     private void seekEncapsulatedDocument(DicomInputStream dis) throws IOException {
         dis.readDataset(-1, Tag.EncapsulatedDocument);
         if (dis.tag() != Tag.EncapsulatedDocument)
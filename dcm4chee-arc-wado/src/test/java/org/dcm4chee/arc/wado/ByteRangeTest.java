@@ -0,0 +1,184 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.dcm4che3.data.*;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.util.ByteUtils;
+import org.junit.Test;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ByteRangeTest {
+
+    private static final int VIDEO_LENGTH = 1000;
+
+    @Test
+    public void testValueOf() throws Exception {
+        assertRange(0, 99, ByteRange.valueOf("bytes=0-99", VIDEO_LENGTH));
+        assertRange(400, 599, ByteRange.valueOf("bytes=400-599", VIDEO_LENGTH));
+        assertRange(900, 999, ByteRange.valueOf("bytes=900-", VIDEO_LENGTH));
+        assertRange(900, 999, ByteRange.valueOf("bytes=-100", VIDEO_LENGTH));
+        assertRange(950, 999, ByteRange.valueOf("bytes=950-2000", VIDEO_LENGTH));
+        assertRange(0, 999, ByteRange.valueOf("bytes=-2000", VIDEO_LENGTH));
+        assertEquals("bytes 400-599/1000", ByteRange.valueOf("bytes=400-599", VIDEO_LENGTH).contentRange());
+    }
+
+    @Test
+    public void testValueOfIgnored() throws Exception {
+        assertNull(ByteRange.valueOf(null, VIDEO_LENGTH));
+        assertNull(ByteRange.valueOf("items=0-99", VIDEO_LENGTH));
+        assertNull(ByteRange.valueOf("bytes=0-99,200-299", VIDEO_LENGTH));
+        assertNull(ByteRange.valueOf("bytes=99-0", VIDEO_LENGTH));
+        assertNull(ByteRange.valueOf("bytes=a-b", VIDEO_LENGTH));
+    }
+
+    @Test
+    public void testValueOfNotSatisfiable() throws Exception {
+        try {
+            ByteRange.valueOf("bytes=1000-", VIDEO_LENGTH);
+            fail("WebApplicationException expected");
+        } catch (WebApplicationException e) {
+            assertEquals(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode(),
+                    e.getResponse().getStatus());
+            assertEquals("bytes */1000", e.getResponse().getHeaderString(ByteRange.CONTENT_RANGE));
+        }
+    }
+
+    @Test
+    public void testBeginOfEncapsulatedVideo() throws Exception {
+        assertVideoRange("bytes=0-99");
+    }
+
+    @Test
+    public void testMiddleOfEncapsulatedVideo() throws Exception {
+        assertVideoRange("bytes=400-599");
+    }
+
+    @Test
+    public void testEndOfEncapsulatedVideo() throws Exception {
+        assertVideoRange("bytes=900-");
+        assertVideoRange("bytes=-100");
+    }
+
+    @Test
+    public void testMultiFragmentNotByteRangeable() throws Exception {
+        byte[] video = video();
+        byte[] obj = encapsulate(Arrays.copyOf(video, 600), Arrays.copyOfRange(video, 600, VIDEO_LENGTH));
+        try (DicomInputStream dis = open(obj)) {
+            assertFalse(BulkdataOutput.isSingleFragment(dis, Tag.PixelData));
+        }
+    }
+
+    @Test
+    public void testCopyAllFragments() throws Exception {
+        byte[] video = video();
+        byte[] obj = encapsulate(Arrays.copyOf(video, 600), Arrays.copyOfRange(video, 600, VIDEO_LENGTH));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DicomInputStream dis = open(obj)) {
+            BulkdataOutput.copyBulkdata(dis, out, Tag.PixelData);
+        }
+        assertArrayEquals(video, out.toByteArray());
+    }
+
+    private static void assertRange(long first, long last, ByteRange range) {
+        assertNotNull(range);
+        assertEquals(first, range.first);
+        assertEquals(last, range.last);
+        assertEquals(last - first + 1, range.length());
+    }
+
+    private static void assertVideoRange(String rangeHeader) throws IOException {
+        byte[] video = video();
+        byte[] obj = encapsulate(video);
+        try (DicomInputStream dis = open(obj)) {
+            assertTrue(BulkdataOutput.isSingleFragment(dis, Tag.PixelData));
+        }
+        try (DicomInputStream dis = open(obj)) {
+            assertEquals(-1, BulkdataOutput.seekBulkdata(dis, Tag.PixelData));
+            assertTrue(dis.readItemHeader());
+            int length = dis.length();
+            assertEquals(VIDEO_LENGTH, length);
+            ByteRange range = ByteRange.valueOf(rangeHeader, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new ByteRangeOutput(dis, range).write(out);
+            assertArrayEquals(Arrays.copyOfRange(video, (int) range.first, (int) range.last + 1), out.toByteArray());
+        }
+    }
+
+    private static byte[] video() {
+        byte[] video = new byte[VIDEO_LENGTH];
+        for (int i = 0; i < video.length; i++)
+            video[i] = (byte) (i * 31 + (i >> 8));
+        return video;
+    }
+
+    private static DicomInputStream open(byte[] obj) throws IOException {
+        return new DicomInputStream(new ByteArrayInputStream(obj), UID.ExplicitVRLittleEndian);
+    }
+
+    private static byte[] encapsulate(byte[]... fragments) throws IOException {
+        Attributes attrs = new Attributes();
+        attrs.setString(Tag.SOPClassUID, VR.UI, UID.VideoPhotographicImageStorage);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, "1.2.3.4");
+        Fragments frags = attrs.newFragments(Tag.PixelData, VR.OB, fragments.length + 1);
+        frags.add(ByteUtils.EMPTY_BYTES);
+        for (byte[] fragment : fragments)
+            frags.add(fragment);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DicomOutputStream dos = new DicomOutputStream(out, UID.ExplicitVRLittleEndian)) {
+            dos.writeDataset(null, attrs);
+        }
+        return out.toByteArray();
+    }
+}
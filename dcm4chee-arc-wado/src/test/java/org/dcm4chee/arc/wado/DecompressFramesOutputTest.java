@@ -0,0 +1,213 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Fragments;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.imageio.codec.ImageReaderFactory;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4chee.arc.retrieve.RetrieveContext;
+import org.dcm4chee.arc.retrieve.RetrieveService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.dcm4chee.arc.test.Stubs.proxy;
+import static org.dcm4chee.arc.wado.ParallelDecompressorTest.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeNotNull;
+
+/**
+ * Writes frames of a synthetic RLE compressed multi-frame image as parts of a multipart response, as invoked by
+ * {@link WadoRS}, and checks that each part contains the decompressed frame requested at its position, on
+ * sequential and on parallel decompression.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class DecompressFramesOutputTest {
+
+    private static final int NUMBER_OF_FRAMES = 10;
+    private static final int CORRUPT_FRAME = 4;
+    private static final int PARALLELISM = 3;
+
+    @Rule
+    public final TemporaryFolder spoolRoot = new TemporaryFolder();
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        assumeNotNull(ImageReaderFactory.getImageReaderParam(UID.RLELossless));
+        executor = Executors.newFixedThreadPool(PARALLELISM);
+    }
+
+    @After
+    public void tearDown() {
+        if (executor != null)
+            executor.shutdown();
+    }
+
+    @Test
+    public void testFrameOrder() throws Exception {
+        assertFrames(sequential(2, 3, 7, 10), 2, 3, 7, 10);
+    }
+
+    @Test
+    public void testFrameOrderParallel() throws Exception {
+        assertFrames(parallel(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        assertFrames(parallel(2, 5, 6, 9), 2, 5, 6, 9);
+    }
+
+    @Test
+    public void testRepeatedFrames() throws Exception {
+        assertFrames(sequential(3, 3, 6, 6), 3, 3, 6, 6);
+    }
+
+    @Test
+    public void testRepeatedFramesParallel() throws Exception {
+        assertFrames(parallel(3, 3, 6, 6), 3, 3, 6, 6);
+    }
+
+    @Test
+    public void testUnsortedFrames() throws Exception {
+        assertFrames(spooled(5, 2, 7, 2, 5), 5, 2, 7, 2, 5);
+        assertFrames(spooled(9, 3, 1, 10, 1), 9, 3, 1, 10, 1);
+    }
+
+    @Test
+    public void testCorruptFrame() throws Exception {
+        assertCorruptFrame(sequential(1, CORRUPT_FRAME, 6));
+    }
+
+    @Test
+    public void testCorruptFrameParallel() throws Exception {
+        assertCorruptFrame(parallel(1, CORRUPT_FRAME, 6));
+    }
+
+    private DecompressFramesOutput sequential(int... frameList) throws IOException {
+        return new DecompressFramesOutput(retrieveContext(), null, frameList, null);
+    }
+
+    private DecompressFramesOutput parallel(int... frameList) throws IOException {
+        return new DecompressFramesOutput(retrieveContext(), null, frameList, null, executor, PARALLELISM);
+    }
+
+    private DecompressFramesOutput spooled(int... frameList) throws IOException {
+        Path spoolDirectory = spoolRoot.newFolder().toPath();
+        return new DecompressFramesOutput(retrieveContext(), null, frameList, spoolDirectory);
+    }
+
+    private static void assertFrames(DecompressFramesOutput output, int... frameList) throws IOException {
+        try {
+            for (int frame : frameList) {
+                ByteArrayOutputStream part = new ByteArrayOutputStream();
+                output.write(part);
+                assertArrayEquals("frame #" + frame, pixelData(frame - 1), part.toByteArray());
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    private static void assertCorruptFrame(DecompressFramesOutput output) throws IOException {
+        try {
+            ByteArrayOutputStream part = new ByteArrayOutputStream();
+            output.write(part);
+            assertArrayEquals(pixelData(0), part.toByteArray());
+            try {
+                output.write(new ByteArrayOutputStream());
+                fail("IOException expected for corrupt frame #" + CORRUPT_FRAME);
+            } catch (IOException expected) {
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    private static RetrieveContext retrieveContext() throws IOException {
+        byte[] dicom = rleCompressedImage();
+        RetrieveService retrieveService = proxy(RetrieveService.class, (method, args) -> {
+            if (method.getName().equals("openDicomInputStream"))
+                return new DicomInputStream(new ByteArrayInputStream(dicom));
+            throw new UnsupportedOperationException(method.getName());
+        });
+        return proxy(RetrieveContext.class, (method, args) -> {
+            if (method.getName().equals("getRetrieveService"))
+                return retrieveService;
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static byte[] rleCompressedImage() throws IOException {
+        Attributes attrs = imageAttributes();
+        attrs.setString(Tag.SOPClassUID, VR.UI, UID.MultiFrameGrayscaleByteSecondaryCaptureImageStorage);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, "1.2.3.4");
+        attrs.setInt(Tag.NumberOfFrames, VR.IS, NUMBER_OF_FRAMES);
+        Fragments fragments = attrs.newFragments(Tag.PixelData, VR.OB, NUMBER_OF_FRAMES + 1);
+        fragments.add(new byte[0]);
+        for (int frame = 1; frame <= NUMBER_OF_FRAMES; frame++) {
+            byte[] rle = rleEncode(pixelData(frame - 1));
+            if (frame == CORRUPT_FRAME)
+                rle[0] = 3; // number of RLE segments does not match Samples per Pixel and Bits Allocated
+            fragments.add(rle);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DicomOutputStream dos = new DicomOutputStream(out, UID.ExplicitVRLittleEndian)) {
+            dos.writeDataset(attrs.createFileMetaInformation(UID.RLELossless), attrs);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.dcm4che3.data.UID;
+import org.dcm4che3.imageio.codec.ImageDescriptor;
+import org.dcm4che3.imageio.codec.ImageReaderFactory;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.dcm4chee.arc.wado.ParallelDecompressorTest.*;
+import static org.junit.Assume.assumeNotNull;
+
+/**
+ * Compares the throughput of parallel with sequential decompression of a synthetic RLE compressed multi-frame image.
+ * Not matched by the default includes of the surefire plugin; run explicitly by
+ * {@code mvn test -Dtest=ParallelDecompressorBenchmark}.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ParallelDecompressorBenchmark {
+
+    private static final int PARALLELISM = 4;
+
+    @Test
+    public void benchmark() throws Exception {
+        ImageReaderFactory.ImageReaderParam decompressorParam =
+                ImageReaderFactory.getImageReaderParam(UID.RLELossless);
+        assumeNotNull(decompressorParam);
+        byte[][] compressedFrames = new byte[FRAMES][];
+        for (int i = 0; i < FRAMES; i++)
+            compressedFrames[i] = rleEncode(pixelData(i));
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM);
+        try (ParallelDecompressor decompressor = new ParallelDecompressor(
+                decompressorParam, new ImageDescriptor(imageAttributes()), true, executor)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < FRAMES; i++)
+                decompressor.decompressFrame(i, compressedFrames[i]);
+            long sequential = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+            for (int i = 0; i < FRAMES; i++) {
+                if (pending.size() == PARALLELISM)
+                    pending.remove().get();
+                pending.add(decompressor.decompress(i, compressedFrames[i]));
+            }
+            while (!pending.isEmpty())
+                pending.remove().get();
+            long parallel = System.nanoTime() - start;
+
+            System.out.printf("Decompressed %d frames %dx%d sequentially in %d ms, with parallelism %d in %d ms%n",
+                    FRAMES, COLUMNS, ROWS, sequential / 1000000, PARALLELISM, parallel / 1000000);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
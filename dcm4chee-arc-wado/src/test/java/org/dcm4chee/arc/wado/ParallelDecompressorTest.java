@@ -0,0 +1,148 @@
+/*
+ * ** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * ** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.imageio.codec.ImageDescriptor;
+import org.dcm4che3.imageio.codec.ImageReaderFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assume.assumeNotNull;
+
+/**
+ * Verifies that parallel decompression of a synthetic RLE compressed multi-frame image returns the decompressed
+ * frames in request order.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ParallelDecompressorTest {
+
+    static final int ROWS = 512;
+    static final int COLUMNS = 512;
+    static final int FRAMES = 200;
+    private static final int PARALLELISM = 4;
+
+    private ImageReaderFactory.ImageReaderParam decompressorParam;
+    private ImageDescriptor imageDescriptor;
+    private byte[][] compressedFrames;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        decompressorParam = ImageReaderFactory.getImageReaderParam(UID.RLELossless);
+        assumeNotNull(decompressorParam);
+        imageDescriptor = new ImageDescriptor(imageAttributes());
+        compressedFrames = new byte[FRAMES][];
+        for (int i = 0; i < FRAMES; i++)
+            compressedFrames[i] = rleEncode(pixelData(i));
+        executor = Executors.newFixedThreadPool(PARALLELISM);
+    }
+
+    @After
+    public void tearDown() {
+        if (executor != null)
+            executor.shutdown();
+    }
+
+    @Test
+    public void testDecompressInRequestOrder() throws Exception {
+        try (ParallelDecompressor decompressor =
+                     new ParallelDecompressor(decompressorParam, imageDescriptor, true, executor)) {
+            ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+            for (int i = 0; i < FRAMES; i++) {
+                if (pending.size() == PARALLELISM)
+                    assertArrayEquals(pixelData(i - PARALLELISM), pending.remove().get());
+                pending.add(decompressor.decompress(i, compressedFrames[i]));
+            }
+            for (int i = FRAMES - pending.size(); i < FRAMES; i++)
+                assertArrayEquals(pixelData(i), pending.remove().get());
+        }
+    }
+
+    static Attributes imageAttributes() {
+        Attributes attrs = new Attributes();
+        attrs.setInt(Tag.SamplesPerPixel, VR.US, 1);
+        attrs.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2");
+        attrs.setInt(Tag.NumberOfFrames, VR.IS, FRAMES);
+        attrs.setInt(Tag.Rows, VR.US, ROWS);
+        attrs.setInt(Tag.Columns, VR.US, COLUMNS);
+        attrs.setInt(Tag.BitsAllocated, VR.US, 8);
+        attrs.setInt(Tag.BitsStored, VR.US, 8);
+        attrs.setInt(Tag.HighBit, VR.US, 7);
+        attrs.setInt(Tag.PixelRepresentation, VR.US, 0);
+        return attrs;
+    }
+
+    static byte[] pixelData(int frameIndex) {
+        byte[] b = new byte[ROWS * COLUMNS];
+        for (int y = 0, i = 0; y < ROWS; y++)
+            for (int x = 0; x < COLUMNS; x++)
+                b[i++] = (byte) (x * y + frameIndex);
+        return b;
+    }
+
+    static byte[] rleEncode(byte[] pixelData) {
+        int literalRuns = (pixelData.length + 127) / 128;
+        int segmentLength = pixelData.length + literalRuns;
+        byte[] rle = new byte[64 + segmentLength + (segmentLength & 1)];
+        rle[0] = 1; // number of segments
+        rle[4] = 64; // offset of first segment
+        for (int off = 0, i = 64; off < pixelData.length; off += 128) {
+            int len = Math.min(128, pixelData.length - off);
+            rle[i++] = (byte) (len - 1);
+            System.arraycopy(pixelData, off, rle, i, len);
+            i += len;
+        }
+        return rle;
+    }
+}